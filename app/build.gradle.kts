@@ -42,6 +42,13 @@ android {
     // ✅ Enable ViewBinding (recommended for your UI-heavy app)
     buildFeatures {
         viewBinding = true
+        // ✅ BuildConfig.DEBUG gates debug logging (see AppLog)
+        buildConfig = true
+    }
+
+    // ✅ android.util.Log and friends return defaults in JVM unit tests instead of throwing
+    testOptions {
+        unitTests.isReturnDefaultValues = true
     }
 }
 
@@ -18,4 +18,10 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+# Debug/verbose logging is already gated by AppLog / BuildConfig.DEBUG; when minification is
+# enabled, also strip any direct android.util.Log debug calls left in release code.
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
@@ -34,13 +34,17 @@ import com.example.outpick.common.BaseDrawerActivity;
 import com.example.outpick.common.PreviewImageActivity;
 import com.example.outpick.common.adapters.ClosetAdapter;
 import com.example.outpick.database.models.ClosetItem;
+import com.example.outpick.database.local.StaleWhileRevalidate;
+import com.example.outpick.database.repositories.ClosetRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
+import com.example.outpick.database.supabase.SupabaseJson;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.outfits.CreateOutfitActivity;
 import com.example.outpick.outfits.OutfitSuggestionActivity;
 import com.example.outpick.outfits.TryOnActivity;
+import com.example.outpick.utils.GridWarmup;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 import java.io.File;
@@ -51,9 +55,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 public class MainActivity extends BaseDrawerActivity {
 
@@ -65,6 +66,8 @@ public class MainActivity extends BaseDrawerActivity {
     private Uri photoUri;
     private ClosetAdapter adapter;
     private SupabaseService supabaseService;
+    private ClosetRepository closetRepository;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -73,6 +76,7 @@ public class MainActivity extends BaseDrawerActivity {
 
         // Initialize Supabase
         supabaseService = SupabaseClient.getService();
+        closetRepository = new ClosetRepository(supabaseService);
 
         // Load user data
         SharedPreferences sharedPref = getSharedPreferences("UserPrefs", MODE_PRIVATE);
@@ -206,6 +210,15 @@ public class MainActivity extends BaseDrawerActivity {
     private void setupClosetRecyclerView() {
         RecyclerView recyclerView = findViewById(R.id.recyclerClosets);
 
+        // ✅ Created once: returning to this screen reuses the cards' views instead of inflating new ones
+        if (adapter == null) {
+            adapter = new ClosetAdapter(this, staticClosetCards());
+            recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
+            recyclerView.setAdapter(adapter);
+            // Closet cards inflate in idle time while the closets load
+            GridWarmup.prepare(recyclerView, taskScope, ClosetAdapter.TYPE_DEFAULT);
+        }
+
         if (currentUserId.isEmpty()) {
             Log.w("MainActivity", "❌ No user ID - showing empty state");
             showEmptyClosetState(recyclerView);
@@ -219,28 +232,24 @@ public class MainActivity extends BaseDrawerActivity {
     private void loadClosetsFromSupabase(RecyclerView recyclerView) {
         Log.d("MainActivity", "🔄 Loading closets for user: " + currentUserId);
 
-        Call<List<JsonObject>> call = supabaseService.getClosets();
-        call.enqueue(new Callback<List<JsonObject>>() {
+        // ✅ Mirrored closets render straight from disk; Supabase revalidates in the background
+        closetRepository.loadClosetsForUser(taskScope, currentUserId, new StaleWhileRevalidate.Callback<List<JsonObject>>() {
             @Override
-            public void onResponse(@NonNull Call<List<JsonObject>> call, @NonNull Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d("MainActivity", "📦 Total closets from Supabase: " + response.body().size());
+            public void onData(List<JsonObject> rows, boolean fromCache) {
+                if (isFinishing() || isDestroyed()) return;
+                Log.d("MainActivity", "📦 Closets " + (fromCache ? "from local mirror: " : "from Supabase: ") + rows.size());
 
-                    List<ClosetItem> userClosets = parseClosetsFromJson(response.body());
-                    Log.d("MainActivity", "👤 User's closets after filtering: " + userClosets.size());
+                List<ClosetItem> userClosets = parseClosetsFromJson(rows);
+                Log.d("MainActivity", "👤 User's closets after filtering: " + userClosets.size());
 
-                    setupClosetAdapter(recyclerView, userClosets);
-                } else {
-                    Log.e("MainActivity", "❌ Failed to load closets: " + response.code());
-                    Toast.makeText(MainActivity.this, "Failed to load closets", Toast.LENGTH_SHORT).show();
-                    showEmptyClosetState(recyclerView);
-                }
+                setupClosetAdapter(recyclerView, userClosets);
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<JsonObject>> call, @NonNull Throwable t) {
-                Log.e("MainActivity", "❌ Network error: " + t.getMessage());
-                Toast.makeText(MainActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+            public void onError() {
+                if (isFinishing() || isDestroyed()) return;
+                Log.e("MainActivity", "❌ Failed to load closets");
+                Toast.makeText(MainActivity.this, "Failed to load closets", Toast.LENGTH_SHORT).show();
                 showEmptyClosetState(recyclerView);
             }
         });
@@ -248,7 +257,6 @@ public class MainActivity extends BaseDrawerActivity {
 
     private List<ClosetItem> parseClosetsFromJson(List<JsonObject> jsonObjects) {
         List<ClosetItem> closets = new ArrayList<>();
-        Gson gson = new Gson();
 
         for (JsonObject jsonObject : jsonObjects) {
             try {
@@ -259,7 +267,7 @@ public class MainActivity extends BaseDrawerActivity {
                 }
 
                 if (currentUserId.equals(userId)) {
-                    ClosetItem closet = gson.fromJson(jsonObject, ClosetItem.class);
+                    ClosetItem closet = SupabaseJson.fromRow(jsonObject, ClosetItem.class);
 
                     // ✅ DEBUG: Enhanced logging
                     Log.d("MainActivity", "✅ Found user closet: " + closet.getName() +
@@ -291,51 +299,40 @@ public class MainActivity extends BaseDrawerActivity {
         Log.d("MainActivity", "🎯 Setting up adapter with " + userClosets.size() + " user closets");
 
         // ✅ UPDATED: Now 3 static cards + user closets
-        List<ClosetItem> fullList = new ArrayList<>();
-
-        // Card 1: Outfit Combinations
-        fullList.add(new ClosetItem("Outfit Combinations", "",
-                String.valueOf(Uri.parse("android.resource://" + getPackageName() + "/" + R.drawable.top_test3)),
-                "outfit_card"));
-
-        // Card 2: All Clothes (NEW)
-        fullList.add(new ClosetItem("All Clothes", "",
-                String.valueOf(Uri.parse("android.resource://" + getPackageName() + "/" + R.drawable.ic_all_clothes)),
-                "all_clothes_card"));
-
-        // Card 3: Create a closet
-        fullList.add(new ClosetItem("Create a closet", "",
-                String.valueOf(Uri.parse("android.resource://" + getPackageName() + "/" + R.drawable.ic_create_closet)),
-                "create_card"));
+        List<ClosetItem> fullList = staticClosetCards();
 
         // Add the user closets from Supabase (only for current user)
         fullList.addAll(userClosets);
 
-        adapter = new ClosetAdapter(this, fullList);
-        GridLayoutManager layoutManager = new GridLayoutManager(this, 2);
-        recyclerView.setLayoutManager(layoutManager);
-        recyclerView.setAdapter(adapter);
+        // ✅ Same adapter every time - a reload diffs into the cards already on screen
+        adapter.setClosets(fullList);
 
         Log.d("MainActivity", "🎴 Total items in adapter: " + fullList.size() + " (3 static cards + " + userClosets.size() + " user closets)");
     }
 
     private void showEmptyClosetState(RecyclerView recyclerView) {
         // Show only the static cards when no user closets exist
-        List<ClosetItem> fullList = new ArrayList<>();
-        fullList.add(new ClosetItem("Outfit Combinations", "",
+        adapter.setClosets(staticClosetCards());
+    }
+
+    private List<ClosetItem> staticClosetCards() {
+        List<ClosetItem> cards = new ArrayList<>();
+
+        // Card 1: Outfit Combinations
+        cards.add(new ClosetItem("Outfit Combinations", "",
                 String.valueOf(Uri.parse("android.resource://" + getPackageName() + "/" + R.drawable.top_test3)),
                 "outfit_card"));
-        fullList.add(new ClosetItem("All Clothes", "",
+
+        // Card 2: All Clothes (NEW)
+        cards.add(new ClosetItem("All Clothes", "",
                 String.valueOf(Uri.parse("android.resource://" + getPackageName() + "/" + R.drawable.ic_all_clothes)),
                 "all_clothes_card"));
-        fullList.add(new ClosetItem("Create a closet", "",
+
+        // Card 3: Create a closet
+        cards.add(new ClosetItem("Create a closet", "",
                 String.valueOf(Uri.parse("android.resource://" + getPackageName() + "/" + R.drawable.ic_create_closet)),
                 "create_card"));
-
-        adapter = new ClosetAdapter(this, fullList);
-        GridLayoutManager layoutManager = new GridLayoutManager(this, 2);
-        recyclerView.setLayoutManager(layoutManager);
-        recyclerView.setAdapter(adapter);
+        return cards;
     }
 
     // ===== Open Camera =====
@@ -0,0 +1,62 @@
+package com.example.outpick;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.Outbox;
+import com.example.outpick.database.supabase.NetworkMetrics;
+import com.example.outpick.database.supabase.SupabaseClient;
+
+/**
+ * App-wide setup that has to happen before any screen loads data.
+ */
+public class OutPickApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Local mirror so screens can render from disk while Supabase revalidates
+        LocalStore.init(this);
+        // HTTP disk cache for the Supabase clients - must exist before the first request
+        SupabaseClient.init(this);
+        // Replay writes queued while offline or before the app was last killed
+        Outbox.start(this, SupabaseClient.getService());
+        // Attribute network calls to the screen in front, for the diagnostics screen
+        registerActivityLifecycleCallbacks(new ScreenTracker());
+    }
+
+    private static final class ScreenTracker implements ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityResumed(Activity activity) {
+            NetworkMetrics.get().setScreen(activity.getClass().getSimpleName());
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            // A screen's first loads start in onCreate, before it resumes
+            NetworkMetrics.get().setScreen(activity.getClass().getSimpleName());
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
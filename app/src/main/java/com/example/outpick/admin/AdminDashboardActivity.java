@@ -28,7 +28,7 @@ import retrofit2.Response;
 
 public class AdminDashboardActivity extends BaseDrawerAdminActivity {
 
-    private CardView cardUsers, cardContent, cardActivity, cardAddOutfit;
+    private CardView cardUsers, cardContent, cardActivity, cardAddOutfit, cardNetworkDiagnostics;
     private String currentUsername; // store logged-in admin username
     private SupabaseService supabaseService;
     private static final String TAG = "AdminDashboardActivity";
@@ -57,6 +57,7 @@ public class AdminDashboardActivity extends BaseDrawerAdminActivity {
         cardContent = findViewById(R.id.cardContent);
         cardActivity = findViewById(R.id.cardActivity);
         cardAddOutfit = findViewById(R.id.cardAddOutfit);
+        cardNetworkDiagnostics = findViewById(R.id.cardNetworkDiagnostics);
 
         // --- Card Click Listeners ---
 
@@ -84,6 +85,12 @@ public class AdminDashboardActivity extends BaseDrawerAdminActivity {
             startActivity(intent);
         });
 
+        // Network Diagnostics Card → NetworkDiagnosticsActivity
+        cardNetworkDiagnostics.setOnClickListener(v -> {
+            Intent intent = new Intent(AdminDashboardActivity.this, NetworkDiagnosticsActivity.class);
+            startActivity(intent);
+        });
+
         // --- Navigation Drawer Logout Handling ---
         NavigationView navigationView = findViewById(R.id.nav_view_admin);
         navigationView.setNavigationItemSelectedListener(item -> {
@@ -12,24 +12,27 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.outpick.R;
 import com.example.outpick.common.adapters.AdminUserAdapter;
+import com.example.outpick.database.repositories.UserRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.Pager;
+import com.example.outpick.utils.PagingScrollListener;
+import com.example.outpick.utils.TaskScope;
 import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class AdminUserListActivity extends AppCompatActivity {
 
     private RecyclerView recyclerView;
     private AdminUserAdapter adapter;
     private SupabaseService supabaseService;
+    private UserRepository userRepository;
+    private Pager<JsonObject> pager;
     private List<JsonObject> userList = new ArrayList<>();
     private ImageButton btnBack; // ✅ BACK BUTTON VARIABLE
+    private final TaskScope taskScope = TaskScope.of(this);
 
     private static final int EDIT_USER_REQUEST = 100;
 
@@ -40,6 +43,7 @@ public class AdminUserListActivity extends AppCompatActivity {
 
         // Initialize Supabase service
         supabaseService = SupabaseClient.getService();
+        userRepository = new UserRepository(supabaseService);
 
         // ✅ INITIALIZE BACK BUTTON
         btnBack = findViewById(R.id.btnBack);
@@ -51,34 +55,29 @@ public class AdminUserListActivity extends AppCompatActivity {
             onBackPressed(); // This will work now!
         });
 
+        adapter = new AdminUserAdapter(this, userList, supabaseService, this::refreshList);
+        recyclerView.setAdapter(adapter);
+
+        pager = new Pager<>(taskScope, this::onUsersPageLoaded);
+        recyclerView.addOnScrollListener(new PagingScrollListener(pager));
+
         loadUsers();
     }
 
     private void loadUsers() {
-        Call<List<JsonObject>> call = supabaseService.getUsers();
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    userList.clear();
-                    userList.addAll(response.body());
-
-                    if (adapter == null) {
-                        adapter = new AdminUserAdapter(AdminUserListActivity.this, userList, supabaseService, AdminUserListActivity.this::refreshList);
-                        recyclerView.setAdapter(adapter);
-                    } else {
-                        adapter.updateUsers(userList);
-                    }
-                } else {
-                    Toast.makeText(AdminUserListActivity.this, "Failed to load users", Toast.LENGTH_SHORT).show();
-                }
-            }
+        // First page now, the rest as the admin scrolls
+        pager.reset(userRepository::getUsersPage);
+    }
 
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                Toast.makeText(AdminUserListActivity.this, "Error loading users: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+    private void onUsersPageLoaded(List<JsonObject> page, boolean firstPage) {
+        if (firstPage) {
+            adapter.replaceItems(page);
+            if (page.isEmpty()) {
+                Toast.makeText(AdminUserListActivity.this, "No users found", Toast.LENGTH_SHORT).show();
             }
-        });
+        } else {
+            adapter.appendItems(page);
+        }
     }
 
     // Refresh list after edit/delete/suspend
@@ -0,0 +1,63 @@
+package com.example.outpick.admin;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.ImageButton;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.outpick.R;
+import com.example.outpick.database.supabase.NetworkMetrics;
+import com.google.android.material.button.MaterialButton;
+
+/**
+ * Admin view of {@link NetworkMetrics}: p50 / p95 / p99 per endpoint and per screen since the
+ * app started (or the last reset), with an export through the share sheet.
+ */
+public class NetworkDiagnosticsActivity extends AppCompatActivity {
+
+    private TextView tvReport;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_network_diagnostics);
+
+        tvReport = findViewById(R.id.tvReport);
+
+        ImageButton btnBack = findViewById(R.id.btnBack);
+        btnBack.setOnClickListener(v -> finish());
+
+        MaterialButton btnRefresh = findViewById(R.id.btnRefresh);
+        btnRefresh.setOnClickListener(v -> showReport());
+
+        MaterialButton btnReset = findViewById(R.id.btnReset);
+        btnReset.setOnClickListener(v -> {
+            NetworkMetrics.get().reset();
+            showReport();
+        });
+
+        MaterialButton btnExport = findViewById(R.id.btnExport);
+        btnExport.setOnClickListener(v -> exportReport());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showReport();
+    }
+
+    private void showReport() {
+        tvReport.setText(NetworkMetrics.get().report());
+    }
+
+    // ✅ Plain-text report through the share sheet (mail, Drive, chat...)
+    private void exportReport() {
+        Intent send = new Intent(Intent.ACTION_SEND);
+        send.setType("text/plain");
+        send.putExtra(Intent.EXTRA_SUBJECT, "OutPick network metrics");
+        send.putExtra(Intent.EXTRA_TEXT, NetworkMetrics.get().report());
+        startActivity(Intent.createChooser(send, "Export network metrics"));
+    }
+}
@@ -13,11 +13,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.outpick.common.ActivitySectionActivity;
 import com.example.outpick.R;
 import com.example.outpick.common.adapters.UserActivityLogsAdapter;
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.database.models.UserModel;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -59,13 +58,14 @@ public class UserActivityLogsActivity extends AppCompatActivity {
     }
 
     private void loadUsersFromSupabase() {
-        Call<List<JsonObject>> call = supabaseService.getUsers();
-        call.enqueue(new Callback<List<JsonObject>>() {
+        // ✅ Users are decoded straight into UserModel - no JsonObject per row
+        Call<List<UserModel>> call = PostgrestQuery.from("users")
+                .executeAs(supabaseService::readUsers);
+        call.enqueue(new Callback<List<UserModel>>() {
             @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
+            public void onResponse(Call<List<UserModel>> call, Response<List<UserModel>> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    // Convert JsonObject to UserModel
-                    List<UserModel> userModels = convertToUserModels(response.body());
+                    List<UserModel> userModels = applyDisplayDefaults(response.body());
 
                     // Set up adapter with converted data
                     adapter = new UserActivityLogsAdapter(userModels);
@@ -81,87 +81,33 @@ public class UserActivityLogsActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
+            public void onFailure(Call<List<UserModel>> call, Throwable t) {
                 Toast.makeText(UserActivityLogsActivity.this, "Error loading user activity: " + t.getMessage(), Toast.LENGTH_SHORT).show();
                 Log.e(TAG, "Network error: " + t.getMessage());
             }
         });
     }
 
-    private List<UserModel> convertToUserModels(List<JsonObject> jsonUsers) {
+    // ✅ Fill in what the list shows for missing columns and trim timestamps to dates
+    private List<UserModel> applyDisplayDefaults(List<UserModel> users) {
         List<UserModel> userModels = new ArrayList<>();
 
-        for (JsonObject jsonUser : jsonUsers) {
-            try {
-                UserModel user = new UserModel();
-
-                // ✅ SAFELY Set user ID (String from Supabase UUID)
-                user.setId(getSafeString(jsonUser, "id", ""));
-
-                // ✅ SAFELY Set basic user information
-                user.setUsername(getSafeString(jsonUser, "username", "N/A"));
-                user.setRole(getSafeString(jsonUser, "role", "User"));
-                user.setGender(getSafeString(jsonUser, "gender", "Not specified"));
-
-                // ✅ SAFELY Set dates - adjust field names based on your Supabase table structure
-                user.setSignupDate(formatDate(getSafeString(jsonUser, "created_at", "Unknown")));
-                user.setLastLogin(formatDate(getSafeString(jsonUser, "last_login", "Never")));
-                user.setLastLogout(formatDate(getSafeString(jsonUser, "last_logout", "N/A")));
-
-                // ✅ SAFELY Set status and suspended flag
-                boolean isActive = getSafeBoolean(jsonUser, "is_active", true);
-                user.setSuspended(!isActive);
-                user.setStatus(isActive ? "Active" : "Suspended");
-
-                // ✅ SAFELY Set profile image if available
-                user.setProfileImageUri(getSafeString(jsonUser, "profile_image_uri", null));
-
-                userModels.add(user);
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing user: " + e.getMessage(), e);
-                // Continue with next user instead of crashing the whole app
-            }
+        for (UserModel user : users) {
+            if (user == null) continue;
+            if (user.getId() == null) user.setId("");
+            user.setUsername(orDefault(user.getUsername(), "N/A"));
+            user.setRole(orDefault(user.getRole(), "User"));
+            user.setGender(orDefault(user.getGender(), "Not specified"));
+            user.setSignupDate(formatDate(orDefault(user.getSignupDate(), "Unknown")));
+            user.setLastLogin(formatDate(orDefault(user.getLastLogin(), "Never")));
+            user.setLastLogout(formatDate(orDefault(user.getLastLogout(), "N/A")));
+            userModels.add(user);
         }
         return userModels;
     }
 
-    // ✅ SAFE method to get string values from JsonObject
-    private String getSafeString(JsonObject json, String key, String defaultValue) {
-        if (json == null || !json.has(key)) {
-            return defaultValue;
-        }
-
-        JsonElement element = json.get(key);
-        if (element == null || element.isJsonNull()) {
-            return defaultValue;
-        }
-
-        try {
-            return element.getAsString();
-        } catch (Exception e) {
-            Log.w(TAG, "Error getting string for key '" + key + "': " + e.getMessage());
-            return defaultValue;
-        }
-    }
-
-    // ✅ SAFE method to get boolean values
-    private boolean getSafeBoolean(JsonObject json, String key, boolean defaultValue) {
-        if (json == null || !json.has(key)) {
-            return defaultValue;
-        }
-
-        JsonElement element = json.get(key);
-        if (element == null || element.isJsonNull()) {
-            return defaultValue;
-        }
-
-        try {
-            return element.getAsBoolean();
-        } catch (Exception e) {
-            Log.w(TAG, "Error getting boolean for key '" + key + "': " + e.getMessage());
-            return defaultValue;
-        }
+    private String orDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
     }
 
     // Helper method to format dates if needed
@@ -19,6 +19,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.R;
+import com.example.outpick.common.adapters.ListDiffer;
 import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.database.models.Outfit;
 import com.example.outpick.database.repositories.ClothingRepository;
@@ -26,9 +27,11 @@ import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.repositories.UserOutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class UserAdminCreateOutfitActivity extends AppCompatActivity {
@@ -48,6 +51,7 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
     private boolean isMultiSelectMode = false;
 
     private static final String TAG = "UserAdminCreateOutfit";
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -125,14 +129,14 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
     }
 
     private void loadUserClothes() {
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
                 Log.d(TAG, "🔄 Loading clothes for user: " + targetUsername + " (ID: " + targetUserId + ")");
 
                 // ✅ Use the fixed getClothingByUserId method
                 List<ClothingItem> userClothes = clothingRepository.getClothingByUserId(targetUserId);
 
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     if (userClothes != null && !userClothes.isEmpty()) {
                         clothingAdapter.updateClothes(userClothes);
                         Toast.makeText(this, "✅ Loaded " + userClothes.size() + " items from " + targetUsername, Toast.LENGTH_SHORT).show();
@@ -140,28 +144,15 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
                     } else {
                         Toast.makeText(this, "❌ No clothing items found for " + targetUsername, Toast.LENGTH_LONG).show();
                         Log.d(TAG, "❌ No clothes found for user: " + targetUsername);
-
-                        // Debug: Check what's in the database
-                        new Thread(() -> {
-                            try {
-                                List<ClothingItem> allClothes = clothingRepository.getAllClothing();
-                                Log.d(TAG, "Total clothes in DB: " + allClothes.size());
-                                for (ClothingItem item : allClothes) {
-                                    Log.d(TAG, "All items - Name: " + item.getName() + " | User ID: " + item.getUserId());
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error checking all clothes: " + e.getMessage());
-                            }
-                        }).start();
                     }
                 });
 
             } catch (Exception e) {
                 Log.e(TAG, "❌ Error loading user clothes: " + e.getMessage(), e);
-                runOnUiThread(() ->
+                taskScope.post(() ->
                         Toast.makeText(this, "❌ Error loading clothes: " + e.getMessage(), Toast.LENGTH_LONG).show());
             }
-        }).start();
+        });
     }
 
     private void showSelectMultipleBottomSheet() {
@@ -213,7 +204,7 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
         Toast.makeText(this, "Creating outfit for " + targetUsername + "...", Toast.LENGTH_SHORT).show();
         Log.d(TAG, "🔄 START: Creating outfit for user: " + targetUsername + " (ID: " + targetUserId + ")");
 
-        new Thread(() -> {
+        taskScope.launchToCompletion(() -> {
             try {
                 String outfitName = "Outfit for " + targetUsername;
                 String outfitDescription = "Custom outfit created by admin with " + selectedClothes.size() + " items from " + targetUsername + "'s closet";
@@ -225,9 +216,11 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
                 Log.d(TAG, "  - Image URI: " + outfitImageUri);
                 Log.d(TAG, "  - Selected clothes count: " + selectedClothes.size());
 
-                // STEP 1: Create outfit
+                // STEP 1 + 2: Create outfit and assign it to the user.
+                // The insert returns the created row, so its ID is used directly.
                 Log.d(TAG, "🎯 STEP 1: Creating outfit in database...");
-                boolean outfitCreated = outfitRepository.addOutfit(
+                Outfit draft = new Outfit(
+                        null,
                         outfitImageUri,
                         outfitName,
                         "Custom",
@@ -237,48 +230,29 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
                         "All-Season",
                         "Mixed"
                 );
-
-                Log.d(TAG, "✅ STEP 1 RESULT: Outfit creation = " + outfitCreated);
-
-                if (outfitCreated) {
-                    // STEP 2: Get the outfit ID
-                    Log.d(TAG, "🎯 STEP 2: Getting latest outfit ID...");
-                    String outfitId = getLatestOutfitId();
-                    Log.d(TAG, "✅ STEP 2 RESULT: Outfit ID = " + outfitId);
-
-                    if (outfitId != null) {
-                        // STEP 3: Assign to user
-                        Log.d(TAG, "🎯 STEP 3: Assigning outfit to user...");
-                        Log.d(TAG, "  - User ID: " + targetUserId);
-                        Log.d(TAG, "  - Outfit ID: " + outfitId);
-                        Log.d(TAG, "  - Admin ID: " + adminUserId);
-
-                        boolean assigned = userOutfitRepository.assignOutfitToUser(
-                                outfitId,
-                                targetUserId,
-                                adminUserId
-                        );
-
-                        Log.d(TAG, "✅ STEP 3 RESULT: Assignment = " + assigned);
-
-                        runOnUiThread(() -> {
-                            if (assigned) {
-                                Toast.makeText(this, "🎉 Outfit created and assigned to " + targetUsername, Toast.LENGTH_LONG).show();
-                                Log.d(TAG, "✅ SUCCESS: Outfit created and assigned!");
-                                finish();
-                            } else {
-                                Toast.makeText(this, "Outfit created but failed to assign to user", Toast.LENGTH_LONG).show();
-                                Log.e(TAG, "❌ FAILED: Outfit created but assignment failed");
-                            }
-                        });
-                    } else {
-                        runOnUiThread(() -> {
-                            Toast.makeText(this, "Failed to get outfit ID after creation", Toast.LENGTH_LONG).show();
-                            Log.e(TAG, "❌ FAILED: Could not retrieve outfit ID");
-                        });
-                    }
+                UserOutfitRepository.CreatedOutfit result =
+                        userOutfitRepository.createOutfitForUser(draft, targetUserId, adminUserId, null);
+
+                Log.d(TAG, "✅ STEP 1 RESULT: Outfit creation = " + (result.outfit != null));
+
+                if (result.outfit != null) {
+                    Log.d(TAG, "✅ STEP 2 RESULT: Assignment = " + result.assigned);
+                    Log.d(TAG, "  - User ID: " + targetUserId);
+                    Log.d(TAG, "  - Outfit ID: " + result.outfit.getId());
+                    Log.d(TAG, "  - Admin ID: " + adminUserId);
+
+                    taskScope.post(() -> {
+                        if (result.assigned) {
+                            Toast.makeText(this, "🎉 Outfit created and assigned to " + targetUsername, Toast.LENGTH_LONG).show();
+                            Log.d(TAG, "✅ SUCCESS: Outfit created and assigned!");
+                            finish();
+                        } else {
+                            Toast.makeText(this, "Outfit created but failed to assign to user", Toast.LENGTH_LONG).show();
+                            Log.e(TAG, "❌ FAILED: Outfit created but assignment failed");
+                        }
+                    });
                 } else {
-                    runOnUiThread(() -> {
+                    taskScope.post(() -> {
                         Toast.makeText(this, "Failed to create outfit", Toast.LENGTH_LONG).show();
                         Log.e(TAG, "❌ FAILED: Outfit creation failed");
                     });
@@ -286,33 +260,25 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
 
             } catch (Exception e) {
                 Log.e(TAG, "❌ ERROR in createAndAssignOutfit: " + e.getMessage(), e);
-                runOnUiThread(() -> Toast.makeText(this, "Error creating outfit: " + e.getMessage(), Toast.LENGTH_LONG).show());
-            }
-        }).start();
-    }
-
-    private String getLatestOutfitId() {
-        try {
-            List<Outfit> outfits = outfitRepository.getAllOutfits();
-            Log.d(TAG, "📊 Total outfits in database: " + (outfits != null ? outfits.size() : "null"));
-
-            if (outfits != null && !outfits.isEmpty()) {
-                String latestId = outfits.get(outfits.size() - 1).getId();
-                Log.d(TAG, "🔍 Latest outfit ID found: " + latestId);
-                return latestId;
-            } else {
-                Log.e(TAG, "❌ No outfits found in database");
-                return null;
+                taskScope.post(() -> Toast.makeText(this, "Error creating outfit: " + e.getMessage(), Toast.LENGTH_LONG).show());
             }
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Error getting latest outfit ID: " + e.getMessage(), e);
-            return null;
-        }
+        });
     }
 
     // Clothing Adapter Class
     public static class ClothingAdapter extends RecyclerView.Adapter<ClothingAdapter.ClothingViewHolder> {
-        private List<ClothingItem> clothes;
+        // ✅ Reloads are diffed in the background; only changed tiles are rebound
+        private final ListDiffer<ClothingItem> clothes = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClothingItem>() {
+            @Override
+            public Object idOf(ClothingItem item) {
+                return ListDiffer.idOr(item.getId(), item);
+            }
+
+            @Override
+            public Object contentOf(ClothingItem item) {
+                return Arrays.asList(item.getImagePath(), item.getName());
+            }
+        });
         private OnItemClickListener listener;
         private boolean isMultiSelectMode = false;
         private List<ClothingItem> selectedItems = new ArrayList<>();
@@ -322,19 +288,24 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
         }
 
         public ClothingAdapter(List<ClothingItem> clothes, OnItemClickListener listener) {
-            this.clothes = clothes;
             this.listener = listener;
+            setHasStableIds(true);
+            this.clothes.submit(clothes);
         }
 
         public void updateClothes(List<ClothingItem> newClothes) {
-            this.clothes = newClothes;
-            notifyDataSetChanged();
+            clothes.submit(newClothes);
         }
 
         public void enableMultiSelection() {
             isMultiSelectMode = true;
             selectedItems.clear();
-            notifyDataSetChanged();
+            clothes.rebindAll(ListDiffer.PAYLOAD_SELECTION);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return clothes.stableIdOf(clothes.get(position));
         }
 
         @NonNull
@@ -344,6 +315,16 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
             return new ClothingViewHolder(view);
         }
 
+        @Override
+        public void onBindViewHolder(@NonNull ClothingViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.contains(ListDiffer.PAYLOAD_SELECTION)) {
+                ClothingItem item = clothes.get(position);
+                holder.bindSelection(isMultiSelectMode, selectedItems.contains(item));
+            } else {
+                super.onBindViewHolder(holder, position, payloads);
+            }
+        }
+
         @Override
         public void onBindViewHolder(@NonNull ClothingViewHolder holder, int position) {
             ClothingItem item = clothes.get(position);
@@ -377,7 +358,7 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
                             } else {
                                 selectedItems.remove(item);
                             }
-                            notifyItemChanged(position);
+                            notifyItemChanged(position, ListDiffer.PAYLOAD_SELECTION);
                             listener.onItemClick(item, isSelected);
                         }
                     }
@@ -393,7 +374,10 @@ public class UserAdminCreateOutfitActivity extends AppCompatActivity {
                 }
 
                 textView.setText(item.getName());
+                bindSelection(multiSelectMode, isSelected);
+            }
 
+            void bindSelection(boolean multiSelectMode, boolean isSelected) {
                 if (multiSelectMode) {
                     selectionOverlay.setVisibility(isSelected ? View.VISIBLE : View.GONE);
                 } else {
@@ -17,6 +17,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.example.outpick.R;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.AppLog;
 import com.google.android.material.button.MaterialButton;
 import com.google.gson.JsonObject;
 
@@ -183,6 +184,8 @@ public class UserEditActivity extends AppCompatActivity {
     }
 
     private void debugUserData(JsonObject user) {
+        // ✅ Field-by-field dump - debug builds only
+        if (!AppLog.DEBUG) return;
         Log.d(TAG, "=== DEBUG USER DATA ===");
         Log.d(TAG, "Total fields: " + user.keySet().size());
         for (String key : user.keySet()) {
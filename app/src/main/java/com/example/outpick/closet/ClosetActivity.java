@@ -23,6 +23,7 @@ import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
@@ -45,6 +46,7 @@ public class ClosetActivity extends BaseDrawerActivity {
     private SupabaseService supabaseService;
     private ClothingRepository clothingRepository;
     private String currentUserId;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -107,18 +109,14 @@ public class ClosetActivity extends BaseDrawerActivity {
         }
 
         // ✅ FIXED: Use repository pattern for better data handling
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
-                List<ClothingItem> clothingItems = clothingRepository.getAllClothing();
+                // ✅ Only this user's items: filtered on the server, delta-synced against the mirror
+                List<ClothingItem> clothingItems = clothingRepository.getClothingByUserId(currentUserId);
 
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     // Process clothing items
                     for (ClothingItem item : clothingItems) {
-                        // Only process items for current user
-                        if (!currentUserId.equals(item.getId())) {
-                            continue;
-                        }
-
                         String itemId = item.getId();
                         String imageUrl = item.getImagePath();
 
@@ -135,10 +133,10 @@ public class ClosetActivity extends BaseDrawerActivity {
                     Toast.makeText(ClosetActivity.this, "Loaded " + clothingIds.size() + " items", Toast.LENGTH_SHORT).show();
                 });
             } catch (Exception e) {
-                runOnUiThread(() ->
+                taskScope.post(() ->
                         Toast.makeText(ClosetActivity.this, "Error loading clothes: " + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
-        }).start();
+        });
     }
 
     private void updateGridView() {
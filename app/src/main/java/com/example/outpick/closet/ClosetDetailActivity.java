@@ -1,6 +1,7 @@
 package com.example.outpick.closet;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
@@ -21,19 +22,26 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.R;
+import com.example.outpick.common.adapters.ListDiffer;
 import com.example.outpick.database.models.ClosetContentItem;
 import com.example.outpick.database.models.ClothingItem;
+import com.example.outpick.database.repositories.ClosetRepository;
+import com.example.outpick.database.repositories.ClosetSnapshotRepository;
 import com.example.outpick.database.repositories.ClothingRepository;
+import com.example.outpick.database.supabase.BulkResult;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.AppLog;
+import com.example.outpick.utils.GridWarmup;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Response;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ClosetDetailActivity extends AppCompatActivity {
 
@@ -51,6 +59,10 @@ public class ClosetDetailActivity extends AppCompatActivity {
     private String closetId = "";
     private SupabaseService supabaseService;
     private ClothingRepository clothingRepository;
+    private ClosetSnapshotRepository closetSnapshotRepository;
+    private ClosetRepository closetRepository;
+    private final TaskScope taskScope = TaskScope.of(this);
+    private TaskScope loadScope;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,6 +72,8 @@ public class ClosetDetailActivity extends AppCompatActivity {
         // Initialize Supabase service and repository
         supabaseService = SupabaseClient.getService();
         clothingRepository = ClothingRepository.getInstance(supabaseService);
+        closetSnapshotRepository = new ClosetSnapshotRepository(supabaseService);
+        closetRepository = new ClosetRepository(supabaseService);
 
         // Views initialization
         closetNameText = findViewById(R.id.closetNameText);
@@ -78,8 +92,10 @@ public class ClosetDetailActivity extends AppCompatActivity {
 
         // RecyclerView setup
         recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
-        adapter = new ClosetDetailAdapter(this, closetItems, selectedItems, isMultiSelect);
+        adapter = new ClosetDetailAdapter(this);
         recyclerView.setAdapter(adapter);
+        // ✅ Tiles inflate in idle time while the closet loads
+        GridWarmup.prepare(recyclerView, taskScope);
 
         // Load data initially
         loadClosetItems();
@@ -127,131 +143,91 @@ public class ClosetDetailActivity extends AppCompatActivity {
         Toast.makeText(this, "Loading " + closetName + "...", Toast.LENGTH_SHORT).show();
         Log.d(TAG, "🔄 Starting to load closet items for: " + closetName);
 
-        new Thread(() -> {
-            try {
-                closetItems.clear();
-
-                // 1. Load clothing items from this closet
-                Log.d(TAG, "📥 Step 1: Loading clothing items...");
-                List<ClothingItem> clothingItems = clothingRepository.getClothingByCloset(closetName);
-                Log.d(TAG, "📊 Found " + (clothingItems != null ? clothingItems.size() : 0) + " clothing items");
-
-                if (clothingItems != null && !clothingItems.isEmpty()) {
-                    for (ClothingItem clothingItem : clothingItems) {
-                        ClosetContentItem closetItem = convertToClosetContentItem(clothingItem);
-                        closetItems.add(closetItem);
-                        Log.d(TAG, "✅ Added clothing: " + clothingItem.getName());
-                    }
-                }
-
-                // 2. Load outfits/snapshots from this closet
-                Log.d(TAG, "📥 Step 2: Loading outfits from closet...");
-                List<ClosetContentItem> closetOutfits = getOutfitsFromCloset();
-                Log.d(TAG, "📊 Found " + (closetOutfits != null ? closetOutfits.size() : 0) + " outfits");
-
-                if (closetOutfits != null && !closetOutfits.isEmpty()) {
-                    closetItems.addAll(closetOutfits);
-                    Log.d(TAG, "✅ Added " + closetOutfits.size() + " outfits to closet");
-                }
-
-                runOnUiThread(() -> {
-                    adapter = new ClosetDetailAdapter(this, closetItems, selectedItems, isMultiSelect);
-                    recyclerView.setAdapter(adapter);
+        // ✅ A newer load (onCreate, then onResume) supersedes the one still in flight
+        if (loadScope != null) loadScope.cancel();
+        TaskScope scope = taskScope.child();
+        loadScope = scope;
+
+        // ✅ Clothing and the closet's outfits don't depend on each other - fetch them concurrently
+        CompletableFuture<List<ClothingItem>> clothingFuture =
+                clothingRepository.getClothingByClosetAsync(scope, closetName);
+        CompletableFuture<List<ClosetContentItem>> outfitsFuture = resolveClosetId(scope)
+                .thenCompose(id -> id != null
+                        ? closetSnapshotRepository.getSnapshotsInClosetAsync(scope, id)
+                        : CompletableFuture.<List<JsonObject>>completedFuture(null))
+                .thenApply(this::convertClosetSnapshots);
+
+        scope.deliver(clothingFuture.thenCombine(outfitsFuture, this::mergeClosetContent),
+                items -> {
+                    closetItems = items;
+                    // ✅ onResume reloads land as a diff - only changed tiles rebind
+                    adapter.submit(closetItems);
                     String message = "Loaded " + closetItems.size() + " items from " + closetName;
                     Toast.makeText(ClosetDetailActivity.this, message, Toast.LENGTH_SHORT).show();
                     Log.d(TAG, "✅ " + message);
-                });
-
-            } catch (Exception e) {
-                Log.e(TAG, "❌ Error loading closet: " + e.getMessage(), e);
-                runOnUiThread(() -> {
+                },
+                e -> {
+                    Log.e(TAG, "❌ Error loading closet: " + e.getMessage(), e);
                     Toast.makeText(ClosetDetailActivity.this,
                             "Error loading closet: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
-            }
-        }).start();
     }
 
-    /** Get outfits from closet_snapshots table for this specific closet */
-    private List<ClosetContentItem> getOutfitsFromCloset() {
-        List<ClosetContentItem> outfits = new ArrayList<>();
-        try {
-            // First, make sure we have the closet ID
-            if (closetId == null || closetId.isEmpty()) {
-                Log.d(TAG, "🔍 Closet ID not provided, searching by name: " + closetName);
-                closetId = getClosetIdByName(closetName);
-                Log.d(TAG, "🔍 Found closet ID: " + closetId);
-            }
-
-            if (closetId != null && !closetId.isEmpty()) {
-                // ✅ FIXED: Use executeGet with proper PostgREST filter syntax
-                String filterUrl = "closet_snapshots?closet_id=eq." + closetId;
-                Log.d(TAG, "📡 Fetching closet snapshots with URL: " + filterUrl);
-
-                Call<List<JsonObject>> call = supabaseService.executeGet(filterUrl);
-                Response<List<JsonObject>> response = call.execute();
-
-                Log.d(TAG, "📡 Response code: " + response.code() + ", Success: " + response.isSuccessful());
-
-                if (response.isSuccessful() && response.body() != null) {
-                    Log.d(TAG, "📊 Found " + response.body().size() + " closet snapshots");
-                    for (JsonObject json : response.body()) {
-                        Log.d(TAG, "📄 Snapshot JSON: " + json.toString());
-                        ClosetContentItem outfitItem = convertClosetSnapshotToContentItem(json);
-                        if (outfitItem != null) {
-                            outfits.add(outfitItem);
-                            Log.d(TAG, "✅ Converted snapshot to outfit: " + outfitItem.getName());
-                        }
-                    }
-                } else {
-                    Log.e(TAG, "❌ Failed to get closet snapshots: " + response.code());
-                    if (response.errorBody() != null) {
-                        try {
-                            Log.e(TAG, "❌ Error body: " + response.errorBody().string());
-                        } catch (Exception e) {
-                            Log.e(TAG, "❌ Could not read error body");
-                        }
+    /** The closet's ID - from the intent, or looked up by name when the caller only had the name */
+    private CompletableFuture<String> resolveClosetId(TaskScope scope) {
+        if (closetId != null && !closetId.isEmpty()) {
+            return CompletableFuture.completedFuture(closetId);
+        }
+        Log.d(TAG, "🔍 Closet ID not provided, searching by name: " + closetName);
+        return closetRepository.findClosetIdByNameAsync(scope, getCurrentUserId(), closetName)
+                .thenApply(id -> {
+                    if (id != null) {
+                        closetId = id;
+                        Log.d(TAG, "🔍 Found closet ID: " + id);
+                    } else {
+                        Log.e(TAG, "❌ No closet ID found for: " + closetName);
                     }
-                }
-            } else {
-                Log.e(TAG, "❌ No closet ID found for: " + closetName);
+                    return id;
+                });
+    }
+
+    private List<ClosetContentItem> mergeClosetContent(List<ClothingItem> clothingItems, List<ClosetContentItem> closetOutfits) {
+        List<ClosetContentItem> items = new ArrayList<>();
+        Log.d(TAG, "📊 Found " + (clothingItems != null ? clothingItems.size() : 0) + " clothing items");
+        if (clothingItems != null) {
+            for (ClothingItem clothingItem : clothingItems) {
+                items.add(convertToClosetContentItem(clothingItem));
             }
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Error getting outfits from closet: " + e.getMessage(), e);
         }
-        return outfits;
+        items.addAll(closetOutfits);
+        Log.d(TAG, "✅ Added " + closetOutfits.size() + " outfits to closet");
+        return items;
     }
 
-    /** Get closet ID by name */
-    private String getClosetIdByName(String closetName) {
-        try {
-            Log.d(TAG, "🔍 Searching for closet ID by name: " + closetName);
-            Call<List<JsonObject>> call = supabaseService.getClosets();
-            Response<List<JsonObject>> response = call.execute();
-
-            if (response.isSuccessful() && response.body() != null) {
-                Log.d(TAG, "📊 Found " + response.body().size() + " closets total");
-                for (JsonObject json : response.body()) {
-                    if (json.has("name") && !json.get("name").isJsonNull()) {
-                        String name = json.get("name").getAsString();
-                        Log.d(TAG, "🔍 Checking closet: " + name);
-                        if (closetName.equals(name)) {
-                            if (json.has("id") && !json.get("id").isJsonNull()) {
-                                String id = json.get("id").getAsString();
-                                Log.d(TAG, "✅ Found matching closet ID: " + id);
-                                return id;
-                            }
-                        }
-                    }
+    /** Outfits from the closet_snapshots rows; null rows (never loaded, offline) mean none */
+    private List<ClosetContentItem> convertClosetSnapshots(List<JsonObject> snapshots) {
+        List<ClosetContentItem> outfits = new ArrayList<>();
+        if (snapshots == null) {
+            Log.e(TAG, "❌ Failed to get closet snapshots for closet: " + closetId);
+            return outfits;
+        }
+        Log.d(TAG, "📊 Found " + snapshots.size() + " closet snapshots");
+        AppLog.Sampler rowLog = AppLog.sample(25);
+        for (JsonObject json : snapshots) {
+            ClosetContentItem outfitItem = convertClosetSnapshotToContentItem(json);
+            if (outfitItem != null) {
+                outfits.add(outfitItem);
+                if (rowLog.next()) {
+                    Log.d(TAG, "🖼️ Converted snapshot: " + outfitItem.getImageUri());
                 }
-                Log.e(TAG, "❌ No matching closet found for name: " + closetName);
-            } else {
-                Log.e(TAG, "❌ Failed to get closets list");
             }
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Error getting closet ID: " + e.getMessage(), e);
         }
-        return null;
+        return outfits;
+    }
+
+    private String getCurrentUserId() {
+        SharedPreferences prefs = getSharedPreferences("UserPrefs", MODE_PRIVATE);
+        return prefs.getString("user_id", null);
     }
 
     /** Convert closet_snapshots JSON to ClosetContentItem */
@@ -268,15 +244,12 @@ public class ClosetDetailActivity extends AppCompatActivity {
             if (json.has("snapshot_path") && !json.get("snapshot_path").isJsonNull()) {
                 String imagePath = json.get("snapshot_path").getAsString();
                 item.setImageUri(imagePath);
-                Log.d(TAG, "🖼️ Setting outfit image from snapshot_path: " + imagePath);
             }
 
             // Set item details
             item.setName("Outfit from " + closetName);
             item.setCategory("Outfit");
             item.setType(ClosetContentItem.ItemType.SNAPSHOT);
-
-            Log.d(TAG, "✅ Successfully converted snapshot to content item: " + item.getName());
             return item;
         } catch (Exception e) {
             Log.e(TAG, "❌ Error converting snapshot to content item: " + e.getMessage(), e);
@@ -314,9 +287,8 @@ public class ClosetDetailActivity extends AppCompatActivity {
         selectedItems.clear();
         bottomActionBar.setVisibility(View.VISIBLE);
         btnMore.setImageResource(R.drawable.ic_close);
-        // ✅ FIXED: Recreate adapter with updated multi-select state
-        adapter = new ClosetDetailAdapter(this, closetItems, selectedItems, isMultiSelect);
-        recyclerView.setAdapter(adapter);
+        // ✅ Only the selection overlays change; images stay as they are
+        adapter.rebindSelection();
         Toast.makeText(this, "Multi-select mode enabled", Toast.LENGTH_SHORT).show();
     }
 
@@ -325,9 +297,8 @@ public class ClosetDetailActivity extends AppCompatActivity {
         selectedItems.clear();
         bottomActionBar.setVisibility(View.GONE);
         btnMore.setImageResource(R.drawable.ic_more_vert);
-        // ✅ FIXED: Recreate adapter with updated multi-select state
-        adapter = new ClosetDetailAdapter(this, closetItems, selectedItems, isMultiSelect);
-        recyclerView.setAdapter(adapter);
+        // ✅ Only the selection overlays change; images stay as they are
+        adapter.rebindSelection();
         Toast.makeText(this, "Multi-select mode disabled", Toast.LENGTH_SHORT).show();
     }
 
@@ -348,46 +319,51 @@ public class ClosetDetailActivity extends AppCompatActivity {
                     Toast.makeText(this, "Deleting " + selectedItems.size() + " items...", Toast.LENGTH_SHORT).show();
                     Log.d(TAG, "🗑️ Starting deletion of " + selectedItems.size() + " items");
 
-                    new Thread(() -> {
-                        int deletedCount = 0;
+                    taskScope.launchToCompletion(() -> {
                         // ✅ FIXED: Create a copy to avoid concurrent modification
                         List<ClosetContentItem> itemsToDelete = new ArrayList<>(selectedItems);
 
+                        // ✅ Group by table: clothing is one id=in.(...) delete, snapshots go through the outbox
+                        List<String> clothingIds = new ArrayList<>();
+                        Map<String, String> snapshotPaths = new LinkedHashMap<>();
                         for (ClosetContentItem item : itemsToDelete) {
                             if (item.getType() == ClosetContentItem.ItemType.CLOTHING) {
-                                Log.d(TAG, "🗑️ Deleting clothing item: " + item.getClothingId() + " - " + item.getName());
-                                boolean success = clothingRepository.deleteClothing(item.getClothingId());
-                                if (success) {
-                                    deletedCount++;
-                                    closetItems.remove(item);
-                                    selectedItems.remove(item); // ✅ Remove from selected list too
-                                    Log.d(TAG, "✅ Successfully deleted clothing item: " + item.getName());
-                                } else {
-                                    Log.e(TAG, "❌ Failed to delete clothing item: " + item.getName());
-                                }
+                                clothingIds.add(item.getClothingId());
                             } else if (item.getType() == ClosetContentItem.ItemType.SNAPSHOT) {
-                                Log.d(TAG, "🗑️ Deleting closet snapshot: " + item.getClothingId() + " - " + item.getName());
-                                boolean success = deleteOutfitFromCloset(item.getClothingId());
-                                if (success) {
-                                    deletedCount++;
-                                    closetItems.remove(item);
-                                    selectedItems.remove(item); // ✅ Remove from selected list too
-                                    Log.d(TAG, "✅ Successfully deleted closet snapshot: " + item.getName());
-                                } else {
-                                    Log.e(TAG, "❌ Failed to delete closet snapshot: " + item.getName());
-                                }
+                                // Content items carry the snapshot path as their image
+                                snapshotPaths.put(snapshotRowId(item), item.getImageUri());
                             }
                         }
 
-                        final int finalDeletedCount = deletedCount;
-                        runOnUiThread(() -> {
+                        BulkResult<String> clothingResult = clothingRepository.deleteClothingItems(clothingIds);
+                        BulkResult<String> snapshotResult = closetSnapshotRepository.removeSnapshots(closetId, snapshotPaths);
+                        Log.d(TAG, "🗑️ Clothing " + clothingResult + ", snapshots " + snapshotResult);
+
+                        List<ClosetContentItem> deleted = new ArrayList<>();
+                        for (ClosetContentItem item : itemsToDelete) {
+                            boolean success = item.getType() == ClosetContentItem.ItemType.CLOTHING
+                                    ? clothingResult.isSucceeded(item.getClothingId())
+                                    : snapshotResult.isSucceeded(snapshotRowId(item));
+                            if (success) {
+                                deleted.add(item);
+                            } else {
+                                Log.e(TAG, "❌ Failed to delete: " + item.getName());
+                            }
+                        }
+
+                        final int finalDeletedCount = deleted.size();
+                        taskScope.post(() -> {
+                            // Only drop rows the server confirmed or the outbox queued, on the UI thread
+                            closetItems.removeAll(deleted);
+                            selectedItems.removeAll(deleted);
+
                             if (finalDeletedCount > 0) {
                                 String message = finalDeletedCount + " items removed from " + closetName;
                                 Toast.makeText(ClosetDetailActivity.this, message, Toast.LENGTH_SHORT).show();
                                 Log.d(TAG, "✅ " + message);
 
                                 // Update the adapter
-                                adapter.notifyDataSetChanged();
+                                adapter.remove(deleted);
                             } else {
                                 Toast.makeText(ClosetDetailActivity.this,
                                         "Failed to delete items. Please try again.", Toast.LENGTH_SHORT).show();
@@ -396,65 +372,57 @@ public class ClosetDetailActivity extends AppCompatActivity {
 
                             exitMultiSelectMode();
                         });
-                    }).start();
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
-    /** Delete outfit from closet_snapshots */
-    private boolean deleteOutfitFromCloset(String snapshotId) {
-        try {
-            String cleanId = snapshotId.replace("snapshot_", "");
-            Log.d(TAG, "🗑️ Deleting closet snapshot with ID: " + cleanId);
-
-            // ✅ FIXED: Use executeDelete with proper PostgREST URL
-            String deleteUrl = "closet_snapshots?id=eq." + cleanId;
-            Log.d(TAG, "🗑️ Delete URL: " + deleteUrl);
-
-            Call<Void> call = supabaseService.executeDelete(deleteUrl);
-            Response<Void> response = call.execute();
-
-            boolean success = response.isSuccessful();
-            Log.d(TAG, "🗑️ Delete response - Code: " + response.code() + ", Success: " + success);
-
-            if (!success) {
-                Log.e(TAG, "❌ Delete failed with code: " + response.code());
-                if (response.errorBody() != null) {
-                    try {
-                        String errorBody = response.errorBody().string();
-                        Log.e(TAG, "❌ Delete error: " + errorBody);
-                    } catch (Exception e) {
-                        Log.e(TAG, "❌ Could not read error body", e);
-                    }
-                }
-            } else {
-                Log.d(TAG, "✅ Successfully deleted snapshot: " + cleanId);
-            }
-
-            return success;
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Exception deleting outfit from closet: " + e.getMessage(), e);
-            return false;
-        }
+    /** closet_snapshots row ID for a snapshot item (content items prefix it with "snapshot_") */
+    private String snapshotRowId(ClosetContentItem item) {
+        return item.getClothingId() != null ? item.getClothingId().replace("snapshot_", "") : null;
     }
 
     /**
      * ✅ FIXED: Adapter with proper selection handling
+     * Reads the screen's multi-select state, so toggling the mode rebinds overlays instead of
+     * recreating the adapter.
      */
     private class ClosetDetailAdapter extends RecyclerView.Adapter<ClosetDetailAdapter.ViewHolder> {
 
         private final Context context;
-        private final List<ClosetContentItem> items;
-        private final List<ClosetContentItem> selectedItems;
-        private final boolean isMultiSelect;
+        private final ListDiffer<ClosetContentItem> items = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClosetContentItem>() {
+            @Override
+            public Object idOf(ClosetContentItem item) {
+                return ListDiffer.idOr(item.getClothingId(), item);
+            }
+
+            @Override
+            public Object contentOf(ClosetContentItem item) {
+                return item.getImageUri();
+            }
+        });
 
-        ClosetDetailAdapter(Context context, List<ClosetContentItem> items,
-                            List<ClosetContentItem> selectedItems, boolean isMultiSelect) {
+        ClosetDetailAdapter(Context context) {
             this.context = context;
-            this.items = items;
-            this.selectedItems = selectedItems;
-            this.isMultiSelect = isMultiSelect;
+            setHasStableIds(true);
+        }
+
+        void submit(List<ClosetContentItem> newItems) {
+            items.submit(newItems);
+        }
+
+        void remove(List<ClosetContentItem> removed) {
+            items.removeAll(removed);
+        }
+
+        void rebindSelection() {
+            items.rebindAll(ListDiffer.PAYLOAD_SELECTION);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return items.stableIdOf(items.get(position));
         }
 
         @NonNull
@@ -464,6 +432,15 @@ public class ClosetDetailActivity extends AppCompatActivity {
             return new ViewHolder(view);
         }
 
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.contains(ListDiffer.PAYLOAD_SELECTION)) {
+                bindSelection(holder, items.get(position));
+            } else {
+                super.onBindViewHolder(holder, position, payloads);
+            }
+        }
+
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
             ClosetContentItem item = items.get(position);
@@ -479,48 +456,57 @@ public class ClosetDetailActivity extends AppCompatActivity {
             }
 
             // Multi-select overlay logic
-            if (isMultiSelect && selectedItems.contains(item)) {
-                holder.selectionOverlay.setVisibility(View.VISIBLE);
-                holder.checkIcon.setVisibility(View.VISIBLE);
-            } else {
-                holder.selectionOverlay.setVisibility(View.GONE);
-                holder.checkIcon.setVisibility(View.GONE);
-            }
+            bindSelection(holder, item);
 
-            // Item click handler
+            // Item click handler - unchanged rows aren't rebound after a diff, so read the row's current item
             holder.itemView.setOnClickListener(v -> {
+                int currentPosition = holder.getAdapterPosition();
+                if (currentPosition == RecyclerView.NO_POSITION) return;
+                ClosetContentItem clicked = items.get(currentPosition);
                 if (isMultiSelect) {
-                    if (selectedItems.contains(item)) {
-                        selectedItems.remove(item);
-                        Log.d(TAG, "🔘 Deselected: " + item.getName() + " - Selected count: " + selectedItems.size());
+                    if (selectedItems.contains(clicked)) {
+                        selectedItems.remove(clicked);
+                        Log.d(TAG, "🔘 Deselected: " + clicked.getName() + " - Selected count: " + selectedItems.size());
                     } else {
-                        selectedItems.add(item);
-                        Log.d(TAG, "🔘 Selected: " + item.getName() + " - Selected count: " + selectedItems.size());
+                        selectedItems.add(clicked);
+                        Log.d(TAG, "🔘 Selected: " + clicked.getName() + " - Selected count: " + selectedItems.size());
                     }
-                    notifyItemChanged(position);
+                    notifyItemChanged(currentPosition, ListDiffer.PAYLOAD_SELECTION);
 
                     // Update delete button text
                     if (selectedItems.isEmpty()) {
                         Toast.makeText(context, "No items selected", Toast.LENGTH_SHORT).show();
                     }
                 } else {
-                    Toast.makeText(context, "Clicked: " + item.getName(), Toast.LENGTH_SHORT).show();
+                    Toast.makeText(context, "Clicked: " + clicked.getName(), Toast.LENGTH_SHORT).show();
                 }
             });
 
             // Long press to enter multi-select mode
             holder.itemView.setOnLongClickListener(v -> {
-                if (!isMultiSelect) {
+                int currentPosition = holder.getAdapterPosition();
+                if (!isMultiSelect && currentPosition != RecyclerView.NO_POSITION) {
+                    ClosetContentItem pressed = items.get(currentPosition);
                     enterMultiSelectMode();
-                    selectedItems.add(item);
-                    notifyItemChanged(position);
-                    Log.d(TAG, "🔘 Long press selected: " + item.getName());
+                    selectedItems.add(pressed);
+                    notifyItemChanged(currentPosition, ListDiffer.PAYLOAD_SELECTION);
+                    Log.d(TAG, "🔘 Long press selected: " + pressed.getName());
                     return true;
                 }
                 return false;
             });
         }
 
+        private void bindSelection(ViewHolder holder, ClosetContentItem item) {
+            if (isMultiSelect && selectedItems.contains(item)) {
+                holder.selectionOverlay.setVisibility(View.VISIBLE);
+                holder.checkIcon.setVisibility(View.VISIBLE);
+            } else {
+                holder.selectionOverlay.setVisibility(View.GONE);
+                holder.checkIcon.setVisibility(View.GONE);
+            }
+        }
+
         @Override
         public int getItemCount() {
             return items.size();
@@ -22,8 +22,10 @@ import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.common.adapters.ClothingItemAdapter;
 import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
+import com.example.outpick.database.supabase.SupabaseJson;
 import com.example.outpick.database.supabase.SupabaseService;
-import com.google.gson.Gson;
+import com.example.outpick.utils.GridWarmup;
+import com.example.outpick.utils.TaskScope;
 import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
@@ -45,6 +47,7 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
     private List<ClothingItem> filteredItemList;
     private TextView selectionTitle;
     private RecyclerView recyclerView;
+    private ClothingItemAdapter adapter;
     private ImageView backButton;
     private SupabaseService supabaseService;
     private ClothingRepository clothingRepository;
@@ -54,6 +57,7 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
     private static final int R_ID_BACK_BUTTON_SELECTION = 1002; // Mocking R.id.back_button_selection
     private static final int R_ID_SELECTION_TITLE = 1003;      // Mocking R.id.selection_title
     private static final int R_ID_RECYCLER_VIEW_ITEMS = 1004;  // Mocking R.id.recycler_view_items
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -123,6 +127,12 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
             return;
         }
 
+        // Setup RecyclerView - ✅ before loading, so the tiles inflate in idle time while the items load
+        adapter = new ClothingItemAdapter(this, new ArrayList<>(), this);
+        recyclerView.setLayoutManager(new GridLayoutManager(this, 3)); // 3 items per row
+        recyclerView.setAdapter(adapter);
+        GridWarmup.prepare(recyclerView, taskScope);
+
         // 2. Load clothing items from Supabase using repository
         loadClothingItemsFromSupabase(categoryFilter);
 
@@ -137,10 +147,11 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
         // Show loading state
         selectionTitle.setText("Loading " + categoryFilter + "...");
 
-        new Thread(() -> {
-            List<ClothingItem> items = clothingRepository.getAllClothing();
+        taskScope.launch(() -> {
+            String currentUserId = getSharedPreferences("UserPrefs", MODE_PRIVATE).getString("user_id", "");
+            List<ClothingItem> items = clothingRepository.getClothingByUserId(currentUserId);
 
-            runOnUiThread(() -> {
+            taskScope.post(() -> {
                 if (items != null) {
                     allItemsFromDB = items;
 
@@ -156,14 +167,8 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
                                 Toast.LENGTH_LONG).show();
                     }
 
-                    // Setup RecyclerView
-                    ClothingItemAdapter adapter = new ClothingItemAdapter(
-                            ItemSelectionActivity.this,
-                            filteredItemList,
-                            ItemSelectionActivity.this
-                    );
-                    recyclerView.setLayoutManager(new GridLayoutManager(ItemSelectionActivity.this, 3)); // 3 items per row
-                    recyclerView.setAdapter(adapter);
+                    // Show the items in the grid set up in onCreate
+                    adapter.updateList(filteredItemList);
 
                     Log.d("ItemSelection", "Loaded " + filteredItemList.size() + " " + categoryFilter + " items");
 
@@ -174,7 +179,7 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
                     finish();
                 }
             });
-        }).start();
+        });
     }
 
     /**
@@ -241,8 +246,7 @@ public class ItemSelectionActivity extends AppCompatActivity implements Clothing
                 ", Image URL: " + item.getImagePath());
 
         // 1. Serialize the selected item back to JSON string
-        Gson gson = new Gson();
-        String selectedItemJson = gson.toJson(item);
+        String selectedItemJson = SupabaseJson.gson().toJson(item);
 
         // 2. Send the selected item back to the calling activity (TryOnActivity)
         Intent resultIntent = new Intent();
@@ -31,10 +31,14 @@ import com.example.outpick.common.adapters.SelectableClothingAdapter;
 import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
 import com.example.outpick.dialogs.ItemFilterBottomSheetDialog;
 import com.example.outpick.outfits.OutfitCreationActivity;
+import com.example.outpick.utils.FacetCounter;
 import com.example.outpick.utils.FileUtils;
 import com.example.outpick.utils.ImageUploader;
+import com.example.outpick.utils.TagIndex;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.button.MaterialButton;
 
@@ -42,7 +46,6 @@ import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -66,6 +69,7 @@ public class ItemsAddingActivity extends AppCompatActivity {
 
     private List<ClothingItem> allItems;
     private List<ClothingItem> filteredByOccasionSeason; // Keeps current filter results
+    private TagIndex<ClothingItem> itemIndex; // Occasion / season index over allItems, built on first filter
 
     // Supabase service
     private SupabaseService supabaseService;
@@ -101,6 +105,8 @@ public class ItemsAddingActivity extends AppCompatActivity {
                 }
             });
 
+    private final TaskScope taskScope = TaskScope.of(this);
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -211,12 +217,19 @@ public class ItemsAddingActivity extends AppCompatActivity {
     }
 
     private void loadItemsFromSupabase() {
-        // Use the repository to load items
-        new Thread(() -> {
-            List<ClothingItem> items = clothingRepository.getAllClothing();
-            runOnUiThread(() -> {
+        final String userId = getCurrentUserId();
+        if (userId == null || userId.isEmpty()) {
+            Toast.makeText(this, "User not logged in", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // ✅ Only this user's items: filtered on the server, delta-synced against the mirror
+        taskScope.launch(() -> {
+            List<ClothingItem> items = clothingRepository.getClothingByUserId(userId);
+            taskScope.post(() -> {
                 allItems.clear();
                 allItems.addAll(items);
+                itemIndex = null;
                 filteredByOccasionSeason.clear();
                 filteredByOccasionSeason.addAll(allItems);
 
@@ -226,7 +239,7 @@ public class ItemsAddingActivity extends AppCompatActivity {
 
                 Toast.makeText(ItemsAddingActivity.this, "Loaded " + allItems.size() + " items", Toast.LENGTH_SHORT).show();
             });
-        }).start();
+        });
     }
 
     // === Filter RecyclerView by category ===
@@ -284,58 +297,52 @@ public class ItemsAddingActivity extends AppCompatActivity {
         btnFootwear.setVisibility(categoriesInItems.contains("Footwear") ? View.VISIBLE : View.GONE);
     }
 
-    // --- Apply Filters with OR logic (occasion OR season) ---
+    // --- Apply Filters: any selected occasion AND any selected season, same rules as the chip counts ---
     private void applyFilters(Set<String> selectedOccasions, Set<String> selectedSeasons) {
-        List<ClothingItem> filteredList = new ArrayList<>();
+        TagFilter tags = new TagFilter()
+                .anyOf("occasion", selectedOccasions)
+                .anyOf("season", selectedSeasons);
 
-        // If nothing selected, show all
-        if ((selectedOccasions == null || selectedOccasions.isEmpty()) &&
-                (selectedSeasons == null || selectedSeasons.isEmpty())) {
-            filteredByOccasionSeason = new ArrayList<>(allItems);
-            adapter.updateItems(filteredByOccasionSeason);
-            checkAndShowCategoryTabs(filteredByOccasionSeason);
-            setActiveTab(btnAll);
-            return;
-        }
+        filteredByOccasionSeason = tags.isEmpty()
+                ? new ArrayList<>(allItems)
+                : itemIndex().select(tags);
+        adapter.updateItems(filteredByOccasionSeason);
+        checkAndShowCategoryTabs(filteredByOccasionSeason);
+        setActiveTab(btnAll);
+    }
 
-        Set<String> lowerOccasions = new HashSet<>();
-        if (selectedOccasions != null) {
-            for (String o : selectedOccasions) lowerOccasions.add(o.toLowerCase(Locale.ROOT));
+    private TagIndex<ClothingItem> itemIndex() {
+        if (itemIndex == null) {
+            itemIndex = newItemIndex();
+            itemIndex.addAll(allItems);
         }
+        return itemIndex;
+    }
 
-        Set<String> lowerSeasons = new HashSet<>();
-        if (selectedSeasons != null) {
-            for (String s : selectedSeasons) lowerSeasons.add(s.toLowerCase(Locale.ROOT));
+    /**
+     * Chip counts over the user's items - from memory once they are loaded, else from the
+     * user's tag columns, so counts never include anyone else's clothing.
+     */
+    private FacetCounter<ClothingItem> facetCounter() {
+        if (!allItems.isEmpty()) {
+            return FacetCounter.of(new ArrayList<>(allItems), ItemsAddingActivity::newItemIndex);
         }
+        final String userId = getCurrentUserId();
+        return new FacetCounter<>(() -> {
+            TagIndex<ClothingItem> index = newItemIndex();
+            index.addAll(clothingRepository.getClothingTagsForUser(userId, null));
+            return index;
+        });
+    }
 
-        for (ClothingItem item : allItems) {
-            Set<String> itemOccasions = new HashSet<>();
-            Set<String> itemSeasons = new HashSet<>();
-
-            if (item.getOccasion() != null) {
-                for (String o : item.getOccasion().split(",")) {
-                    itemOccasions.add(o.trim().toLowerCase(Locale.ROOT));
-                }
-            }
-            if (item.getSeason() != null) {
-                for (String s : item.getSeason().split(",")) {
-                    itemSeasons.add(s.trim().toLowerCase(Locale.ROOT));
-                }
-            }
-
-            // OR Logic → Matches if either category intersects
-            boolean matchesOccasion = !Collections.disjoint(lowerOccasions, itemOccasions);
-            boolean matchesSeason = !Collections.disjoint(lowerSeasons, itemSeasons);
-
-            if (matchesOccasion || matchesSeason) {
-                filteredList.add(item);
-            }
-        }
+    private String getCurrentUserId() {
+        return getSharedPreferences("UserPrefs", MODE_PRIVATE).getString("user_id", null);
+    }
 
-        filteredByOccasionSeason = filteredList;
-        adapter.updateItems(filteredByOccasionSeason);
-        checkAndShowCategoryTabs(filteredByOccasionSeason);
-        setActiveTab(btnAll);
+    private static TagIndex<ClothingItem> newItemIndex() {
+        return new TagIndex<ClothingItem>()
+                .field("occasion", ClothingItem::getOccasion)
+                .field("season", ClothingItem::getSeason);
     }
 
     // --- Add Item Bottom Sheet ---
@@ -365,6 +372,7 @@ public class ItemsAddingActivity extends AppCompatActivity {
     private void showFilterBottomSheet() {
         ItemFilterBottomSheetDialog dialog = new ItemFilterBottomSheetDialog();
         dialog.setFilterListener(this::applyFilters);
+        dialog.setFacetCounter(facetCounter());
         dialog.show(getSupportFragmentManager(), "ItemFilterBottomSheet");
     }
 
@@ -26,18 +26,26 @@ import com.example.outpick.common.PreviewImageActivity;
 import com.example.outpick.common.adapters.ClothingAdapter;
 import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.database.repositories.ClothingRepository;
+import com.example.outpick.database.supabase.BulkResult;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
 import com.example.outpick.dialogs.FilterBottomSheetDialog;
 import com.example.outpick.dialogs.SortBottomSheetDialog;
+import com.example.outpick.utils.Pager;
+import com.example.outpick.utils.FacetCounter;
+import com.example.outpick.utils.GridWarmup;
+import com.example.outpick.utils.PagingScrollListener;
+import com.example.outpick.utils.TagIndex;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class YourClothesActivity extends BaseDrawerActivity implements FilterBottomSheetDialog.FilterListener {
 
@@ -50,8 +58,13 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
     private ImageView filterButton;
     private RecyclerView recyclerView;
     private ClothingAdapter adapter;
-    private ArrayList<ClothingItem> clothingItems = new ArrayList<>();
+    private ArrayList<ClothingItem> clothingItems = new ArrayList<>(); // What the grid shows
+    // Every row loaded so far (all pages), before the season / occasion filters
     private ArrayList<ClothingItem> allClothingItems = new ArrayList<>();
+    // Tags the loaded pages were filtered with on the server; empty means every item of the tab
+    private TagFilter loadedTags = new TagFilter();
+    // ✅ Season / occasion index over allClothingItems, built lazily and extended page by page
+    private TagIndex<ClothingItem> clothingIndex;
     private SupabaseService supabaseService;
     private ClothingRepository clothingRepository;
     private LinearLayout bottomBar;
@@ -61,8 +74,12 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
     private Button addItemButtonTop;
     private Button addItemButtonEmptyState;
 
+    private Pager<ClothingItem> pager;
+    private PagingScrollListener pagingScrollListener;
+    private boolean isClosetEmpty = false;
+
     private boolean isSelectionMode = false;
-    private String lastSelectedSort = "Recently added";
+    private String lastSelectedSort = ClothingRepository.SORT_RECENTLY_ADDED;
     private SharedPreferences sharedPreferences;
 
     // ✅ Track active filters globally
@@ -74,6 +91,7 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
     private TextView tabTextAll, tabTextTops, tabTextBottoms, tabTextOuterwear, tabTextAccessories, tabTextFootwear;
     private View underlineAll, underlineTops, underlineBottoms, underlineOuterwear, underlineAccessories, underlineFootwear;
     private String currentCategoryFilter = "All";
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -85,30 +103,25 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         clothingRepository = ClothingRepository.getInstance(supabaseService);
 
         sharedPreferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        lastSelectedSort = sharedPreferences.getString(KEY_LAST_SORT, "Recently added");
+        lastSelectedSort = sharedPreferences.getString(KEY_LAST_SORT, ClothingRepository.SORT_RECENTLY_ADDED);
 
         setupDrawer(R.id.drawer_layout, R.id.nav_view);
         initViews();
         setupRecyclerView();
         setClickListeners();
 
-        loadClothesFromSupabase();
         updateSortButtonText();
-        applySorting();
-        filterAndDisplay();
-        updateCategoryTabVisibility();
+        updateCategoryTabUI(currentCategoryFilter);
+        // First page is loaded from onResume
     }
 
     @Override
     protected void onResume() {
         super.onResume();
+        lastSelectedSort = sharedPreferences.getString(KEY_LAST_SORT, ClothingRepository.SORT_RECENTLY_ADDED);
+        updateSortButtonText();
         // ✅ Reload the database to reflect any updated item categories
         loadClothesFromSupabase();
-        lastSelectedSort = sharedPreferences.getString(KEY_LAST_SORT, "Recently added");
-        updateSortButtonText();
-        applySorting();
-        filterAndDisplay();
-        updateCategoryTabVisibility(); // ✅ Ensure tabs refresh after category change
     }
 
     private void initViews() {
@@ -149,6 +162,15 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         adapter = new ClothingAdapter(this, clothingItems);
         recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
         recyclerView.setAdapter(adapter);
+        // ✅ Clothing tiles inflate in idle time while the first page loads
+        GridWarmup.prepare(recyclerView, taskScope, ClothingAdapter.VIEW_TYPE_CLOTHING);
+
+        // Pages of 40 rows; the next page is requested when the user is 12 rows from the end
+        pager = new Pager<>(taskScope, this::onClothingPageLoaded);
+        // Offline pages come from the mirror; a failure here means Supabase refused the query
+        pager.setOnPageFailed(error -> showToast("Couldn't load your clothes, please try again later"));
+        pagingScrollListener = new PagingScrollListener(pager);
+        recyclerView.addOnScrollListener(pagingScrollListener);
 
         adapter.setOnItemClickListener(new ClothingAdapter.OnItemClickListener() {
             @Override
@@ -179,6 +201,7 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         filterButton.setOnClickListener(v -> {
             FilterBottomSheetDialog dialog = new FilterBottomSheetDialog();
             dialog.setFilterListener(this);
+            dialog.setFacetCounter(facetCounter());
             dialog.show(getSupportFragmentManager(), "FilterBottomSheet");
         });
         recentlyAddedBtn.setOnClickListener(v -> {
@@ -188,8 +211,8 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
                 lastSelectedSort = selectedOption;
                 sharedPreferences.edit().putString(KEY_LAST_SORT, lastSelectedSort).apply();
                 updateSortButtonText();
-                applySorting();
-                filterAndDisplay();
+                // Sorting happens on the server, so start again from the first page
+                reloadFirstPage();
             });
             sortDialog.show(getSupportFragmentManager(), "SortBottomSheet");
         });
@@ -197,27 +220,27 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         // ✅ Tab click logic (kept same but ensured live refresh)
         tabAll.setOnClickListener(v -> {
             currentCategoryFilter = "All";
-            filterAndDisplay();
+            reloadFirstPage();
         });
         tabTops.setOnClickListener(v -> {
             currentCategoryFilter = "Tops";
-            filterAndDisplay();
+            reloadFirstPage();
         });
         tabBottoms.setOnClickListener(v -> {
             currentCategoryFilter = "Bottoms";
-            filterAndDisplay();
+            reloadFirstPage();
         });
         tabOuterwear.setOnClickListener(v -> {
             currentCategoryFilter = "Outerwear";
-            filterAndDisplay();
+            reloadFirstPage();
         });
         tabAccessories.setOnClickListener(v -> {
             currentCategoryFilter = "Accessories";
-            filterAndDisplay();
+            reloadFirstPage();
         });
         tabFootwear.setOnClickListener(v -> {
             currentCategoryFilter = "Footwear";
-            filterAndDisplay();
+            reloadFirstPage();
         });
     }
 
@@ -247,36 +270,63 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
     }
 
     private void loadClothesFromSupabase() {
+        reloadFirstPage();
+        loadCategoryTabs();
+    }
+
+    /** Restart paging for the current tab and sort; the first page replaces whatever is shown. */
+    private void reloadFirstPage() {
         // Show loading state
         emptyStateLayout.setVisibility(View.GONE);
         recyclerView.setVisibility(View.VISIBLE);
+        updateCategoryTabUI(currentCategoryFilter);
 
-        new Thread(() -> {
-            // ✅ GET ONLY CURRENT USER'S CLOTHES
-            String currentUserId = getCurrentUserId();
-            List<ClothingItem> items = clothingRepository.getClothingByUserId(currentUserId);
+        // ✅ GET ONLY CURRENT USER'S CLOTHES - one page at a time, filtered and sorted on the server
+        final String currentUserId = getCurrentUserId();
+        final String category = currentCategoryFilter;
+        final String sort = lastSelectedSort;
+        // ✅ Season / occasion tags are matched by the server too, so every page is already filtered
+        final TagFilter tags = currentTags();
+        loadedTags = tags;
+        pager.reset((from, to) -> clothingRepository.getClothingPageForUser(currentUserId, category, tags, sort, from, to));
+    }
 
-            runOnUiThread(() -> {
-                if (items != null) {
-                    allClothingItems.clear();
-                    allClothingItems.addAll(items);
-                    clothingItems.clear();
-                    clothingItems.addAll(allClothingItems);
+    private void onClothingPageLoaded(List<ClothingItem> page, boolean firstPage) {
+        if (firstPage) {
+            allClothingItems.clear();
+            clothingIndex = null;
+        }
+        allClothingItems.addAll(page);
 
-                    updateCategoryTabVisibility();
-                    filterAndDisplay();
+        List<ClothingItem> visible = applyLocalFilters(page);
+        if (firstPage) {
+            if ("All".equals(currentCategoryFilter) && activeSeasons.isEmpty() && activeOccasions.isEmpty()) {
+                isClosetEmpty = page.isEmpty();
+                if (isClosetEmpty) showToast("No clothing items found in your closet");
+            }
+            clothingItems = new ArrayList<>(visible);
+            adapter.replaceItems(visible);
+            updateUI(clothingItems);
+        } else {
+            clothingItems.addAll(visible);
+            adapter.appendItems(visible);
+        }
 
-                    if (allClothingItems.isEmpty()) {
-                        showToast("No clothing items found in your closet");
-                    } else {
-                        showToast("Loaded " + allClothingItems.size() + " items from your closet");
-                    }
-                } else {
-                    showToast("Failed to load your clothing items");
-                    updateUI(new ArrayList<>());
-                }
+        // Short pages may not fill the screen - keep loading until they do
+        recyclerView.post(() -> pagingScrollListener.maybeLoadMore(recyclerView));
+    }
+
+    /** Tabs only need each item's category, so fetch that single column instead of whole rows. */
+    private void loadCategoryTabs() {
+        final String currentUserId = getCurrentUserId();
+        taskScope.launch(() -> {
+            List<String> categories = clothingRepository.getClothingCategoriesForUser(currentUserId);
+            taskScope.post(() -> {
+                isClosetEmpty = categories.isEmpty();
+                updateCategoryTabVisibility(categories);
+                updateUI(clothingItems);
             });
-        }).start();
+        });
     }
 
     // ✅ ADD THIS METHOD TO GET CURRENT USER ID
@@ -286,16 +336,16 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
     }
 
     // ✅ FIXED: More robust tab visibility detection for category changes
-    private void updateCategoryTabVisibility() {
+    private void updateCategoryTabVisibility(List<String> categories) {
         tabTops.setVisibility(View.GONE);
         tabBottoms.setVisibility(View.GONE);
         tabOuterwear.setVisibility(View.GONE);
         tabAccessories.setVisibility(View.GONE);
         tabFootwear.setVisibility(View.GONE);
 
-        for (ClothingItem item : allClothingItems) {
-            if (item.getCategory() == null) continue;
-            String category = item.getCategory().toLowerCase(Locale.getDefault()).trim();
+        for (String rawCategory : categories) {
+            if (rawCategory == null) continue;
+            String category = rawCategory.toLowerCase(Locale.getDefault()).trim();
 
             if (category.contains("top")) tabTops.setVisibility(View.VISIBLE);
             else if (category.contains("bottom")) tabBottoms.setVisibility(View.VISIBLE);
@@ -305,45 +355,68 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         }
     }
 
-    // ✅ CENTRALIZED FILTERING LOGIC
+    // ✅ CENTRALIZED FILTERING LOGIC - re-applies the tab, and the tags when the server didn't, to the loaded pages
     private void filterAndDisplay() {
-        List<ClothingItem> filtered = new ArrayList<>();
+        List<ClothingItem> source = allClothingItems;
+        TagFilter tags = currentTags();
+        if (loadedTags.isEmpty() && !tags.isEmpty()) {
+            source = clothingIndex().select(tags);
+        }
+        clothingItems = new ArrayList<>(applyLocalFilters(source));
+        adapter.replaceItems(clothingItems);
+        updateCategoryTabUI(currentCategoryFilter);
+        updateUI(clothingItems);
+        recyclerView.post(() -> pagingScrollListener.maybeLoadMore(recyclerView));
+    }
 
-        for (ClothingItem item : allClothingItems) {
-            if (!isCategoryMatch(item.getCategory(), currentCategoryFilter)) continue;
+    private TagFilter currentTags() {
+        return new TagFilter()
+                .anyOf("season", activeSeasons)
+                .anyOf("occasion", activeOccasions);
+    }
 
-            boolean seasonMatch = activeSeasons.isEmpty();
-            boolean occasionMatch = activeOccasions.isEmpty();
+    /** Once every item of the tab is loaded unfiltered, tag filters can be answered from memory. */
+    private boolean canFilterLocally() {
+        return loadedTags.isEmpty() && !pager.hasMore() && !pager.isLoading();
+    }
 
-            String[] seasonParts = (item.getSeason() != null ? item.getSeason() : "").split("[,;/]");
-            String[] occasionParts = (item.getOccasion() != null ? item.getOccasion() : "").split("[,;/]");
+    /** Chip counts over the current tab - from memory when it's all loaded, else from its tag columns. */
+    private FacetCounter<ClothingItem> facetCounter() {
+        Supplier<TagIndex<ClothingItem>> emptyIndex = () -> new TagIndex<ClothingItem>()
+                .field("season", ClothingItem::getSeason)
+                .field("occasion", ClothingItem::getOccasion);
+        if (canFilterLocally()) {
+            return FacetCounter.of(new ArrayList<>(allClothingItems), emptyIndex);
+        }
+        final String userId = getCurrentUserId();
+        final String category = currentCategoryFilter;
+        return new FacetCounter<>(() -> {
+            TagIndex<ClothingItem> index = emptyIndex.get();
+            index.addAll(clothingRepository.getClothingTagsForUser(userId, category));
+            return index;
+        });
+    }
 
-            for (String part : seasonParts) {
-                for (String sel : activeSeasons) {
-                    if (part.trim().equalsIgnoreCase(sel.trim())) {
-                        seasonMatch = true;
-                        break;
-                    }
-                }
-            }
+    private TagIndex<ClothingItem> clothingIndex() {
+        if (clothingIndex == null) {
+            clothingIndex = new TagIndex<ClothingItem>()
+                    .field("season", ClothingItem::getSeason)
+                    .field("occasion", ClothingItem::getOccasion);
+        }
+        // Tokenize only the pages added since the last query
+        if (clothingIndex.size() < allClothingItems.size()) {
+            clothingIndex.addAll(allClothingItems.subList(clothingIndex.size(), allClothingItems.size()));
+        }
+        return clothingIndex;
+    }
 
-            for (String part : occasionParts) {
-                for (String sel : activeOccasions) {
-                    if (part.trim().equalsIgnoreCase(sel.trim())) {
-                        occasionMatch = true;
-                        break;
-                    }
-                }
-            }
+    private List<ClothingItem> applyLocalFilters(List<ClothingItem> source) {
+        List<ClothingItem> filtered = new ArrayList<>();
 
-            if (seasonMatch && occasionMatch) filtered.add(item);
+        for (ClothingItem item : source) {
+            if (isCategoryMatch(item.getCategory(), currentCategoryFilter)) filtered.add(item);
         }
-
-        clothingItems.clear();
-        clothingItems.addAll(filtered);
-        applySorting();
-        updateCategoryTabUI(currentCategoryFilter);
-        updateUI(clothingItems);
+        return filtered;
     }
 
     private boolean isCategoryMatch(String itemCategory, String tabCategory) {
@@ -380,20 +453,9 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
 
     private void updateUI(ArrayList<ClothingItem> items) {
         boolean isEmpty = items == null || items.isEmpty();
-        boolean isClosetEmpty = allClothingItems.isEmpty();
         recyclerView.setVisibility(isEmpty && !currentCategoryFilter.equals("All") ? View.GONE : View.VISIBLE);
         emptyStateLayout.setVisibility(isClosetEmpty ? View.VISIBLE : View.GONE);
         adapter.setShowAddTile(!isClosetEmpty);
-        adapter.notifyDataSetChanged();
-    }
-
-    private void applySorting() {
-        if (lastSelectedSort.equalsIgnoreCase("Recently added")) {
-            // For String IDs, we can't sort by ID like before. We'll use insertion order.
-            // In a real app, you might want to add a created_at timestamp to your Supabase table
-            Collections.sort(clothingItems, (a, b) -> b.getId().compareTo(a.getId()));
-        }
-        adapter.setItems(clothingItems);
     }
 
     private void navigateToMain() {
@@ -440,25 +502,34 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         // Show deletion progress
         showToast("Deleting " + selected.size() + " item(s)...");
 
-        new Thread(() -> {
-            int deletedCount = 0;
+        taskScope.launchToCompletion(() -> {
+            List<String> ids = new ArrayList<>();
+            for (ClothingItem item : selected) {
+                ids.add(item.getId());
+            }
 
+            // One id=in.(...) delete per 100 items; only remove what the server actually deleted
+            BulkResult<String> result = clothingRepository.deleteClothingItems(ids);
+            List<ClothingItem> deleted = new ArrayList<>();
             for (ClothingItem item : selected) {
-                boolean success = clothingRepository.deleteClothing(item.getId());
-                if (success) {
-                    deletedCount++;
-                    // Remove from local lists
-                    allClothingItems.remove(item);
-                    clothingItems.remove(item);
+                if (result.isSucceeded(item.getId())) {
+                    deleted.add(item);
                 }
             }
 
-            final int finalDeletedCount = deletedCount;
-            runOnUiThread(() -> {
+            final int finalDeletedCount = deleted.size();
+            taskScope.post(() -> {
                 if (finalDeletedCount > 0) {
-                    showToast(finalDeletedCount + " item(s) deleted successfully");
-                    adapter.notifyDataSetChanged();
-                    updateCategoryTabVisibility();
+                    if (result.isComplete()) {
+                        showToast(finalDeletedCount + " item(s) deleted successfully");
+                    } else {
+                        showToast("Deleted " + finalDeletedCount + " of " + selected.size() + " item(s)");
+                    }
+                    // Remove from local lists and pull the next page's offset back to match
+                    allClothingItems.removeAll(deleted);
+                    clothingIndex = null;
+                    pager.onItemsRemoved(finalDeletedCount);
+                    loadCategoryTabs();
                     filterAndDisplay();
                 } else {
                     showToast("Failed to delete items");
@@ -466,7 +537,7 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
 
                 exitSelectionMode();
             });
-        }).start();
+        });
     }
 
     // ✅ FILTER CALLBACK — store selections and refresh list
@@ -476,6 +547,12 @@ public class YourClothesActivity extends BaseDrawerActivity implements FilterBot
         activeSeasons.addAll(seasons);
         activeOccasions.clear();
         activeOccasions.addAll(occasions);
-        filterAndDisplay();
+        if (canFilterLocally()) {
+            // The whole tab is in memory - answer from the tag index, no request
+            filterAndDisplay();
+        } else {
+            // Otherwise filtering happens on the server, so start again from the first page
+            reloadFirstPage();
+        }
     }
 }
\ No newline at end of file
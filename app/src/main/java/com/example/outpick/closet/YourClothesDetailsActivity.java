@@ -17,6 +17,7 @@ import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.flexbox.FlexboxLayout;
 
 import java.util.Arrays;
@@ -46,6 +47,7 @@ public class YourClothesDetailsActivity extends AppCompatActivity {
     private ClothingItem clothingItem;
     private SupabaseService supabaseService;
     private ClothingRepository clothingRepository;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -444,10 +446,10 @@ public class YourClothesDetailsActivity extends AppCompatActivity {
     }
 
     private void updateClothingItemInSupabase() {
-        new Thread(() -> {
+        taskScope.launchToCompletion(() -> {
             boolean success = clothingRepository.updateClothingItem(clothingItem);
 
-            runOnUiThread(() -> {
+            taskScope.post(() -> {
                 saveButton.setEnabled(true);
                 saveButton.setText("Save");
 
@@ -462,6 +464,6 @@ public class YourClothesDetailsActivity extends AppCompatActivity {
                     Toast.makeText(YourClothesDetailsActivity.this, "Failed to update item", Toast.LENGTH_SHORT).show();
                 }
             });
-        }).start();
+        });
     }
 }
\ No newline at end of file
@@ -16,24 +16,24 @@ import com.example.outpick.database.models.Outfit;
 import com.example.outpick.R;
 import com.example.outpick.common.adapters.SuggestionAdapter;
 import com.example.outpick.database.repositories.OutfitRepository;
+import com.example.outpick.database.supabase.BulkResult;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.Pager;
+import com.example.outpick.utils.PagingScrollListener;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
-import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class ContentOutfitsActivity extends AppCompatActivity {
 
     private RecyclerView recyclerViewOutfits;
     private SuggestionAdapter adapter;
     private SupabaseService supabaseService;
     private OutfitRepository outfitRepository;
+    private Pager<Outfit> pager;
 
     private ImageButton btnBackOutfits;
     private ImageButton btnOptions;
@@ -43,6 +43,7 @@ public class ContentOutfitsActivity extends AppCompatActivity {
     // ⭐ CRITICAL NEW FIELD: Store the current username
     private String currentUsername;
     private String userId;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -77,8 +78,13 @@ public class ContentOutfitsActivity extends AppCompatActivity {
             btnBackOutfits.setOnClickListener(v -> onBackPressed());
         }
 
-        // --- Load outfits initially ---
-        loadOutfitsFromSupabase();
+        // ⭐ CRITICAL FIX: Use the new SuggestionAdapter constructor:
+        adapter = new SuggestionAdapter(this, new ArrayList<>(), false, currentUsername);
+        recyclerViewOutfits.setAdapter(adapter);
+
+        // --- Outfits are paged in as the user scrolls (first page loads in onResume) ---
+        pager = new Pager<>(taskScope, this::onOutfitsPageLoaded);
+        recyclerViewOutfits.addOnScrollListener(new PagingScrollListener(pager));
 
         // --- Options button (3-dot opens bottom sheet) ---
         btnOptions.setOnClickListener(v -> showBottomSheet());
@@ -132,94 +138,20 @@ public class ContentOutfitsActivity extends AppCompatActivity {
         btnOptions.setOnClickListener(v -> showBottomSheet());
     }
 
-    /** Load all outfits from Supabase */
+    /** Load outfits from Supabase one page at a time */
     private void loadOutfitsFromSupabase() {
-        Call<List<JsonObject>> call = supabaseService.getOutfits();
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    List<Outfit> outfits = convertJsonToOutfits(response.body());
-
-                    // ⭐ CRITICAL FIX: Use the new SuggestionAdapter constructor:
-                    adapter = new SuggestionAdapter(ContentOutfitsActivity.this, outfits, false, currentUsername);
-                    recyclerViewOutfits.setAdapter(adapter);
-
-                    Toast.makeText(ContentOutfitsActivity.this, "Loaded " + outfits.size() + " outfits", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(ContentOutfitsActivity.this, "Failed to load outfits", Toast.LENGTH_SHORT).show();
-                    // Initialize with empty list
-                    adapter = new SuggestionAdapter(ContentOutfitsActivity.this, new ArrayList<>(), false, currentUsername);
-                    recyclerViewOutfits.setAdapter(adapter);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                Toast.makeText(ContentOutfitsActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                // Initialize with empty list
-                adapter = new SuggestionAdapter(ContentOutfitsActivity.this, new ArrayList<>(), false, currentUsername);
-                recyclerViewOutfits.setAdapter(adapter);
-            }
-        });
+        pager.reset(outfitRepository::getOutfitsPage);
     }
 
-    /** Convert JSON objects to Outfit objects with null safety */
-    private List<Outfit> convertJsonToOutfits(List<JsonObject> jsonObjects) {
-        List<Outfit> outfits = new ArrayList<>();
-        for (JsonObject json : jsonObjects) {
-            try {
-                Outfit outfit = new Outfit();
-
-                // Safe field access with null checks
-                if (json.has("id") && !json.get("id").isJsonNull()) {
-                    outfit.setId(json.get("id").getAsString());
-                }
-
-                if (json.has("name") && !json.get("name").isJsonNull()) {
-                    outfit.setName(json.get("name").getAsString());
-                }
-
-                if (json.has("image_uri") && !json.get("image_uri").isJsonNull()) {
-                    outfit.setImageUri(json.get("image_uri").getAsString());
-                }
-
-                if (json.has("category") && !json.get("category").isJsonNull()) {
-                    outfit.setCategory(json.get("category").getAsString());
-                }
-
-                if (json.has("season") && !json.get("season").isJsonNull()) {
-                    outfit.setSeason(json.get("season").getAsString());
-                }
-
-                // Handle both 'occasion' and 'event' fields
-                if (json.has("occasion") && !json.get("occasion").isJsonNull()) {
-                    outfit.setEvent(json.get("occasion").getAsString());
-                } else if (json.has("event") && !json.get("event").isJsonNull()) {
-                    outfit.setEvent(json.get("event").getAsString());
-                }
-
-                if (json.has("style") && !json.get("style").isJsonNull()) {
-                    outfit.setStyle(json.get("style").getAsString());
-                }
-
-                if (json.has("gender") && !json.get("gender").isJsonNull()) {
-                    outfit.setGender(json.get("gender").getAsString());
-                }
-
-                // Set default values if needed
-                if (outfit.getName() == null || outfit.getName().isEmpty()) {
-                    outfit.setName("Unnamed Outfit");
-                }
-
-                outfits.add(outfit);
-
-            } catch (Exception e) {
-                Log.e("ContentOutfits", "Error converting outfit JSON: " + e.getMessage());
-                // Skip this outfit and continue with others
+    private void onOutfitsPageLoaded(List<Outfit> page, boolean firstPage) {
+        if (firstPage) {
+            adapter.replaceItems(page);
+            if (page.isEmpty()) {
+                Toast.makeText(ContentOutfitsActivity.this, "No outfits found", Toast.LENGTH_SHORT).show();
             }
+        } else {
+            adapter.appendItems(page);
         }
-        return outfits;
     }
 
     /** Delete selected outfits from Supabase */
@@ -235,54 +167,31 @@ public class ContentOutfitsActivity extends AppCompatActivity {
         // Show progress
         Toast.makeText(this, "Deleting " + selectedOutfits.size() + " outfits...", Toast.LENGTH_SHORT).show();
 
-        // Delete each selected outfit from Supabase
-        int[] deleteCount = {0};
-        int[] successCount = {0};
-
-        for (Outfit outfit : selectedOutfits) {
-            deleteOutfitFromSupabase(outfit, selectedOutfits.size(), deleteCount, successCount);
-        }
-    }
-
-    private void deleteOutfitFromSupabase(Outfit outfit, int totalCount, int[] deleteCount, int[] successCount) {
-        Call<Void> call = supabaseService.deleteOutfit(outfit.getId());
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                deleteCount[0]++;
-                if (response.isSuccessful()) {
-                    successCount[0]++;
-                    // Remove from adapter
-                    adapter.removeOutfit(outfit);
-                } else {
-                    Log.e("ContentOutfitsActivity", "Failed to delete outfit: " + outfit.getId() + " - " + response.code());
-                }
-
-                // Check if all deletions are complete
-                if (deleteCount[0] >= totalCount) {
-                    runOnUiThread(() -> {
-                        adapter.notifyDataSetChanged();
-                        exitMultiSelectMode();
-                        String message = "Deleted " + successCount[0] + " of " + totalCount + " outfits";
-                        Toast.makeText(ContentOutfitsActivity.this, message, Toast.LENGTH_SHORT).show();
-                    });
-                }
+        // Delete all selected outfits with id=in.(...) requests instead of one call per outfit
+        taskScope.launchToCompletion(() -> {
+            List<String> ids = new ArrayList<>();
+            for (Outfit outfit : selectedOutfits) {
+                ids.add(outfit.getId());
             }
-
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                deleteCount[0]++;
-                Log.e("ContentOutfitsActivity", "Network error deleting outfit: " + t.getMessage());
-
-                if (deleteCount[0] >= totalCount) {
-                    runOnUiThread(() -> {
-                        adapter.notifyDataSetChanged();
-                        exitMultiSelectMode();
-                        String message = "Completed " + successCount[0] + " of " + totalCount + " deletions";
-                        Toast.makeText(ContentOutfitsActivity.this, message, Toast.LENGTH_SHORT).show();
-                    });
+            BulkResult<String> result = outfitRepository.deleteOutfits(ids);
+
+            taskScope.post(() -> {
+                List<Outfit> deleted = new ArrayList<>();
+                for (Outfit outfit : selectedOutfits) {
+                    if (result.isSucceeded(outfit.getId())) {
+                        deleted.add(outfit);
+                    } else {
+                        Log.e("ContentOutfitsActivity", "Failed to delete outfit: " + outfit.getId());
+                    }
                 }
-            }
+                int successCount = deleted.size();
+                adapter.removeOutfits(deleted);
+                // Pull the next page's offset back to match
+                pager.onItemsRemoved(successCount);
+                exitMultiSelectMode();
+                String message = "Deleted " + successCount + " of " + selectedOutfits.size() + " outfits";
+                Toast.makeText(ContentOutfitsActivity.this, message, Toast.LENGTH_SHORT).show();
+            });
         });
     }
 
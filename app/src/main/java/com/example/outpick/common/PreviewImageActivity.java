@@ -26,7 +26,9 @@ import com.example.outpick.closet.YourClothesActivity;
 import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.AppLog;
 import com.example.outpick.utils.ImageUploader;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.flexbox.FlexboxLayout;
 
 import java.io.File;
@@ -76,6 +78,7 @@ public class PreviewImageActivity extends AppCompatActivity {
     private static final String REMOVE_BG_API_KEY = "Xuidn9aVNMWAZan8q9aUe1LC";
     private static final String REMOVE_BG_URL = "https://api.remove.bg/v1.0/removebg";
     private static final String TAG = "PreviewImageActivity";
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -155,7 +158,7 @@ public class PreviewImageActivity extends AppCompatActivity {
     private void loadImageFromIntent() {
         // Debug: Log all intent extras
         Bundle extras = getIntent().getExtras();
-        if (extras != null) {
+        if (AppLog.DEBUG && extras != null) {
             for (String key : extras.keySet()) {
                 Log.d(TAG, "Intent extra - " + key + ": " + extras.get(key));
             }
@@ -460,8 +463,9 @@ public class PreviewImageActivity extends AppCompatActivity {
         // ✅ GET THE CURRENT USER'S ID FOR THEIR CLOSET
         String currentUserId = getCurrentUserId();
 
-        // Use user ID for the clothing item
-        new Thread(() -> {
+        // Use user ID for the clothing item - queued in the outbox, so this returns once it is saved
+        // on the device; Supabase gets it in the background, with retries
+        taskScope.launchToCompletion(() -> {
             boolean success = clothingRepository.addClothingItemWithUserId(
                     itemName,
                     cloudImageUrl,
@@ -471,7 +475,7 @@ public class PreviewImageActivity extends AppCompatActivity {
                     currentUserId // ✅ PASS USER ID
             );
 
-            runOnUiThread(() -> {
+            taskScope.post(() -> {
                 progressBar.setVisibility(View.GONE);
                 saveButton.setEnabled(true);
                 saveButton.setText("Save");
@@ -479,8 +483,7 @@ public class PreviewImageActivity extends AppCompatActivity {
                 if (success) {
                     Toast.makeText(this, "Clothing item saved to your closet!", Toast.LENGTH_SHORT).show();
 
-                    // Refresh the repository cache
-                    clothingRepository.getAllClothing();
+                    // No reload needed: the outbox already put the new item in the mirror
 
                     Intent intent = fromItemsAdding
                             ? new Intent(PreviewImageActivity.this, ItemsAddingActivity.class)
@@ -493,7 +496,7 @@ public class PreviewImageActivity extends AppCompatActivity {
                     Toast.makeText(this, "Failed to save item to cloud", Toast.LENGTH_SHORT).show();
                 }
             });
-        }).start();
+        });
     }
 
     // ✅ ADD THIS METHOD TO GET CURRENT USER ID
@@ -513,7 +516,8 @@ public class PreviewImageActivity extends AppCompatActivity {
             return;
         }
 
-        OkHttpClient client = new OkHttpClient();
+        // ✅ Shared client: reuses the app's connection pool and dispatcher
+        OkHttpClient client = SupabaseClient.getHttpClient();
         RequestBody requestBody = new MultipartBody.Builder()
                 .setType(MultipartBody.FORM)
                 .addFormDataPart("image_file", imageFile.getName(),
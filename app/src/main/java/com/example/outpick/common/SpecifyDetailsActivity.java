@@ -15,7 +15,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.outpick.R;
-import com.example.outpick.database.repositories.ClosetSnapshotRepository;
+import com.example.outpick.database.models.Outfit;
 import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.repositories.UserOutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
@@ -24,11 +24,11 @@ import com.example.outpick.dialogs.StyleBottomSheetDialog;
 import com.example.outpick.outfits.OutfitCombinationActivity;
 import com.example.outpick.outfits.OutfitCreationActivity;
 import com.example.outpick.utils.ImageUploader;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 
 public class SpecifyDetailsActivity extends AppCompatActivity {
 
@@ -55,13 +55,13 @@ public class SpecifyDetailsActivity extends AppCompatActivity {
     private SupabaseService supabaseService;
     private OutfitRepository outfitRepository;
     private UserOutfitRepository userOutfitRepository;
-    private ClosetSnapshotRepository closetSnapshotRepository;
     private ImageUploader imageUploader;
     private String currentUserId;
 
     // Closet selection
     private String selectedClosetId;
     private String selectedClosetName;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -72,7 +72,6 @@ public class SpecifyDetailsActivity extends AppCompatActivity {
         supabaseService = SupabaseClient.getService();
         outfitRepository = new OutfitRepository(supabaseService);
         userOutfitRepository = new UserOutfitRepository(supabaseService, outfitRepository);
-        closetSnapshotRepository = new ClosetSnapshotRepository(supabaseService);
         imageUploader = new ImageUploader(this);
 
         // Get current user ID
@@ -252,14 +251,16 @@ public class SpecifyDetailsActivity extends AppCompatActivity {
      * Save outfit to database and assign to selected closet
      */
     private void saveOutfitWithCloset(String imageUrl, String name, String event, String season, String style) {
-        new Thread(() -> {
+        taskScope.launchToCompletion(() -> {
             try {
                 Log.d(TAG, "Saving outfit to database...");
                 Log.d(TAG, "Image URL: " + imageUrl);
                 Log.d(TAG, "Name: " + name);
 
-                // Save outfit to outfits table
-                boolean outfitAdded = outfitRepository.addOutfit(
+                // Create outfit, assign it to the user and add it to the selected closet.
+                // The insert returns the new row, so no rescan of the outfits table is needed.
+                Outfit draft = new Outfit(
+                        null,
                         imageUrl,
                         name != null ? name : "New Outfit",
                         "General",
@@ -269,77 +270,49 @@ public class SpecifyDetailsActivity extends AppCompatActivity {
                         season != null ? season : "All-Season",
                         style != null ? style : "Casual"
                 );
+                UserOutfitRepository.CreatedOutfit result =
+                        userOutfitRepository.createOutfitForUser(draft, currentUserId, "self", selectedClosetId);
 
-                Log.d(TAG, "Outfit added to outfits table: " + outfitAdded);
-
-                if (outfitAdded && currentUserId != null) {
-                    // Get the newly created outfit ID
-                    List<com.example.outpick.database.models.Outfit> allOutfits = outfitRepository.getAllOutfits();
-                    Log.d(TAG, "Total outfits in database: " + allOutfits.size());
-
-                    String newOutfitId = null;
-                    for (com.example.outpick.database.models.Outfit outfit : allOutfits) {
-                        Log.d(TAG, "Checking outfit: " + outfit.getName() + " - " + outfit.getImageUri());
-                        if (outfit.getImageUri().equals(imageUrl)) {
-                            newOutfitId = outfit.getId();
-                            Log.d(TAG, "Found matching outfit with ID: " + newOutfitId);
-                            break;
-                        }
-                    }
+                Log.d(TAG, "Outfit added to outfits table: " + (result.outfit != null));
+
+                if (result.outfit != null && currentUserId != null) {
+                    Log.d(TAG, "Outfit assigned to user: " + result.assigned);
 
-                    if (newOutfitId != null) {
-                        // Assign outfit to user
-                        boolean assigned = userOutfitRepository.assignOutfitToUser(
-                                newOutfitId,
-                                currentUserId,
-                                "self"
-                        );
-
-                        Log.d(TAG, "Outfit assigned to user: " + assigned);
-
-                        // ✅ ADD TO SELECTED CLOSET
-                        if (selectedClosetId != null && assigned) {
-                            boolean addedToCloset = closetSnapshotRepository.addOutfitToCloset(selectedClosetId, imageUrl);
-
-                            runOnUiThread(() -> {
-                                if (addedToCloset) {
-                                    Toast.makeText(SpecifyDetailsActivity.this,
-                                            "✅ Outfit saved to " + selectedClosetName + "!", Toast.LENGTH_SHORT).show();
-
-                                    // Go to OutfitCombinationActivity
-                                    navigateToOutfitCombination();
-                                } else {
-                                    Toast.makeText(SpecifyDetailsActivity.this,
-                                            "Outfit saved but failed to add to closet", Toast.LENGTH_SHORT).show();
-                                }
-                            });
-                        } else {
-                            runOnUiThread(() -> {
+                    // ✅ ADD TO SELECTED CLOSET
+                    if (selectedClosetId != null && result.assigned) {
+                        taskScope.post(() -> {
+                            if (result.addedToCloset) {
                                 Toast.makeText(SpecifyDetailsActivity.this,
-                                        "Outfit saved successfully!", Toast.LENGTH_SHORT).show();
+                                        "✅ Outfit saved to " + selectedClosetName + "!", Toast.LENGTH_SHORT).show();
+
+                                // Go to OutfitCombinationActivity
                                 navigateToOutfitCombination();
-                            });
-                        }
+                            } else {
+                                Toast.makeText(SpecifyDetailsActivity.this,
+                                        "Outfit saved but failed to add to closet", Toast.LENGTH_SHORT).show();
+                            }
+                        });
                     } else {
-                        runOnUiThread(() -> {
+                        taskScope.post(() -> {
                             Toast.makeText(SpecifyDetailsActivity.this,
-                                    "Failed to save outfit - could not find outfit ID", Toast.LENGTH_SHORT).show();
+                                    "Outfit saved successfully!", Toast.LENGTH_SHORT).show();
+                            navigateToOutfitCombination();
                         });
                     }
                 } else {
-                    runOnUiThread(() -> {
+                    taskScope.post(() -> {
                         Toast.makeText(SpecifyDetailsActivity.this,
                                 "Failed to save outfit to database", Toast.LENGTH_SHORT).show();
                     });
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error saving outfit: " + e.getMessage());
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     Toast.makeText(SpecifyDetailsActivity.this,
                             "Error saving outfit: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
             }
-        }).start();
+        });
     }
 
     /**
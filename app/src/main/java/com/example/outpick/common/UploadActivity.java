@@ -21,6 +21,7 @@ import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.utils.ImageUploader;
+import com.example.outpick.utils.TaskScope;
 
 import java.io.InputStream;
 
@@ -33,6 +34,7 @@ public class UploadActivity extends AppCompatActivity {
     private ClothingRepository clothingRepository;
     private Uri selectedImageUri = null;
     private Button btnSave;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -135,7 +137,7 @@ public class UploadActivity extends AppCompatActivity {
         String season = "All-Season";
         String occasion = "Casual";
 
-        new Thread(() -> {
+        taskScope.launchToCompletion(() -> {
             boolean success = clothingRepository.addClothingItem(
                     itemName,
                     cloudImageUrl, // Use CLOUD URL instead of local path
@@ -144,7 +146,7 @@ public class UploadActivity extends AppCompatActivity {
                     occasion
             );
 
-            runOnUiThread(() -> {
+            taskScope.post(() -> {
                 if (success) {
                     Toast.makeText(UploadActivity.this, "Clothing item saved to cloud!", Toast.LENGTH_SHORT).show();
                     // Clear the form
@@ -158,6 +160,6 @@ public class UploadActivity extends AppCompatActivity {
                 btnSave.setEnabled(true);
                 btnSave.setText("Save");
             });
-        }).start();
+        });
     }
 }
\ No newline at end of file
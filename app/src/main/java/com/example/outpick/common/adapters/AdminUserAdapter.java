@@ -23,23 +23,41 @@ import com.example.outpick.database.supabase.SupabaseService;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.UserViewHolder> {
+public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.UserViewHolder>
+        implements PagedAdapter<JsonObject> {
 
     private Context context;
-    private List<JsonObject> userList;
+    // Rebind payload for the "ID: n" label, which follows the row's position
+    private static final String PAYLOAD_NUMBER = "number";
+
+    // ✅ Page reloads are diffed in the background; only changed rows are rebound
+    private final ListDiffer<JsonObject> userList = new ListDiffer<>(this, new ListDiffer.ItemKeys<JsonObject>() {
+        @Override
+        public Object idOf(JsonObject user) {
+            return ListDiffer.idOr(getSafeString(user, "id", ""), user);
+        }
+
+        @Override
+        public Object contentOf(JsonObject user) {
+            // Rows arrive as fresh objects per page, and JsonObject equality compares every field
+            return user;
+        }
+    });
     private SupabaseService supabaseService;
     private Runnable refreshCallback;
     private static final int EDIT_USER_REQUEST = 100;
 
     public AdminUserAdapter(Context context, List<JsonObject> userList, SupabaseService supabaseService, Runnable refreshCallback) {
         this.context = context;
-        this.userList = userList;
+        setHasStableIds(true);
+        this.userList.submit(userList);
         this.supabaseService = supabaseService;
         this.refreshCallback = refreshCallback;
     }
@@ -51,6 +69,20 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
         return new UserViewHolder(view);
     }
 
+    @Override
+    public long getItemId(int position) {
+        return userList.stableIdOf(userList.get(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull UserViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_NUMBER)) {
+            holder.txtUserId.setText("ID: " + (position + 1));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
         JsonObject user = userList.get(position);
@@ -124,8 +156,11 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
 
         // ✅ Create Outfit → PASS BOTH USER ID AND USERNAME TO CREATE OUTFIT ACTIVITY
         holder.btnCreateOutfit.setOnClickListener(v -> {
-            String outfitUserId = getSafeString(user, "id", "");
-            String outfitUsername = getSafeString(user, "username", "");
+            int pos = holder.getAdapterPosition();
+            if (pos == RecyclerView.NO_POSITION) return;
+            JsonObject outfitUser = userList.get(pos);
+            String outfitUserId = getSafeString(outfitUser, "id", "");
+            String outfitUsername = getSafeString(outfitUser, "username", "");
 
             if (!outfitUserId.isEmpty() && !outfitUsername.isEmpty()) {
                 Intent intent = new Intent(context, UserAdminCreateOutfitActivity.class);
@@ -152,9 +187,7 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
                     // Remove from local list and update UI
                     int currentPosition = holder.getAdapterPosition();
                     if (currentPosition != RecyclerView.NO_POSITION) {
-                        userList.remove(currentPosition);
-                        notifyItemRemoved(currentPosition);
-                        notifyItemRangeChanged(currentPosition, userList.size());
+                        removeUser(userList.get(currentPosition));
                     }
 
                     // Refresh the list
@@ -199,8 +232,28 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
 
     // ✅ Update RecyclerView data
     public void updateUsers(List<JsonObject> newUsers) {
-        this.userList = newUsers;
-        notifyDataSetChanged();
+        replaceItems(newUsers);
+    }
+
+    @Override
+    public void replaceItems(List<JsonObject> users) {
+        userList.submit(users, this::renumber);
+    }
+
+    @Override
+    public void appendItems(List<JsonObject> users) {
+        userList.append(users);
+    }
+
+    private void removeUser(JsonObject user) {
+        List<JsonObject> next = new ArrayList<>(userList.getItems());
+        next.remove(user);
+        userList.submit(next, this::renumber);
+    }
+
+    // Rows that moved keep their old "ID: n" otherwise; the label is all that's rebound
+    private void renumber() {
+        if (userList.size() > 0) notifyItemRangeChanged(0, userList.size(), PAYLOAD_NUMBER);
     }
 
     // ✅ Safe method to get string values from JsonObject
@@ -25,7 +25,7 @@ import com.example.outpick.closet.ClosetDetailActivity;
 import com.example.outpick.closet.CreateClosetActivity;
 import com.example.outpick.closet.YourClothesActivity;
 import com.example.outpick.database.models.ClosetItem;
-import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.repositories.UserOutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
@@ -33,8 +33,13 @@ import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.outfits.CreateOutfitActivity;
 import com.example.outpick.outfits.OutfitCombinationActivity;
 import com.example.outpick.outfits.OutfitCreationActivity;
+import com.example.outpick.utils.AppLog;
+import com.example.outpick.utils.BackgroundExecutor.Priority;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.example.outpick.common.BaseDrawerActivity;
@@ -44,30 +49,62 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
     private static final int TYPE_OUTFIT = 0;
     private static final int TYPE_ALL_CLOTHES = 1;
     private static final int TYPE_CREATE = 2;
-    private static final int TYPE_DEFAULT = 3;
+    /** User closet cards - the type worth pre-inflating. */
+    public static final int TYPE_DEFAULT = 3;
     private static final String TAG = "ClosetAdapter";
 
+    // Rebind payload for the count cards, so only their badge reloads
+    private static final String PAYLOAD_COUNT = "count";
+
     private final MainActivity mainActivity;
-    private final List<ClosetItem> closetList;
+    // ✅ Reloads on resume are diffed in the background; only changed cards are rebound
+    private final ListDiffer<ClosetItem> closetList = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClosetItem>() {
+        @Override
+        public Object idOf(ClosetItem item) {
+            // The static cards have no id; their type and name don't change
+            return ListDiffer.idOr(item.getId(), item.getType() + ":" + item.getName());
+        }
+
+        @Override
+        public Object contentOf(ClosetItem item) {
+            return Arrays.asList(item.getName(), item.getDescription(), item.getCoverImageUri());
+        }
+    });
     private final SupabaseService supabaseService;
     private final UserOutfitRepository userOutfitRepository;
     private final OutfitRepository outfitRepository;
+    private final ClothingRepository clothingRepository;
     private final String currentUserId;
+    // Cancelled when MainActivity is destroyed
+    private final TaskScope taskScope;
 
     public ClosetAdapter(MainActivity mainActivity, List<ClosetItem> closetList) {
         this.mainActivity = mainActivity;
-        this.closetList = closetList;
+        setHasStableIds(true);
+        this.closetList.submit(closetList);
         this.supabaseService = SupabaseClient.getService();
+        this.taskScope = TaskScope.of(mainActivity);
 
         // Initialize repositories
         this.outfitRepository = new OutfitRepository(supabaseService);
         this.userOutfitRepository = new UserOutfitRepository(supabaseService, outfitRepository);
+        this.clothingRepository = ClothingRepository.getInstance(supabaseService);
 
         // Get current user ID
         SharedPreferences prefs = mainActivity.getSharedPreferences("UserPrefs", MainActivity.MODE_PRIVATE);
         this.currentUserId = prefs.getString("user_id", "");
     }
 
+    /** Show {@code closets}; cards that didn't change keep their views. */
+    public void setClosets(List<ClosetItem> closets) {
+        closetList.submit(closets);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return closetList.stableIdOf(closetList.get(position));
+    }
+
     @Override
     public int getItemViewType(int position) {
         String type = closetList.get(position).getType();
@@ -97,6 +134,17 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.contains(PAYLOAD_COUNT)) {
+            super.onBindViewHolder(holder, position, payloads);
+        } else if (holder instanceof OutfitViewHolder) {
+            loadOutfitSnapshotCountForCurrentUser((OutfitViewHolder) holder);
+        } else if (holder instanceof AllClothesViewHolder) {
+            loadClothingCountForCurrentUser((AllClothesViewHolder) holder);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         ClosetItem item = closetList.get(position);
@@ -177,8 +225,10 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
                 inflater.inflate(R.menu.menu_closet_item, popup.getMenu());
 
                 popup.setOnMenuItemClickListener(menuItem -> {
-                    if (menuItem.getItemId() == R.id.action_delete) {
-                        deleteClosetFromSupabase(item, position);
+                    // Unchanged cards aren't rebound after a diff, so read the card's current item
+                    int currentPosition = h.getAdapterPosition();
+                    if (menuItem.getItemId() == R.id.action_delete && currentPosition != RecyclerView.NO_POSITION) {
+                        deleteClosetFromSupabase(closetList.get(currentPosition));
                         return true;
                     }
                     return false;
@@ -188,77 +238,58 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
             });
 
             h.itemView.setOnClickListener(v -> {
+                int currentPosition = h.getAdapterPosition();
+                if (currentPosition == RecyclerView.NO_POSITION) return;
+                ClosetItem clicked = closetList.get(currentPosition);
                 Intent intent = new Intent(mainActivity, ClosetDetailActivity.class);
-                intent.putExtra("closet_name", item.getName());
+                intent.putExtra("closet_name", clicked.getName());
+                intent.putExtra("closet_id", clicked.getId()); // ✅ Saves the detail screen a lookup by name
                 mainActivity.startActivity(intent);
             });
         }
     }
 
-    // ✅ UPDATED: Load outfit count for CURRENT USER only
+    // ✅ UPDATED: Load outfit count for CURRENT USER only - a count-only request, no outfit rows
     private void loadOutfitSnapshotCountForCurrentUser(OutfitViewHolder holder) {
         if (currentUserId == null || currentUserId.isEmpty()) {
             holder.outfitSub.setText("Tap to View");
             return;
         }
 
-        // Run in background thread to avoid NetworkOnMainThreadException
-        new Thread(() -> {
-            try {
-                List<Outfit> userOutfits = userOutfitRepository.getOutfitsForUser(currentUserId);
-                int snapshotCount = userOutfits.size();
-
-                mainActivity.runOnUiThread(() -> {
-                    if (snapshotCount > 0) {
-                        holder.outfitSub.setText(snapshotCount + " Outfit" + (snapshotCount > 1 ? "s" : ""));
-                    } else {
-                        holder.outfitSub.setText("Tap to View");
-                    }
-                });
-
-                Log.d(TAG, "Loaded " + snapshotCount + " outfits for user: " + currentUserId);
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading user outfit count: " + e.getMessage());
-                mainActivity.runOnUiThread(() -> {
-                    holder.outfitSub.setText("Tap to View");
-                });
-            }
-        }).start();
+        // Off the main thread; a rebind or recycle of this holder cancels the previous count
+        TaskScope scope = holder.rebindScope(taskScope);
+        scope.launch(Priority.PREFETCH, () -> {
+            int snapshotCount = userOutfitRepository.countOutfitsForUser(currentUserId);
+            AppLog.d(TAG, () -> "Counted " + snapshotCount + " outfits for user: " + currentUserId);
+            scope.post(() -> showCount(holder.outfitSub, snapshotCount, "Outfit"));
+        });
     }
 
-    // ✅ NEW: Load clothing count for current user
+    // ✅ UPDATED: Load clothing count for current user - a count-only request, no clothing rows
     private void loadClothingCountForCurrentUser(AllClothesViewHolder holder) {
         if (currentUserId == null || currentUserId.isEmpty()) {
             holder.outfitSub.setText("Tap to View");
             return;
         }
 
-        // Run in background thread
-        new Thread(() -> {
-            try {
-                // You'll need to implement this method in your ClothingRepository
-                // For now, we'll show a placeholder
-                int clothingCount = 0; // This should come from your repository
-
-                mainActivity.runOnUiThread(() -> {
-                    if (clothingCount > 0) {
-                        holder.outfitSub.setText(clothingCount + " Item" + (clothingCount > 1 ? "s" : ""));
-                    } else {
-                        holder.outfitSub.setText("Tap to View");
-                    }
-                });
+        TaskScope scope = holder.rebindScope(taskScope);
+        scope.launch(Priority.PREFETCH, () -> {
+            int clothingCount = clothingRepository.countClothingForUser(currentUserId);
+            AppLog.d(TAG, () -> "Counted " + clothingCount + " clothing items for user: " + currentUserId);
+            scope.post(() -> showCount(holder.outfitSub, clothingCount, "Item"));
+        });
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading clothing count: " + e.getMessage());
-                mainActivity.runOnUiThread(() -> {
-                    holder.outfitSub.setText("Tap to View");
-                });
-            }
-        }).start();
+    // "3 Outfits" / "1 Item"; unknown (-1) or zero counts keep the "Tap to View" hint
+    private void showCount(TextView label, int count, String noun) {
+        if (count > 0) {
+            label.setText(count + " " + noun + (count > 1 ? "s" : ""));
+        } else {
+            label.setText("Tap to View");
+        }
     }
 
-    private void deleteClosetFromSupabase(ClosetItem closetItem, int position) {
+    private void deleteClosetFromSupabase(ClosetItem closetItem) {
         if (currentUserId.isEmpty()) {
             Toast.makeText(mainActivity, "User not logged in", Toast.LENGTH_SHORT).show();
             return;
@@ -276,7 +307,7 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
             }
 
             // Try to delete by name as fallback
-            deleteClosetByName(closetItem.getName(), position);
+            deleteClosetByName(closetItem);
             return;
         }
 
@@ -287,8 +318,7 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
             public void onResponse(@NonNull retrofit2.Call<Void> call, @NonNull retrofit2.Response<Void> response) {
                 if (response.isSuccessful()) {
                     // Remove from local list and update UI
-                    closetList.remove(position);
-                    notifyItemRemoved(position);
+                    removeCloset(closetItem);
                     Toast.makeText(mainActivity, "Closet deleted", Toast.LENGTH_SHORT).show();
                 } else {
                     Toast.makeText(mainActivity, "Failed to delete closet", Toast.LENGTH_SHORT).show();
@@ -302,17 +332,29 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         });
     }
 
-    private void deleteClosetByName(String closetName, int position) {
+    private void deleteClosetByName(ClosetItem closetItem) {
         // This is a fallback method - you might need to implement a proper query by name
         // For now, just remove from local list
-        closetList.remove(position);
-        notifyItemRemoved(position);
+        removeCloset(closetItem);
         Toast.makeText(mainActivity, "Closet removed locally", Toast.LENGTH_SHORT).show();
     }
 
+    // By item, not position: the position captured at bind time is stale once an earlier row is gone
+    private void removeCloset(ClosetItem closetItem) {
+        closetList.removeAll(Collections.singletonList(closetItem));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof CountingViewHolder) {
+            ((CountingViewHolder) holder).cancelWork();
+        }
+    }
+
     @Override
     public int getItemCount() {
-        return closetList != null ? closetList.size() : 0;
+        return closetList.size();
     }
 
     private void showBottomSheetMenu() {
@@ -340,8 +382,13 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
 
     // ✅ Called from MainActivity.onResume() to refresh the "X Outfits" label
     public void updateOutfitSnapshotCount() {
-        // This will automatically refresh when the adapter rebinds
-        notifyDataSetChanged();
+        // Only the count cards change; closet covers stay as they are
+        for (int i = 0; i < closetList.size(); i++) {
+            int viewType = getItemViewType(i);
+            if (viewType == TYPE_OUTFIT || viewType == TYPE_ALL_CLOTHES) {
+                notifyItemChanged(i, PAYLOAD_COUNT);
+            }
+        }
     }
 
     // ViewHolders
@@ -366,7 +413,30 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         }
     }
 
-    static class OutfitViewHolder extends RecyclerView.ViewHolder {
+    /** A card whose badge count loads in the background, bound to the holder's current item. */
+    abstract static class CountingViewHolder extends RecyclerView.ViewHolder {
+        private TaskScope workScope;
+
+        CountingViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        /** Cancel whatever the previous bind started and hand out a fresh scope for this bind. */
+        TaskScope rebindScope(TaskScope parent) {
+            cancelWork();
+            workScope = parent.child();
+            return workScope;
+        }
+
+        void cancelWork() {
+            if (workScope != null) {
+                workScope.cancel();
+                workScope = null;
+            }
+        }
+    }
+
+    static class OutfitViewHolder extends CountingViewHolder {
         ImageView plusBtn;
         TextView outfitLabel, outfitSub;
 
@@ -378,7 +448,7 @@ public class ClosetAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         }
     }
 
-    static class AllClothesViewHolder extends RecyclerView.ViewHolder {
+    static class AllClothesViewHolder extends CountingViewHolder {
         ImageView plusBtn;
         TextView outfitLabel, outfitSub;
 
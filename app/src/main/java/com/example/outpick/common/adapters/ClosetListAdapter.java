@@ -33,8 +33,13 @@ public class ClosetListAdapter extends RecyclerView.Adapter<ClosetListAdapter.Vi
         holder.checkedTextView.setChecked(position == selectedPosition);
 
         holder.itemView.setOnClickListener(v -> {
-            selectedPosition = position;
-            notifyDataSetChanged();
+            int clicked = holder.getAdapterPosition();
+            if (clicked == RecyclerView.NO_POSITION || clicked == selectedPosition) return;
+            // Only the old and new choice change
+            int previous = selectedPosition;
+            selectedPosition = clicked;
+            if (previous != -1) notifyItemChanged(previous);
+            notifyItemChanged(clicked);
         });
     }
 
@@ -18,18 +18,37 @@ import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.R;
+import com.example.outpick.utils.AppLog;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+        implements PagedAdapter<ClothingItem> {
 
     private static final int VIEW_TYPE_ADD = 0;
-    private static final int VIEW_TYPE_CLOTHING = 1;
+    /** Clothing tiles - the type worth pre-inflating. */
+    public static final int VIEW_TYPE_CLOTHING = 1;
     private static final String TAG = "ClothingAdapter";
 
     private final Context context;
-    private ArrayList<ClothingItem> items = new ArrayList<>();
+    // ✅ Binds run per scroll frame - log a sample, not every one
+    private final AppLog.Sampler bindLog = AppLog.sample(20);
+    // ✅ Refreshes are diffed in the background; only changed rows are rebound
+    private final ListDiffer<ClothingItem> items = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClothingItem>() {
+        @Override
+        public Object idOf(ClothingItem item) {
+            return ListDiffer.idOr(item.getId(), item);
+        }
+
+        @Override
+        public Object contentOf(ClothingItem item) {
+            // Selection is rebound separately with PAYLOAD_SELECTION
+            return Arrays.asList(item.getImageUri(), item.getCategory(), item.getSeason());
+        }
+    }, 1);
     private boolean showCheckboxes = false;
     private boolean showAddTile = true;
     private OnItemClickListener listener;
@@ -41,7 +60,8 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
 
     public ClothingAdapter(Context context, ArrayList<ClothingItem> items) {
         this.context = context;
-        if (items != null) this.items = items;
+        setHasStableIds(true);
+        if (items != null) this.items.submit(items);
     }
 
     public void setOnItemClickListener(OnItemClickListener listener) {
@@ -49,20 +69,36 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     }
 
     public void setShowCheckboxes(boolean show) {
+        if (show == showCheckboxes) return;
         this.showCheckboxes = show;
         clearAllSelections();
-        notifyDataSetChanged();
     }
 
     public void setShowAddTile(boolean show) {
+        if (show == showAddTile) return;
         this.showAddTile = show;
-        notifyDataSetChanged();
+        items.setHeaderCount(show ? 1 : 0);
+        if (show) notifyItemInserted(0);
+        else notifyItemRemoved(0);
     }
 
     public void setItems(ArrayList<ClothingItem> newItems) {
-        this.items = newItems != null ? newItems : new ArrayList<>();
-        clearAllSelections();
-        notifyDataSetChanged();
+        if (newItems != null) {
+            for (ClothingItem item : newItems) {
+                item.setSelected(false);
+            }
+        }
+        items.submit(newItems);
+    }
+
+    @Override
+    public void replaceItems(List<ClothingItem> newItems) {
+        items.submit(newItems);
+    }
+
+    @Override
+    public void appendItems(List<ClothingItem> newItems) {
+        items.append(newItems);
     }
 
     @Override
@@ -70,6 +106,12 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         return showAddTile ? items.size() + 1 : items.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        if (showAddTile && position == 0) return ListDiffer.HEADER_ID;
+        return items.stableIdOf(items.get(showAddTile ? position - 1 : position));
+    }
+
     @Override
     public int getItemViewType(int position) {
         if (showAddTile && position == 0) return VIEW_TYPE_ADD;
@@ -89,6 +131,18 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(ListDiffer.PAYLOAD_SELECTION) && holder instanceof ClothingViewHolder) {
+            int actualPosition = showAddTile ? position - 1 : position;
+            if (actualPosition >= 0 && actualPosition < items.size()) {
+                ((ClothingViewHolder) holder).bindSelection(items.get(actualPosition));
+            }
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (holder instanceof AddItemViewHolder) {
@@ -122,7 +176,7 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
 
                     if (showCheckboxes) {
                         item.setSelected(!item.isSelected());
-                        notifyItemChanged(pos);
+                        notifyItemChanged(pos, ListDiffer.PAYLOAD_SELECTION);
                     } else if (listener != null) {
                         listener.onClothingClick(item);
                     }
@@ -135,7 +189,7 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
                     int actualPos = showAddTile ? pos - 1 : pos;
                     ClothingItem item = items.get(actualPos);
                     item.setSelected(!item.isSelected());
-                    notifyItemChanged(pos);
+                    notifyItemChanged(pos, ListDiffer.PAYLOAD_SELECTION);
                 }
             });
         }
@@ -143,15 +197,14 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         public void bind(ClothingItem item, int adapterPosition) {
             String uriString = item.getImageUri();
 
-            // ✅ DEBUG: Log what we're trying to load
-            Log.d(TAG, "Loading image for: " + item.getName() + " | URI: " + uriString);
+            if (bindLog.next()) {
+                Log.d(TAG, "Loading image for: " + item.getName() + " | URI: " + uriString);
+            }
 
             if (uriString != null && !uriString.isEmpty()) {
                 // ✅ Check if it's a cloud URL (starts with http/https)
                 if (uriString.startsWith("http")) {
                     // Load from Supabase Storage URL
-                    Log.d(TAG, "✅ Loading cloud image: " + uriString);
-
                     Glide.with(context)
                             .load(uriString)
                             .diskCacheStrategy(DiskCacheStrategy.ALL)
@@ -164,8 +217,6 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
                     File imageFile = new File(uriString);
                     if (imageFile.exists()) {
                         // Load from local file
-                        Log.d(TAG, "✅ Loading local file: " + uriString);
-
                         Glide.with(context)
                                 .load(imageFile)
                                 .diskCacheStrategy(DiskCacheStrategy.NONE)
@@ -176,8 +227,6 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
                     } else {
                         // Try loading as URI (for content:// URIs)
                         try {
-                            Log.d(TAG, "🔄 Trying to load as URI: " + uriString);
-
                             Uri uri = Uri.parse(uriString);
                             Glide.with(context)
                                     .load(uri)
@@ -197,11 +246,15 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
                 imageView.setImageResource(R.drawable.ic_placeholder);
             }
 
-            checkBox.setVisibility(showCheckboxes ? View.VISIBLE : View.GONE);
-            checkBox.setChecked(item.isSelected());
+            bindSelection(item);
             categoryText.setText(item.getCategory() != null ? item.getCategory() : "Unknown");
             seasonText.setText(item.getSeason() != null ? item.getSeason() : "Unknown");
         }
+
+        void bindSelection(ClothingItem item) {
+            checkBox.setVisibility(showCheckboxes ? View.VISIBLE : View.GONE);
+            checkBox.setChecked(item.isSelected());
+        }
     }
 
     // ===== Add Item ViewHolder =====
@@ -222,23 +275,21 @@ public class ClothingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
 
     // ===== Selection Helpers =====
     public void clearAllSelections() {
-        for (ClothingItem item : items) {
+        for (ClothingItem item : items.getItems()) {
             item.setSelected(false);
         }
-        notifyDataSetChanged();
+        items.rebindAll(ListDiffer.PAYLOAD_SELECTION);
     }
 
     public ArrayList<ClothingItem> getSelectedItems() {
         ArrayList<ClothingItem> selected = new ArrayList<>();
-        for (ClothingItem item : items) {
+        for (ClothingItem item : items.getItems()) {
             if (item.isSelected()) selected.add(item);
         }
         return selected;
     }
 
     public void deleteSelectedItems() {
-        ArrayList<ClothingItem> toRemove = getSelectedItems();
-        items.removeAll(toRemove);
-        notifyDataSetChanged();
+        items.removeAll(getSelectedItems());
     }
 }
\ No newline at end of file
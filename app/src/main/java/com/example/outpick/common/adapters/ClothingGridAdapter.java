@@ -14,6 +14,7 @@ import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.R;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class ClothingGridAdapter extends RecyclerView.Adapter<ClothingGridAdapter.ClothingViewHolder> {
@@ -23,12 +24,29 @@ public class ClothingGridAdapter extends RecyclerView.Adapter<ClothingGridAdapte
     }
 
     private Context context;
-    private List<ClothingItem> clothingItems;
+    // ✅ Refreshes are diffed in the background; only changed cells are rebound
+    private final ListDiffer<ClothingItem> clothingItems = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClothingItem>() {
+        @Override
+        public Object idOf(ClothingItem item) {
+            return ListDiffer.idOr(item.getId(), item);
+        }
+
+        @Override
+        public Object contentOf(ClothingItem item) {
+            return Arrays.asList(item.getImageUri(), item.getName(), item.getCategory());
+        }
+    });
     private OnItemClickListener listener;
 
     public ClothingGridAdapter(List<ClothingItem> clothingItems, OnItemClickListener listener) {
-        this.clothingItems = clothingItems;
         this.listener = listener;
+        setHasStableIds(true);
+        this.clothingItems.submit(clothingItems);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return clothingItems.stableIdOf(clothingItems.get(position));
     }
 
     @NonNull
@@ -50,10 +68,8 @@ public class ClothingGridAdapter extends RecyclerView.Adapter<ClothingGridAdapte
         return clothingItems.size();
     }
 
-    // Remove the override of notifyDataSetChanged() since it's final
     public void updateData(List<ClothingItem> newItems) {
-        this.clothingItems = newItems;
-        notifyDataSetChanged(); // Call the parent's final method
+        clothingItems.submit(newItems);
     }
 
     class ClothingViewHolder extends RecyclerView.ViewHolder {
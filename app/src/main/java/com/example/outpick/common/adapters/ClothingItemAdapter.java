@@ -14,7 +14,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.ClothingItem;
 import com.example.outpick.R;
+import com.example.outpick.utils.AppLog;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -23,7 +25,18 @@ import java.util.List;
  */
 public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapter.ItemViewHolder> {
 
-    private final List<ClothingItem> mItems;
+    // ✅ List refreshes are diffed in the background; only changed rows are rebound
+    private final ListDiffer<ClothingItem> mItems = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClothingItem>() {
+        @Override
+        public Object idOf(ClothingItem item) {
+            return ListDiffer.idOr(item.getId(), item);
+        }
+
+        @Override
+        public Object contentOf(ClothingItem item) {
+            return Arrays.asList(item.getImagePath(), item.getMockDrawableId(), item.getSubcategory(), item.getName());
+        }
+    });
     private final Context mContext;
     private final OnItemClickListener mListener;
     private int selectedPosition = RecyclerView.NO_POSITION;
@@ -34,8 +47,9 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
 
     public ClothingItemAdapter(Context context, List<ClothingItem> items, OnItemClickListener listener) {
         mContext = context;
-        mItems = items;
         mListener = listener;
+        setHasStableIds(true);
+        mItems.submit(items);
     }
 
     @NonNull
@@ -45,6 +59,20 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
         return new ItemViewHolder(view);
     }
 
+    @Override
+    public long getItemId(int position) {
+        return mItems.stableIdOf(mItems.get(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(ListDiffer.PAYLOAD_SELECTION)) {
+            bindSelection(holder, position);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
         ClothingItem currentItem = mItems.get(position);
@@ -67,8 +95,8 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
                     .error(R.drawable.ic_error) // Use your custom error image
                     .into(holder.itemImage);
 
-            // ✅ OPTIONAL: Log cloud URL detection for debugging
-            if (imagePath.startsWith("http")) {
+            // ✅ OPTIONAL: Log cloud URL detection for debugging (debug builds only)
+            if (AppLog.DEBUG && imagePath.startsWith("http")) {
                 Log.d("ClothingItemAdapter", "Loading cloud image: " + imagePath);
             }
         } else {
@@ -92,7 +120,7 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
         holder.itemName.setText(displayLabel);
 
         // Handle selection state
-        holder.itemView.setBackgroundColor(position == selectedPosition ? Color.parseColor("#40C4FF") : Color.TRANSPARENT);
+        bindSelection(holder, position);
 
         // Set click listener
         holder.itemView.setOnClickListener(v -> {
@@ -110,13 +138,17 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
                 selectedPosition = clickedPosition;
 
                 if (previousSelectedPosition != RecyclerView.NO_POSITION) {
-                    notifyItemChanged(previousSelectedPosition);
+                    notifyItemChanged(previousSelectedPosition, ListDiffer.PAYLOAD_SELECTION);
                 }
-                notifyItemChanged(selectedPosition);
+                notifyItemChanged(selectedPosition, ListDiffer.PAYLOAD_SELECTION);
             }
         });
     }
 
+    private void bindSelection(ItemViewHolder holder, int position) {
+        holder.itemView.setBackgroundColor(position == selectedPosition ? Color.parseColor("#40C4FF") : Color.TRANSPARENT);
+    }
+
     @Override
     public int getItemCount() {
         return mItems.size();
@@ -141,10 +173,8 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
     }
 
     public void updateList(List<ClothingItem> newList) {
-        mItems.clear();
-        mItems.addAll(newList);
-        selectedPosition = RecyclerView.NO_POSITION; // Reset selection
-        notifyDataSetChanged();
+        clearSelection(); // Reset selection
+        mItems.submit(newList);
     }
 
     // ✅ ADDED: Helper method to clear selection
@@ -152,7 +182,7 @@ public class ClothingItemAdapter extends RecyclerView.Adapter<ClothingItemAdapte
         int previousPosition = selectedPosition;
         selectedPosition = RecyclerView.NO_POSITION;
         if (previousPosition != RecyclerView.NO_POSITION) {
-            notifyItemChanged(previousPosition);
+            notifyItemChanged(previousPosition, ListDiffer.PAYLOAD_SELECTION);
         }
     }
 }
\ No newline at end of file
@@ -15,23 +15,34 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.repositories.FavoritesRepository;
 import com.example.outpick.outfits.OutfitSuggestionDetailsActivity;
 import com.example.outpick.R;
 import com.example.outpick.database.supabase.SupabaseService;
-import com.google.gson.JsonObject;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.ViewHolder> {
 
     private final Context context;
-    private List<Outfit> outfitList;
+    // ✅ Refreshes are diffed in the background; only changed rows are rebound
+    private final ListDiffer<Outfit> outfitList = new ListDiffer<>(this, new ListDiffer.ItemKeys<Outfit>() {
+        @Override
+        public Object idOf(Outfit outfit) {
+            return ListDiffer.idOr(outfit.getId(), outfit);
+        }
+
+        @Override
+        public Object contentOf(Outfit outfit) {
+            return Arrays.asList(outfit.getImageUri(), outfit.getName());
+        }
+    });
     private final SupabaseService supabaseService;
+    private final FavoritesRepository favoritesRepository;
 
     // ⭐ CRITICAL NEW FIELD: User ID is required for the toggle logic (String for Supabase UUID)
     private final String currentUserId;
@@ -39,15 +50,21 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
     // ✅ FIX: CONSTRUCTOR NOW USES SupabaseService INSTEAD OF OutfitDatabaseHelper
     public FavoritesAdapter(Context context, List<Outfit> outfitList, SupabaseService supabaseService, String currentUserId) {
         this.context = context;
-        this.outfitList = outfitList;
+        setHasStableIds(true);
+        this.outfitList.submit(outfitList);
         this.supabaseService = supabaseService;
+        this.favoritesRepository = FavoritesRepository.getInstance(supabaseService);
         this.currentUserId = currentUserId; // Store the user ID received from FavoritesActivity
     }
 
     /** Method to update the adapter data list */
     public void updateData(List<Outfit> newOutfits) {
-        this.outfitList = newOutfits;
-        notifyDataSetChanged();
+        outfitList.submit(newOutfits);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return outfitList.stableIdOf(outfitList.get(position));
     }
 
     @NonNull
@@ -97,12 +114,14 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
             Outfit outfitToRemove = outfitList.get(currentPosition);
 
             // Remove from favorites in Supabase
-            removeFromFavorites(outfitToRemove.getId(), currentPosition);
+            removeFromFavorites(outfitToRemove, currentPosition);
         });
 
         // --- Open outfit details on item click ---
         holder.itemView.setOnClickListener(v -> {
-            Outfit clickedOutfit = outfitList.get(position);
+            int currentPosition = holder.getAdapterPosition();
+            if (currentPosition == RecyclerView.NO_POSITION) return;
+            Outfit clickedOutfit = outfitList.get(currentPosition);
             Intent intent = new Intent(context, OutfitSuggestionDetailsActivity.class);
 
             // Pass outfit details
@@ -124,36 +143,25 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
         });
     }
 
-    private void removeFromFavorites(String outfitId, int position) {
-        Call<Void> call = supabaseService.removeFavorite(currentUserId, outfitId);
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    // Remove the item from the local list and update the view
-                    outfitList.remove(position);
-                    notifyItemRemoved(position);
-                    notifyItemRangeChanged(position, outfitList.size());
-
-                    Toast.makeText(
-                            context,
-                            "Removed from favorites",
-                            Toast.LENGTH_SHORT
-                    ).show();
-                } else {
-                    Toast.makeText(
-                            context,
-                            "Failed to remove from favorites",
-                            Toast.LENGTH_SHORT
-                    ).show();
-                }
-            }
+    private void removeFromFavorites(Outfit outfit, int position) {
+        // Drop the row right away; the favorites store rolls itself back if the delete fails
+        outfitList.removeAll(Collections.singletonList(outfit));
+
+        favoritesRepository.removeFavorite(currentUserId, outfit.getId(), success -> {
+            if (success) {
+                Toast.makeText(
+                        context,
+                        "Removed from favorites",
+                        Toast.LENGTH_SHORT
+                ).show();
+            } else {
+                List<Outfit> restored = new ArrayList<>(outfitList.getItems());
+                restored.add(Math.min(position, restored.size()), outfit);
+                outfitList.submit(restored);
 
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
                 Toast.makeText(
                         context,
-                        "Network error: " + t.getMessage(),
+                        "Failed to remove from favorites",
                         Toast.LENGTH_SHORT
                 ).show();
             }
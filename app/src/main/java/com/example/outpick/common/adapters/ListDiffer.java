@@ -0,0 +1,254 @@
+package com.example.outpick.common.adapters;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.outpick.utils.BackgroundExecutor.Priority;
+import com.example.outpick.utils.TaskScope;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns an adapter's list and turns every refresh into row-level updates.
+ *
+ * {@link #submit} diffs the new list against the current one with {@link DiffUtil} on the
+ * background executor, then swaps it in and dispatches inserts, removes, moves and changes on
+ * the main thread - so a reload that changes two rows rebinds (and reloads the images of) two
+ * rows, not the whole screen. Rows are matched by {@link ItemKeys#idOf} and rebound only when
+ * {@link ItemKeys#contentOf} changed. Content keys are taken when a list is submitted, so items
+ * edited in place are still detected on the next submit.
+ *
+ * {@link #stableIdOf} gives every row identity a long that never changes, for
+ * {@code setHasStableIds(true)} adapters. {@code headerCount} shifts dispatched positions for
+ * adapters with fixed rows before the list (e.g. an "add" tile).
+ *
+ * All methods are for the main thread. A submit replaces any diff still running.
+ */
+public final class ListDiffer<T> {
+
+    /** How the differ recognizes rows. */
+    public interface ItemKeys<T> {
+        /** What stays the same when the row is reloaded - usually the row's id. */
+        Object idOf(T item);
+
+        /** Everything the row shows, compared with equals(); e.g. Arrays.asList(name, imageUri). */
+        Object contentOf(T item);
+    }
+
+    /** Rebind payload for changes that only touch selection state, so images aren't reloaded. */
+    public static final String PAYLOAD_SELECTION = "selection";
+
+    /** Stable id for fixed rows outside the list, e.g. an "add" tile; never handed out by {@link #stableIdOf}. */
+    public static final long HEADER_ID = Long.MAX_VALUE;
+
+    private final RecyclerView.Adapter<?> adapter;
+    private final ItemKeys<T> keys;
+    private int headerCount;
+
+    private List<T> items = new ArrayList<>();
+    private List<Object> ids = new ArrayList<>();
+    private List<Object> contents = new ArrayList<>();
+
+    // The list the screen will show once any running diff lands
+    private List<T> latest = items;
+    private int generation;
+
+    private final Map<Object, Long> stableIds = new HashMap<>();
+    private long nextStableId;
+
+    public ListDiffer(RecyclerView.Adapter<?> adapter, ItemKeys<T> keys) {
+        this(adapter, keys, 0);
+    }
+
+    public ListDiffer(RecyclerView.Adapter<?> adapter, ItemKeys<T> keys, int headerCount) {
+        this.adapter = adapter;
+        this.keys = keys;
+        this.headerCount = headerCount;
+    }
+
+    /** Rows now shown before the list; the adapter rebinds everything itself when this changes. */
+    public void setHeaderCount(int headerCount) {
+        this.headerCount = headerCount;
+    }
+
+    /** The items the adapter currently shows. Don't modify it; submit a new list instead. */
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    /** Show {@code newItems}; the diff runs in the background and only changed rows are rebound. */
+    public void submit(@Nullable List<T> newItems) {
+        submit(newItems, null);
+    }
+
+    /** Same as {@link #submit(List)}, running {@code onApplied} once the list is showing. */
+    public void submit(@Nullable List<T> newItems, @Nullable Runnable onApplied) {
+        List<T> next = newItems != null ? new ArrayList<>(newItems) : new ArrayList<>();
+        int submitted = ++generation;
+        latest = next;
+
+        List<Object> nextIds = new ArrayList<>(next.size());
+        List<Object> nextContents = new ArrayList<>(next.size());
+        for (T item : next) {
+            nextIds.add(keys.idOf(item));
+            nextContents.add(keys.contentOf(item));
+        }
+
+        // Nothing to diff against (or nothing left) - no need for a background hop
+        if (items.isEmpty() || next.isEmpty()) {
+            int oldSize = items.size();
+            apply(next, nextIds, nextContents);
+            if (oldSize > 0) adapter.notifyItemRangeRemoved(headerCount, oldSize);
+            if (!next.isEmpty()) adapter.notifyItemRangeInserted(headerCount, next.size());
+            if (onApplied != null) onApplied.run();
+            return;
+        }
+
+        List<Object> oldIds = ids;
+        List<Object> oldContents = contents;
+        TaskScope.APP.launch(Priority.IMMEDIATE, () -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new KeyDiff(oldIds, oldContents, nextIds, nextContents));
+            TaskScope.APP.post(() -> {
+                // A newer submit owns the list now
+                if (submitted != generation) return;
+                apply(next, nextIds, nextContents);
+                diff.dispatchUpdatesTo(new OffsetCallback());
+                if (onApplied != null) onApplied.run();
+            });
+        });
+    }
+
+    /** Append a page: a range insert right away, or folded into a running diff. */
+    public void append(Collection<? extends T> page) {
+        if (page == null || page.isEmpty()) return;
+        if (latest != items) {
+            List<T> next = new ArrayList<>(latest);
+            next.addAll(page);
+            submit(next);
+            return;
+        }
+        int start = items.size();
+        for (T item : page) {
+            items.add(item);
+            ids.add(keys.idOf(item));
+            contents.add(keys.contentOf(item));
+        }
+        adapter.notifyItemRangeInserted(headerCount + start, page.size());
+    }
+
+    /** Remove {@code toRemove} from what's showing (or about to show). */
+    public void removeAll(Collection<?> toRemove) {
+        List<T> next = new ArrayList<>(latest);
+        if (next.removeAll(toRemove)) submit(next);
+    }
+
+    /** Re-read one row's content key after editing it in place, and rebind it. */
+    public void refresh(int index) {
+        if (index < 0 || index >= items.size()) return;
+        contents.set(index, keys.contentOf(items.get(index)));
+        adapter.notifyItemChanged(headerCount + index);
+    }
+
+    /** Rebind every row with {@code payload}, for state kept outside the items (selection mode). */
+    public void rebindAll(Object payload) {
+        if (!items.isEmpty()) adapter.notifyItemRangeChanged(headerCount, items.size(), payload);
+    }
+
+    /** A long for {@code item}'s identity that stays the same for the adapter's lifetime. */
+    public long stableIdOf(T item) {
+        Object id = keys.idOf(item);
+        Long stable = stableIds.get(id);
+        if (stable == null) {
+            stable = nextStableId++;
+            stableIds.put(id, stable);
+        }
+        return stable;
+    }
+
+    /** {@code id} when it's usable, otherwise the item itself (rows not saved yet have no id). */
+    public static Object idOr(String id, Object item) {
+        return id != null && !id.isEmpty() ? id : item;
+    }
+
+    private void apply(List<T> next, List<Object> nextIds, List<Object> nextContents) {
+        items = next;
+        ids = nextIds;
+        contents = nextContents;
+        latest = next;
+    }
+
+    /** Diffs key snapshots only, so it never touches the live items off the main thread. */
+    private static final class KeyDiff extends DiffUtil.Callback {
+        private final List<Object> oldIds;
+        private final List<Object> oldContents;
+        private final List<Object> newIds;
+        private final List<Object> newContents;
+
+        KeyDiff(List<Object> oldIds, List<Object> oldContents, List<Object> newIds, List<Object> newContents) {
+            this.oldIds = oldIds;
+            this.oldContents = oldContents;
+            this.newIds = newIds;
+            this.newContents = newContents;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldIds.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newIds.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return equal(oldIds.get(oldItemPosition), newIds.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return equal(oldContents.get(oldItemPosition), newContents.get(newItemPosition));
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    private final class OffsetCallback implements ListUpdateCallback {
+        @Override
+        public void onInserted(int position, int count) {
+            adapter.notifyItemRangeInserted(headerCount + position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            adapter.notifyItemRangeRemoved(headerCount + position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            adapter.notifyItemMoved(headerCount + fromPosition, headerCount + toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            adapter.notifyItemRangeChanged(headerCount + position, count, payload);
+        }
+    }
+}
@@ -14,16 +14,34 @@ import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.Outfit;
 import com.example.outpick.R;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class OutfitCombinationAdapter extends RecyclerView.Adapter<OutfitCombinationAdapter.ViewHolder> {
 
     private Context context;
-    private List<Outfit> outfitList;
+    // ✅ Reloads are diffed in the background; only changed cards are rebound
+    private final ListDiffer<Outfit> outfitList = new ListDiffer<>(this, new ListDiffer.ItemKeys<Outfit>() {
+        @Override
+        public Object idOf(Outfit outfit) {
+            return ListDiffer.idOr(outfit.getId(), outfit);
+        }
+
+        @Override
+        public Object contentOf(Outfit outfit) {
+            return Arrays.asList(outfit.getImageUri(), outfit.getName());
+        }
+    });
 
     public OutfitCombinationAdapter(Context context, List<Outfit> outfitList) {
         this.context = context;
-        this.outfitList = outfitList;
+        setHasStableIds(true);
+        this.outfitList.submit(outfitList);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return outfitList.stableIdOf(outfitList.get(position));
     }
 
     @NonNull
@@ -80,9 +98,7 @@ public class OutfitCombinationAdapter extends RecyclerView.Adapter<OutfitCombina
      * Update the adapter with new data
      */
     public void updateList(List<Outfit> newList) {
-        outfitList.clear();
-        outfitList.addAll(newList);
-        notifyDataSetChanged();
+        outfitList.submit(newList);
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
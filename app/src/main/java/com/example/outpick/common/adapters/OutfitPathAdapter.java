@@ -14,18 +14,21 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.outpick.database.models.ClosetContentItem;
 import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.outfits.OutfitCombinationActivity;
 import com.example.outpick.R;
 import com.example.outpick.outfits.SnapshotDetailsActivity;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.example.outpick.utils.AppLog;
 import com.squareup.picasso.MemoryPolicy;
 import com.squareup.picasso.NetworkPolicy;
 import com.squareup.picasso.Picasso;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -34,23 +37,59 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.ViewHolder> {
+public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.ViewHolder>
+        implements PagedAdapter<ClosetContentItem> {
 
     private static final String TAG = "OutfitPathAdapter";
     private final Context context;
-    private final List<ClosetContentItem> closetItems;
+    // ✅ Binds run per scroll frame - log a sample, not every one
+    private final AppLog.Sampler bindLog = AppLog.sample(20);
+    // ✅ Reloads, filters and deletes are diffed in the background; only changed cards are rebound
+    private final ListDiffer<ClosetContentItem> closetItems = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClosetContentItem>() {
+        @Override
+        public Object idOf(ClosetContentItem item) {
+            return OutfitPathAdapter.idOf(item);
+        }
+
+        @Override
+        public Object contentOf(ClosetContentItem item) {
+            return Arrays.asList(item.getType(), item.getImageUri(), item.getSnapshotPath());
+        }
+    });
     private final SupabaseService supabaseService;
 
+    // Selection is kept by row id, so it survives rows moving when the list is diffed
     private boolean multiSelectEnabled = false;
-    private final Set<Integer> selectedItems = new HashSet<>();
+    private final Set<Object> selectedItems = new HashSet<>();
 
     private static final int SNAPSHOT_PADDING_DP = 16;
     private static final int CLOTHING_PADDING_DP = 4;
 
     public OutfitPathAdapter(Context context, List<ClosetContentItem> closetItems) {
         this.context = context;
-        this.closetItems = closetItems;
         this.supabaseService = SupabaseClient.getService();
+        setHasStableIds(true);
+        this.closetItems.submit(closetItems);
+    }
+
+    // Outfits saved this session only know their image URL
+    private static Object idOf(ClosetContentItem item) {
+        String id = item.getClothingId();
+        return ListDiffer.idOr(id != null && !id.isEmpty() ? id : item.getSnapshotPath(), item);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return closetItems.stableIdOf(closetItems.get(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(ListDiffer.PAYLOAD_SELECTION)) {
+            bindSelection(holder, closetItems.get(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
     private int dpToPx(int dp) {
@@ -68,8 +107,10 @@ public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.Vi
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         ClosetContentItem item = closetItems.get(position);
 
-        Log.d(TAG, "Binding item: " + item.getName() + " | Type: " + item.getType() + " | Image: " +
-                (item.getType() == ClosetContentItem.ItemType.SNAPSHOT ? item.getSnapshotPath() : item.getImageUri()));
+        if (bindLog.next()) {
+            Log.d(TAG, "Binding item: " + item.getName() + " | Type: " + item.getType() + " | Image: " +
+                    (item.getType() == ClosetContentItem.ItemType.SNAPSHOT ? item.getSnapshotPath() : item.getImageUri()));
+        }
 
         // --- STYLING AND LOADING LOGIC ---
         if (item.getType() == ClosetContentItem.ItemType.CLOTHING) {
@@ -100,42 +141,49 @@ public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.Vi
         }
 
         // Multi-select UI
-        if (multiSelectEnabled) {
-            holder.selectionOverlay.setVisibility(View.VISIBLE);
-            if (selectedItems.contains(position)) {
-                holder.selectionOverlay.setAlpha(0.6f);
-                holder.checkIcon.setVisibility(View.VISIBLE);
-            } else {
-                holder.selectionOverlay.setAlpha(0f);
-                holder.checkIcon.setVisibility(View.GONE);
-            }
-        } else {
-            holder.selectionOverlay.setVisibility(View.GONE);
-            holder.checkIcon.setVisibility(View.GONE);
-        }
+        bindSelection(holder, item);
 
-        // Click listeners
+        // Click listeners - unchanged rows aren't rebound after a diff, so read the row's current item
         holder.itemView.setOnClickListener(v -> {
+            int currentPosition = holder.getAdapterPosition();
+            if (currentPosition == RecyclerView.NO_POSITION) return;
+            ClosetContentItem clicked = closetItems.get(currentPosition);
             if (multiSelectEnabled) {
-                toggleSelection(position);
+                toggleSelection(currentPosition);
             } else {
-                if (item.getType() == ClosetContentItem.ItemType.SNAPSHOT) {
-                    String clickedPath = item.getSnapshotPath();
-                    loadOutfitFromSupabase(clickedPath, position);
+                if (clicked.getType() == ClosetContentItem.ItemType.SNAPSHOT) {
+                    String clickedPath = clicked.getSnapshotPath();
+                    loadOutfitFromSupabase(clickedPath, currentPosition);
                 }
             }
         });
 
         holder.itemView.setOnLongClickListener(v -> {
-            if (!multiSelectEnabled) {
+            int currentPosition = holder.getAdapterPosition();
+            if (!multiSelectEnabled && currentPosition != RecyclerView.NO_POSITION) {
                 enableMultiSelect();
-                selectedItems.add(position);
-                notifyItemChanged(position);
+                toggleSelection(currentPosition);
             }
             return true;
         });
     }
 
+    private void bindSelection(ViewHolder holder, ClosetContentItem item) {
+        if (multiSelectEnabled) {
+            holder.selectionOverlay.setVisibility(View.VISIBLE);
+            if (selectedItems.contains(idOf(item))) {
+                holder.selectionOverlay.setAlpha(0.6f);
+                holder.checkIcon.setVisibility(View.VISIBLE);
+            } else {
+                holder.selectionOverlay.setAlpha(0f);
+                holder.checkIcon.setVisibility(View.GONE);
+            }
+        } else {
+            holder.selectionOverlay.setVisibility(View.GONE);
+            holder.checkIcon.setVisibility(View.GONE);
+        }
+    }
+
     private void loadImageWithPicasso(String imageUrl, ImageView imageView) {
         try {
             // Add cache busting parameter
@@ -149,7 +197,7 @@ public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.Vi
                     .error(R.drawable.error_image)
                     .into(imageView);
 
-            Log.d(TAG, "Loading image with Picasso: " + cacheBusterUrl);
+            AppLog.d(TAG, () -> "Loading image with Picasso: " + cacheBusterUrl);
         } catch (Exception e) {
             Log.e(TAG, "Picasso load error: " + e.getMessage());
             imageView.setImageResource(R.drawable.error_image);
@@ -157,42 +205,29 @@ public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.Vi
     }
 
     private void loadOutfitFromSupabase(String snapshotPath, int position) {
-        Call<List<JsonObject>> call = supabaseService.getOutfits();
+        // ✅ Only the matching outfit is fetched, decoded straight into an Outfit
+        Call<List<Outfit>> call = PostgrestQuery.from("outfits")
+                .eq("image_uri", snapshotPath)
+                .limit(1)
+                .executeAs(supabaseService::readOutfits);
 
-        call.enqueue(new Callback<List<JsonObject>>() {
+        call.enqueue(new Callback<List<Outfit>>() {
             @Override
-            public void onResponse(@NonNull Call<List<JsonObject>> call, @NonNull Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Outfit outfit = findOutfitByPath(response.body(), snapshotPath);
-                    openSnapshotDetails(snapshotPath, outfit, position);
+            public void onResponse(@NonNull Call<List<Outfit>> call, @NonNull Response<List<Outfit>> response) {
+                if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
+                    openSnapshotDetails(snapshotPath, response.body().get(0), position);
                 } else {
                     openSnapshotDetails(snapshotPath, null, position);
                 }
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<JsonObject>> call, @NonNull Throwable t) {
+            public void onFailure(@NonNull Call<List<Outfit>> call, @NonNull Throwable t) {
                 openSnapshotDetails(snapshotPath, null, position);
             }
         });
     }
 
-    private Outfit findOutfitByPath(List<JsonObject> outfitJsonList, String snapshotPath) {
-        Gson gson = new Gson();
-
-        for (JsonObject jsonObject : outfitJsonList) {
-            try {
-                Outfit outfit = gson.fromJson(jsonObject, Outfit.class);
-                if (outfit != null && snapshotPath.equals(outfit.getImageUri())) {
-                    return outfit;
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        return null;
-    }
-
     private void openSnapshotDetails(String snapshotPath, Outfit outfit, int position) {
         Intent intent = new Intent(context, SnapshotDetailsActivity.class);
         intent.putExtra("path", snapshotPath);
@@ -226,29 +261,58 @@ public class OutfitPathAdapter extends RecyclerView.Adapter<OutfitPathAdapter.Vi
         return closetItems.size();
     }
 
+    @Override
+    public void replaceItems(List<ClosetContentItem> items) {
+        selectedItems.clear();
+        closetItems.submit(items);
+    }
+
+    @Override
+    public void appendItems(List<ClosetContentItem> items) {
+        closetItems.append(items);
+    }
+
+    /** Show a just-saved outfit first, running {@code onShown} once it's in the list. */
+    public void addFirst(ClosetContentItem item, Runnable onShown) {
+        List<ClosetContentItem> next = new ArrayList<>(closetItems.getItems());
+        next.add(0, item);
+        closetItems.submit(next, onShown);
+    }
+
+    public void removeItems(Collection<ClosetContentItem> items) {
+        for (ClosetContentItem item : items) {
+            selectedItems.remove(idOf(item));
+        }
+        closetItems.removeAll(items);
+    }
+
     private void toggleSelection(int position) {
-        if (selectedItems.contains(position)) {
-            selectedItems.remove(position);
-        } else {
-            selectedItems.add(position);
+        Object id = idOf(closetItems.get(position));
+        if (!selectedItems.remove(id)) {
+            selectedItems.add(id);
         }
-        notifyItemChanged(position);
+        notifyItemChanged(position, ListDiffer.PAYLOAD_SELECTION);
     }
 
     public void enableMultiSelect() {
         multiSelectEnabled = true;
         selectedItems.clear();
-        notifyDataSetChanged();
+        closetItems.rebindAll(ListDiffer.PAYLOAD_SELECTION);
     }
 
     public void disableMultiSelect() {
         multiSelectEnabled = false;
         selectedItems.clear();
-        notifyDataSetChanged();
+        closetItems.rebindAll(ListDiffer.PAYLOAD_SELECTION);
     }
 
-    public Set<Integer> getSelectedItems() {
-        return selectedItems;
+    /** The selected items, in the order shown. */
+    public List<ClosetContentItem> getSelectedItems() {
+        List<ClosetContentItem> selected = new ArrayList<>();
+        for (ClosetContentItem item : closetItems.getItems()) {
+            if (selectedItems.contains(idOf(item))) selected.add(item);
+        }
+        return selected;
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
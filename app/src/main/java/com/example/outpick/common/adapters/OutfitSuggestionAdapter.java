@@ -15,18 +15,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.repositories.FavoritesRepository;
 import com.example.outpick.outfits.OutfitSuggestionDetailsActivity;
 import com.example.outpick.R;
 import com.example.outpick.database.supabase.SupabaseService;
-import com.google.gson.JsonObject;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggestionAdapter.ViewHolder> {
 
     public interface OnOutfitClickListener {
@@ -34,9 +31,24 @@ public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggesti
     }
 
     private final Context context;
-    private final List<Outfit> outfitList;
+    // Rebind payload for rows whose favorite state changed, so images aren't reloaded
+    private static final String PAYLOAD_FAVORITE = "favorite";
+
+    // ✅ Search and reload results are diffed in the background; only changed rows are rebound
+    private final ListDiffer<Outfit> outfitList = new ListDiffer<>(this, new ListDiffer.ItemKeys<Outfit>() {
+        @Override
+        public Object idOf(Outfit outfit) {
+            return ListDiffer.idOr(outfit.getId(), outfit);
+        }
+
+        @Override
+        public Object contentOf(Outfit outfit) {
+            return Arrays.asList(outfit.getImageUri(), outfit.getName());
+        }
+    });
     private final SupabaseService supabaseService;
     private final OnOutfitClickListener listener;
+    private final FavoritesRepository favoritesRepository;
 
     // ⭐ CHANGED: Now using String for Supabase UUID
     private final String currentUserId;
@@ -45,10 +57,17 @@ public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggesti
     // ✅ FIX: Constructor now uses String for currentUserId and SupabaseService
     public OutfitSuggestionAdapter(Context context, List<Outfit> outfitList, OnOutfitClickListener listener, String currentUserId, SupabaseService supabaseService) {
         this.context = context;
-        this.outfitList = outfitList;
+        setHasStableIds(true);
+        this.outfitList.submit(outfitList);
         this.supabaseService = supabaseService;
         this.listener = listener;
         this.currentUserId = currentUserId;
+        this.favoritesRepository = FavoritesRepository.getInstance(supabaseService);
+
+        // Loads the user's favorite IDs once; rows rebind when they arrive
+        if (!favoritesRepository.isLoadedFor(currentUserId)) {
+            favoritesRepository.loadAsync(currentUserId, () -> this.outfitList.rebindAll(PAYLOAD_FAVORITE));
+        }
 
         // Initial check for debugging
         if (currentUserId == null || currentUserId.isEmpty()) {
@@ -63,13 +82,24 @@ public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggesti
         return new ViewHolder(view);
     }
 
+    @Override
+    public long getItemId(int position) {
+        return outfitList.stableIdOf(outfitList.get(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_FAVORITE)) {
+            bindFavorite(holder, outfitList.get(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         Outfit outfit = outfitList.get(position);
 
-        // 1. Check/Refresh Favorite Status from Supabase for this user before binding
-        checkFavoriteStatus(outfit, holder);
-
         // --- Load image safely ---
         String imageUri = outfit.getImageUri();
         if (imageUri != null && !imageUri.isEmpty()) {
@@ -90,49 +120,50 @@ public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggesti
         }
 
         // --- Favorite icon (Uses the refreshed status) ---
-        holder.btnFavorite.setVisibility(View.VISIBLE);
-        holder.btnFavorite.setImageResource(outfit.isFavorite() ?
-                R.drawable.ic_favorite : R.drawable.ic_favorite_border);
+        bindFavorite(holder, outfit);
 
         // --- Toggle favorite with Supabase ---
+        // Unchanged rows aren't rebound after a diff, so read the row's current item
         holder.btnFavorite.setOnClickListener(v -> {
             if (currentUserId == null || currentUserId.isEmpty()) {
                 Toast.makeText(context, "Please log in to save favorites.", Toast.LENGTH_SHORT).show();
                 return;
             }
+            int currentPosition = holder.getAdapterPosition();
+            if (currentPosition == RecyclerView.NO_POSITION) return;
+            Outfit current = outfitList.get(currentPosition);
 
-            boolean newStatus = !outfit.isFavorite();
-            outfit.setFavorite(newStatus);
+            boolean newStatus = !current.isFavorite();
+            current.setFavorite(newStatus);
 
             // ⭐ CRITICAL FIX: Use Supabase instead of SQLite
-            if (newStatus) {
-                addToFavorites(outfit.getId(), holder);
-            } else {
-                removeFromFavorites(outfit.getId(), holder);
-            }
+            toggleFavorite(current, newStatus, holder);
 
             holder.btnFavorite.setImageResource(newStatus ? R.drawable.ic_favorite : R.drawable.ic_favorite_border);
         });
 
         // --- Open outfit details using listener ---
         holder.itemView.setOnClickListener(v -> {
+            int currentPosition = holder.getAdapterPosition();
+            if (currentPosition == RecyclerView.NO_POSITION) return;
+            Outfit clicked = outfitList.get(currentPosition);
             if (listener != null) {
-                listener.onOutfitClick(outfit);
+                listener.onOutfitClick(clicked);
             } else {
                 // Fallback: open directly if listener not provided
                 Intent intent = new Intent(context, OutfitSuggestionDetailsActivity.class);
 
                 // Pass essential outfit data
-                intent.putExtra("id", outfit.getId());
-                intent.putExtra("imageUri", outfit.getImageUri());
-                intent.putExtra("name", outfit.getName());
-                intent.putExtra("category", outfit.getCategory());
-                intent.putExtra("description", outfit.getDescription());
-                intent.putExtra("gender", outfit.getGender());
-                intent.putExtra("event", outfit.getEvent());
-                intent.putExtra("season", outfit.getSeason());
-                intent.putExtra("style", outfit.getStyle());
-                intent.putExtra("isFavorite", outfit.isFavorite());
+                intent.putExtra("id", clicked.getId());
+                intent.putExtra("imageUri", clicked.getImageUri());
+                intent.putExtra("name", clicked.getName());
+                intent.putExtra("category", clicked.getCategory());
+                intent.putExtra("description", clicked.getDescription());
+                intent.putExtra("gender", clicked.getGender());
+                intent.putExtra("event", clicked.getEvent());
+                intent.putExtra("season", clicked.getSeason());
+                intent.putExtra("style", clicked.getStyle());
+                intent.putExtra("isFavorite", clicked.isFavorite());
 
                 // CRITICAL: Pass the User ID for the Details Activity to use
                 intent.putExtra("user_id", currentUserId);
@@ -142,84 +173,19 @@ public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggesti
         });
     }
 
-    private void checkFavoriteStatus(Outfit outfit, ViewHolder holder) {
-        if (currentUserId == null || currentUserId.isEmpty() || outfit.getId() == null) {
-            outfit.setFavorite(false);
-            return;
-        }
-
-        Call<List<JsonObject>> call = supabaseService.checkFavorite(currentUserId, outfit.getId());
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    boolean isFavorite = !response.body().isEmpty();
-                    outfit.setFavorite(isFavorite);
-                    holder.btnFavorite.setImageResource(isFavorite ?
-                            R.drawable.ic_favorite : R.drawable.ic_favorite_border);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                outfit.setFavorite(false);
-                holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-            }
-        });
-    }
-
-    private void addToFavorites(String outfitId, ViewHolder holder) {
-        JsonObject favorite = new JsonObject();
-        favorite.addProperty("user_id", currentUserId);
-        favorite.addProperty("outfit_id", outfitId);
-
-        // ✅ FIXED: Changed to List<JsonObject>
-        Call<List<JsonObject>> call = supabaseService.addFavorite(favorite);
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(context, "Added to favorites", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(context, "Failed to add to favorites", Toast.LENGTH_SHORT).show();
-                    // Revert UI state
-                    outfitList.get(holder.getAdapterPosition()).setFavorite(false);
-                    holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                Toast.makeText(context, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                // Revert UI state
-                outfitList.get(holder.getAdapterPosition()).setFavorite(false);
-                holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-            }
-        });
-    }
-
-    private void removeFromFavorites(String outfitId, ViewHolder holder) {
-        Call<Void> call = supabaseService.removeFavorite(currentUserId, outfitId);
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(context, "Removed from favorites", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(context, "Failed to remove from favorites", Toast.LENGTH_SHORT).show();
-                    // Revert UI state
-                    outfitList.get(holder.getAdapterPosition()).setFavorite(true);
-                    holder.btnFavorite.setImageResource(R.drawable.ic_favorite);
+    private void toggleFavorite(Outfit outfit, boolean newStatus, ViewHolder holder) {
+        favoritesRepository.setFavorite(currentUserId, outfit.getId(), newStatus, success -> {
+            if (success) {
+                Toast.makeText(context, newStatus ? "Added to favorites" : "Removed from favorites", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(context, newStatus ? "Failed to add to favorites" : "Failed to remove from favorites", Toast.LENGTH_SHORT).show();
+                // Store already rolled back, revert the row to match
+                outfit.setFavorite(!newStatus);
+                int position = holder.getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    notifyItemChanged(position, PAYLOAD_FAVORITE);
                 }
             }
-
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                Toast.makeText(context, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                // Revert UI state
-                outfitList.get(holder.getAdapterPosition()).setFavorite(true);
-                holder.btnFavorite.setImageResource(R.drawable.ic_favorite);
-            }
         });
     }
 
@@ -230,9 +196,15 @@ public class OutfitSuggestionAdapter extends RecyclerView.Adapter<OutfitSuggesti
 
     // ------------------- UPDATE LIST -------------------
     public void updateList(List<Outfit> newList) {
-        outfitList.clear();
-        outfitList.addAll(newList);
-        notifyDataSetChanged();
+        outfitList.submit(newList);
+    }
+
+    // Favorite status comes from the in-memory store, no network call per row
+    private void bindFavorite(ViewHolder holder, Outfit outfit) {
+        outfit.setFavorite(favoritesRepository.isFavorite(outfit.getId()));
+        holder.btnFavorite.setVisibility(View.VISIBLE);
+        holder.btnFavorite.setImageResource(outfit.isFavorite() ?
+                R.drawable.ic_favorite : R.drawable.ic_favorite_border);
     }
 
     // ------------------- VIEW HOLDER -------------------
@@ -0,0 +1,14 @@
+package com.example.outpick.common.adapters;
+
+import java.util.List;
+
+/**
+ * Contract for adapters fed by {@link com.example.outpick.utils.Pager}: the first page
+ * replaces the contents, later pages are appended with a range insert instead of a full rebind.
+ */
+public interface PagedAdapter<T> {
+
+    void replaceItems(List<T> items);
+
+    void appendItems(List<T> items);
+}
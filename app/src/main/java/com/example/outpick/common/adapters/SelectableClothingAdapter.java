@@ -14,11 +14,23 @@ import com.example.outpick.R;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class SelectableClothingAdapter extends RecyclerView.Adapter<SelectableClothingAdapter.ViewHolder> {
 
-    private final List<ClothingItem> items;
+    // ✅ Filter changes are diffed in the background; only changed rows are rebound
+    private final ListDiffer<ClothingItem> items = new ListDiffer<>(this, new ListDiffer.ItemKeys<ClothingItem>() {
+        @Override
+        public Object idOf(ClothingItem item) {
+            return ListDiffer.idOr(item.getId(), item);
+        }
+
+        @Override
+        public Object contentOf(ClothingItem item) {
+            return Arrays.asList(item.getImagePath());
+        }
+    });
     private final List<ClothingItem> selectedItems = new ArrayList<>();
     private final OnSelectionChangedListener listener;
     private boolean isSelectable = true;
@@ -28,8 +40,9 @@ public class SelectableClothingAdapter extends RecyclerView.Adapter<SelectableCl
     }
 
     public SelectableClothingAdapter(List<ClothingItem> items, OnSelectionChangedListener listener) {
-        this.items = new ArrayList<>(items);
         this.listener = listener;
+        setHasStableIds(true);
+        this.items.submit(items);
     }
 
     public List<ClothingItem> getSelectedItems() {
@@ -37,22 +50,33 @@ public class SelectableClothingAdapter extends RecyclerView.Adapter<SelectableCl
     }
 
     public void updateItems(List<ClothingItem> newItems) {
-        items.clear();
-        items.addAll(newItems);
-        selectedItems.clear();
-        for (ClothingItem item : items) {
+        clearSelection();
+        for (ClothingItem item : newItems) {
             item.setSelected(false);
         }
-        notifyDataSetChanged();
+        items.submit(newItems);
     }
 
     public void setSelectable(boolean selectable) {
         this.isSelectable = selectable;
-        selectedItems.clear();
-        for (ClothingItem item : items) {
-            item.setSelected(false);
+        clearSelection();
+    }
+
+    // Only the selected rows need their overlay redrawn
+    private void clearSelection() {
+        List<ClothingItem> shown = items.getItems();
+        for (int i = 0; i < shown.size(); i++) {
+            if (shown.get(i).isSelected()) {
+                shown.get(i).setSelected(false);
+                notifyItemChanged(i, ListDiffer.PAYLOAD_SELECTION);
+            }
         }
-        notifyDataSetChanged();
+        selectedItems.clear();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return items.stableIdOf(items.get(position));
     }
 
     @NonNull
@@ -63,6 +87,15 @@ public class SelectableClothingAdapter extends RecyclerView.Adapter<SelectableCl
         return new ViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(ListDiffer.PAYLOAD_SELECTION)) {
+            bindSelection(holder, items.get(position));
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         ClothingItem item = items.get(position);
@@ -83,35 +116,39 @@ public class SelectableClothingAdapter extends RecyclerView.Adapter<SelectableCl
             holder.imageView.setImageResource(R.drawable.ic_error);
         }
 
-        // Show selection overlay and check icon if selected
-        if (isSelectable) {
-            holder.selectionOverlay.setVisibility(item.isSelected() ? View.VISIBLE : View.GONE);
-            holder.checkIcon.setVisibility(item.isSelected() ? View.VISIBLE : View.GONE);
-        } else {
-            holder.selectionOverlay.setVisibility(View.GONE);
-            holder.checkIcon.setVisibility(View.GONE);
-        }
+        bindSelection(holder, item);
 
         // Handle item click for selection
         holder.itemView.setOnClickListener(v -> {
             if (!isSelectable) return;
+            int currentPosition = holder.getAdapterPosition();
+            if (currentPosition == RecyclerView.NO_POSITION) return;
 
-            boolean selected = !item.isSelected();
-            item.setSelected(selected);
+            // Unchanged rows aren't rebound after a refresh, so read the item at the current position
+            ClothingItem clicked = items.get(currentPosition);
+            boolean selected = !clicked.isSelected();
+            clicked.setSelected(selected);
 
             if (selected) {
-                selectedItems.add(item);
+                selectedItems.add(clicked);
             } else {
-                selectedItems.remove(item);
+                selectedItems.remove(clicked);
             }
 
-            notifyItemChanged(position);
+            notifyItemChanged(currentPosition, ListDiffer.PAYLOAD_SELECTION);
             if (listener != null) {
                 listener.onSelectionChanged(new ArrayList<>(selectedItems));
             }
         });
     }
 
+    // Show selection overlay and check icon if selected
+    private void bindSelection(ViewHolder holder, ClothingItem item) {
+        boolean shown = isSelectable && item.isSelected();
+        holder.selectionOverlay.setVisibility(shown ? View.VISIBLE : View.GONE);
+        holder.checkIcon.setVisibility(shown ? View.VISIBLE : View.GONE);
+    }
+
     @Override
     public int getItemCount() {
         return items.size();
@@ -17,13 +17,16 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.repositories.FavoritesRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.outfits.OutfitSuggestionDetailsActivity;
 import com.example.outpick.R;
-import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -32,21 +35,38 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.ViewHolder> {
+public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.ViewHolder>
+        implements PagedAdapter<Outfit> {
 
     private final Context context;
-    private final List<Outfit> outfitList;
+    // Rebind payload for rows whose favorite state changed, so images aren't reloaded
+    private static final String PAYLOAD_FAVORITE = "favorite";
+
+    // ✅ Page reloads and deletes are diffed in the background; only changed rows are rebound
+    private final ListDiffer<Outfit> outfitList = new ListDiffer<>(this, new ListDiffer.ItemKeys<Outfit>() {
+        @Override
+        public Object idOf(Outfit outfit) {
+            return ListDiffer.idOr(outfit.getId(), outfit);
+        }
+
+        @Override
+        public Object contentOf(Outfit outfit) {
+            return Arrays.asList(outfit.getImageUri(), outfit.getName());
+        }
+    });
     private final boolean showFavoriteToggle;
 
     // ⭐ CRITICAL NEW FIELDS for User-Scoped Favorites with Supabase
     private final String currentUserId; // The user ID of the currently logged-in user
 
     // --- Multi-select mode ---
+    // Selection is kept by row id, so it survives rows moving when the list is diffed
     private boolean multiSelectMode = false;
-    private final Set<Integer> selectedPositions = new HashSet<>();
+    private final Set<Object> selectedIds = new HashSet<>();
 
     // Supabase service
     private final SupabaseService supabaseService;
+    private final FavoritesRepository favoritesRepository;
 
     // --- Constructor (default: show favorites, e.g. for OutfitSuggestionActivity) ---
     public SuggestionAdapter(Context context, List<Outfit> outfitList, String currentUserId) {
@@ -56,10 +76,17 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
     // --- Constructor allowing control over favorite toggle visibility ---
     public SuggestionAdapter(Context context, List<Outfit> outfitList, boolean showFavoriteToggle, String currentUserId) {
         this.context = context;
-        this.outfitList = outfitList;
+        setHasStableIds(true);
+        this.outfitList.submit(outfitList);
         this.showFavoriteToggle = showFavoriteToggle;
         this.currentUserId = currentUserId;
         this.supabaseService = SupabaseClient.getService();
+        this.favoritesRepository = FavoritesRepository.getInstance(supabaseService);
+
+        // Load the user's favorite IDs once; rows rebind when they arrive
+        if (showFavoriteToggle && !favoritesRepository.isLoadedFor(currentUserId)) {
+            favoritesRepository.loadAsync(currentUserId, () -> this.outfitList.rebindAll(PAYLOAD_FAVORITE));
+        }
 
         // Log an error if the user ID is invalid, as favorites won't work
         if (this.currentUserId == null || this.currentUserId.isEmpty()) {
@@ -70,21 +97,17 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
     /** Enable or disable multi-select mode */
     public void enableMultiSelectMode(boolean enable) {
         multiSelectMode = enable;
-        selectedPositions.clear();
-        notifyDataSetChanged();
+        selectedIds.clear();
+        outfitList.rebindAll(ListDiffer.PAYLOAD_SELECTION);
     }
 
     /** Delete all selected outfits (from Supabase + list) */
     public void deleteSelected() {
-        List<Outfit> toDelete = new ArrayList<>();
+        List<Outfit> toDelete = getSelectedOutfits();
         List<String> idsToDelete = new ArrayList<>();
 
-        for (Integer pos : selectedPositions) {
-            if (pos >= 0 && pos < outfitList.size()) {
-                Outfit outfit = outfitList.get(pos);
-                toDelete.add(outfit);
-                idsToDelete.add(outfit.getId());
-            }
+        for (Outfit outfit : toDelete) {
+            idsToDelete.add(outfit.getId());
         }
 
         if (!idsToDelete.isEmpty()) {
@@ -92,17 +115,16 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
             deleteOutfitsFromSupabase(idsToDelete);
         }
 
+        selectedIds.clear();
         outfitList.removeAll(toDelete);
-        selectedPositions.clear();
-        notifyDataSetChanged();
     }
 
     /** Get selected outfits for deletion */
     public List<Outfit> getSelectedOutfits() {
         List<Outfit> selected = new ArrayList<>();
-        for (Integer pos : selectedPositions) {
-            if (pos >= 0 && pos < outfitList.size()) {
-                selected.add(outfitList.get(pos));
+        for (Outfit outfit : outfitList.getItems()) {
+            if (selectedIds.contains(idOf(outfit))) {
+                selected.add(outfit);
             }
         }
         return selected;
@@ -110,22 +132,41 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
 
     /** Remove specific outfit */
     public void removeOutfit(Outfit outfit) {
-        int position = outfitList.indexOf(outfit);
-        if (position != -1) {
-            outfitList.remove(position);
-            notifyItemRemoved(position);
+        removeOutfits(Collections.singletonList(outfit));
+    }
+
+    /** Remove several outfits in one diffed update */
+    public void removeOutfits(Collection<Outfit> outfits) {
+        for (Outfit outfit : outfits) {
+            selectedIds.remove(idOf(outfit));
         }
+        outfitList.removeAll(outfits);
+    }
+
+    @Override
+    public void replaceItems(List<Outfit> items) {
+        selectedIds.clear();
+        outfitList.submit(items);
+    }
+
+    @Override
+    public void appendItems(List<Outfit> items) {
+        outfitList.append(items);
     }
 
     /** Clear all selections */
     public void clearSelections() {
-        selectedPositions.clear();
-        notifyDataSetChanged();
+        selectedIds.clear();
+        outfitList.rebindAll(ListDiffer.PAYLOAD_SELECTION);
     }
 
     /** Get number of selected items */
     public int getSelectedCount() {
-        return selectedPositions.size();
+        return selectedIds.size();
+    }
+
+    private static Object idOf(Outfit outfit) {
+        return ListDiffer.idOr(outfit.getId(), outfit);
     }
 
     private void deleteOutfitsFromSupabase(List<String> outfitIds) {
@@ -154,6 +195,22 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
         return new ViewHolder(view);
     }
 
+    @Override
+    public long getItemId(int position) {
+        return outfitList.stableIdOf(outfitList.get(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            super.onBindViewHolder(holder, position, payloads);
+            return;
+        }
+        Outfit outfit = outfitList.get(position);
+        if (payloads.contains(ListDiffer.PAYLOAD_SELECTION)) bindSelection(holder, outfit);
+        if (payloads.contains(PAYLOAD_FAVORITE) && showFavoriteToggle) bindFavoriteStatus(outfit, holder);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         Outfit outfit = outfitList.get(position);
@@ -180,17 +237,20 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
         if (showFavoriteToggle) {
             holder.btnFavorite.setVisibility(View.VISIBLE);
 
-            // Check favorite status from Supabase for this user/outfit pair
-            checkFavoriteStatus(outfit, holder, position);
+            // Favorite status for this user/outfit pair
+            bindFavoriteStatus(outfit, holder);
 
             // --- Favorite button toggle logic ---
+            // Unchanged rows aren't rebound after a diff, so read the row's current item
             holder.btnFavorite.setOnClickListener(v -> {
                 if (currentUserId == null || currentUserId.isEmpty()) {
                     Toast.makeText(context, "Error: Cannot save favorite. User not logged in.", Toast.LENGTH_SHORT).show();
                     return;
                 }
+                int currentPosition = holder.getAdapterPosition();
+                if (currentPosition == RecyclerView.NO_POSITION) return;
 
-                toggleFavoriteStatus(outfit, holder, position);
+                toggleFavoriteStatus(outfitList.get(currentPosition), holder);
             });
         } else {
             // Hide favorite button completely for screens like ContentOutfitsActivity
@@ -198,60 +258,48 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
         }
 
         // --- Multi-select highlight ---
-        if (multiSelectMode && selectedPositions.contains(position)) {
-            holder.itemView.setBackgroundColor(Color.LTGRAY);
-        } else {
-            holder.itemView.setBackgroundColor(Color.TRANSPARENT);
-        }
+        bindSelection(holder, outfit);
 
         // --- Item click behavior ---
         holder.itemView.setOnClickListener(v -> {
+            int currentPosition = holder.getAdapterPosition();
+            if (currentPosition == RecyclerView.NO_POSITION) return;
+            Outfit clicked = outfitList.get(currentPosition);
             if (multiSelectMode) {
                 // Toggle selection
-                if (selectedPositions.contains(position)) {
-                    selectedPositions.remove(position);
-                } else {
-                    selectedPositions.add(position);
+                Object id = idOf(clicked);
+                if (!selectedIds.remove(id)) {
+                    selectedIds.add(id);
                 }
-                notifyItemChanged(position);
+                notifyItemChanged(currentPosition, ListDiffer.PAYLOAD_SELECTION);
             } else {
                 // Normal click → open details
-                openOutfitDetails(outfit);
+                openOutfitDetails(clicked);
             }
         });
     }
 
-    private void checkFavoriteStatus(Outfit outfit, ViewHolder holder, int position) {
+    private void bindSelection(ViewHolder holder, Outfit outfit) {
+        if (multiSelectMode && selectedIds.contains(idOf(outfit))) {
+            holder.itemView.setBackgroundColor(Color.LTGRAY);
+        } else {
+            holder.itemView.setBackgroundColor(Color.TRANSPARENT);
+        }
+    }
+
+    private void bindFavoriteStatus(Outfit outfit, ViewHolder holder) {
         if (currentUserId == null || currentUserId.isEmpty()) {
             holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
             return;
         }
 
-        Call<List<JsonObject>> call = supabaseService.checkFavorite(currentUserId, outfit.getId());
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(@NonNull Call<List<JsonObject>> call, @NonNull Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
-                    // Outfit is favorited
-                    outfit.setFavorite(true);
-                    holder.btnFavorite.setImageResource(R.drawable.ic_favorite);
-                } else {
-                    // Outfit is not favorited
-                    outfit.setFavorite(false);
-                    holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<List<JsonObject>> call, @NonNull Throwable t) {
-                // On failure, assume not favorited
-                outfit.setFavorite(false);
-                holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-            }
-        });
+        // Read from the in-memory favorites store - no request per row
+        boolean isFavorite = favoritesRepository.isFavorite(outfit.getId());
+        outfit.setFavorite(isFavorite);
+        holder.btnFavorite.setImageResource(isFavorite ? R.drawable.ic_favorite : R.drawable.ic_favorite_border);
     }
 
-    private void toggleFavoriteStatus(Outfit outfit, ViewHolder holder, int position) {
+    private void toggleFavoriteStatus(Outfit outfit, ViewHolder holder) {
         boolean newState = !outfit.isFavorite();
         outfit.setFavorite(newState);
 
@@ -260,65 +308,17 @@ public class SuggestionAdapter extends RecyclerView.Adapter<SuggestionAdapter.Vi
                 newState ? R.drawable.ic_favorite : R.drawable.ic_favorite_border
         );
 
-        if (newState) {
-            // Add to favorites
-            addToFavorites(outfit, holder, position);
-        } else {
-            // Remove from favorites
-            removeFromFavorites(outfit, holder, position);
-        }
-    }
-
-    private void addToFavorites(Outfit outfit, ViewHolder holder, int position) {
-        JsonObject favorite = new JsonObject();
-        favorite.addProperty("user_id", currentUserId);
-        favorite.addProperty("outfit_id", outfit.getId());
-
-        Call<List<JsonObject>> call = supabaseService.addFavorite(favorite);
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(@NonNull Call<List<JsonObject>> call, @NonNull Response<List<JsonObject>> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(context, "Added to favorites", Toast.LENGTH_SHORT).show();
-                } else {
-                    // Revert on failure
-                    outfit.setFavorite(false);
-                    holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-                    Toast.makeText(context, "Failed to add to favorites", Toast.LENGTH_SHORT).show();
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<List<JsonObject>> call, @NonNull Throwable t) {
+        favoritesRepository.setFavorite(currentUserId, outfit.getId(), newState, success -> {
+            if (success) {
+                Toast.makeText(context, newState ? "Added to favorites" : "Removed from favorites", Toast.LENGTH_SHORT).show();
+            } else {
                 // Revert on failure
-                outfit.setFavorite(false);
-                holder.btnFavorite.setImageResource(R.drawable.ic_favorite_border);
-                Toast.makeText(context, "Network error adding favorite", Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    private void removeFromFavorites(Outfit outfit, ViewHolder holder, int position) {
-        Call<Void> call = supabaseService.removeFavorite(currentUserId, outfit.getId());
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(context, "Removed from favorites", Toast.LENGTH_SHORT).show();
-                } else {
-                    // Revert on failure
-                    outfit.setFavorite(true);
-                    holder.btnFavorite.setImageResource(R.drawable.ic_favorite);
-                    Toast.makeText(context, "Failed to remove from favorites", Toast.LENGTH_SHORT).show();
+                outfit.setFavorite(!newState);
+                int adapterPosition = holder.getAdapterPosition();
+                if (adapterPosition != RecyclerView.NO_POSITION) {
+                    notifyItemChanged(adapterPosition, PAYLOAD_FAVORITE);
                 }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<Void> call, @NonNull Throwable t) {
-                // Revert on failure
-                outfit.setFavorite(true);
-                holder.btnFavorite.setImageResource(R.drawable.ic_favorite);
-                Toast.makeText(context, "Network error removing favorite", Toast.LENGTH_SHORT).show();
+                Toast.makeText(context, newState ? "Failed to add to favorites" : "Failed to remove from favorites", Toast.LENGTH_SHORT).show();
             }
         });
     }
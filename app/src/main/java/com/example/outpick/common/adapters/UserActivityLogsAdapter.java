@@ -8,14 +8,33 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.outpick.R;
 import com.example.outpick.database.models.UserModel;
+import java.util.Arrays;
 import java.util.List;
 
 public class UserActivityLogsAdapter extends RecyclerView.Adapter<UserActivityLogsAdapter.UserActivityViewHolder> {
 
-    private List<UserModel> userList;
+    // ✅ Refreshes are diffed in the background; only changed rows are rebound
+    private final ListDiffer<UserModel> userList = new ListDiffer<>(this, new ListDiffer.ItemKeys<UserModel>() {
+        @Override
+        public Object idOf(UserModel user) {
+            return ListDiffer.idOr(user.getId(), user);
+        }
+
+        @Override
+        public Object contentOf(UserModel user) {
+            return Arrays.asList(user.getUsername(), user.getSignupDate(), user.getLastLogin(),
+                    user.getLastLogout(), user.getRole());
+        }
+    });
 
     public UserActivityLogsAdapter(List<UserModel> userList) {
-        this.userList = userList != null ? userList : new java.util.ArrayList<>();
+        setHasStableIds(true);
+        this.userList.submit(userList);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return userList.stableIdOf(userList.get(position));
     }
 
     @NonNull
@@ -55,8 +74,7 @@ public class UserActivityLogsAdapter extends RecyclerView.Adapter<UserActivityLo
 
     // ✅ Update data method
     public void updateData(List<UserModel> newUserList) {
-        this.userList = newUserList != null ? newUserList : new java.util.ArrayList<>();
-        notifyDataSetChanged();
+        userList.submit(newUserList);
     }
 
     // ✅ FIXED ViewHolder - IDs MUST MATCH your layout file
@@ -0,0 +1,114 @@
+package com.example.outpick.database.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * On-device SQLite mirror of the Supabase rows the app reads most.
+ *
+ * Rows are kept as their PostgREST JSON so the repositories can reuse their existing
+ * JsonObject -> model conversion. {@code scope} is the owning user (or closet) so a
+ * screen's rows can be read back with one indexed lookup.
+ *
+ * The same file holds the {@link Outbox} of writes not yet confirmed by Supabase. Unlike
+ * the mirror it is not a cache, so it survives schema upgrades.
+ */
+class LocalDatabase extends SQLiteOpenHelper {
+
+    // Separate from the old bundled assets/outpick.db, which has a different schema
+    private static final String DATABASE_NAME = "outpick_mirror.db";
+    private static final int DATABASE_VERSION = 3;   // 2: sync watermarks, 3: outbox
+
+    static final String TABLE_RECORDS = "records";
+    static final String COL_TABLE = "tbl";
+    static final String COL_SCOPE = "scope";
+    static final String COL_KEY = "row_key";
+    static final String COL_DATA = "data";
+    static final String COL_POSITION = "position";   // server order of the last fetch
+    static final String COL_CACHED_AT = "cached_at";
+
+    static final String TABLE_SYNC_STATE = "sync_state";
+    static final String COL_FETCHED_AT = "fetched_at";
+    static final String COL_WATERMARK = "watermark";                      // newest updated_at mirrored
+    static final String COL_TOMBSTONE_WATERMARK = "tombstone_watermark";  // newest deleted_at applied
+
+    static final String TABLE_OUTBOX = "outbox";
+    static final String COL_SEQ = "seq";                                  // enqueue order
+    static final String COL_IDEMPOTENCY_KEY = "idempotency_key";
+    static final String COL_ENTITY = "entity";                            // ops on one entity run in order
+    static final String COL_KIND = "kind";                                // INSERT / PATCH / DELETE
+    static final String COL_URL = "url";
+    static final String COL_BODY = "body";
+    static final String COL_PROBE_URL = "probe_url";                      // finds an insert that already landed
+    static final String COL_MIRROR_TABLE = "mirror_table";
+    static final String COL_MIRROR_SCOPE = "mirror_scope";
+    static final String COL_MIRROR_KEY = "mirror_key";                    // provisional row to reconcile
+    static final String COL_ATTEMPTS = "attempts";
+    static final String COL_OUTCOME_UNKNOWN = "outcome_unknown";          // last attempt may have reached the server
+    static final String COL_NEXT_ATTEMPT_AT = "next_attempt_at";
+    static final String COL_CREATED_AT = "created_at";
+    static final String COL_LAST_ERROR = "last_error";
+
+    LocalDatabase(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Readers (UI cache hits) don't block behind a revalidation write
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_RECORDS + " ("
+                + COL_TABLE + " TEXT NOT NULL, "
+                + COL_SCOPE + " TEXT NOT NULL, "
+                + COL_KEY + " TEXT NOT NULL, "
+                + COL_DATA + " TEXT NOT NULL, "
+                + COL_POSITION + " INTEGER NOT NULL, "
+                + COL_CACHED_AT + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COL_TABLE + ", " + COL_SCOPE + ", " + COL_KEY + "))");
+
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + COL_TABLE + " TEXT NOT NULL, "
+                + COL_SCOPE + " TEXT NOT NULL, "
+                + COL_FETCHED_AT + " INTEGER NOT NULL, "
+                + COL_WATERMARK + " TEXT, "
+                + COL_TOMBSTONE_WATERMARK + " TEXT, "
+                + "PRIMARY KEY (" + COL_TABLE + ", " + COL_SCOPE + "))");
+
+        createOutbox(db);
+    }
+
+    private static void createOutbox(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_OUTBOX + " ("
+                + COL_SEQ + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_IDEMPOTENCY_KEY + " TEXT NOT NULL UNIQUE, "
+                + COL_ENTITY + " TEXT NOT NULL, "
+                + COL_KIND + " TEXT NOT NULL, "
+                + COL_URL + " TEXT NOT NULL, "
+                + COL_BODY + " TEXT, "
+                + COL_PROBE_URL + " TEXT, "
+                + COL_MIRROR_TABLE + " TEXT, "
+                + COL_MIRROR_SCOPE + " TEXT, "
+                + COL_MIRROR_KEY + " TEXT, "
+                + COL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_OUTCOME_UNKNOWN + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_NEXT_ATTEMPT_AT + " INTEGER NOT NULL, "
+                + COL_CREATED_AT + " INTEGER NOT NULL, "
+                + COL_LAST_ERROR + " TEXT)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS outbox_entity ON " + TABLE_OUTBOX + " (" + COL_ENTITY + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // The mirror is only a cache - rebuild it and let the next fetch refill it.
+        // Queued writes are the user's data: onCreate keeps an existing outbox.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_RECORDS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SYNC_STATE);
+        onCreate(db);
+    }
+}
@@ -0,0 +1,570 @@
+package com.example.outpick.database.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read/write access to the local mirror ({@link LocalDatabase}).
+ *
+ * Repositories write every successful fetch through to the mirror and read it back when
+ * the network is slow or unavailable. All methods do disk I/O and must be called off the
+ * main thread. {@link #get()} returns null until {@link #init(Context)} has run, in which
+ * case the repositories simply skip the mirror.
+ */
+public class LocalStore {
+    private static final String TAG = "LocalStore";
+
+    // Mirrored tables
+    public static final String CLOTHING = "clothing";
+    public static final String OUTFITS = "outfits";
+    public static final String USER_OUTFITS = "user_outfits";
+    public static final String USER_FAVORITES = "user_favorites";
+    public static final String CLOSETS = "closets";
+    public static final String CLOSET_SNAPSHOTS = "closet_snapshots";
+
+    /** Scope for tables that are not owned by a user, e.g. the outfit catalog. */
+    public static final String GLOBAL_SCOPE = "";
+
+    /** Server-maintained change timestamp that the sync watermarks are taken from. */
+    public static final String UPDATED_AT = "updated_at";
+
+    private static final String RECORD_WHERE = LocalDatabase.COL_TABLE + " = ? AND "
+            + LocalDatabase.COL_SCOPE + " = ? AND " + LocalDatabase.COL_KEY + " = ?";
+
+    private static volatile LocalStore instance;
+
+    private final LocalDatabase database;
+    // Bumped by every write, so readers can tell whether rows they derived something from changed
+    private final AtomicLong version = new AtomicLong();
+
+    private LocalStore(Context context) {
+        this.database = new LocalDatabase(context);
+    }
+
+    /** Called once from {@link com.example.outpick.OutPickApplication}. */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new LocalStore(context);
+        }
+    }
+
+    public static LocalStore get() {
+        return instance;
+    }
+
+    /** Shared with {@link Outbox} - one SQLiteOpenHelper per file. */
+    LocalDatabase database() {
+        return database;
+    }
+
+    // ================= READS =================
+
+    /** Changes whenever any mirrored row may have changed; cheap, no disk access. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /** Mirrored rows for a table and owner, in the order they were last fetched. */
+    public List<JsonObject> getRows(String table, String scope) {
+        List<JsonObject> rows = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(
+                LocalDatabase.TABLE_RECORDS,
+                new String[]{LocalDatabase.COL_DATA},
+                LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_SCOPE + " = ?",
+                new String[]{table, scopeOf(scope)},
+                null, null,
+                LocalDatabase.COL_POSITION + " ASC")) {
+            while (cursor.moveToNext()) {
+                JsonElement element = JsonParser.parseString(cursor.getString(0));
+                if (element.isJsonObject()) rows.add(element.getAsJsonObject());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading " + table + " from mirror: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    /**
+     * Number of mirrored rows in (table, scope) without parsing them, or -1 if the scope
+     * has never been fetched (an empty mirror would otherwise read as "0 items").
+     */
+    public int countRows(String table, String scope) {
+        if (getFetchedAt(table, scope) == 0) return -1;
+        try {
+            return (int) DatabaseUtils.queryNumEntries(database.getReadableDatabase(),
+                    LocalDatabase.TABLE_RECORDS,
+                    LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_SCOPE + " = ?",
+                    new String[]{table, scopeOf(scope)});
+        } catch (Exception e) {
+            Log.e(TAG, "Error counting " + table + " in mirror: " + e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /** When the (table, scope) snapshot was last replaced from the server, or 0 if never. */
+    public long getFetchedAt(String table, String scope) {
+        try (Cursor cursor = database.getReadableDatabase().query(
+                LocalDatabase.TABLE_SYNC_STATE,
+                new String[]{LocalDatabase.COL_FETCHED_AT},
+                LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_SCOPE + " = ?",
+                new String[]{table, scopeOf(scope)},
+                null, null, null)) {
+            if (cursor.moveToFirst()) return cursor.getLong(0);
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading sync state: " + e.getMessage(), e);
+        }
+        return 0;
+    }
+
+    /**
+     * Newest updated_at in the (table, scope) mirror, or null if the rows carry none - in
+     * which case {@link SyncEngine} has nothing to diff against and reloads in full.
+     */
+    public String getWatermark(String table, String scope) {
+        return readSyncState(database.getReadableDatabase(), LocalDatabase.COL_WATERMARK, table, scope);
+    }
+
+    /** Newest deleted_at of the tombstones already applied to the (table, scope) mirror. */
+    public String getTombstoneWatermark(String table, String scope) {
+        return readSyncState(database.getReadableDatabase(), LocalDatabase.COL_TOMBSTONE_WATERMARK, table, scope);
+    }
+
+    public boolean isFresh(String table, String scope, long maxAgeMs) {
+        long fetchedAt = getFetchedAt(table, scope);
+        return fetchedAt > 0 && System.currentTimeMillis() - fetchedAt < maxAgeMs;
+    }
+
+    // ================= WRITES =================
+
+    /**
+     * Replace the whole (table, scope) snapshot with a complete server result. Writes still
+     * queued in the {@link Outbox} survive it: provisional rows of queued inserts are kept
+     * (after the server's rows) and rows with a queued delete stay out.
+     */
+    public void replaceRows(String table, String scope, List<JsonObject> rows) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            Map<String, String> queued = queuedMirrorWrites(db, table, scope);
+            Map<String, JsonObject> provisional = new LinkedHashMap<>();
+            for (Map.Entry<String, String> write : queued.entrySet()) {
+                if (!Outbox.Kind.INSERT.name().equals(write.getValue())) continue;
+                String data = readData(db, table, scope, write.getKey());
+                if (data != null) provisional.put(write.getKey(), JsonParser.parseString(data).getAsJsonObject());
+            }
+
+            db.delete(LocalDatabase.TABLE_RECORDS,
+                    LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_SCOPE + " = ?",
+                    new String[]{table, scopeOf(scope)});
+            int position = 0;
+            for (JsonObject row : mergeSnapshot(table, rows, queued, provisional)) {
+                db.insertWithOnConflict(LocalDatabase.TABLE_RECORDS, null,
+                        recordValues(table, scope, keyOf(table, row), row, position++, now),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            String watermark = null;
+            for (JsonObject row : rows) {
+                watermark = later(watermark, stringOf(row, UPDATED_AT));
+            }
+            // Tombstones older than the snapshot are already reflected in it
+            markFetched(db, table, scope, now, watermark, watermark);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error replacing " + table + " in mirror: " + e.getMessage(), e);
+        } finally {
+            db.endTransaction();
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Merge a partial result (a page, a single insert) into the snapshot. Existing rows keep
+     * their position; new rows go to the end. Does not count as a full refresh.
+     */
+    public void upsertRows(String table, String scope, List<JsonObject> rows) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            int nextPosition = nextPosition(db, table, scope);
+            for (JsonObject row : rows) {
+                String key = keyOf(table, row);
+                if (key == null) continue;
+
+                ContentValues update = new ContentValues();
+                update.put(LocalDatabase.COL_DATA, row.toString());
+                update.put(LocalDatabase.COL_CACHED_AT, now);
+                int updated = db.update(LocalDatabase.TABLE_RECORDS, update, RECORD_WHERE,
+                        recordArgs(table, scope, key));
+                if (updated == 0) {
+                    db.insert(LocalDatabase.TABLE_RECORDS, null,
+                            recordValues(table, scope, key, row, nextPosition++, now));
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error merging " + table + " into mirror: " + e.getMessage(), e);
+        } finally {
+            db.endTransaction();
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Merge an incremental sync into the (table, scope) snapshot: changed rows are upserted
+     * (except those with a queued delete in the {@link Outbox}, as in replaceRows), tombstoned
+     * rows removed, and both watermarks advanced. Tombstones are rows with
+     * row_key and deleted_at; a row updated after its tombstone (e.g. an outfit assigned
+     * again) is kept. {@code order} is the full read's order terms (see PostgrestQuery#orders):
+     * the merged rows are re-sorted by them so the mirror reads like a fresh query would. Without
+     * an order, new rows go to the end, as new rows come last from an unordered scan.
+     * Returns how many mirrored rows actually changed.
+     */
+    public int applyDelta(String table, String scope, List<JsonObject> changed, List<JsonObject> tombstones,
+                          List<String> order) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        int changes = 0;
+        db.beginTransaction();
+        try {
+            String watermark = readSyncState(db, LocalDatabase.COL_WATERMARK, table, scope);
+            String tombstoneWatermark = readSyncState(db, LocalDatabase.COL_TOMBSTONE_WATERMARK, table, scope);
+            int nextPosition = nextPosition(db, table, scope);
+            for (JsonObject row : changed) {
+                watermark = later(watermark, stringOf(row, UPDATED_AT));
+            }
+
+            // Like a full reload, a row with a queued delete stays out of the mirror
+            for (JsonObject row : withoutQueuedDeletes(table, changed, queuedMirrorWrites(db, table, scope))) {
+                String key = keyOf(table, row);
+                // The delta is inclusive of the watermark, so rows at the boundary come back unchanged
+                String data = row.toString();
+                String current = readData(db, table, scope, key);
+                if (data.equals(current)) continue;
+
+                if (current == null) {
+                    db.insert(LocalDatabase.TABLE_RECORDS, null,
+                            recordValues(table, scope, key, row, nextPosition++, now));
+                } else {
+                    ContentValues update = new ContentValues();
+                    update.put(LocalDatabase.COL_DATA, data);
+                    update.put(LocalDatabase.COL_CACHED_AT, now);
+                    db.update(LocalDatabase.TABLE_RECORDS, update, RECORD_WHERE, recordArgs(table, scope, key));
+                }
+                changes++;
+            }
+
+            for (JsonObject tombstone : tombstones) {
+                String key = stringOf(tombstone, "row_key");
+                String deletedAt = stringOf(tombstone, "deleted_at");
+                tombstoneWatermark = later(tombstoneWatermark, deletedAt);
+
+                String current = key != null ? readData(db, table, scope, key) : null;
+                if (current == null) continue;
+                String updatedAt = stringOf(JsonParser.parseString(current).getAsJsonObject(), UPDATED_AT);
+                if (outlives(updatedAt, deletedAt)) continue;
+
+                db.delete(LocalDatabase.TABLE_RECORDS, RECORD_WHERE, recordArgs(table, scope, key));
+                changes++;
+            }
+
+            if (changes > 0 && !order.isEmpty()) {
+                reorder(db, table, scope, order);
+            }
+            markFetched(db, table, scope, now, watermark, tombstoneWatermark);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying " + table + " delta to mirror: " + e.getMessage(), e);
+            changes = 0;
+        } finally {
+            db.endTransaction();
+            version.incrementAndGet();
+        }
+        return changes;
+    }
+
+    /**
+     * Drop rows by key, e.g. after a confirmed delete. A null scope removes the key from
+     * every scope, for callers that only know the row ID.
+     */
+    public void deleteRows(String table, String scope, Collection<String> keys) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String key : keys) {
+                if (scope == null) {
+                    db.delete(LocalDatabase.TABLE_RECORDS,
+                            LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_KEY + " = ?",
+                            new String[]{table, key});
+                } else {
+                    db.delete(LocalDatabase.TABLE_RECORDS, RECORD_WHERE, recordArgs(table, scope, key));
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error deleting " + table + " rows from mirror: " + e.getMessage(), e);
+        } finally {
+            db.endTransaction();
+            version.incrementAndGet();
+        }
+    }
+
+    /** Forget everything, e.g. when switching accounts. */
+    public void clear() {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.delete(LocalDatabase.TABLE_RECORDS, null, null);
+        db.delete(LocalDatabase.TABLE_SYNC_STATE, null, null);
+        version.incrementAndGet();
+    }
+
+    // ================= HELPERS =================
+
+    /**
+     * Row key within a (table, scope). Assignment and favorite rows have no id of their own,
+     * and are already scoped by user, so the outfit ID identifies them.
+     */
+    static String keyOf(String table, JsonObject row) {
+        String column = USER_OUTFITS.equals(table) || USER_FAVORITES.equals(table) ? "outfit_id" : "id";
+        JsonElement key = row.get(column);
+        return key != null && !key.isJsonNull() ? key.getAsString() : null;
+    }
+
+    private static String stringOf(JsonObject row, String column) {
+        JsonElement value = row.get(column);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
+    /**
+     * What a full reload leaves in the mirror, in order: the server's rows minus those with a
+     * queued delete, then the provisional rows of queued inserts the server doesn't have yet.
+     * Where the server already has a provisional row's key, its row wins.
+     */
+    static List<JsonObject> mergeSnapshot(String table, List<JsonObject> serverRows,
+                                          Map<String, String> queued, Map<String, JsonObject> provisional) {
+        List<JsonObject> merged = new ArrayList<>();
+        Map<String, JsonObject> pending = new LinkedHashMap<>(provisional);
+        for (JsonObject row : withoutQueuedDeletes(table, serverRows, queued)) {
+            pending.remove(keyOf(table, row));
+            merged.add(row);
+        }
+        merged.addAll(pending.values());
+        return merged;
+    }
+
+    /** {@code rows} without those lacking a key or with a queued delete, which must stay out. */
+    static List<JsonObject> withoutQueuedDeletes(String table, List<JsonObject> rows, Map<String, String> queued) {
+        List<JsonObject> kept = new ArrayList<>();
+        for (JsonObject row : rows) {
+            String key = keyOf(table, row);
+            if (key == null || Outbox.Kind.DELETE.name().equals(queued.get(key))) continue;
+            kept.add(row);
+        }
+        return kept;
+    }
+
+    /** Whether a row last updated at {@code updatedAt} survives a tombstone from {@code deletedAt}. */
+    static boolean outlives(String updatedAt, String deletedAt) {
+        return updatedAt != null && deletedAt != null && compareTimestamps(updatedAt, deletedAt) > 0;
+    }
+
+    /** The later of two PostgREST timestamps, as given. Null counts as earliest. */
+    static String later(String a, String b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return compareTimestamps(a, b) >= 0 ? a : b;
+    }
+
+    // PostgREST's timestamptz text: 'T' or ' ', 0-6 fractional digits, "+00:00", "+00" or "Z"
+    private static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .optionalStart().appendOffset("+HH:mm", "Z").optionalEnd()
+            .toFormatter();
+
+    /**
+     * Order two timestamps by instant, so different offsets and precisions compare correctly
+     * ("10:00:00.5+00:00" is after "11:00:00+02:00"). Text that isn't a timestamp compares as text.
+     */
+    static int compareTimestamps(String a, String b) {
+        Instant first = instantOf(a);
+        Instant second = instantOf(b);
+        if (first == null || second == null) return a.compareTo(b);
+        return first.compareTo(second);
+    }
+
+    /** The instant of a timestamp (UTC if it has no offset), or null if it isn't one. */
+    private static Instant instantOf(String text) {
+        // Cheap shape check first - most strings compared in an order aren't timestamps
+        if (text.length() < 16 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.charAt(10) != 'T' && text.charAt(10) != ' ')) {
+            return null;
+        }
+        try {
+            TemporalAccessor parsed = TIMESTAMP.parse(text);
+            return parsed.isSupported(ChronoField.OFFSET_SECONDS)
+                    ? OffsetDateTime.from(parsed).toInstant()
+                    : LocalDateTime.from(parsed).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /** Rewrite the (table, scope) positions so the rows follow PostgREST order terms. Stable. */
+    private static void reorder(SQLiteDatabase db, String table, String scope, List<String> order) {
+        List<String> keys = new ArrayList<>();
+        List<JsonObject> rows = new ArrayList<>();
+        try (Cursor cursor = db.query(LocalDatabase.TABLE_RECORDS,
+                new String[]{LocalDatabase.COL_KEY, LocalDatabase.COL_DATA},
+                LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_SCOPE + " = ?",
+                new String[]{table, scopeOf(scope)}, null, null, LocalDatabase.COL_POSITION + " ASC")) {
+            while (cursor.moveToNext()) {
+                keys.add(cursor.getString(0));
+                rows.add(JsonParser.parseString(cursor.getString(1)).getAsJsonObject());
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            sorted.add(i);
+        }
+        Comparator<JsonObject> comparator = orderComparator(order);
+        sorted.sort((a, b) -> comparator.compare(rows.get(a), rows.get(b)));
+
+        for (int position = 0; position < sorted.size(); position++) {
+            ContentValues update = new ContentValues();
+            update.put(LocalDatabase.COL_POSITION, position);
+            db.update(LocalDatabase.TABLE_RECORDS, update, RECORD_WHERE,
+                    recordArgs(table, scope, keys.get(sorted.get(position))));
+        }
+    }
+
+    /**
+     * Comparator for PostgREST order terms ("column.asc" / "column.desc"). Like Postgres, nulls
+     * sort as larger than any value: last ascending, first descending.
+     */
+    static Comparator<JsonObject> orderComparator(List<String> order) {
+        Comparator<JsonObject> comparator = (a, b) -> 0;
+        for (String term : order) {
+            int dot = term.lastIndexOf('.');
+            String column = dot > 0 ? term.substring(0, dot) : term;
+            boolean descending = dot > 0 && "desc".equals(term.substring(dot + 1));
+            Comparator<JsonObject> byColumn = (a, b) -> compareValues(a.get(column), b.get(column));
+            comparator = comparator.thenComparing(descending ? byColumn.reversed() : byColumn);
+        }
+        return comparator;
+    }
+
+    private static int compareValues(JsonElement a, JsonElement b) {
+        boolean aNull = a == null || a.isJsonNull();
+        boolean bNull = b == null || b.isJsonNull();
+        if (aNull || bNull) return Boolean.compare(aNull, bNull);
+        if (!a.isJsonPrimitive() || !b.isJsonPrimitive()) return a.toString().compareTo(b.toString());
+        if (a.getAsJsonPrimitive().isNumber() && b.getAsJsonPrimitive().isNumber()) {
+            return a.getAsBigDecimal().compareTo(b.getAsBigDecimal());
+        }
+        return compareTimestamps(a.getAsString(), b.getAsString());
+    }
+
+    /** Mirror key -> kind of the newest queued Outbox write that touches the (table, scope) mirror. */
+    private static Map<String, String> queuedMirrorWrites(SQLiteDatabase db, String table, String scope) {
+        Map<String, String> writes = new HashMap<>();
+        try (Cursor cursor = db.query(LocalDatabase.TABLE_OUTBOX,
+                new String[]{LocalDatabase.COL_MIRROR_KEY, LocalDatabase.COL_KIND, LocalDatabase.COL_MIRROR_SCOPE},
+                LocalDatabase.COL_MIRROR_TABLE + " = ? AND " + LocalDatabase.COL_MIRROR_KEY + " IS NOT NULL",
+                new String[]{table}, null, null, LocalDatabase.COL_SEQ + " ASC")) {
+            while (cursor.moveToNext()) {
+                if (!scopeOf(scope).equals(scopeOf(cursor.getString(2)))) continue;
+                writes.put(cursor.getString(0), cursor.getString(1));
+            }
+        }
+        return writes;
+    }
+
+    private static String[] recordArgs(String table, String scope, String key) {
+        return new String[]{table, scopeOf(scope), key};
+    }
+
+    private static String readData(SQLiteDatabase db, String table, String scope, String key) {
+        try (Cursor cursor = db.query(LocalDatabase.TABLE_RECORDS, new String[]{LocalDatabase.COL_DATA},
+                RECORD_WHERE, recordArgs(table, scope, key), null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    private static String readSyncState(SQLiteDatabase db, String column, String table, String scope) {
+        try (Cursor cursor = db.query(LocalDatabase.TABLE_SYNC_STATE, new String[]{column},
+                LocalDatabase.COL_TABLE + " = ? AND " + LocalDatabase.COL_SCOPE + " = ?",
+                new String[]{table, scopeOf(scope)}, null, null, null)) {
+            return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getString(0) : null;
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading sync state: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static String scopeOf(String scope) {
+        return scope != null ? scope : GLOBAL_SCOPE;
+    }
+
+    private static ContentValues recordValues(String table, String scope, String key,
+                                              JsonObject row, int position, long now) {
+        ContentValues values = new ContentValues();
+        values.put(LocalDatabase.COL_TABLE, table);
+        values.put(LocalDatabase.COL_SCOPE, scopeOf(scope));
+        values.put(LocalDatabase.COL_KEY, key);
+        values.put(LocalDatabase.COL_DATA, row.toString());
+        values.put(LocalDatabase.COL_POSITION, position);
+        values.put(LocalDatabase.COL_CACHED_AT, now);
+        return values;
+    }
+
+    private static int nextPosition(SQLiteDatabase db, String table, String scope) {
+        try (Cursor cursor = db.rawQuery("SELECT MAX(" + LocalDatabase.COL_POSITION + ") FROM "
+                        + LocalDatabase.TABLE_RECORDS + " WHERE " + LocalDatabase.COL_TABLE + " = ? AND "
+                        + LocalDatabase.COL_SCOPE + " = ?",
+                new String[]{table, scopeOf(scope)})) {
+            if (cursor.moveToFirst() && !cursor.isNull(0)) return cursor.getInt(0) + 1;
+        }
+        return 0;
+    }
+
+    private static void markFetched(SQLiteDatabase db, String table, String scope, long now,
+                                    String watermark, String tombstoneWatermark) {
+        ContentValues values = new ContentValues();
+        values.put(LocalDatabase.COL_TABLE, table);
+        values.put(LocalDatabase.COL_SCOPE, scopeOf(scope));
+        values.put(LocalDatabase.COL_FETCHED_AT, now);
+        values.put(LocalDatabase.COL_WATERMARK, watermark);
+        values.put(LocalDatabase.COL_TOMBSTONE_WATERMARK, tombstoneWatermark);
+        db.insertWithOnConflict(LocalDatabase.TABLE_SYNC_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+}
@@ -0,0 +1,832 @@
+package com.example.outpick.database.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Durable queue of writes to Supabase.
+ *
+ * Repositories apply a write locally first (in memory, in the mirror) and {@link #enqueue} it.
+ * The outbox stores it in {@link LocalDatabase} and replays it until Supabase accepts or
+ * rejects it, across restarts and dropped connections. Screens never wait on the round trip.
+ *   - Ops on one entity (e.g. one favorite) are sent strictly in order, and an op that keeps
+ *     failing holds back the ones behind it. Other entities carry on.
+ *   - Transient failures (no connection, 408, 429, 5xx) retry with exponential backoff and
+ *     jitter. Any other 4xx drops the op and reports it as rejected.
+ *   - Every op has an idempotency key, sent as Idempotency-Key. An insert whose earlier attempt
+ *     may have reached the server is first looked up with its probe query, and a 409 unique
+ *     violation (23505) on an insert counts as applied, so a retry never creates a second row.
+ *     Any other 409, e.g. a foreign key violation, rejects the op.
+ *   - An op that hasn't been sent yet coalesces with the next op on its entity. An insert and
+ *     a later delete cancel out, patches to the same rows merge, and a patch folds into the
+ *     insert before it.
+ *   - Due inserts into the same table go out together as one array-body insert.
+ *
+ * Listeners are kept in memory and called on a background thread. After a restart the queued
+ * ops still replay; they just have nobody to report to.
+ */
+public final class Outbox {
+    private static final String TAG = "Outbox";
+
+    static final long BASE_BACKOFF_MS = 2_000;
+    static final long MAX_BACKOFF_MS = 10 * 60 * 1000;
+
+    private static final String PENDING_KEY_PREFIX = "pending-";
+
+    // Postgres SQLSTATE PostgREST reports with a 409 when an insert hits an existing key
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    public enum Kind { INSERT, PATCH, DELETE }
+
+    /** Outcome of an op, reported once. */
+    public interface Listener {
+        /** Supabase accepted the write (rows it returned, possibly none), or it was coalesced away. */
+        void onApplied(List<JsonObject> rows);
+
+        /** Supabase refused the write for good; it has been dropped and its mirror row removed. */
+        void onRejected(String error);
+    }
+
+    /**
+     * One queued write. Build with {@link #insert}, {@link #patch} or {@link #delete}, e.g.
+     *   Outbox.Op.insert("user_favorites", row)
+     *           .onEntity("user_favorites/" + userId + "/" + outfitId)
+     *           .probe(PostgrestQuery.from("user_favorites").eq("user_id", userId).eq("outfit_id", outfitId))
+     *           .mirror(LocalStore.USER_FAVORITES, userId, row);
+     */
+    public static final class Op {
+        final Kind kind;
+        final String url;
+        final String idempotencyKey;
+        JsonElement body;
+        String entity;
+        String probeUrl;
+        String mirrorTable;
+        String mirrorScope;
+        String mirrorKey;
+        JsonObject provisionalRow;
+
+        // Queue state, filled in when read back from the database
+        long seq;
+        int attempts;
+        boolean outcomeUnknown;
+        long nextAttemptAt;
+
+        private Op(Kind kind, String url, JsonElement body, String idempotencyKey) {
+            this.kind = kind;
+            this.url = url;
+            this.body = body;
+            this.idempotencyKey = idempotencyKey;
+            this.entity = url + "#" + idempotencyKey;
+        }
+
+        public static Op insert(String table, JsonObject row) {
+            return new Op(Kind.INSERT, PostgrestQuery.from(table).toUrl(), row.deepCopy(), UUID.randomUUID().toString());
+        }
+
+        /** PATCH the rows matched by {@code filter}'s filters. */
+        public static Op patch(PostgrestQuery filter, JsonObject updates) {
+            return new Op(Kind.PATCH, filter.toUrl(), updates.deepCopy(), UUID.randomUUID().toString());
+        }
+
+        /** DELETE the rows matched by {@code filter}'s filters. */
+        public static Op delete(PostgrestQuery filter) {
+            return new Op(Kind.DELETE, filter.toUrl(), null, UUID.randomUUID().toString());
+        }
+
+        /**
+         * Ops with the same entity key run in order and coalesce, e.g. "user_favorites/42/7".
+         * Without one an op stands alone.
+         */
+        public Op onEntity(String entity) {
+            this.entity = entity;
+            return this;
+        }
+
+        /** For inserts: a read that finds the row if an earlier attempt already created it. */
+        public Op probe(PostgrestQuery query) {
+            this.probeUrl = query.limit(1).toUrl();
+            return this;
+        }
+
+        /**
+         * For inserts: show {@code row} in the mirror right away. Once Supabase accepts the insert,
+         * the row it returns takes the provisional row's place. If it is rejected, the provisional
+         * row is removed. Rows without a mirror key get a temporary "pending-..." id.
+         */
+        public Op mirror(String table, String scope, JsonObject row) {
+            JsonObject provisional = row.deepCopy();
+            if (LocalStore.keyOf(table, provisional) == null) {
+                provisional.addProperty("id", PENDING_KEY_PREFIX + idempotencyKey);
+            }
+            this.mirrorTable = table;
+            this.mirrorScope = scope;
+            this.mirrorKey = LocalStore.keyOf(table, provisional);
+            this.provisionalRow = provisional;
+            return this;
+        }
+
+        /** For deletes: drop the mirrored row right away. */
+        public Op mirror(String table, String scope, String key) {
+            this.mirrorTable = table;
+            this.mirrorScope = scope;
+            this.mirrorKey = key;
+            return this;
+        }
+
+        public String getIdempotencyKey() {
+            return idempotencyKey;
+        }
+
+        public String getEntity() {
+            return entity;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return kind + " " + url + " [" + entity + "]";
+        }
+    }
+
+    /** Whether a mirror key is a provisional row that Supabase hasn't confirmed yet. */
+    public static boolean isPending(String key) {
+        return key != null && key.startsWith(PENDING_KEY_PREFIX);
+    }
+
+    private static volatile Outbox instance;
+
+    private final LocalDatabase database;
+    private final SupabaseService supabaseService;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable wake = this::kick;
+
+    private final Map<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+    // Newest queued kind per entity, so screens can overlay pending writes without disk I/O
+    private final Map<String, Kind> pendingKinds = new ConcurrentHashMap<>();
+
+    // Guards the ops being sent against being coalesced away while they are on the wire
+    private final Object sendLock = new Object();
+    private final Set<Long> inFlight = new HashSet<>();
+
+    // Enqueues run one at a time, in call order
+    private final ArrayDeque<Runnable> lane = new ArrayDeque<>();
+    private boolean laneRunning;
+
+    private boolean draining;
+    private boolean drainAgain;
+
+    private Outbox(LocalDatabase database, SupabaseService supabaseService) {
+        this.database = database;
+        this.supabaseService = supabaseService;
+    }
+
+    /**
+     * Called once from {@link com.example.outpick.OutPickApplication}, after {@link LocalStore#init}.
+     * Replays whatever is still queued and retries straight away when the network comes back.
+     */
+    public static synchronized void start(Context context, SupabaseService supabaseService) {
+        LocalStore store = LocalStore.get();
+        if (instance != null || store == null) return;
+        Outbox outbox = new Outbox(store.database(), supabaseService);
+        instance = outbox;
+
+        outbox.runSerially(() -> {
+            outbox.loadPendingKinds();
+            outbox.kick();
+        });
+
+        try {
+            ConnectivityManager connectivity =
+                    (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (connectivity != null) {
+                connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                    @Override
+                    public void onAvailable(@NonNull Network network) {
+                        outbox.retryNow();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "No connectivity callback, relying on backoff: " + e.getMessage());
+        }
+    }
+
+    /** Null until {@link #start} has run. */
+    public static Outbox get() {
+        return instance;
+    }
+
+    // ================= ENQUEUE =================
+
+    /** Queue {@code op}; returns immediately. {@code listener} may be null. */
+    public void enqueue(Op op, Listener listener) {
+        if (listener != null) {
+            listenersFor(op.idempotencyKey).add(listener);
+        }
+        // Readers see the pending write at once, before it is even on disk
+        pendingKinds.put(op.entity, op.kind);
+        runSerially(() -> {
+            applyToMirror(op);
+            synchronized (sendLock) {
+                persist(op);
+            }
+            kick();
+        });
+    }
+
+    /** Newest queued kind of write to {@code entity}, or null when nothing is pending. */
+    public Kind pendingKind(String entity) {
+        return pendingKinds.get(entity);
+    }
+
+    /** Pending writes whose entity starts with {@code prefix}, keyed by the rest of the entity. */
+    public Map<String, Kind> pendingWithPrefix(String prefix) {
+        Map<String, Kind> pending = new HashMap<>();
+        for (Map.Entry<String, Kind> entry : pendingKinds.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                pending.put(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        return pending;
+    }
+
+    private void applyToMirror(Op op) {
+        LocalStore store = LocalStore.get();
+        if (store == null || op.mirrorTable == null) return;
+        if (op.kind == Kind.INSERT && op.provisionalRow != null) {
+            store.upsertRows(op.mirrorTable, op.mirrorScope, Collections.singletonList(op.provisionalRow));
+        } else if (op.kind == Kind.DELETE && op.mirrorKey != null) {
+            store.deleteRows(op.mirrorTable, op.mirrorScope, Collections.singletonList(op.mirrorKey));
+        }
+    }
+
+    /** Store {@code op}, coalescing it with the unsent ops before it on the same entity. */
+    private void persist(Op op) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        List<Op> coalesced = new ArrayList<>();
+        String error = null;
+        db.beginTransaction();
+        try {
+            Coalescing plan = coalesce(op, unsentTail(db, op.entity));
+            for (Op removed : plan.removed) {
+                remove(db, removed);
+                coalesced.add(removed);
+            }
+            if (plan.cancelled) {
+                coalesced.add(op);
+            } else if (plan.foldInto != null) {
+                // Fold the patch into the queued insert / patch; it reports when that one does
+                fold(op, plan.foldInto);
+                ContentValues values = new ContentValues();
+                values.put(LocalDatabase.COL_BODY, plan.foldInto.body.toString());
+                db.update(LocalDatabase.TABLE_OUTBOX, values, LocalDatabase.COL_SEQ + " = ?",
+                        new String[]{String.valueOf(plan.foldInto.seq)});
+                moveListeners(op.idempotencyKey, plan.foldInto.idempotencyKey);
+            } else {
+                db.insert(LocalDatabase.TABLE_OUTBOX, null, valuesOf(op));
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error queueing " + op + ": " + e.getMessage(), e);
+            coalesced.clear();
+            error = "Could not queue write: " + e.getMessage();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (error != null) {
+            reject(op, error);
+            return;
+        }
+        refreshPendingKind(op.entity);
+        for (Op dropped : coalesced) {
+            Log.d(TAG, "Coalesced away " + dropped);
+            dropProvisionalRow(dropped);
+            notifyApplied(dropped, new ArrayList<>());
+        }
+    }
+
+    /** What queueing an op does to the ops already queued on its entity. */
+    static final class Coalescing {
+        /** Queued ops the new op makes redundant; they are dropped and report as applied. */
+        final List<Op> removed = new ArrayList<>();
+        /** The new op cancelled out against a queued insert and is not stored either. */
+        boolean cancelled;
+        /** Queued insert or patch that the new patch merges into instead of being stored. */
+        Op foldInto;
+    }
+
+    /**
+     * The coalescing rules. {@code unsent} are the ops on {@code op}'s entity that can still
+     * change, oldest first:
+     *   - a delete drops the patches right before it, and cancels out with an insert before those;
+     *   - a patch folds into the insert right before it, or into a patch of the same rows;
+     *   - anything else is stored as is.
+     */
+    static Coalescing coalesce(Op op, List<Op> unsent) {
+        Coalescing plan = new Coalescing();
+        int next = unsent.size() - 1;
+        Op last = next >= 0 ? unsent.get(next) : null;
+
+        if (op.kind == Kind.DELETE) {
+            // Patches about to be deleted anyway never need to go out
+            while (last != null && last.kind == Kind.PATCH) {
+                plan.removed.add(last);
+                next--;
+                last = next >= 0 ? unsent.get(next) : null;
+            }
+            if (last != null && last.kind == Kind.INSERT) {
+                // Insert then delete - the server never needs to hear about either
+                plan.removed.add(last);
+                plan.cancelled = true;
+            }
+        } else if (op.kind == Kind.PATCH && last != null
+                && (last.kind == Kind.INSERT || (last.kind == Kind.PATCH && last.url.equals(op.url)))) {
+            plan.foldInto = last;
+        }
+        return plan;
+    }
+
+    /** Merge a patch's fields into a queued insert's row or patch's updates; later values win. */
+    static void fold(Op patch, Op into) {
+        JsonObject merged = into.body.getAsJsonObject();
+        for (Map.Entry<String, JsonElement> field : patch.body.getAsJsonObject().entrySet()) {
+            merged.add(field.getKey(), field.getValue());
+        }
+    }
+
+    /**
+     * The ops on an entity that can still be changed - never attempted and not on the wire -
+     * oldest first. Ops on an entity are sent in order, so these are always the newest ones.
+     */
+    private List<Op> unsentTail(SQLiteDatabase db, String entity) {
+        List<Op> ops = readOps(db, LocalDatabase.COL_ENTITY + " = ?", new String[]{entity},
+                LocalDatabase.COL_SEQ + " ASC", null);
+        int first = ops.size();
+        while (first > 0 && ops.get(first - 1).attempts == 0 && !inFlight.contains(ops.get(first - 1).seq)) {
+            first--;
+        }
+        return new ArrayList<>(ops.subList(first, ops.size()));
+    }
+
+    // ================= DRAIN =================
+
+    /** Send whatever is due, now, unless a drain is already running. */
+    public void kick() {
+        synchronized (this) {
+            if (draining) {
+                drainAgain = true;
+                return;
+            }
+            draining = true;
+        }
+        TaskScope.APP.launch(this::drain);
+    }
+
+    /** Forget the backoff of every queued op and send them now, e.g. when the network is back. */
+    public void retryNow() {
+        runSerially(() -> {
+            try {
+                ContentValues values = new ContentValues();
+                values.put(LocalDatabase.COL_NEXT_ATTEMPT_AT, 0);
+                database.getWritableDatabase().update(LocalDatabase.TABLE_OUTBOX, values, null, null);
+            } catch (Exception e) {
+                Log.e(TAG, "Error resetting backoff: " + e.getMessage(), e);
+            }
+            kick();
+        });
+    }
+
+    private void drain() {
+        while (true) {
+            long nextAttemptAt = Long.MAX_VALUE;
+            try {
+                nextAttemptAt = drainOnce();
+            } catch (Exception e) {
+                Log.e(TAG, "Error draining outbox: " + e.getMessage(), e);
+            }
+            synchronized (this) {
+                if (!drainAgain) {
+                    draining = false;
+                    scheduleWake(nextAttemptAt);
+                    return;
+                }
+                drainAgain = false;
+            }
+        }
+    }
+
+    /** One pass over the queue in order. Returns when the next held-back op is due, or Long.MAX_VALUE. */
+    private long drainOnce() {
+        List<Op> ops = readOps(database.getReadableDatabase(), null, null, LocalDatabase.COL_SEQ + " ASC", null);
+        Set<String> heldBack = new HashSet<>();
+        long nextAttemptAt = Long.MAX_VALUE;
+
+        for (int i = 0; i < ops.size(); i++) {
+            Op queued = ops.get(i);
+            if (heldBack.contains(queued.entity)) continue;
+            if (queued.nextAttemptAt > System.currentTimeMillis()) {
+                heldBack.add(queued.entity);
+                nextAttemptAt = Math.min(nextAttemptAt, queued.nextAttemptAt);
+                continue;
+            }
+
+            List<Op> batch = claim(batchFrom(ops, i, heldBack));
+            if (batch.isEmpty()) continue;   // coalesced away since the pass started
+            Outcome outcome;
+            try {
+                outcome = batch.size() == 1 ? send(batch.get(0)) : sendBatch(batch);
+            } finally {
+                synchronized (sendLock) {
+                    inFlight.clear();
+                }
+            }
+
+            if (outcome == Outcome.SETTLED) continue;
+            long now = System.currentTimeMillis();
+            for (Op op : batch) {
+                heldBack.add(op.entity);
+                if (op.nextAttemptAt > now) nextAttemptAt = Math.min(nextAttemptAt, op.nextAttemptAt);
+            }
+            if (outcome == Outcome.OFFLINE) {
+                // No point trying the rest; the network callback or the backoff wakes us
+                break;
+            }
+        }
+        return nextAttemptAt;
+    }
+
+    /**
+     * ops[start], plus - for a plain insert - the due inserts into the same table after it, so
+     * a burst of queued rows goes out as one array-body insert. An insert only joins if nothing
+     * earlier on its entity is still waiting.
+     */
+    private static List<Op> batchFrom(List<Op> ops, int start, Set<String> heldBack) {
+        List<Op> batch = new ArrayList<>();
+        Op first = ops.get(start);
+        batch.add(first);
+        if (first.kind != Kind.INSERT || first.outcomeUnknown) return batch;
+
+        Set<String> entities = new HashSet<>();
+        Set<String> skipped = new HashSet<>();
+        entities.add(first.entity);
+        long now = System.currentTimeMillis();
+        for (int j = start + 1; j < ops.size() && batch.size() < BulkRequests.MAX_ROWS_PER_INSERT; j++) {
+            Op op = ops.get(j);
+            boolean joins = op.kind == Kind.INSERT && !op.outcomeUnknown && op.url.equals(first.url)
+                    && op.nextAttemptAt <= now && !heldBack.contains(op.entity)
+                    && !entities.contains(op.entity) && !skipped.contains(op.entity);
+            if (joins) {
+                batch.add(op);
+                entities.add(op.entity);
+            } else {
+                skipped.add(op.entity);
+            }
+        }
+        return batch;
+    }
+
+    /** Mark ops as on the wire and re-read them, so they can no longer be coalesced. */
+    private List<Op> claim(List<Op> candidates) {
+        List<Op> claimed = new ArrayList<>();
+        synchronized (sendLock) {
+            for (Op candidate : candidates) {
+                List<Op> ops = readOps(database.getReadableDatabase(), LocalDatabase.COL_SEQ + " = ?",
+                        new String[]{String.valueOf(candidate.seq)}, null, null);
+                if (ops.isEmpty()) continue;
+                inFlight.add(candidate.seq);
+                claimed.add(ops.get(0));
+            }
+        }
+        return claimed;
+    }
+
+    private enum Outcome { SETTLED, RETRY, OFFLINE }
+
+    private Outcome send(Op op) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Idempotency-Key", op.idempotencyKey);
+        try {
+            if (op.kind == Kind.INSERT && op.outcomeUnknown && op.probeUrl != null) {
+                // The last attempt may have landed - look before inserting again
+                Response<List<JsonObject>> probe = supabaseService.executeGet(op.probeUrl).execute();
+                if (!probe.isSuccessful()) {
+                    return retry(op, "Probe failed: HTTP " + probe.code(), false);
+                }
+                if (probe.body() != null && !probe.body().isEmpty()) {
+                    applied(op, probe.body());
+                    return Outcome.SETTLED;
+                }
+            }
+
+            Response<List<JsonObject>> response = call(op, headers).execute();
+            if (response.isSuccessful()) {
+                applied(op, response.body() != null ? response.body() : new ArrayList<>());
+                return Outcome.SETTLED;
+            }
+
+            int code = response.code();
+            if (code == 408 || code == 429 || code >= 500) {
+                return retry(op, "HTTP " + code, false);
+            }
+            String errorBody = response.errorBody() != null ? response.errorBody().string() : null;
+            if (op.kind == Kind.INSERT && code == 409 && UNIQUE_VIOLATION.equals(PostgrestQuery.errorCodeOf(errorBody))) {
+                // The row is already there. Other 409s (e.g. a foreign key violation) are real failures
+                applied(op, new ArrayList<>());
+                return Outcome.SETTLED;
+            }
+            String error = "HTTP " + code + (errorBody != null ? ": " + errorBody : "");
+            reject(op, error);
+            return Outcome.SETTLED;
+        } catch (IOException e) {
+            // The request may or may not have reached Supabase
+            retry(op, e.getMessage(), true);
+            return Outcome.OFFLINE;
+        }
+    }
+
+    /** Several inserts into one table as one array-body request; rows come back in the same order. */
+    private Outcome sendBatch(List<Op> batch) {
+        JsonArray rows = new JsonArray();
+        List<String> keys = new ArrayList<>();
+        for (Op op : batch) {
+            rows.add(op.body);
+            keys.add(op.idempotencyKey);
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Idempotency-Key", String.join(",", keys));
+        try {
+            Response<List<JsonObject>> response = supabaseService.executeInsert(batch.get(0).url, rows, headers).execute();
+            if (response.isSuccessful()) {
+                List<JsonObject> created = response.body() != null ? response.body() : new ArrayList<>();
+                boolean inOrder = created.size() == batch.size();
+                for (int i = 0; i < batch.size(); i++) {
+                    applied(batch.get(i), inOrder ? Collections.singletonList(created.get(i)) : new ArrayList<>());
+                }
+                return Outcome.SETTLED;
+            }
+
+            int code = response.code();
+            if (code == 408 || code == 429 || code >= 500) {
+                for (Op op : batch) {
+                    retry(op, "HTTP " + code, false);
+                }
+                return Outcome.RETRY;
+            }
+            // One bad row fails the whole statement - send them one by one to isolate it
+            Outcome outcome = Outcome.SETTLED;
+            for (Op op : batch) {
+                Outcome single = send(op);
+                if (single == Outcome.OFFLINE) return single;
+                if (single == Outcome.RETRY) outcome = single;
+            }
+            return outcome;
+        } catch (IOException e) {
+            for (Op op : batch) {
+                retry(op, e.getMessage(), true);
+            }
+            return Outcome.OFFLINE;
+        }
+    }
+
+    private Call<List<JsonObject>> call(Op op, Map<String, String> headers) {
+        switch (op.kind) {
+            case INSERT:
+                JsonArray rows = new JsonArray();
+                rows.add(op.body);
+                return supabaseService.executeInsert(op.url, rows, headers);
+            case PATCH:
+                return supabaseService.executePatch(op.url, op.body.getAsJsonObject(), headers);
+            default:
+                return supabaseService.executeDeleteReturning(op.url, headers);
+        }
+    }
+
+    // ================= SETTLE =================
+
+    private void applied(Op op, List<JsonObject> rows) {
+        removeSettled(op);
+        LocalStore store = LocalStore.get();
+        if (store != null && op.kind == Kind.INSERT && op.mirrorTable != null) {
+            // The server's row (real id, defaults) replaces the provisional one
+            Set<String> keys = new HashSet<>();
+            for (JsonObject row : rows) {
+                keys.add(LocalStore.keyOf(op.mirrorTable, row));
+            }
+            if (!keys.contains(op.mirrorKey)) {
+                dropProvisionalRow(op);
+            }
+            store.upsertRows(op.mirrorTable, op.mirrorScope, rows);
+        }
+        Log.d(TAG, "Applied " + op + " after " + (op.attempts + 1) + " attempt(s)");
+        notifyApplied(op, rows);
+    }
+
+    private void reject(Op op, String error) {
+        removeSettled(op);
+        dropProvisionalRow(op);
+        Log.e(TAG, "Rejected " + op + ": " + error);
+        List<Listener> waiting = listeners.remove(op.idempotencyKey);
+        if (waiting == null) return;
+        for (Listener listener : waiting) {
+            listener.onRejected(error);
+        }
+    }
+
+    private Outcome retry(Op op, String error, boolean outcomeUnknown) {
+        op.attempts++;
+        op.outcomeUnknown |= outcomeUnknown;
+        op.nextAttemptAt = System.currentTimeMillis() + backoffMs(op.attempts);
+        try {
+            ContentValues values = new ContentValues();
+            values.put(LocalDatabase.COL_ATTEMPTS, op.attempts);
+            values.put(LocalDatabase.COL_OUTCOME_UNKNOWN, op.outcomeUnknown ? 1 : 0);
+            values.put(LocalDatabase.COL_NEXT_ATTEMPT_AT, op.nextAttemptAt);
+            values.put(LocalDatabase.COL_LAST_ERROR, error);
+            database.getWritableDatabase().update(LocalDatabase.TABLE_OUTBOX, values,
+                    LocalDatabase.COL_SEQ + " = ?", new String[]{String.valueOf(op.seq)});
+        } catch (Exception e) {
+            Log.e(TAG, "Error rescheduling " + op + ": " + e.getMessage(), e);
+        }
+        Log.w(TAG, "Retrying " + op + " in " + (op.nextAttemptAt - System.currentTimeMillis())
+                + "ms (attempt " + op.attempts + "): " + error);
+        return Outcome.RETRY;
+    }
+
+    /** 2s, 4s, 8s ... capped at 10 minutes, with up to 20% jitter so retries don't bunch up. */
+    static long backoffMs(int attempts) {
+        long delay = BASE_BACKOFF_MS << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, MAX_BACKOFF_MS);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static void remove(SQLiteDatabase db, Op op) {
+        db.delete(LocalDatabase.TABLE_OUTBOX, LocalDatabase.COL_SEQ + " = ?", new String[]{String.valueOf(op.seq)});
+    }
+
+    private void removeSettled(Op op) {
+        try {
+            remove(database.getWritableDatabase(), op);
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing " + op + ": " + e.getMessage(), e);
+        }
+        refreshPendingKind(op.entity);
+    }
+
+    private void dropProvisionalRow(Op op) {
+        LocalStore store = LocalStore.get();
+        if (store != null && op.kind == Kind.INSERT && op.mirrorTable != null && op.mirrorKey != null) {
+            store.deleteRows(op.mirrorTable, op.mirrorScope, Collections.singletonList(op.mirrorKey));
+        }
+    }
+
+    private void notifyApplied(Op op, List<JsonObject> rows) {
+        List<Listener> waiting = listeners.remove(op.idempotencyKey);
+        if (waiting == null) return;
+        for (Listener listener : waiting) {
+            listener.onApplied(rows);
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private List<Listener> listenersFor(String idempotencyKey) {
+        return listeners.computeIfAbsent(idempotencyKey, key -> Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    private void moveListeners(String from, String to) {
+        List<Listener> moved = listeners.remove(from);
+        if (moved != null) {
+            listenersFor(to).addAll(moved);
+        }
+    }
+
+    private void refreshPendingKind(String entity) {
+        List<Op> ops = readOps(database.getReadableDatabase(), LocalDatabase.COL_ENTITY + " = ?",
+                new String[]{entity}, LocalDatabase.COL_SEQ + " DESC", "1");
+        if (ops.isEmpty()) {
+            pendingKinds.remove(entity);
+        } else {
+            pendingKinds.put(entity, ops.get(0).kind);
+        }
+    }
+
+    private void loadPendingKinds() {
+        for (Op op : readOps(database.getReadableDatabase(), null, null, LocalDatabase.COL_SEQ + " ASC", null)) {
+            pendingKinds.put(op.entity, op.kind);
+        }
+        Log.d(TAG, pendingKinds.size() + " entities with queued writes");
+    }
+
+    private void scheduleWake(long at) {
+        mainHandler.removeCallbacks(wake);
+        if (at == Long.MAX_VALUE) return;
+        mainHandler.postDelayed(wake, Math.max(0, at - System.currentTimeMillis()));
+    }
+
+    private void runSerially(Runnable work) {
+        synchronized (lane) {
+            lane.add(work);
+            if (laneRunning) return;
+            laneRunning = true;
+        }
+        TaskScope.APP.launchToCompletion(() -> {
+            while (true) {
+                Runnable next;
+                synchronized (lane) {
+                    next = lane.poll();
+                    if (next == null) {
+                        laneRunning = false;
+                        return;
+                    }
+                }
+                try {
+                    next.run();
+                } catch (Exception e) {
+                    Log.e(TAG, "Outbox task failed: " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private static ContentValues valuesOf(Op op) {
+        long now = System.currentTimeMillis();
+        ContentValues values = new ContentValues();
+        values.put(LocalDatabase.COL_IDEMPOTENCY_KEY, op.idempotencyKey);
+        values.put(LocalDatabase.COL_ENTITY, op.entity);
+        values.put(LocalDatabase.COL_KIND, op.kind.name());
+        values.put(LocalDatabase.COL_URL, op.url);
+        values.put(LocalDatabase.COL_BODY, op.body != null ? op.body.toString() : null);
+        values.put(LocalDatabase.COL_PROBE_URL, op.probeUrl);
+        values.put(LocalDatabase.COL_MIRROR_TABLE, op.mirrorTable);
+        values.put(LocalDatabase.COL_MIRROR_SCOPE, op.mirrorScope);
+        values.put(LocalDatabase.COL_MIRROR_KEY, op.mirrorKey);
+        values.put(LocalDatabase.COL_ATTEMPTS, 0);
+        values.put(LocalDatabase.COL_OUTCOME_UNKNOWN, 0);
+        values.put(LocalDatabase.COL_NEXT_ATTEMPT_AT, 0);
+        values.put(LocalDatabase.COL_CREATED_AT, now);
+        return values;
+    }
+
+    private static List<Op> readOps(SQLiteDatabase db, String where, String[] args, String orderBy, String limit) {
+        List<Op> ops = new ArrayList<>();
+        try (Cursor cursor = db.query(LocalDatabase.TABLE_OUTBOX, null, where, args, null, null, orderBy, limit)) {
+            while (cursor.moveToNext()) {
+                String body = cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_BODY));
+                Op op = new Op(
+                        Kind.valueOf(cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_KIND))),
+                        cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_URL)),
+                        body != null ? JsonParser.parseString(body) : null,
+                        cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_IDEMPOTENCY_KEY)));
+                op.entity = cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_ENTITY));
+                op.probeUrl = cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_PROBE_URL));
+                op.mirrorTable = cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_MIRROR_TABLE));
+                op.mirrorScope = cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_MIRROR_SCOPE));
+                op.mirrorKey = cursor.getString(cursor.getColumnIndexOrThrow(LocalDatabase.COL_MIRROR_KEY));
+                op.seq = cursor.getLong(cursor.getColumnIndexOrThrow(LocalDatabase.COL_SEQ));
+                op.attempts = cursor.getInt(cursor.getColumnIndexOrThrow(LocalDatabase.COL_ATTEMPTS));
+                op.outcomeUnknown = cursor.getInt(cursor.getColumnIndexOrThrow(LocalDatabase.COL_OUTCOME_UNKNOWN)) != 0;
+                op.nextAttemptAt = cursor.getLong(cursor.getColumnIndexOrThrow(LocalDatabase.COL_NEXT_ATTEMPT_AT));
+                ops.add(op);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading outbox: " + e.getMessage(), e);
+        }
+        return ops;
+    }
+}
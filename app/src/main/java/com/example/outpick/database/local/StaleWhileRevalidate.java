@@ -0,0 +1,77 @@
+package com.example.outpick.database.local;
+
+import android.util.Log;
+
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.BackgroundExecutor;
+import com.example.outpick.utils.TaskScope;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+
+/**
+ * Stale-while-revalidate reads over the local mirror.
+ *
+ * The mirrored rows are delivered first, straight from disk, so a screen can render
+ * without waiting on Supabase. If the mirror is older than {@code maxAgeMs} (or empty)
+ * it is brought up to date in the background with {@link SyncEngine}, and the callback
+ * fires a second time - but only when the rows actually changed. Callbacks run on the
+ * main thread, and stop once the caller's {@link TaskScope} is cancelled.
+ */
+public final class StaleWhileRevalidate {
+    private static final String TAG = "StaleWhileRevalidate";
+
+    /** Converts rows to what the screen needs; runs on the background thread. */
+    public interface Mapper<T> {
+        T map(List<JsonObject> rows);
+    }
+
+    public interface Callback<T> {
+        void onData(T data, boolean fromCache);
+
+        /** Nothing mirrored and the server could not be reached. */
+        void onError();
+    }
+
+    private StaleWhileRevalidate() {
+    }
+
+    public static <T> void load(TaskScope taskScope, SupabaseService service, String table, String scope,
+                                long maxAgeMs, BulkRequests.BaseQuery query, Mapper<T> mapper,
+                                Callback<T> callback) {
+        taskScope.launch(BackgroundExecutor.Priority.IMMEDIATE, () -> {
+            LocalStore store = LocalStore.get();
+            List<JsonObject> cached = null;
+            boolean fresh = false;
+
+            if (store != null && store.getFetchedAt(table, scope) > 0) {
+                cached = store.getRows(table, scope);
+                fresh = store.isFresh(table, scope, maxAgeMs);
+                T data = mapper.map(cached);
+                Log.d(TAG, "Serving " + cached.size() + " mirrored " + table + " rows (fresh=" + fresh + ")");
+                taskScope.post(() -> callback.onData(data, true));
+            }
+            if (fresh) return;
+
+            SyncEngine.Result result;
+            try {
+                result = SyncEngine.sync(service, table, scope, query);
+            } catch (Exception e) {
+                Log.e(TAG, "Revalidating " + table + " failed: " + e.getMessage());
+                result = null;
+            }
+
+            if (result == null || !result.isSuccessful()) {
+                if (cached == null) taskScope.post(callback::onError);
+                return;
+            }
+            if (cached != null && !result.hasChanges()) {
+                Log.d(TAG, table + " unchanged after revalidation");
+                return;
+            }
+            T data = mapper.map(result.getRows());
+            taskScope.post(() -> callback.onData(data, false));
+        });
+    }
+}
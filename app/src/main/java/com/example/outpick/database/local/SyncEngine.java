@@ -0,0 +1,184 @@
+package com.example.outpick.database.local;
+
+import android.util.Log;
+
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.example.outpick.database.supabase.SupabaseService;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import retrofit2.Response;
+
+/**
+ * Incremental sync of a (table, scope) mirror against Supabase.
+ *
+ * The first sync downloads the whole scope. After that only rows with
+ * updated_at >= the mirror's watermark are fetched, plus the tombstones of rows deleted
+ * since the last sync, and both are merged into {@link LocalStore}. An unchanged closet
+ * costs two tiny requests instead of a full download. They can't be one request: the rows
+ * and the tombstones live in different tables with no relationship PostgREST could embed,
+ * so folding them would take a server-side function per table. Both go over the shared
+ * HTTP/2 connection, so the second one adds a round trip but no handshake.
+ *
+ * Server contract (Supabase migration, not part of this repo):
+ *   - every synced table has an updated_at timestamptz column kept current by a trigger.
+ *     Editing an outfit also bumps updated_at on its user_outfits rows, which embed it;
+ *   - a sync_tombstones(table_name, row_key, scope, deleted_at) table filled by an
+ *     on-delete trigger. row_key is the mirror key (outfit_id for user_outfits and
+ *     user_favorites, id otherwise); scope is the owning user_id, the closet_id for
+ *     closet_snapshots, and null for outfits.
+ * Repositories don't select updated_at themselves. The first full reload of a table asks for
+ * it on top of the query's columns; if the server has no such column (PostgREST 42703) the
+ * table is remembered as untracked, read without it, and every sync of it is a full reload.
+ * A scope whose mirror already has a watermark was read with updated_at before, so it goes
+ * straight to a delta, also right after a cold start.
+ * If the delta or tombstone read is rejected the scope is reloaded in full as well.
+ *
+ * Blocking - call off the main thread.
+ */
+public final class SyncEngine {
+    private static final String TAG = "SyncEngine";
+
+    public static final String TOMBSTONES = "sync_tombstones";
+
+    public static final class Result {
+        private final boolean successful;
+        private final boolean changed;
+        private final List<JsonObject> rows;
+
+        private Result(boolean successful, boolean changed, List<JsonObject> rows) {
+            this.successful = successful;
+            this.changed = changed;
+            this.rows = rows;
+        }
+
+        /** False when Supabase could not be reached; the mirror is untouched. */
+        public boolean isSuccessful() {
+            return successful;
+        }
+
+        /** Whether this sync changed any mirrored row. */
+        public boolean hasChanges() {
+            return changed;
+        }
+
+        /** Every row of the scope after the sync, in mirror order. Null if the sync failed. */
+        public List<JsonObject> getRows() {
+            return rows;
+        }
+    }
+
+    private static final Result FAILED = new Result(false, false, null);
+
+    // PostgREST's "column does not exist"
+    private static final String UNDEFINED_COLUMN = "42703";
+
+    // Table -> whether its rows carry updated_at; absent until a full reload in this process tells.
+    // Only FALSE matters for deltas - a stored watermark already proves the column exists
+    private static final Map<String, Boolean> TRACKED = new ConcurrentHashMap<>();
+
+    private SyncEngine() {
+    }
+
+    /**
+     * Bring the (table, scope) mirror up to date. {@code query} is the full read for the
+     * scope (table, owner filter and columns); the delta filter is added to it.
+     */
+    public static Result sync(SupabaseService service, String table, String scope, BulkRequests.BaseQuery query) {
+        LocalStore store = LocalStore.get();
+        if (store == null) {
+            // No mirror to diff against - behave like a plain fetch
+            List<JsonObject> rows = query.create().fetchRows(service);
+            return rows != null ? new Result(true, true, rows) : FAILED;
+        }
+
+        String watermark = Boolean.FALSE.equals(TRACKED.get(table)) ? null : store.getWatermark(table, scope);
+        if (watermark != null) {
+            try {
+                Result delta = pullChanges(service, store, table, scope, query, watermark);
+                if (delta != null) return delta;
+            } catch (IOException e) {
+                // Offline - a full reload would fail the same way
+                Log.e(TAG, "Delta sync of " + table + " failed: " + e.getMessage());
+                return FAILED;
+            }
+        }
+        return pullAll(service, store, table, scope, query);
+    }
+
+    /** Delta sync. Null when the server rejected it and the caller should reload in full. */
+    private static Result pullChanges(SupabaseService service, LocalStore store, String table, String scope,
+                                      BulkRequests.BaseQuery query, String watermark) throws IOException {
+        Response<List<JsonObject>> changed = query.create()
+                .alsoSelect(LocalStore.UPDATED_AT)
+                .gte(LocalStore.UPDATED_AT, watermark)
+                .execute(service)
+                .execute();
+        if (!changed.isSuccessful() || changed.body() == null) {
+            Log.w(TAG, "Delta read of " + table + " rejected (" + changed.code() + "), reloading in full");
+            return null;
+        }
+
+        String tombstoneWatermark = store.getTombstoneWatermark(table, scope);
+        PostgrestQuery tombstoneQuery = PostgrestQuery.from(TOMBSTONES)
+                .select("row_key", "deleted_at")
+                .eq("table_name", table)
+                .gte("deleted_at", tombstoneWatermark != null ? tombstoneWatermark : watermark);
+        if (LocalStore.GLOBAL_SCOPE.equals(scope)) {
+            tombstoneQuery.isNull("scope");
+        } else {
+            tombstoneQuery.eq("scope", scope);
+        }
+        Response<List<JsonObject>> deleted = tombstoneQuery.execute(service).execute();
+        if (!deleted.isSuccessful() || deleted.body() == null) {
+            Log.w(TAG, "Tombstone read for " + table + " rejected (" + deleted.code() + "), reloading in full");
+            return null;
+        }
+
+        int changes = store.applyDelta(table, scope, changed.body(), deleted.body(), query.create().orders());
+        Log.d(TAG, "Synced " + table + "/" + scope + ": " + changed.body().size() + " changed, "
+                + deleted.body().size() + " deleted, " + changes + " applied");
+        return new Result(true, changes > 0, store.getRows(table, scope));
+    }
+
+    private static Result pullAll(SupabaseService service, LocalStore store, String table, String scope,
+                                  BulkRequests.BaseQuery query) {
+        List<JsonObject> rows = null;
+        if (!Boolean.FALSE.equals(TRACKED.get(table))) {
+            try {
+                Response<List<JsonObject>> response = query.create()
+                        .alsoSelect(LocalStore.UPDATED_AT)
+                        .execute(service)
+                        .execute();
+                if (response.isSuccessful() && response.body() != null) {
+                    TRACKED.put(table, true);
+                    rows = response.body();
+                } else if (response.code() == 400 && UNDEFINED_COLUMN.equals(PostgrestQuery.errorCodeOf(response))) {
+                    Log.w(TAG, table + " has no " + LocalStore.UPDATED_AT + " column, syncing it in full");
+                    TRACKED.put(table, false);
+                } else {
+                    Log.e(TAG, "Full read of " + table + " failed: HTTP " + response.code());
+                    return FAILED;
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Full read of " + table + " failed: " + e.getMessage());
+                return FAILED;
+            }
+        }
+        if (rows == null) {
+            rows = query.create().fetchRows(service);
+            if (rows == null) return FAILED;
+        }
+
+        boolean changed = store.getFetchedAt(table, scope) == 0 || !store.getRows(table, scope).equals(rows);
+        store.replaceRows(table, scope, rows);
+        Log.d(TAG, "Full sync of " + table + "/" + scope + ": " + rows.size() + " rows");
+        // Read back, so writes still in the Outbox show the same way as after a delta
+        return new Result(true, changed, store.getRows(table, scope));
+    }
+}
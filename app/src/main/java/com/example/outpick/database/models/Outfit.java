@@ -1,7 +1,15 @@
 package com.example.outpick.database.models;
 
+import com.example.outpick.utils.SortKeys;
+
+import java.text.CollationKey;
+import java.util.Comparator;
+
 public class Outfit {
 
+    /** A-Z by name in the device locale, ignoring case; compares cached keys only. */
+    public static final Comparator<Outfit> BY_NAME = Comparator.comparing(Outfit::getNameKey);
+
     // --- Core fields ---
     private String id; // CHANGED FROM int TO String for Supabase UUID
     private String imageUri; // Should contain cloud URLs like "https://xyz.supabase.co/..."
@@ -26,6 +34,9 @@ public class Outfit {
     // --- New field for snapshot path ---
     private String path;
 
+    // --- Cached collation key of name (see getNameKey) ---
+    private CollationKey nameKey;
+
     // ------------------- METADATA INITIALIZATION -------------------
     private void initializeMetadata(String event, String season, String style) {
         this.event = (event != null && !event.isEmpty()) ? event : "Casual";
@@ -257,6 +268,15 @@ public class Outfit {
     public byte[] getImageBytes() { return imageBytes; }
     public String getPath() { return path; }
 
+    /** Collation key of the name, built on first use and again only after the name changes. */
+    public CollationKey getNameKey() {
+        String source = name != null ? name : "";
+        if (nameKey == null || !nameKey.getSourceString().equals(source)) {
+            nameKey = SortKeys.collate(source);
+        }
+        return nameKey;
+    }
+
     // ------------------- SETTERS -------------------
     public void setId(String id) { this.id = id; }
     public void setId(int id) { this.id = String.valueOf(id); } // Overloaded for backward compatibility
@@ -0,0 +1,108 @@
+package com.example.outpick.database.repositories;
+
+import android.util.Log;
+
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.StaleWhileRevalidate;
+import com.example.outpick.database.local.SyncEngine;
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ClosetRepository {
+    private static final String TAG = "ClosetRepository";
+    private static final String TABLE = "closets";
+
+    // How long mirrored closets are served without asking Supabase again
+    public static final long CACHE_MAX_AGE_MS = 30_000;
+
+    private final SupabaseService supabaseService;
+
+    public ClosetRepository(SupabaseService supabaseService) {
+        this.supabaseService = supabaseService;
+    }
+
+    private PostgrestQuery userClosetsQuery(String userId) {
+        return PostgrestQuery.from(TABLE)
+                .eq("user_id", userId);
+    }
+
+    /**
+     * Blocking read of one user's closets, filtered on the server and delta-synced. Falls back to the
+     * mirrored closets when Supabase can't be reached.
+     */
+    public List<JsonObject> getClosetsForUser(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        SyncEngine.Result result = SyncEngine.sync(supabaseService, LocalStore.CLOSETS, userId,
+                () -> userClosetsQuery(userId));
+        if (result.isSuccessful()) {
+            return result.getRows();
+        }
+
+        LocalStore store = LocalStore.get();
+        Log.w(TAG, "Closet fetch failed, serving mirrored closets for user " + userId);
+        return store != null ? store.getRows(LocalStore.CLOSETS, userId) : new ArrayList<>();
+    }
+
+    public CompletableFuture<List<JsonObject>> getClosetsForUserAsync(TaskScope taskScope, String userId) {
+        return taskScope.supply(() -> getClosetsForUser(userId));
+    }
+
+    /**
+     * Blocking lookup of a closet's id by its name - the user's closet when {@code userId} is set.
+     * Falls back to the mirrored closets offline; null when there is no such closet.
+     */
+    public String findClosetIdByName(String userId, String closetName) {
+        if (closetName == null || closetName.isEmpty()) {
+            return null;
+        }
+
+        List<JsonObject> rows = PostgrestQuery.from(TABLE)
+                .select("id")
+                .eq("name", closetName)
+                .eqIfPresent("user_id", userId)
+                .limit(1)
+                .fetchRows(supabaseService);
+        if (rows != null) {
+            return rows.isEmpty() ? null : stringOf(rows.get(0), "id");
+        }
+
+        // ✅ Offline: look the name up among the mirrored closets
+        LocalStore store = LocalStore.get();
+        if (store == null || userId == null) return null;
+        for (JsonObject row : store.getRows(LocalStore.CLOSETS, userId)) {
+            if (closetName.equals(stringOf(row, "name"))) {
+                return stringOf(row, "id");
+            }
+        }
+        Log.w(TAG, "No closet named " + closetName + " for user " + userId);
+        return null;
+    }
+
+    public CompletableFuture<String> findClosetIdByNameAsync(TaskScope taskScope, String userId, String closetName) {
+        return taskScope.supply(() -> findClosetIdByName(userId, closetName));
+    }
+
+    /**
+     * Stale-while-revalidate load for the home screen: mirrored closets render immediately
+     * from disk, then again after a delta sync if they changed.
+     */
+    public void loadClosetsForUser(TaskScope taskScope, String userId, StaleWhileRevalidate.Callback<List<JsonObject>> callback) {
+        StaleWhileRevalidate.load(taskScope, supabaseService, LocalStore.CLOSETS, userId, CACHE_MAX_AGE_MS,
+                () -> userClosetsQuery(userId),
+                rows -> rows,
+                callback);
+    }
+
+    private static String stringOf(JsonObject row, String column) {
+        return row.has(column) && !row.get(column).isJsonNull() ? row.get(column).getAsString() : null;
+    }
+}
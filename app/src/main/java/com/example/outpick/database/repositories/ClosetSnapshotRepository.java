@@ -1,44 +1,154 @@
 package com.example.outpick.database.repositories;
 
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.Outbox;
+import com.example.outpick.database.local.SyncEngine;
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.BulkResult;
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
 import com.google.gson.JsonObject;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import retrofit2.Call;
 import retrofit2.Response;
 
 public class ClosetSnapshotRepository {
+    private static final String TABLE = "closet_snapshots";
+
+    public static final String[] LIST_COLUMNS = {"id", "closet_id", "snapshot_path"};
+
     private final SupabaseService supabaseService;
 
     public ClosetSnapshotRepository(SupabaseService supabaseService) {
         this.supabaseService = supabaseService;
     }
 
+    /**
+     * Add an outfit to a closet through the outbox: it is in the closet's mirrored snapshots as
+     * soon as this returns and reaches Supabase in the background, with retries.
+     */
     public boolean addOutfitToCloset(String closetId, String snapshotPath) {
-        try {
-            JsonObject snapshot = new JsonObject();
-            snapshot.addProperty("closet_id", closetId);
-            snapshot.addProperty("snapshot_path", snapshotPath);
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            return createSnapshot(closetId, snapshotPath) != null;
+        }
+        outbox.enqueue(queuedInsert(closetId, snapshotPath), null);
+        return true;
+    }
 
-            Call<List<JsonObject>> call = supabaseService.addSnapshotToCloset(snapshot);
+    /**
+     * Insert a closet snapshot and return the created row (including its id), or null on failure.
+     */
+    public JsonObject createSnapshot(String closetId, String snapshotPath) {
+        try {
+            Call<List<JsonObject>> call = supabaseService.addSnapshotToCloset(newSnapshotRow(closetId, snapshotPath));
             Response<List<JsonObject>> response = call.execute();
 
-            return response.isSuccessful() && response.body() != null;
+            if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
+                return response.body().get(0);
+            }
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
         }
+        return null;
+    }
+
+    /**
+     * Add several outfits to a closet through the outbox, which sends them as one array-body
+     * insert. Returns how many inserts were queued: they show in the mirror at once, but
+     * Supabase hasn't confirmed them yet, and one it rejects is dropped again. Without an
+     * outbox they are inserted right away and the count is of rows Supabase created.
+     */
+    public int addOutfitsToCloset(String closetId, Collection<String> snapshotPaths) {
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            List<JsonObject> rows = new ArrayList<>();
+            for (String snapshotPath : snapshotPaths) {
+                rows.add(newSnapshotRow(closetId, snapshotPath));
+            }
+            return BulkRequests.insert(supabaseService, TABLE, rows, LIST_COLUMNS).getSucceededCount();
+        }
+
+        int queued = 0;
+        for (String snapshotPath : snapshotPaths) {
+            outbox.enqueue(queuedInsert(closetId, snapshotPath), null);
+            queued++;
+        }
+        return queued;
     }
 
+    private Outbox.Op queuedInsert(String closetId, String snapshotPath) {
+        JsonObject snapshot = newSnapshotRow(closetId, snapshotPath);
+        return Outbox.Op.insert(TABLE, snapshot)
+                .onEntity(TABLE + "/" + closetId + "/" + snapshotPath)
+                .probe(PostgrestQuery.from(TABLE).eq("closet_id", closetId).eq("snapshot_path", snapshotPath))
+                .mirror(LocalStore.CLOSET_SNAPSHOTS, closetId, snapshot);
+    }
+
+    private static JsonObject newSnapshotRow(String closetId, String snapshotPath) {
+        JsonObject snapshot = new JsonObject();
+        snapshot.addProperty("closet_id", closetId);
+        snapshot.addProperty("snapshot_path", snapshotPath);
+        return snapshot;
+    }
+
+    /**
+     * Remove several snapshots from a closet through the outbox, keyed by row ID with the
+     * snapshot path as value. Each delete is on the same entity as the insert that added it, so
+     * removing a snapshot that hasn't synced yet cancels that insert instead of sending its
+     * "pending-..." ID. Without the outbox it falls back to id=in.(...) deletes.
+     */
+    public BulkResult<String> removeSnapshots(String closetId, Map<String, String> snapshotPaths) {
+        Outbox outbox = Outbox.get();
+        if (outbox == null || closetId == null || closetId.isEmpty()) {
+            BulkResult<String> result = BulkRequests.delete(supabaseService, () -> PostgrestQuery.from(TABLE),
+                    "id", snapshotPaths.keySet());
+            LocalStore store = LocalStore.get();
+            if (store != null && result.getSucceededCount() > 0) {
+                store.deleteRows(LocalStore.CLOSET_SNAPSHOTS, null, result.getSucceeded());
+            }
+            return result;
+        }
+
+        for (Map.Entry<String, String> snapshot : snapshotPaths.entrySet()) {
+            String snapshotPath = snapshot.getValue();
+            outbox.enqueue(Outbox.Op.delete(PostgrestQuery.from(TABLE)
+                            .eq("closet_id", closetId)
+                            .eq("snapshot_path", snapshotPath))
+                    .onEntity(TABLE + "/" + closetId + "/" + snapshotPath)
+                    .mirror(LocalStore.CLOSET_SNAPSHOTS, closetId, snapshot.getKey()), null);
+        }
+        return BulkResult.allSucceeded(snapshotPaths.keySet());
+    }
+
+    /**
+     * Every snapshot in a closet, delta-synced against the local mirror. Offline it returns the
+     * snapshots mirrored at the last successful sync, or null if the closet was never loaded.
+     */
     public List<JsonObject> getSnapshotsInCloset(String closetId) {
-        try {
-            Call<List<JsonObject>> call = supabaseService.getClosetSnapshots(closetId);
-            Response<List<JsonObject>> response = call.execute();
-            return response.isSuccessful() ? response.body() : null;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+        SyncEngine.Result result = SyncEngine.sync(supabaseService, LocalStore.CLOSET_SNAPSHOTS, closetId,
+                () -> PostgrestQuery.from(TABLE)
+                        .select(LIST_COLUMNS)
+                        .eq("closet_id", closetId));
+        if (result.isSuccessful()) {
+            return result.getRows();
         }
+
+        LocalStore store = LocalStore.get();
+        if (store == null) return null;
+        // ✅ Offline: snapshots mirrored at the last successful load, or null if never loaded
+        return store.getFetchedAt(LocalStore.CLOSET_SNAPSHOTS, closetId) > 0
+                ? store.getRows(LocalStore.CLOSET_SNAPSHOTS, closetId) : null;
+    }
+
+    public CompletableFuture<List<JsonObject>> getSnapshotsInClosetAsync(TaskScope taskScope, String closetId) {
+        return taskScope.supply(() -> getSnapshotsInCloset(closetId));
     }
-}
\ No newline at end of file
+}
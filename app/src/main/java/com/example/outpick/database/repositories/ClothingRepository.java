@@ -2,30 +2,61 @@ package com.example.outpick.database.repositories;
 
 import android.util.Log;
 
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.Outbox;
+import com.example.outpick.database.local.StaleWhileRevalidate;
+import com.example.outpick.database.local.SyncEngine;
 import com.example.outpick.database.models.ClothingItem;
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.BulkResult;
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.example.outpick.database.supabase.SupabaseJson;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.SortKeys;
+import com.example.outpick.utils.TaskScope;
 import com.google.gson.JsonObject;
 
+import java.io.IOException;
+import java.text.CollationKey;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 
 import retrofit2.Call;
 import retrofit2.Response;
 
 public class ClothingRepository {
     private static final String TAG = "ClothingRepository";
+    private static final String TABLE = "clothing";
+
+    // Columns the clothing screens actually render - keeps payloads small
+    public static final String[] LIST_COLUMNS = {
+            "id", "name", "image_uri", "category", "season", "occasion", "closet_name", "user_id", "created_at"
+    };
+
+    // Sort options offered by SortBottomSheetDialog
+    public static final String SORT_RECENTLY_ADDED = "Recently added";
+    public static final String SORT_BY_CATEGORY = "By category";
+    public static final String SORT_BY_NAME = "By name";
+
+    // How long a mirrored closet is served without asking Supabase again
+    public static final long CACHE_MAX_AGE_MS = 30_000;
+
     private static ClothingRepository instance;
-    private List<ClothingItem> items;
+    // Immutable snapshot, swapped whole: clearCache runs on Outbox and executor threads
+    private volatile List<ClothingItem> items = Collections.emptyList();
     private SupabaseService supabaseService;
-    private ExecutorService executorService;
+
+    // Last offline paging query and its sorted rows (see sortedMirror)
+    private String sortedMirrorKey;
+    private List<JsonObject> sortedMirrorRows;
 
     // Public constructor
     public ClothingRepository(SupabaseService supabaseService) {
         this.supabaseService = supabaseService;
-        this.items = new ArrayList<>();
-        this.executorService = Executors.newSingleThreadExecutor();
     }
 
     // Singleton instance getter
@@ -45,93 +76,355 @@ public class ClothingRepository {
     }
 
     public List<ClothingItem> getAllClothing() {
+        List<ClothingItem> items = fetchClothing(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .order("created_at", false));
+        Log.d(TAG, "Successfully loaded " + items.size() + " clothing items from cloud");
+        return items;
+    }
+
+    /**
+     * Run a clothing query and convert every row. Returns an empty list on failure.
+     */
+    public List<ClothingItem> fetchClothing(PostgrestQuery query) {
+        // ✅ Decoded straight from the response stream - no JsonObject per row
+        List<ClothingItem> items = query.fetchAs(supabaseService::readClothingItems);
+        if (items == null) {
+            Log.e(TAG, "Failed to load clothing items: " + query);
+            return new ArrayList<>();
+        }
+        return items;
+    }
+
+    private List<ClothingItem> toItems(List<JsonObject> rows) {
         List<ClothingItem> items = new ArrayList<>();
-        try {
-            Call<List<JsonObject>> call = supabaseService.getClothing();
-            Response<List<JsonObject>> response = call.execute();
+        for (JsonObject json : rows) {
+            ClothingItem item = convertJsonToClothingItem(json);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
 
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject json : response.body()) {
-                    ClothingItem item = convertJsonToClothingItem(json);
-                    if (item != null) {
-                        items.add(item);
+    private PostgrestQuery userClothingQuery(String userId) {
+        return PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("user_id", userId)
+                .order("created_at", false);
+    }
 
-                        if (item.getImagePath() != null && item.getImagePath().startsWith("http")) {
-                            Log.d(TAG, "Cloud image detected for: " + item.getName());
-                        }
-                    }
+    /**
+     * Stale-while-revalidate load of a user's whole closet: the mirrored items are delivered
+     * straight from disk, then again after a delta sync if anything changed.
+     */
+    public void loadClothingForUser(TaskScope taskScope, String userId, StaleWhileRevalidate.Callback<List<ClothingItem>> callback) {
+        StaleWhileRevalidate.load(taskScope, supabaseService, LocalStore.CLOTHING, userId, CACHE_MAX_AGE_MS,
+                () -> userClothingQuery(userId),
+                rows -> toItems(newestFirst(rows)),
+                callback);
+    }
+
+    /**
+     * ✅ FIXED: Get clothing items by user ID - filtered on the server, not after a full-table download
+     */
+    public List<ClothingItem> getClothingByUserId(String userId) {
+        return getClothingForUser(userId, null, null, null);
+    }
+
+    /**
+     * Get one user's clothing, optionally narrowed by category / season / occasion.
+     * Null or empty filters are skipped, so this scales with the user's closet only.
+     */
+    public List<ClothingItem> getClothingForUser(String userId, String category, String season, String occasion) {
+        if (userId == null || userId.isEmpty()) {
+            Log.e(TAG, "Cannot load clothing: userId is null or empty");
+            return new ArrayList<>();
+        }
+
+        // Season and occasion are tag fields, matched the same way as everywhere else (see TagFilter)
+        TagFilter tags = new TagFilter()
+                .anyOf("season", season)
+                .anyOf("occasion", occasion);
+        boolean unfiltered = isEmpty(category) && tags.isEmpty();
+        List<JsonObject> rows;
+        if (unfiltered) {
+            // ✅ Whole closet: only rows changed since the last sync are downloaded
+            SyncEngine.Result result = SyncEngine.sync(supabaseService, LocalStore.CLOTHING, userId,
+                    () -> userClothingQuery(userId));
+            rows = result.isSuccessful() ? newestFirst(result.getRows()) : null;
+        } else {
+            PostgrestQuery query = userClothingQuery(userId).eqIfPresent("category", category);
+            tags.applyTo(query);
+            try {
+                rows = query.fetchRowsOrThrow(supabaseService);
+                LocalStore store = LocalStore.get();
+                if (store != null) store.upsertRows(LocalStore.CLOTHING, userId, rows);
+            } catch (IOException e) {
+                rows = null;
+            } catch (PostgrestQuery.RejectedException e) {
+                // The mirror would answer a query the server can't - surface it instead
+                Log.e(TAG, "Filtered clothing query rejected for user " + userId + ": " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+
+        if (rows == null) {
+            // ✅ Offline: answer from the mirror with the same filters
+            Log.w(TAG, "Clothing fetch failed, serving mirrored items for user " + userId);
+            rows = new ArrayList<>();
+            for (JsonObject row : newestFirst(mirroredRows(userId))) {
+                if (matches(row, "category", category) && tags.matches(row)) {
+                    rows.add(row);
                 }
-                Log.d(TAG, "Successfully loaded " + items.size() + " clothing items from cloud");
-            } else {
-                Log.e(TAG, "Failed to load clothing items: " + response.code() + " - " + response.message());
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading clothing items: " + e.getMessage(), e);
         }
+
+        List<ClothingItem> items = toItems(rows);
+        Log.d(TAG, "Found " + items.size() + " items for user ID: " + userId);
         return items;
     }
 
     /**
-     * ✅ FIXED: Get clothing items by user ID with proper debugging
+     * One page of a user's clothing, sorted on the server so pages line up as the user scrolls.
+     * mainCategory "Tops" matches "Tops" and "Tops > T-Shirts"; null or "All" means every category.
      */
-    public List<ClothingItem> getClothingByUserId(String userId) {
-        List<ClothingItem> items = new ArrayList<>();
+    public List<ClothingItem> getClothingPageForUser(String userId, String mainCategory, String sortOption, int from, int to) {
+        return getClothingPageForUser(userId, mainCategory, null, sortOption, from, to);
+    }
+
+    /**
+     * As above, keeping only items whose season / occasion tags pass {@code tags} (null for all).
+     * Offline, the page comes from the mirror. If Supabase refuses the query (e.g. its
+     * {@code *_tags} columns are missing) this throws {@link PostgrestQuery.RejectedException}
+     * rather than quietly paging the mirror instead.
+     */
+    public List<ClothingItem> getClothingPageForUser(String userId, String mainCategory, TagFilter tags,
+                                                     String sortOption, int from, int to) {
+        if (userId == null || userId.isEmpty()) {
+            Log.e(TAG, "Cannot load clothing page: userId is null or empty");
+            return new ArrayList<>();
+        }
+
+        PostgrestQuery query = PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("user_id", userId);
+        if (mainCategory != null && !mainCategory.isEmpty() && !"All".equalsIgnoreCase(mainCategory)) {
+            // The Bottoms tab also covers items saved as "Bottom"
+            String prefix = "Bottoms".equalsIgnoreCase(mainCategory) ? "Bottom" : mainCategory;
+            query.ilike("category", prefix + "*");
+        }
+        if (tags != null) tags.applyTo(query);
+        applySort(query, sortOption);
+
+        List<JsonObject> rows;
         try {
-            Log.d(TAG, "🔄 START: Getting clothing for user ID: " + userId);
-
-            // Get all clothes first (most reliable method)
-            List<ClothingItem> allClothes = getAllClothing();
-            Log.d(TAG, "📊 Total clothes in database: " + allClothes.size());
-
-            // Filter by user_id
-            for (ClothingItem item : allClothes) {
-                String itemUserId = item.getUserId();
-                Log.d(TAG, "🔍 Checking item: " + item.getName() + " | User ID: '" + itemUserId + "'");
-
-                if (userId.equals(itemUserId)) {
-                    items.add(item);
-                    Log.d(TAG, "✅ ADDED: " + item.getName() + " for user " + userId);
-                } else if (itemUserId == null || itemUserId.isEmpty()) {
-                    Log.d(TAG, "❌ SKIPPED: No user_id for item: " + item.getName());
-                } else {
-                    Log.d(TAG, "❌ SKIPPED: User ID mismatch - Expected: " + userId + ", Got: " + itemUserId);
-                }
+            rows = query.range(from, to).fetchRowsOrThrow(supabaseService);
+        } catch (IOException e) {
+            // ✅ Offline: page through the mirror with the same category prefix, tags and sort order
+            Log.w(TAG, "Clothing page fetch failed (" + e.getMessage() + "), serving mirrored page " + from + "-" + to);
+            List<JsonObject> mirrored = sortedMirror(userId, mainCategory, tags, sortOption);
+            if (from >= mirrored.size()) return new ArrayList<>();
+            return toItems(mirrored.subList(from, Math.min(to + 1, mirrored.size())));
+        }
+
+        LocalStore store = LocalStore.get();
+        if (store != null) store.upsertRows(LocalStore.CLOTHING, userId, rows);
+        return toItems(rows);
+    }
+
+    /**
+     * The filtered, sorted mirror for offline paging. It is built once per query and reused
+     * for every following page until the query or the mirror changes, instead of re-reading
+     * and re-sorting the whole closet for each page.
+     */
+    private synchronized List<JsonObject> sortedMirror(String userId, String mainCategory, TagFilter tags,
+                                                       String sortOption) {
+        LocalStore store = LocalStore.get();
+        String key = userId + "|" + mainCategory + "|" + tags + "|" + sortOption
+                + "|" + (store != null ? store.getVersion() : 0);
+        if (key.equals(sortedMirrorKey)) return sortedMirrorRows;
+
+        List<JsonObject> mirrored = new ArrayList<>();
+        for (JsonObject row : mirroredRows(userId)) {
+            if (matchesMainCategory(row, mainCategory) && (tags == null || tags.matches(row))) mirrored.add(row);
+        }
+        sortMirrored(mirrored, sortOption);
+        sortedMirrorKey = key;
+        sortedMirrorRows = mirrored;
+        return mirrored;
+    }
+
+    /**
+     * Every item of a tab with only the columns filter sheets count over (id, season, occasion),
+     * for facet counts while the list itself is still paging in.
+     */
+    public List<ClothingItem> getClothingTagsForUser(String userId, String mainCategory) {
+        if (userId == null || userId.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        PostgrestQuery query = PostgrestQuery.from(TABLE)
+                .select("id", "season", "occasion")
+                .eq("user_id", userId);
+        if (mainCategory != null && !mainCategory.isEmpty() && !"All".equalsIgnoreCase(mainCategory)) {
+            String prefix = "Bottoms".equalsIgnoreCase(mainCategory) ? "Bottom" : mainCategory;
+            query.ilike("category", prefix + "*");
+        }
+
+        List<JsonObject> rows = query.fetchRows(supabaseService);
+        if (rows != null) {
+            return toItems(rows);
+        }
+
+        // ✅ Offline: count over the mirror instead
+        List<JsonObject> mirrored = new ArrayList<>();
+        for (JsonObject row : mirroredRows(userId)) {
+            if (matchesMainCategory(row, mainCategory)) mirrored.add(row);
+        }
+        return toItems(mirrored);
+    }
+
+    private static void applySort(PostgrestQuery query, String sortOption) {
+        if (SORT_BY_CATEGORY.equalsIgnoreCase(sortOption)) {
+            query.order("category", true);
+        } else if (SORT_BY_NAME.equalsIgnoreCase(sortOption)) {
+            query.order("name", true);
+        }
+        // Recently added (and options without a column of their own) are newest first
+        query.order("created_at", false);
+        // id breaks ties so rows never repeat or go missing across page boundaries
+        query.order("id", false);
+    }
+
+    private List<JsonObject> mirroredRows(String userId) {
+        LocalStore store = LocalStore.get();
+        return store != null ? store.getRows(LocalStore.CLOTHING, userId) : new ArrayList<>();
+    }
+
+    /** Synced rows are merged in arrival order; screens expect newest first. */
+    private static List<JsonObject> newestFirst(List<JsonObject> rows) {
+        List<JsonObject> sorted = new ArrayList<>(rows);
+        sortMirrored(sorted, SORT_RECENTLY_ADDED);
+        return sorted;
+    }
+
+    private static boolean matchesMainCategory(JsonObject row, String mainCategory) {
+        if (isEmpty(mainCategory) || "All".equalsIgnoreCase(mainCategory)) return true;
+        String prefix = "Bottoms".equalsIgnoreCase(mainCategory) ? "Bottom" : mainCategory;
+        return stringOf(row, "category").toLowerCase().startsWith(prefix.toLowerCase());
+    }
+
+    private static boolean matches(JsonObject row, String column, String value) {
+        return isEmpty(value) || value.equals(stringOf(row, column));
+    }
+
+    /** Sorts rows in place in {@link #applySort} order, computing each row's key once. */
+    private static void sortMirrored(List<JsonObject> rows, String sortOption) {
+        String primary = SORT_BY_CATEGORY.equalsIgnoreCase(sortOption) ? "category"
+                : SORT_BY_NAME.equalsIgnoreCase(sortOption) ? "name" : null;
+        SortKeys.sortBy(rows, row -> new MirrorKey(row, primary));
+    }
+
+    /** A mirrored row's sort key: the collated sort column if any, then newest first. */
+    private static final class MirrorKey implements Comparable<MirrorKey> {
+        final CollationKey primary;
+        final String createdAt;
+        final String id;
+
+        MirrorKey(JsonObject row, String primaryColumn) {
+            this.primary = primaryColumn != null ? SortKeys.collate(stringOf(row, primaryColumn)) : null;
+            this.createdAt = stringOf(row, "created_at");
+            this.id = stringOf(row, "id");
+        }
+
+        @Override
+        public int compareTo(MirrorKey other) {
+            if (primary != null) {
+                int byPrimary = primary.compareTo(other.primary);
+                if (byPrimary != 0) return byPrimary;
             }
+            int byCreated = other.createdAt.compareTo(createdAt);
+            return byCreated != 0 ? byCreated : other.id.compareTo(id);
+        }
+    }
 
-            Log.d(TAG, "✅ FINAL: Found " + items.size() + " items for user ID: " + userId);
+    private static String stringOf(JsonObject row, String column) {
+        return row.has(column) && !row.get(column).isJsonNull() ? row.get(column).getAsString() : "";
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "❌ ERROR in getClothingByUserId: " + e.getMessage(), e);
+    private static boolean isEmpty(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Number of items the user owns, from a count-only HEAD request - no rows are downloaded.
+     * Falls back to the mirror when offline; -1 when neither can tell.
+     */
+    public int countClothingForUser(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return 0;
         }
-        return items;
+        int count = PostgrestQuery.from(TABLE)
+                .eq("user_id", userId)
+                .fetchCount(supabaseService);
+        if (count >= 0) {
+            return count;
+        }
+        Log.w(TAG, "Clothing count failed, counting mirrored items for user " + userId);
+        LocalStore store = LocalStore.get();
+        return store != null ? store.countRows(LocalStore.CLOTHING, userId) : -1;
     }
 
     /**
-     * Get clothing items by closet name
+     * Category of every item the user owns - a single narrow column, used to decide which tabs to show.
      */
-    public List<ClothingItem> getClothingByCloset(String closetName) {
-        List<ClothingItem> items = new ArrayList<>();
+    public List<String> getClothingCategoriesForUser(String userId) {
+        List<String> categories = new ArrayList<>();
+        if (userId == null || userId.isEmpty()) {
+            return categories;
+        }
         try {
-            Call<List<JsonObject>> call = supabaseService.getClothing();
-            Response<List<JsonObject>> response = call.execute();
-
+            Response<List<JsonObject>> response = PostgrestQuery.from(TABLE)
+                    .select("category")
+                    .eq("user_id", userId)
+                    .execute(supabaseService)
+                    .execute();
             if (response.isSuccessful() && response.body() != null) {
                 for (JsonObject json : response.body()) {
-                    ClothingItem item = convertJsonToClothingItem(json);
-                    if (item != null && closetName.equals(item.getClosetName())) {
-                        items.add(item);
-                    }
+                    categories.add(json.has("category") && !json.get("category").isJsonNull()
+                            ? json.get("category").getAsString() : "");
                 }
-                Log.d(TAG, "Found " + items.size() + " items in closet: " + closetName);
-            } else {
-                Log.e(TAG, "Failed to load clothing items for closet: " + response.code() + " - " + response.message());
+                return categories;
             }
+            Log.e(TAG, "Failed to load clothing categories: " + response.code());
         } catch (Exception e) {
-            Log.e(TAG, "Error loading clothing items by closet: " + e.getMessage(), e);
+            Log.e(TAG, "Error loading clothing categories: " + e.getMessage(), e);
         }
+
+        // ✅ Offline: the mirror has every category the user owned at the last sync
+        for (JsonObject row : mirroredRows(userId)) {
+            categories.add(stringOf(row, "category"));
+        }
+        return categories;
+    }
+
+    /**
+     * Get clothing items by closet name
+     */
+    public List<ClothingItem> getClothingByCloset(String closetName) {
+        List<ClothingItem> items = fetchClothing(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("closet_name", closetName)
+                .order("created_at", false));
+        Log.d(TAG, "Found " + items.size() + " items in closet: " + closetName);
         return items;
     }
 
+    public CompletableFuture<List<ClothingItem>> getClothingByClosetAsync(TaskScope taskScope, String closetName) {
+        return taskScope.supply(() -> getClothingByCloset(closetName));
+    }
+
     /**
      * Get clothing item by ID
      */
@@ -141,20 +434,15 @@ public class ClothingRepository {
             return null;
         }
 
-        try {
-            Call<List<JsonObject>> call = supabaseService.getClothingById(clothingId);
-            Response<List<JsonObject>> response = call.execute();
-
-            if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
-                ClothingItem item = convertJsonToClothingItem(response.body().get(0));
-                Log.d(TAG, "Successfully retrieved clothing item: " + clothingId);
-                return item;
-            } else {
-                Log.e(TAG, "Failed to get clothing item by ID: " + response.code() + " - " + response.message());
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting clothing item by ID: " + e.getMessage(), e);
+        List<ClothingItem> items = fetchClothing(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("id", clothingId)
+                .limit(1));
+        if (!items.isEmpty()) {
+            Log.d(TAG, "Successfully retrieved clothing item: " + clothingId);
+            return items.get(0);
         }
+        Log.e(TAG, "Failed to get clothing item by ID: " + clothingId);
         return null;
     }
 
@@ -230,48 +518,97 @@ public class ClothingRepository {
     }
 
     /**
-     * ✅ NEW: Add clothing item with user ID
+     * ✅ NEW: Add clothing item with user ID. Queued in the outbox: the item is in the user's
+     * mirrored closet as soon as this returns, and reaches Supabase (with retries) in the
+     * background. Returns false only for invalid input.
      */
     public boolean addClothingItemWithUserId(String name, String imageUri, String category,
                                              String season, String occasion, String userId) {
-        try {
-            if (name == null || name.trim().isEmpty()) {
-                Log.e(TAG, "Cannot add clothing item: name is required");
-                return false;
+        JsonObject clothing = newClothingRow(name, imageUri, category, season, occasion, userId);
+        if (clothing == null) {
+            return false;
+        }
+
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            return insertClothingRow(clothing, userId) != null;
+        }
+        outbox.enqueue(Outbox.Op.insert(TABLE, clothing)
+                // The uploaded image's URL is unique, so it finds an insert that already landed
+                .probe(PostgrestQuery.from(TABLE).eq("user_id", userId).eq("image_uri", imageUri))
+                .mirror(LocalStore.CLOTHING, userId, clothing), new Outbox.Listener() {
+            @Override
+            public void onApplied(List<JsonObject> rows) {
+                clearCache();
             }
 
-            if (imageUri == null || imageUri.trim().isEmpty()) {
-                Log.e(TAG, "Cannot add clothing item: imageUri is required");
-                return false;
+            @Override
+            public void onRejected(String error) {
+                Log.e(TAG, "Supabase rejected clothing item " + name + ": " + error);
+                clearCache();
             }
+        });
+        clearCache();
+        Log.d(TAG, "Queued clothing item for user: " + userId);
+        return true;
+    }
 
-            String timestamp = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", java.util.Locale.US)
-                    .format(new java.util.Date());
+    /**
+     * Insert a clothing item for a user and return the created row (with its ID), or null on failure.
+     * Blocking; for callers that need the server's row right away.
+     */
+    public ClothingItem createClothingItemWithUserId(String name, String imageUri, String category,
+                                                     String season, String occasion, String userId) {
+        JsonObject clothing = newClothingRow(name, imageUri, category, season, occasion, userId);
+        return clothing != null ? insertClothingRow(clothing, userId) : null;
+    }
 
-            JsonObject clothing = new JsonObject();
-            clothing.addProperty("name", name);
-            clothing.addProperty("image_uri", imageUri);
-            clothing.addProperty("category", category != null ? category : "Other");
-            clothing.addProperty("season", season != null ? season : "All-Season");
-            clothing.addProperty("occasion", occasion != null ? occasion : "Casual");
-            clothing.addProperty("user_id", userId); // ✅ ADD USER ID
-            clothing.addProperty("created_at", timestamp);
+    private JsonObject newClothingRow(String name, String imageUri, String category,
+                                      String season, String occasion, String userId) {
+        if (name == null || name.trim().isEmpty()) {
+            Log.e(TAG, "Cannot add clothing item: name is required");
+            return null;
+        }
+
+        if (imageUri == null || imageUri.trim().isEmpty()) {
+            Log.e(TAG, "Cannot add clothing item: imageUri is required");
+            return null;
+        }
+
+        String timestamp = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", java.util.Locale.US)
+                .format(new java.util.Date());
+
+        JsonObject clothing = new JsonObject();
+        clothing.addProperty("name", name);
+        clothing.addProperty("image_uri", imageUri);
+        clothing.addProperty("category", category != null ? category : "Other");
+        clothing.addProperty("season", season != null ? season : "All-Season");
+        clothing.addProperty("occasion", occasion != null ? occasion : "Casual");
+        clothing.addProperty("user_id", userId); // ✅ ADD USER ID
+        clothing.addProperty("created_at", timestamp);
+        return clothing;
+    }
 
+    private ClothingItem insertClothingRow(JsonObject clothing, String userId) {
+        try {
             // ✅ FIXED: Changed to List<JsonObject>
             Call<List<JsonObject>> call = supabaseService.insertClothing(clothing);
             Response<List<JsonObject>> response = call.execute();
 
-            boolean success = response.isSuccessful();
-            if (success) {
+            if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
                 Log.d(TAG, "Successfully added clothing item for user: " + userId);
                 clearCache();
-            } else {
-                Log.e(TAG, "Failed to add clothing item: " + response.code() + " - " + response.message());
+                LocalStore store = LocalStore.get();
+                if (store != null && userId != null) {
+                    store.upsertRows(LocalStore.CLOTHING, userId, response.body());
+                }
+                return convertJsonToClothingItem(response.body().get(0));
             }
-            return success;
+            Log.e(TAG, "Failed to add clothing item: " + response.code() + " - " + response.message());
+            return null;
         } catch (Exception e) {
             Log.e(TAG, "Error adding clothing item: " + e.getMessage(), e);
-            return false;
+            return null;
         }
     }
 
@@ -303,6 +640,12 @@ public class ClothingRepository {
             return false;
         }
 
+        if (Outbox.isPending(clothingId)) {
+            // Still queued in the outbox - there is no server row to update yet
+            Log.w(TAG, "Cannot update clothing item " + clothingId + " before it has synced");
+            return false;
+        }
+
         try {
             JsonObject updates = new JsonObject();
             if (category != null) updates.addProperty("category", category);
@@ -335,6 +678,23 @@ public class ClothingRepository {
         }
     }
 
+    /**
+     * Apply the same category/season/occasion change to many items with id=in.(...) patches.
+     * Null fields are left untouched.
+     */
+    public BulkResult<String> updateClothingItems(Collection<String> clothingIds, String category,
+                                                  String season, String occasion) {
+        JsonObject updates = new JsonObject();
+        if (category != null) updates.addProperty("category", category);
+        if (season != null) updates.addProperty("season", season);
+        if (occasion != null) updates.addProperty("occasion", occasion);
+
+        BulkResult<String> result = BulkRequests.patch(supabaseService,
+                () -> PostgrestQuery.from(TABLE), "id", clothingIds, updates);
+        if (result.getSucceededCount() > 0) clearCache();
+        return result;
+    }
+
     /**
      * Update clothing item with full object - FIXED VERSION
      */
@@ -388,6 +748,12 @@ public class ClothingRepository {
             return false;
         }
 
+        if (Outbox.isPending(clothingId)) {
+            // Still queued in the outbox - there is no server row to delete yet
+            Log.w(TAG, "Cannot delete clothing item " + clothingId + " before it has synced");
+            return false;
+        }
+
         try {
             // ✅ FIXED: Use proper PostgREST filter syntax - this will create: clothing?id=eq.UUID
             Call<Void> call = supabaseService.deleteClothing("eq." + clothingId);
@@ -397,6 +763,8 @@ public class ClothingRepository {
             if (success) {
                 Log.d(TAG, "Successfully deleted clothing item: " + clothingId);
                 clearCache();
+                LocalStore store = LocalStore.get();
+                if (store != null) store.deleteRows(LocalStore.CLOTHING, null, Collections.singletonList(clothingId));
             } else {
                 Log.e(TAG, "Failed to delete clothing item: " + response.code() + " - " + response.message());
                 // Log response body for debugging
@@ -415,6 +783,32 @@ public class ClothingRepository {
         }
     }
 
+    /**
+     * Delete many clothing items with id=in.(...) requests instead of one request per item.
+     * The result lists which IDs were actually deleted. Items still queued in the outbox have no
+     * server row yet and fail, like they do in deleteClothing.
+     */
+    public BulkResult<String> deleteClothingItems(Collection<String> clothingIds) {
+        List<String> synced = new ArrayList<>();
+        List<String> pending = new ArrayList<>();
+        for (String clothingId : clothingIds) {
+            (Outbox.isPending(clothingId) ? pending : synced).add(clothingId);
+        }
+        if (!pending.isEmpty()) {
+            Log.w(TAG, "Cannot delete " + pending.size() + " clothing items before they have synced");
+        }
+
+        BulkResult<String> result = BulkRequests.delete(supabaseService,
+                () -> PostgrestQuery.from(TABLE), "id", synced);
+        result.addAll(BulkResult.allFailed(pending));
+        if (result.getSucceededCount() > 0) {
+            clearCache();
+            LocalStore store = LocalStore.get();
+            if (store != null) store.deleteRows(LocalStore.CLOTHING, null, result.getSucceeded());
+        }
+        return result;
+    }
+
     /**
      * Alias for deleteClothing
      */
@@ -423,89 +817,32 @@ public class ClothingRepository {
     }
 
     /**
-     * Get filtered clothing items
+     * Get filtered clothing items. Season and occasion are tag fields: any of the given tags
+     * matches, case-insensitively, on the server (see TagFilter).
      */
     public List<ClothingItem> getFilteredClothing(String category, String season, String occasion) {
-        List<ClothingItem> items = new ArrayList<>();
-        try {
-            Call<List<JsonObject>> call = supabaseService.getFilteredClothing(category, season, occasion);
-            Response<List<JsonObject>> response = call.execute();
+        return getFilteredClothing(category, new TagFilter()
+                .anyOf("season", season)
+                .anyOf("occasion", occasion));
+    }
 
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject json : response.body()) {
-                    ClothingItem item = convertJsonToClothingItem(json);
-                    if (item != null) {
-                        items.add(item);
-                    }
-                }
-                Log.d(TAG, "Filtered clothing: " + items.size() + " items found");
-            } else {
-                Log.e(TAG, "Failed to filter clothing: " + response.code() + " - " + response.message());
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error filtering clothing items: " + e.getMessage(), e);
-        }
+    public List<ClothingItem> getFilteredClothing(String category, TagFilter tags) {
+        PostgrestQuery query = PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eqIfPresent("category", category);
+        tags.applyTo(query);
+        List<ClothingItem> items = fetchClothing(query.order("created_at", false));
+        Log.d(TAG, "Filtered clothing: " + items.size() + " items found");
         return items;
     }
 
     /**
-     * ✅ FIXED: Convert JSON to ClothingItem object with proper user_id handling
+     * Convert a row that is already a tree (mirror, insert response) with the shared adapter,
+     * so it maps exactly like a streamed one.
      */
     private ClothingItem convertJsonToClothingItem(JsonObject json) {
         try {
-            ClothingItem item = new ClothingItem();
-
-            // Safe field access with null checks
-            if (json.has("id") && !json.get("id").isJsonNull()) {
-                item.setId(json.get("id").getAsString());
-            }
-
-            if (json.has("name") && !json.get("name").isJsonNull()) {
-                item.setName(json.get("name").getAsString());
-            }
-
-            // Better field handling with priority
-            String imageUrl = null;
-            if (json.has("image_uri") && !json.get("image_uri").isJsonNull()) {
-                imageUrl = json.get("image_uri").getAsString();
-            } else if (json.has("image_path") && !json.get("image_path").isJsonNull()) {
-                imageUrl = json.get("image_path").getAsString();
-            }
-            item.setImagePath(imageUrl);
-
-            if (json.has("category") && !json.get("category").isJsonNull()) {
-                item.setCategory(json.get("category").getAsString());
-            }
-
-            if (json.has("season") && !json.get("season").isJsonNull()) {
-                item.setSeason(json.get("season").getAsString());
-            }
-
-            if (json.has("occasion") && !json.get("occasion").isJsonNull()) {
-                item.setOccasion(json.get("occasion").getAsString());
-            }
-
-            if (json.has("closet_name") && !json.get("closet_name").isJsonNull()) {
-                item.setClosetName(json.get("closet_name").getAsString());
-            }
-
-            // ✅ CRITICAL FIX: Properly handle user_id field
-            if (json.has("user_id") && !json.get("user_id").isJsonNull()) {
-                String userId = json.get("user_id").getAsString();
-                item.setUserId(userId);
-                Log.d(TAG, "✅ Set user_id: " + userId + " for item: " + item.getName());
-            } else {
-                // ✅ Log when user_id is missing
-                Log.w(TAG, "⚠️ user_id is null or missing for item: " + item.getName());
-            }
-
-            // Set default values if fields are missing
-            if (item.getName() == null) item.setName("Unnamed Item");
-            if (item.getSeason() == null) item.setSeason("All-Season");
-            if (item.getOccasion() == null) item.setOccasion("Casual");
-            if (item.getClosetName() == null) item.setClosetName("user_default");
-
-            return item;
+            return SupabaseJson.fromRow(json, ClothingItem.class);
         } catch (Exception e) {
             Log.e(TAG, "Error converting JSON to ClothingItem: " + e.getMessage(), e);
             return null;
@@ -513,7 +850,7 @@ public class ClothingRepository {
     }
 
     /**
-     * Get cached items
+     * Get cached items (read-only)
      */
     public List<ClothingItem> getItems() {
         return items;
@@ -523,14 +860,16 @@ public class ClothingRepository {
      * Set cached items
      */
     public void setItems(List<ClothingItem> items) {
-        this.items = items;
+        this.items = items != null
+                ? Collections.unmodifiableList(new ArrayList<>(items))
+                : Collections.emptyList();
     }
 
     /**
      * Clear local cache
      */
     public void clearCache() {
-        this.items.clear();
+        this.items = Collections.emptyList();
         Log.d(TAG, "Clothing repository cache cleared");
     }
 
@@ -541,13 +880,4 @@ public class ClothingRepository {
         clearCache();
         return getAllClothing();
     }
-
-    /**
-     * Cleanup resources
-     */
-    public void cleanup() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
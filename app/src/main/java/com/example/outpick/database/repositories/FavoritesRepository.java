@@ -0,0 +1,322 @@
+package com.example.outpick.database.repositories;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.Outbox;
+import com.example.outpick.database.local.SyncEngine;
+import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * In-memory store of the current user's favorite outfit IDs.
+ *
+ * The user_favorites set is loaded once per user and kept in memory. Adds and removes are
+ * applied locally first and queued in the {@link Outbox}, which delivers them when Supabase is
+ * reachable and rolls them back here only if the server rejects them. Adapters can read
+ * {@link #isFavorite(String)} while binding rows without making any network calls.
+ */
+public class FavoritesRepository {
+    private static final String TAG = "FavoritesRepository";
+    private static final String TABLE = "user_favorites";
+    private static FavoritesRepository instance;
+
+    public interface OnFavoritesChangedListener {
+        void onFavoritesChanged();
+    }
+
+    /**
+     * Called with true once a change is saved on the device and queued for Supabase, and called
+     * again with false (after the local rollback) if Supabase later rejects it.
+     */
+    public interface MutationCallback {
+        void onComplete(boolean success);
+    }
+
+    private final SupabaseService supabaseService;
+    private final Set<String> favoriteIds = new CopyOnWriteArraySet<>();
+    private final List<OnFavoritesChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<OnFavoritesChangedListener> pendingLoads = new ArrayList<>();
+    private volatile String loadedUserId;
+    private boolean loading;
+
+    private FavoritesRepository(SupabaseService supabaseService) {
+        this.supabaseService = supabaseService;
+    }
+
+    public static synchronized FavoritesRepository getInstance(SupabaseService supabaseService) {
+        if (instance == null) {
+            instance = new FavoritesRepository(supabaseService);
+        }
+        return instance;
+    }
+
+    // ================= LOADING =================
+
+    public boolean isLoadedFor(String userId) {
+        return userId != null && userId.equals(loadedUserId);
+    }
+
+    /**
+     * Blocking load of the user's favorite IDs. Does nothing if they are already loaded.
+     * Must be called from a background thread.
+     */
+    public boolean ensureLoaded(String userId) {
+        if (isLoadedFor(userId)) {
+            return true;
+        }
+        return refresh(userId);
+    }
+
+    /**
+     * Blocking reload of the user's favorite IDs from user_favorites.
+     */
+    public boolean refresh(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return false;
+        }
+        // ✅ Only favorites changed since the last sync are downloaded
+        SyncEngine.Result result = SyncEngine.sync(supabaseService, LocalStore.USER_FAVORITES, userId,
+                () -> buildLoadQuery(userId));
+        if (result.isSuccessful()) {
+            replaceAll(userId, result.getRows());
+            return true;
+        }
+        Log.e(TAG, "Failed to load favorites for user " + userId);
+
+        LocalStore store = LocalStore.get();
+        // ✅ Offline: fall back to the favorites mirrored at the last successful load
+        if (store != null && store.getFetchedAt(LocalStore.USER_FAVORITES, userId) > 0) {
+            replaceAll(userId, store.getRows(LocalStore.USER_FAVORITES, userId));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Non-blocking load for adapters. Concurrent callers share one request; each callback
+     * fires on the main thread once the set is ready.
+     */
+    public void loadAsync(String userId, OnFavoritesChangedListener onLoaded) {
+        if (userId == null || userId.isEmpty()) {
+            return;
+        }
+        if (isLoadedFor(userId)) {
+            if (onLoaded != null) onLoaded.onFavoritesChanged();
+            return;
+        }
+        synchronized (this) {
+            if (onLoaded != null) pendingLoads.add(onLoaded);
+            if (loading) return;
+            loading = true;
+        }
+
+        buildLoadQuery(userId).execute(supabaseService).enqueue(new Callback<List<JsonObject>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<JsonObject>> call, @NonNull Response<List<JsonObject>> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    replaceAll(userId, response.body());
+                    for (OnFavoritesChangedListener callback : finishLoading()) {
+                        callback.onFavoritesChanged();
+                    }
+                    notifyListeners();
+                } else {
+                    Log.e(TAG, "Failed to load favorites: " + response.code());
+                    finishLoading();
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<JsonObject>> call, @NonNull Throwable t) {
+                Log.e(TAG, "Network error loading favorites: " + t.getMessage());
+                finishLoading();
+            }
+        });
+    }
+
+    private synchronized List<OnFavoritesChangedListener> finishLoading() {
+        loading = false;
+        List<OnFavoritesChangedListener> callbacks = new ArrayList<>(pendingLoads);
+        pendingLoads.clear();
+        return callbacks;
+    }
+
+    private PostgrestQuery buildLoadQuery(String userId) {
+        return PostgrestQuery.from(TABLE)
+                .select("outfit_id")
+                .eq("user_id", userId);
+    }
+
+    private void replaceAll(String userId, List<JsonObject> rows) {
+        Set<String> ids = new HashSet<>();
+        for (JsonObject row : rows) {
+            if (row.has("outfit_id") && !row.get("outfit_id").isJsonNull()) {
+                ids.add(row.get("outfit_id").getAsString());
+            }
+        }
+        // ✅ Toggles still in the outbox are newer than the server's copy
+        Outbox outbox = Outbox.get();
+        if (outbox != null) {
+            for (Map.Entry<String, Outbox.Kind> pending : outbox.pendingWithPrefix(entityOf(userId, "")).entrySet()) {
+                if (pending.getValue() == Outbox.Kind.DELETE) {
+                    ids.remove(pending.getKey());
+                } else {
+                    ids.add(pending.getKey());
+                }
+            }
+        }
+        favoriteIds.retainAll(ids);
+        favoriteIds.addAll(ids);
+        loadedUserId = userId;
+        Log.d(TAG, "Loaded " + ids.size() + " favorites for user " + userId);
+    }
+
+    // ================= READS =================
+
+    public boolean isFavorite(String outfitId) {
+        return outfitId != null && favoriteIds.contains(outfitId);
+    }
+
+    public Set<String> getFavoriteIds() {
+        return new HashSet<>(favoriteIds);
+    }
+
+    /** Copy the in-memory favorite flag onto each outfit. */
+    public void applyTo(List<Outfit> outfits) {
+        for (Outfit outfit : outfits) {
+            outfit.setFavorite(isFavorite(outfit.getId()));
+        }
+    }
+
+    // ================= MUTATIONS =================
+
+    /** Mark as favorite locally, then queue the insert. Rolled back if Supabase rejects it. */
+    public void addFavorite(String userId, String outfitId, MutationCallback callback) {
+        if (!favoriteIds.add(outfitId)) {
+            if (callback != null) callback.onComplete(true);
+            return;
+        }
+        notifyListeners();
+
+        JsonObject favorite = new JsonObject();
+        favorite.addProperty("user_id", userId);
+        favorite.addProperty("outfit_id", outfitId);
+
+        queue(Outbox.Op.insert(TABLE, favorite)
+                        .onEntity(entityOf(userId, outfitId))
+                        .probe(PostgrestQuery.from(TABLE).eq("user_id", userId).eq("outfit_id", outfitId))
+                        .mirror(LocalStore.USER_FAVORITES, userId, favorite),
+                () -> favoriteIds.remove(outfitId), callback);
+    }
+
+    /** Unmark locally, then queue the delete. Rolled back if Supabase rejects it. */
+    public void removeFavorite(String userId, String outfitId, MutationCallback callback) {
+        if (!favoriteIds.remove(outfitId)) {
+            if (callback != null) callback.onComplete(true);
+            return;
+        }
+        notifyListeners();
+
+        queue(Outbox.Op.delete(PostgrestQuery.from(TABLE).eq("user_id", userId).eq("outfit_id", outfitId))
+                        .onEntity(entityOf(userId, outfitId))
+                        .mirror(LocalStore.USER_FAVORITES, userId, outfitId),
+                () -> favoriteIds.add(outfitId), callback);
+    }
+
+    /**
+     * Hand a toggle to the outbox. Add-then-remove before it is sent cancels out there, and
+     * a rejection is rolled back here unless the user has toggled the outfit again since.
+     */
+    private void queue(Outbox.Op op, Runnable rollback, MutationCallback callback) {
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            Log.e(TAG, "Outbox not started, dropping " + op);
+            rollback.run();
+            notifyListeners();
+            if (callback != null) callback.onComplete(false);
+            return;
+        }
+
+        outbox.enqueue(op, new Outbox.Listener() {
+            @Override
+            public void onApplied(List<JsonObject> rows) {
+            }
+
+            @Override
+            public void onRejected(String error) {
+                TaskScope.APP.post(() -> {
+                    if (outbox.pendingKind(op.getEntity()) != null) return;
+                    rollback.run();
+                    notifyListeners();
+                    if (callback != null) callback.onComplete(false);
+                });
+            }
+        });
+        if (callback != null) callback.onComplete(true);
+    }
+
+    private static String entityOf(String userId, String outfitId) {
+        return TABLE + "/" + userId + "/" + outfitId;
+    }
+
+    /**
+     * Bulk unfavorite. Each outfit is queued as its own delete on the same outbox entity as its
+     * toggles, so it reaches Supabase after a favorite still waiting to be sent, never before.
+     * Outfits whose delete is rejected are favorited again locally.
+     */
+    public void removeFavorites(String userId, Collection<String> outfitIds) {
+        for (String outfitId : outfitIds) {
+            removeFavorite(userId, outfitId, null);
+        }
+    }
+
+    public void setFavorite(String userId, String outfitId, boolean favorite, MutationCallback callback) {
+        if (favorite) {
+            addFavorite(userId, outfitId, callback);
+        } else {
+            removeFavorite(userId, outfitId, callback);
+        }
+    }
+
+    // ================= LISTENERS =================
+
+    public void addListener(OnFavoritesChangedListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(OnFavoritesChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners() {
+        for (OnFavoritesChangedListener listener : new ArrayList<>(listeners)) {
+            listener.onFavoritesChanged();
+        }
+    }
+
+    /** Forget the cached set, e.g. on logout. */
+    public void clear() {
+        favoriteIds.clear();
+        loadedUserId = null;
+    }
+}
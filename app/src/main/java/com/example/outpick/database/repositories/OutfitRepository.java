@@ -2,17 +2,38 @@ package com.example.outpick.database.repositories;
 
 import android.util.Log;
 
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.SyncEngine;
 import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.BulkResult;
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.example.outpick.database.supabase.SupabaseJson;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
 import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import retrofit2.Call;
 import retrofit2.Response;
 
 public class OutfitRepository {
+    private static final String TABLE = "outfits";
+    // Keeps in.() URLs well under proxy URL length limits
+    private static final int MAX_IDS_PER_REQUEST = 100;
+
+    // Columns the outfit grids and detail screens render
+    public static final String[] LIST_COLUMNS = {
+            "id", "name", "image_uri", "category", "description", "gender", "event", "season", "style"
+    };
+
     private SupabaseService supabase;
 
     public OutfitRepository(SupabaseService supabase) {
@@ -20,118 +41,190 @@ public class OutfitRepository {
     }
 
     public List<Outfit> getAllOutfits() {
+        // ✅ The whole catalog is mirrored, so only outfits changed since the last sync are downloaded
+        SyncEngine.Result result = SyncEngine.sync(supabase, LocalStore.OUTFITS, LocalStore.GLOBAL_SCOPE,
+                () -> PostgrestQuery.from(TABLE).select(LIST_COLUMNS));
+        if (!result.isSuccessful()) {
+            Log.e("OutfitRepo", "❌ Outfit sync failed, serving mirrored outfits");
+        }
+        return toOutfits(result.isSuccessful() ? result.getRows() : mirroredRows());
+    }
+
+    /**
+     * Run an outfits query and convert every row. Returns an empty list on failure.
+     */
+    public List<Outfit> fetchOutfits(PostgrestQuery query) {
+        List<JsonObject> rows = fetchOutfitRows(query);
+        return rows != null ? toOutfits(rows) : new ArrayList<>();
+    }
+
+    /**
+     * Fetch outfit rows and write them through to the local mirror. Null on failure so
+     * callers can fall back to the mirrored rows.
+     */
+    private List<JsonObject> fetchOutfitRows(PostgrestQuery query) {
+        List<JsonObject> rows = query.fetchRows(supabase);
+        if (rows == null) {
+            Log.e("OutfitRepo", "❌ Outfit query failed (" + query + ")");
+            return null;
+        }
+        LocalStore store = LocalStore.get();
+        if (store != null) store.upsertRows(LocalStore.OUTFITS, LocalStore.GLOBAL_SCOPE, rows);
+        return rows;
+    }
+
+    private List<Outfit> toOutfits(List<JsonObject> rows) {
         List<Outfit> outfits = new ArrayList<>();
-        try {
-            Response<List<JsonObject>> response = supabase.getOutfits().execute();
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject json : response.body()) {
-                    Outfit outfit = convertJsonToOutfit(json);
-                    if (outfit != null) {
-                        outfits.add(outfit);
-                    }
-                }
+        for (JsonObject json : rows) {
+            Outfit outfit = convertJsonToOutfit(json);
+            if (outfit != null) {
+                outfits.add(outfit);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
         return outfits;
     }
 
+    private List<JsonObject> mirroredRows() {
+        LocalStore store = LocalStore.get();
+        return store != null ? store.getRows(LocalStore.OUTFITS, LocalStore.GLOBAL_SCOPE) : new ArrayList<>();
+    }
+
+    /** Mirrored outfits with the given IDs - the offline answer for ID lookups. */
+    private List<Outfit> mirroredOutfits(Collection<String> outfitIds) {
+        Set<String> wanted = new HashSet<>(outfitIds);
+        List<JsonObject> rows = new ArrayList<>();
+        for (JsonObject row : mirroredRows()) {
+            if (row.has("id") && wanted.contains(row.get("id").getAsString())) rows.add(row);
+        }
+        return toOutfits(rows);
+    }
+
     /**
      * ✅ ADDED: Get outfit by ID
      */
     public Outfit getOutfitById(String outfitId) {
-        try {
-            Log.d("OutfitRepo", "🔄 Fetching outfit by ID: " + outfitId);
-
-            // ✅ FIXED: Use the same custom approach
-            String filterUrl = "outfits?id=eq." + outfitId;
-            Call<List<JsonObject>> call = supabase.executeGet(filterUrl);
-            Log.d("OutfitRepo", "🔍 Outfit Request URL: " + call.request().url().toString());
-
-            Response<List<JsonObject>> response = call.execute();
+        List<Outfit> outfits = fetchOutfits(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("id", outfitId)
+                .limit(1));
+        if (outfits.isEmpty()) {
+            outfits = mirroredOutfits(Collections.singletonList(outfitId));
+        }
+        if (outfits.isEmpty()) {
+            Log.e("OutfitRepo", "❌ Outfit not found for ID: " + outfitId);
+            return null;
+        }
+        return outfits.get(0);
+    }
 
-            Log.d("OutfitRepo", "🔍 Outfit Response - Code: " + response.code() + ", Success: " + response.isSuccessful());
+    /**
+     * Batch-load outfits with id=in.(...) - one request per 100 IDs instead of one per outfit.
+     */
+    public List<Outfit> getOutfitsByIds(Collection<String> outfitIds) {
+        List<Outfit> outfits = new ArrayList<>();
+        List<String> ids = new ArrayList<>(outfitIds);
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_REQUEST) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_REQUEST));
+            List<JsonObject> rows = fetchOutfitRows(PostgrestQuery.from(TABLE)
+                    .select(LIST_COLUMNS)
+                    .in("id", chunk));
+            outfits.addAll(rows != null ? toOutfits(rows) : mirroredOutfits(chunk));
+        }
+        return outfits;
+    }
 
-            if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
-                JsonObject json = response.body().get(0);
-                Log.d("OutfitRepo", "✅ Found outfit: " + json.toString());
-                return convertJsonToOutfit(json);
-            } else {
-                Log.e("OutfitRepo", "❌ Outfit not found for ID: " + outfitId);
-                if (response.errorBody() != null) {
-                    try {
-                        Log.e("OutfitRepo", "❌ Outfit Error: " + response.errorBody().string());
-                    } catch (Exception e) {
-                        Log.e("OutfitRepo", "❌ Could not read outfit error body");
+    /**
+     * Map image URL -> outfit ID for the given URLs with in.() lookups, for screens that only
+     * kept the image URL of an outfit. URLs with no matching outfit are left out.
+     */
+    public Map<String, String> getOutfitIdsByImageUris(Collection<String> imageUris) {
+        Map<String, String> idsByUri = new LinkedHashMap<>();
+        List<String> uris = new ArrayList<>(imageUris);
+        for (int start = 0; start < uris.size(); start += MAX_IDS_PER_REQUEST) {
+            List<String> chunk = uris.subList(start, Math.min(uris.size(), start + MAX_IDS_PER_REQUEST));
+            try {
+                Response<List<JsonObject>> response = PostgrestQuery.from(TABLE)
+                        .select("id", "image_uri")
+                        .in("image_uri", chunk)
+                        .execute(supabase)
+                        .execute();
+                if (response.isSuccessful() && response.body() != null) {
+                    for (JsonObject row : response.body()) {
+                        if (row.has("image_uri") && !row.get("image_uri").isJsonNull()) {
+                            idsByUri.put(row.get("image_uri").getAsString(), row.get("id").getAsString());
+                        }
                     }
                 }
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-        } catch (Exception e) {
-            Log.e("OutfitRepo", "❌ Error getting outfit by ID: " + e.getMessage());
-            e.printStackTrace();
         }
-        return null;
+        return idsByUri;
     }
 
+    /**
+     * One page of the outfit catalog, newest first. id breaks created_at ties so pages never overlap.
+     */
+    public List<Outfit> getOutfitsPage(int from, int to) {
+        List<JsonObject> rows = fetchOutfitRows(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .order("created_at", false)
+                .order("id", false)
+                .range(from, to));
+        if (rows != null) return toOutfits(rows);
+
+        // ✅ Offline: pages were mirrored in the order they were fetched
+        List<JsonObject> mirrored = mirroredRows();
+        if (from >= mirrored.size()) return new ArrayList<>();
+        return toOutfits(mirrored.subList(from, Math.min(to + 1, mirrored.size())));
+    }
 
     public List<Outfit> getOutfitsByCategory(String category) {
-        List<Outfit> outfits = new ArrayList<>();
-        try {
-            Response<List<JsonObject>> response = supabase.getOutfitsByCategory(category).execute();
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject json : response.body()) {
-                    Outfit outfit = convertJsonToOutfit(json);
-                    if (outfit != null) {
-                        outfits.add(outfit);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return outfits;
+        return fetchOutfits(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("category", category));
     }
 
     public List<Outfit> getOutfitsByGender(String gender) {
-        List<Outfit> outfits = new ArrayList<>();
-        try {
-            Response<List<JsonObject>> response = supabase.getOutfitsByGender(gender).execute();
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject json : response.body()) {
-                    Outfit outfit = convertJsonToOutfit(json);
-                    if (outfit != null) {
-                        outfits.add(outfit);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return outfits;
+        return fetchOutfits(PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eq("gender", gender));
     }
 
+    /**
+     * Outfits carrying any of the given tags in each field ("Casual, Party" matches either),
+     * matched case-insensitively by the server. Gender is a single value and stays an equality.
+     */
     public List<Outfit> getFilteredOutfits(String category, String gender, String event, String season, String style) {
-        List<Outfit> outfits = new ArrayList<>();
-        try {
-            Response<List<JsonObject>> response = supabase.getFilteredOutfits(category, gender, event, season, style).execute();
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject json : response.body()) {
-                    Outfit outfit = convertJsonToOutfit(json);
-                    if (outfit != null) {
-                        outfits.add(outfit);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return outfits;
+        return getFilteredOutfits(gender, new TagFilter()
+                .anyOf("category", category)
+                .anyOf("event", event)
+                .anyOf("season", season)
+                .anyOf("style", style));
+    }
+
+    /** Outfits of {@code gender} (null for any) whose tag arrays pass {@code tags}. */
+    public List<Outfit> getFilteredOutfits(String gender, TagFilter tags) {
+        PostgrestQuery query = PostgrestQuery.from(TABLE)
+                .select(LIST_COLUMNS)
+                .eqIfPresent("gender", gender);
+        tags.applyTo(query);
+        return fetchOutfits(query);
     }
 
     public boolean addOutfit(String imageUri, String name, String category,
                              String description, String gender, String event,
                              String season, String style) {
+        return createOutfit(imageUri, name, category, description, gender, event, season, style) != null;
+    }
+
+    /**
+     * Insert an outfit and return the created row (with its ID) from the
+     * Prefer: return=representation response. Returns null on failure.
+     */
+    public Outfit createOutfit(String imageUri, String name, String category,
+                               String description, String gender, String event,
+                               String season, String style) {
         try {
             JsonObject outfit = new JsonObject();
             outfit.addProperty("image_uri", imageUri);
@@ -145,11 +238,16 @@ public class OutfitRepository {
 
             // ✅ FIXED: Change from Response<JsonObject> to Response<List<JsonObject>>
             Response<List<JsonObject>> response = supabase.insertOutfit(outfit).execute();
-            return response.isSuccessful();
+            if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
+                LocalStore store = LocalStore.get();
+                if (store != null) store.upsertRows(LocalStore.OUTFITS, LocalStore.GLOBAL_SCOPE, response.body());
+                return convertJsonToOutfit(response.body().get(0));
+            }
+            Log.e("OutfitRepo", "❌ Outfit insert failed: " + response.code());
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
         }
+        return null;
     }
 
     public boolean updateOutfit(String outfitId, String name, String category,
@@ -177,6 +275,10 @@ public class OutfitRepository {
     public boolean deleteOutfit(String outfitId) {
         try {
             Response<Void> response = supabase.deleteOutfit(outfitId).execute();
+            LocalStore store = LocalStore.get();
+            if (response.isSuccessful() && store != null) {
+                store.deleteRows(LocalStore.OUTFITS, null, Collections.singletonList(outfitId));
+            }
             return response.isSuccessful();
         } catch (Exception e) {
             e.printStackTrace();
@@ -184,70 +286,23 @@ public class OutfitRepository {
         }
     }
 
-    private Outfit convertJsonToOutfit(JsonObject json) {
-        try {
-            Outfit outfit = new Outfit();
-
-            // Map Supabase fields to Outfit properties with null checks
-            if (json.has("id") && !json.get("id").isJsonNull()) {
-                outfit.setId(json.get("id").getAsString());
-            }
-
-            if (json.has("name") && !json.get("name").isJsonNull()) {
-                outfit.setName(json.get("name").getAsString());
-            }
-
-            if (json.has("image_uri") && !json.get("image_uri").isJsonNull()) {
-                outfit.setImageUri(json.get("image_uri").getAsString());
-            }
-
-            if (json.has("category") && !json.get("category").isJsonNull()) {
-                outfit.setCategory(json.get("category").getAsString());
-            }
-
-            // Handle both 'description' and 'occasion' fields
-            if (json.has("description") && !json.get("description").isJsonNull()) {
-                outfit.setDescription(json.get("description").getAsString());
-            } else if (json.has("occasion") && !json.get("occasion").isJsonNull()) {
-                outfit.setDescription(json.get("occasion").getAsString());
-            }
-
-            if (json.has("gender") && !json.get("gender").isJsonNull()) {
-                outfit.setGender(json.get("gender").getAsString());
-            }
-
-            // Handle both 'event' and 'occasion' fields
-            if (json.has("event") && !json.get("event").isJsonNull()) {
-                outfit.setEvent(json.get("event").getAsString());
-            } else if (json.has("occasion") && !json.get("occasion").isJsonNull()) {
-                outfit.setEvent(json.get("occasion").getAsString());
-            }
-
-            if (json.has("season") && !json.get("season").isJsonNull()) {
-                outfit.setSeason(json.get("season").getAsString());
-            }
-
-            if (json.has("style") && !json.get("style").isJsonNull()) {
-                outfit.setStyle(json.get("style").getAsString());
-            }
-
-            // ✅ ADDED: Map is_suggestion field
-            if (json.has("is_suggestion") && !json.get("is_suggestion").isJsonNull()) {
-                outfit.setSuggestion(json.get("is_suggestion").getAsBoolean());
-            } else {
-                outfit.setSuggestion(false); // Default to false
-            }
-
-            // Set default values if fields are missing or null
-            if (outfit.getName() == null) outfit.setName("Unnamed Outfit");
-            if (outfit.getCategory() == null) outfit.setCategory("General");
-            if (outfit.getDescription() == null) outfit.setDescription("No description");
-            if (outfit.getGender() == null) outfit.setGender("Unisex");
-            if (outfit.getEvent() == null) outfit.setEvent("Casual");
-            if (outfit.getSeason() == null) outfit.setSeason("All-Season");
-            if (outfit.getStyle() == null) outfit.setStyle("Casual");
+    /**
+     * Delete many outfits with id=in.(...) requests. The result lists which IDs were deleted.
+     */
+    public BulkResult<String> deleteOutfits(Collection<String> outfitIds) {
+        BulkResult<String> result = BulkRequests.delete(supabase, () -> PostgrestQuery.from(TABLE), "id", outfitIds);
+        LocalStore store = LocalStore.get();
+        if (store != null && result.getSucceededCount() > 0) {
+            store.deleteRows(LocalStore.OUTFITS, null, result.getSucceeded());
+            store.deleteRows(LocalStore.USER_OUTFITS, null, result.getSucceeded());
+        }
+        return result;
+    }
 
-            return outfit;
+    // Package-private so UserOutfitRepository can map embedded outfit rows
+    Outfit convertJsonToOutfit(JsonObject json) {
+        try {
+            return SupabaseJson.fromRow(json, Outfit.class);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -2,96 +2,307 @@ package com.example.outpick.database.repositories;
 
 import android.util.Log;
 
+import com.example.outpick.database.local.LocalStore;
+import com.example.outpick.database.local.StaleWhileRevalidate;
+import com.example.outpick.database.local.SyncEngine;
 import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.supabase.BulkRequests;
+import com.example.outpick.database.supabase.BulkResult;
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.AppLog;
+import com.example.outpick.utils.SortKeys;
+import com.example.outpick.utils.TaskScope;
 import com.google.gson.JsonObject;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
-import retrofit2.Call;
 import retrofit2.Response;
 
 public class UserOutfitRepository {
     private static final String TAG = "UserOutfitRepo";
+    private static final String TABLE = "user_outfits";
+    // How long mirrored outfits are served without asking Supabase again
+    public static final long CACHE_MAX_AGE_MS = 30_000;
     private SupabaseService supabase;
     private OutfitRepository outfitRepository;
+    private ClosetSnapshotRepository closetSnapshotRepository;
 
     public UserOutfitRepository(SupabaseService supabase, OutfitRepository outfitRepository) {
         this.supabase = supabase;
         this.outfitRepository = outfitRepository;
+        this.closetSnapshotRepository = new ClosetSnapshotRepository(supabase);
     }
 
     // Get outfits assigned to a specific user
     public List<Outfit> getOutfitsForUser(String userId) {
         List<Outfit> outfits = new ArrayList<>();
         try {
-            Log.d(TAG, "🔄 STEP 1: Fetching user outfits for user ID: " + userId);
-
-            // ✅ FIXED: Use executeGet with proper Supabase filter syntax
-            String filterUrl = "user_outfits?user_id=eq." + userId;
-            Call<List<JsonObject>> call = supabase.executeGet(filterUrl);
-            Log.d(TAG, "🔍 Custom Request URL: " + call.request().url().toString());
-
-            Response<List<JsonObject>> assignmentsResponse = call.execute();
-
-            Log.d(TAG, "🔍 API Response - Code: " + assignmentsResponse.code() + ", Success: " + assignmentsResponse.isSuccessful());
-
-            if (assignmentsResponse.isSuccessful()) {
-                if (assignmentsResponse.body() != null) {
-                    Log.d(TAG, "✅ STEP 2: Found " + assignmentsResponse.body().size() + " outfit assignments");
-
-                    if (assignmentsResponse.body().isEmpty()) {
-                        Log.e(TAG, "❌ NO assignments found in user_outfits table for user: " + userId);
-                    }
-
-                    for (JsonObject assignment : assignmentsResponse.body()) {
-                        Log.d(TAG, "🔍 Assignment JSON: " + assignment.toString());
-
-                        if (assignment.has("outfit_id") && !assignment.get("outfit_id").isJsonNull()) {
-                            String outfitId = assignment.get("outfit_id").getAsString();
-                            Log.d(TAG, "🎯 STEP 3: Processing outfit ID: " + outfitId);
-
-                            // Get the full outfit details
-                            Outfit outfit = outfitRepository.getOutfitById(outfitId);
-                            if (outfit != null) {
-                                // ✅ ADDED: Set the suggestion flag from assignment
-                                if (assignment.has("is_suggestion") && !assignment.get("is_suggestion").isJsonNull()) {
-                                    outfit.setSuggestion(assignment.get("is_suggestion").getAsBoolean());
-                                }
-
-                                Log.d(TAG, "✅ STEP 4: Successfully added outfit: " + outfit.getName() + " (Suggestion: " + outfit.isSuggestion() + ")");
-                                outfits.add(outfit);
-                            } else {
-                                Log.e(TAG, "❌ STEP 4: Outfit not found for ID: " + outfitId);
-                            }
-                        } else {
-                            Log.e(TAG, "❌ Assignment missing outfit_id field");
-                        }
-                    }
-                } else {
-                    Log.e(TAG, "❌ Response body is null");
-                }
+            Log.d(TAG, "🔄 Fetching user outfits for user ID: " + userId);
+
+            // ✅ One round trip: assignments with their outfit rows embedded (user_outfits.outfit_id -> outfits.id),
+            // and after the first load only the assignments changed since the last sync
+            SyncEngine.Result result = SyncEngine.sync(supabase, LocalStore.USER_OUTFITS, userId,
+                    () -> embeddedQuery(userId));
+
+            if (result.isSuccessful()) {
+                outfits.addAll(mapAssignments(result.getRows()));
             } else {
-                Log.e(TAG, "❌ API call failed. Code: " + assignmentsResponse.code());
-                if (assignmentsResponse.errorBody() != null) {
-                    try {
-                        String error = assignmentsResponse.errorBody().string();
-                        Log.e(TAG, "❌ Error: " + error);
-                    } catch (Exception e) {
-                        Log.e(TAG, "❌ Could not read error body");
-                    }
-                }
+                // Embedding needs a foreign key between user_outfits and outfits; without it, use in.() batching
+                Log.w(TAG, "⚠️ Embedded outfit sync failed, falling back to in.() batch");
+                outfits.addAll(resolveAssignments(getAssignments(userId)));
             }
         } catch (Exception e) {
             Log.e(TAG, "❌ Exception in getOutfitsForUser: " + e.getMessage());
             e.printStackTrace();
+            // ✅ Offline: serve the mirrored assignments (they carry their embedded outfits)
+            outfits.clear();
+            outfits.addAll(mapAssignments(mirroredRows(userId)));
         }
 
         Log.d(TAG, "📊 FINAL: Returning " + outfits.size() + " outfits for user " + userId);
         return outfits;
     }
 
+    /**
+     * Number of outfits assigned to the user, from a count-only HEAD request instead of
+     * downloading and resolving every outfit. Falls back to the mirrored assignments when
+     * offline; -1 when neither can tell.
+     */
+    public int countOutfitsForUser(String userId) {
+        if (userId == null || userId.isEmpty()) {
+            return 0;
+        }
+        int count = PostgrestQuery.from(TABLE)
+                .eq("user_id", userId)
+                .isNot("outfit_id", "null")
+                .fetchCount(supabase);
+        if (count >= 0) {
+            return count;
+        }
+        Log.w(TAG, "⚠️ Outfit count failed, counting mirrored assignments for user " + userId);
+        LocalStore store = LocalStore.get();
+        return store != null ? store.countRows(LocalStore.USER_OUTFITS, userId) : -1;
+    }
+
+    /**
+     * Stale-while-revalidate load of a user's outfits: mirrored outfits are delivered straight
+     * from disk, then again after a delta sync if anything changed.
+     */
+    public void loadOutfitsForUser(TaskScope taskScope, String userId, StaleWhileRevalidate.Callback<List<Outfit>> callback) {
+        StaleWhileRevalidate.load(taskScope, supabase, LocalStore.USER_OUTFITS, userId, CACHE_MAX_AGE_MS,
+                () -> embeddedQuery(userId),
+                this::mapAssignments,
+                callback);
+    }
+
+    // The embedded outfit only syncs with its assignment, so the server bumps
+    // user_outfits.updated_at when an assigned outfit is edited (see SyncEngine)
+    private PostgrestQuery embeddedQuery(String userId) {
+        return PostgrestQuery.from(TABLE)
+                .select("outfit_id", "is_suggestion",
+                        "outfits(" + String.join(",", OutfitRepository.LIST_COLUMNS) + ")")
+                .eq("user_id", userId);
+    }
+
+    /**
+     * The user's suggested outfits whose tags pass {@code tags}, filtered by the server on the
+     * outfits' tag arrays - outfits!inner drops assignments whose outfit doesn't match, so only
+     * matching rows are downloaded. Offline, the mirrored assignments are filtered the same way;
+     * a query the server refuses (e.g. missing tag columns) is logged and yields no outfits.
+     */
+    public List<Outfit> getSuggestedOutfitsForUser(String userId, TagFilter tags) {
+        PostgrestQuery query = PostgrestQuery.from(TABLE)
+                .select("outfit_id", "is_suggestion",
+                        "outfits!inner(" + String.join(",", OutfitRepository.LIST_COLUMNS) + ")")
+                .eq("user_id", userId)
+                .eq("is_suggestion", true);
+        tags.applyTo(query, "outfits.");
+
+        try {
+            return mapAssignments(query.fetchRowsOrThrow(supabase));
+        } catch (PostgrestQuery.RejectedException e) {
+            Log.e(TAG, "❌ Tag-filtered outfit query rejected: " + e.getMessage());
+            return new ArrayList<>();
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Tag-filtered outfit fetch failed (" + e.getMessage() + "), filtering mirrored assignments");
+        }
+        List<JsonObject> matching = new ArrayList<>();
+        for (JsonObject row : mirroredRows(userId)) {
+            boolean suggestion = row.has("is_suggestion") && !row.get("is_suggestion").isJsonNull()
+                    && row.get("is_suggestion").getAsBoolean();
+            if (suggestion && row.has("outfits") && row.get("outfits").isJsonObject()
+                    && tags.matches(row.getAsJsonObject("outfits"))) {
+                matching.add(row);
+            }
+        }
+        return mapAssignments(matching);
+    }
+
+    private List<JsonObject> mirroredRows(String userId) {
+        LocalStore store = LocalStore.get();
+        return store != null ? store.getRows(LocalStore.USER_OUTFITS, userId) : new ArrayList<>();
+    }
+
+    /**
+     * One page of a user's outfits, newest assignment first.
+     * suggestions=false returns the user's own outfits (is_suggestion false or unset).
+     */
+    public List<Outfit> getOutfitPageForUser(String userId, boolean suggestions, int from, int to) {
+        List<Outfit> outfits = new ArrayList<>();
+        if (userId == null || userId.isEmpty()) {
+            return outfits;
+        }
+        try {
+            Response<List<JsonObject>> response = pageQuery(userId, suggestions,
+                    "outfit_id", "is_suggestion", "outfits(" + String.join(",", OutfitRepository.LIST_COLUMNS) + ")")
+                    .range(from, to)
+                    .execute(supabase)
+                    .execute();
+
+            if (response.isSuccessful() && response.body() != null) {
+                LocalStore store = LocalStore.get();
+                if (store != null) store.upsertRows(LocalStore.USER_OUTFITS, userId, response.body());
+                outfits.addAll(mapAssignments(response.body()));
+            } else {
+                Log.w(TAG, "⚠️ Embedded outfit page failed (" + response.code() + "), falling back to in.() batch");
+                Response<List<JsonObject>> assignments = pageQuery(userId, suggestions, "outfit_id", "is_suggestion")
+                        .range(from, to)
+                        .execute(supabase)
+                        .execute();
+                if (assignments.isSuccessful() && assignments.body() != null) {
+                    outfits.addAll(resolveAssignments(assignments.body()));
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Exception in getOutfitPageForUser: " + e.getMessage());
+            e.printStackTrace();
+            outfits.clear();
+            outfits.addAll(mirroredPage(userId, suggestions, from, to));
+        }
+        return outfits;
+    }
+
+    /** Offline page: mirrored assignments filtered and ordered like {@link #pageQuery}. */
+    private List<Outfit> mirroredPage(String userId, boolean suggestions, int from, int to) {
+        List<JsonObject> rows = new ArrayList<>();
+        for (JsonObject row : mirroredRows(userId)) {
+            boolean suggestion = row.has("is_suggestion") && !row.get("is_suggestion").isJsonNull()
+                    && row.get("is_suggestion").getAsBoolean();
+            if (suggestion == suggestions) rows.add(row);
+        }
+        // Keys are built once per row; the regex and zero-padding used to run on every comparison
+        SortKeys.sortBy(rows, UserOutfitRepository::outfitIdSortKey, Comparator.reverseOrder());
+        if (from >= rows.size()) return new ArrayList<>();
+        return mapAssignments(rows.subList(from, Math.min(to + 1, rows.size())));
+    }
+
+    // Numeric IDs compare by value (as Postgres does), others as text
+    private static String outfitIdSortKey(JsonObject row) {
+        String id = hasOutfitId(row) ? row.get("outfit_id").getAsString() : "";
+        return id.matches("\\d+") ? String.format(Locale.US, "%019d", Long.parseLong(id)) : id;
+    }
+
+    private PostgrestQuery pageQuery(String userId, boolean suggestions, String... columns) {
+        PostgrestQuery query = PostgrestQuery.from(TABLE)
+                .select(columns)
+                .eq("user_id", userId);
+        if (suggestions) {
+            query.eq("is_suggestion", true);
+        } else {
+            query.isNot("is_suggestion", "true");
+        }
+        // outfit_id is unique per user, so the order is stable across pages
+        return query.order("outfit_id", false);
+    }
+
+    /** Map assignment rows that carry an embedded outfits object. */
+    private List<Outfit> mapAssignments(List<JsonObject> assignments) {
+        List<Outfit> outfits = new ArrayList<>();
+        List<JsonObject> missing = new ArrayList<>();
+        AppLog.Sampler rowLog = AppLog.sample(50);
+        for (JsonObject assignment : assignments) {
+            if (rowLog.next()) {
+                Log.d(TAG, "🔍 Assignment JSON: " + assignment);
+            }
+
+            if (assignment.has("outfits") && assignment.get("outfits").isJsonObject()) {
+                Outfit outfit = outfitRepository.convertJsonToOutfit(assignment.getAsJsonObject("outfits"));
+                if (outfit != null) {
+                    applySuggestionFlag(outfit, assignment);
+                    outfits.add(outfit);
+                }
+            } else if (hasOutfitId(assignment)) {
+                missing.add(assignment);
+            }
+        }
+        // Rows the embed could not resolve (e.g. RLS on outfits) fall back to one in.() batch
+        if (!missing.isEmpty()) {
+            outfits.addAll(resolveAssignments(missing));
+        }
+        return outfits;
+    }
+
+    private List<JsonObject> getAssignments(String userId) throws IOException {
+        Response<List<JsonObject>> response = PostgrestQuery.from(TABLE)
+                .select("outfit_id", "is_suggestion")
+                .eq("user_id", userId)
+                .execute(supabase)
+                .execute();
+        if (response.isSuccessful() && response.body() != null) {
+            return response.body();
+        }
+        Log.e(TAG, "❌ API call failed. Code: " + response.code());
+        return new ArrayList<>();
+    }
+
+    /** Load the outfits for a set of assignments with a single id=in.(...) request, keeping assignment order. */
+    private List<Outfit> resolveAssignments(List<JsonObject> assignments) {
+        Map<String, JsonObject> assignmentById = new LinkedHashMap<>();
+        for (JsonObject assignment : assignments) {
+            if (hasOutfitId(assignment)) {
+                assignmentById.put(assignment.get("outfit_id").getAsString(), assignment);
+            }
+        }
+
+        Map<String, Outfit> outfitById = new HashMap<>();
+        for (Outfit outfit : outfitRepository.getOutfitsByIds(assignmentById.keySet())) {
+            outfitById.put(outfit.getId(), outfit);
+        }
+
+        List<Outfit> outfits = new ArrayList<>();
+        for (Map.Entry<String, JsonObject> entry : assignmentById.entrySet()) {
+            Outfit outfit = outfitById.get(entry.getKey());
+            if (outfit != null) {
+                applySuggestionFlag(outfit, entry.getValue());
+                outfits.add(outfit);
+            } else {
+                Log.e(TAG, "❌ Outfit not found for ID: " + entry.getKey());
+            }
+        }
+        return outfits;
+    }
+
+    private static boolean hasOutfitId(JsonObject assignment) {
+        return assignment.has("outfit_id") && !assignment.get("outfit_id").isJsonNull();
+    }
+
+    // ✅ The suggestion flag lives on the assignment, not on the outfit row
+    private static void applySuggestionFlag(Outfit outfit, JsonObject assignment) {
+        if (assignment.has("is_suggestion") && !assignment.get("is_suggestion").isJsonNull()) {
+            outfit.setSuggestion(assignment.get("is_suggestion").getAsBoolean());
+        }
+    }
+
     // Assign an outfit to a user (admin function)
     public boolean assignOutfitToUser(String outfitId, String userId, String assignedBy) {
         try {
@@ -119,6 +330,51 @@ public class UserOutfitRepository {
         }
     }
 
+    /** Result of {@link #createOutfitForUser}; each step only runs if the one before it succeeded. */
+    public static class CreatedOutfit {
+        public final Outfit outfit;          // null if the outfit insert failed
+        public final boolean assigned;
+        public final boolean addedToCloset;  // false when no closet was requested
+
+        CreatedOutfit(Outfit outfit, boolean assigned, boolean addedToCloset) {
+            this.outfit = outfit;
+            this.assigned = assigned;
+            this.addedToCloset = addedToCloset;
+        }
+    }
+
+    /**
+     * Create an outfit, assign it to the user and optionally add it to a closet.
+     * The new ID comes back from the insert itself, so this is at most three requests
+     * regardless of how many outfits exist.
+     */
+    public CreatedOutfit createOutfitForUser(Outfit draft, String userId, String assignedBy, String closetId) {
+        Outfit created = outfitRepository.createOutfit(
+                draft.getImageUri(),
+                draft.getName(),
+                draft.getCategory(),
+                draft.getDescription(),
+                draft.getGender(),
+                draft.getEvent(),
+                draft.getSeason(),
+                draft.getStyle()
+        );
+        if (created == null || created.getId() == null) {
+            Log.e(TAG, "❌ CREATE: Outfit insert failed");
+            return new CreatedOutfit(null, false, false);
+        }
+        Log.d(TAG, "✅ CREATE: Outfit created with ID " + created.getId());
+
+        boolean assigned = userId != null && assignOutfitToUser(created.getId(), userId, assignedBy);
+        created.setSuggestion(assigned && !"self".equals(assignedBy));
+
+        boolean addedToCloset = false;
+        if (assigned && closetId != null) {
+            addedToCloset = closetSnapshotRepository.addOutfitToCloset(closetId, created.getImageUri());
+        }
+        return new CreatedOutfit(created, assigned, addedToCloset);
+    }
+
     // Remove outfit assignment from user
     public boolean removeOutfitFromUser(String outfitId, String userId) {
         try {
@@ -130,17 +386,43 @@ public class UserOutfitRepository {
         }
     }
 
+    /**
+     * Remove many assignments for one user with a single outfit_id=in.(...) delete.
+     */
+    public BulkResult<String> removeOutfitsFromUser(String userId, Collection<String> outfitIds) {
+        BulkResult<String> result = BulkRequests.delete(supabase,
+                () -> PostgrestQuery.from(TABLE).eq("user_id", userId), "outfit_id", outfitIds);
+        LocalStore store = LocalStore.get();
+        if (store != null && result.getSucceededCount() > 0) {
+            store.deleteRows(LocalStore.USER_OUTFITS, userId, result.getSucceeded());
+        }
+        return result;
+    }
+
+    /**
+     * Delete a user's outfits: drop their assignments first so the outfit rows are no
+     * longer referenced, then delete the outfits. Two requests for up to 100 outfits.
+     * The result reports which outfit IDs were actually deleted.
+     */
+    public BulkResult<String> deleteOutfitsForUser(String userId, Collection<String> outfitIds) {
+        if (userId != null) {
+            BulkResult<String> unassigned = removeOutfitsFromUser(userId, outfitIds);
+            Log.d(TAG, "🗑️ Removed " + unassigned.getSucceededCount() + " assignments for user " + userId);
+        }
+        return outfitRepository.deleteOutfits(outfitIds);
+    }
+
     // Check if outfit is assigned to user
     public boolean isOutfitAssignedToUser(String outfitId, String userId) {
         try {
-            Response<List<JsonObject>> response = supabase.getUserOutfits(userId).execute();
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject assignment : response.body()) {
-                    if (assignment.has("outfit_id") && assignment.get("outfit_id").getAsString().equals(outfitId)) {
-                        return true;
-                    }
-                }
-            }
+            Response<List<JsonObject>> response = PostgrestQuery.from(TABLE)
+                    .select("outfit_id")
+                    .eq("user_id", userId)
+                    .eq("outfit_id", outfitId)
+                    .limit(1)
+                    .execute(supabase)
+                    .execute();
+            return response.isSuccessful() && response.body() != null && !response.body().isEmpty();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -1,10 +1,12 @@
 package com.example.outpick.database.repositories;
 
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.google.gson.JsonObject;
 import retrofit2.Call;
 import retrofit2.Response;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -74,6 +76,26 @@ public class UserRepository {
         return null;
     }
 
+    /**
+     * One page of users for the admin list, newest sign-ups first.
+     */
+    public List<JsonObject> getUsersPage(int from, int to) {
+        try {
+            Response<List<JsonObject>> response = PostgrestQuery.from("users")
+                    .order("created_at", false)
+                    .order("id", false)
+                    .range(from, to)
+                    .execute(supabase)
+                    .execute();
+            if (response.isSuccessful() && response.body() != null) {
+                return response.body();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
     public boolean checkUsernameExists(String username) {
         try {
             // ✅ FIXED: Use Response<List<JsonObject>> for GET operations
@@ -0,0 +1,212 @@
+package com.example.outpick.database.supabase;
+
+import android.util.Log;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Blocking bulk mutations on top of PostgREST: array-body inserts, and
+ * patches/deletes filtered with column=in.(...).
+ *
+ * Work is split into chunks so 50 selected items cost one request instead of 50.
+ * If the server rejects a whole chunk because of its content (e.g. one row violates a
+ * foreign key) the chunk is split in halves until the bad items are isolated, so the rest
+ * still go through and the result says exactly which items failed. A chunk that fails for
+ * any other reason (offline, 5xx, 408/429, 401) fails as a whole - resending it piece by
+ * piece would only multiply the load. Must be called off the main thread.
+ *
+ * Example:
+ *   BulkResult<String> result = BulkRequests.delete(service,
+ *           () -> PostgrestQuery.from("clothing").eq("user_id", userId), "id", ids);
+ */
+public final class BulkRequests {
+
+    private static final String TAG = "BulkRequests";
+
+    /** Keeps id=in.(...) URLs to a few KB even with UUID keys. */
+    public static final int MAX_IDS_PER_REQUEST = 100;
+
+    /** Rows per array-body insert. */
+    public static final int MAX_ROWS_PER_INSERT = 200;
+
+    /** Base query (table plus any scoping filters) that the id=in.(...) or sync filters are added to. */
+    public interface BaseQuery {
+        PostgrestQuery create();
+    }
+
+    private interface ChunkCall {
+        Call<List<JsonObject>> create(String url);
+    }
+
+    private BulkRequests() {
+    }
+
+    // ================= DELETE =================
+
+    /** DELETE base?idColumn=in.(...) - the returned rows tell which IDs were really deleted. */
+    public static BulkResult<String> delete(SupabaseService service, BaseQuery base,
+                                            String idColumn, Collection<String> ids) {
+        return mutate(base, idColumn, ids, service::executeDeleteReturning);
+    }
+
+    // ================= PATCH =================
+
+    /** PATCH base?idColumn=in.(...) applying the same updates to every matched row. */
+    public static BulkResult<String> patch(SupabaseService service, BaseQuery base,
+                                           String idColumn, Collection<String> ids, JsonObject updates) {
+        return mutate(base, idColumn, ids, url -> service.executePatch(url, updates));
+    }
+
+    // ================= INSERT =================
+
+    /**
+     * Insert all rows with array-body POSTs. Succeeded items are the created rows
+     * (with their IDs), failed items are the rows that could not be inserted.
+     */
+    public static BulkResult<JsonObject> insert(SupabaseService service, String table,
+                                                List<JsonObject> rows, String... returnColumns) {
+        BulkResult<JsonObject> result = new BulkResult<>();
+        if (rows == null || rows.isEmpty()) return result;
+
+        String url = PostgrestQuery.from(table).select(returnColumns).toUrl();
+        for (List<JsonObject> chunk : chunk(rows, MAX_ROWS_PER_INSERT)) {
+            result.addAll(insertChunk(service, url, chunk));
+        }
+        Log.d(TAG, "Bulk insert into " + table + ": " + result);
+        return result;
+    }
+
+    private static BulkResult<JsonObject> insertChunk(SupabaseService service, String url, List<JsonObject> chunk) {
+        BulkResult<JsonObject> result = new BulkResult<>();
+        JsonArray body = new JsonArray();
+        for (JsonObject row : chunk) {
+            body.add(row);
+        }
+
+        try {
+            Response<List<JsonObject>> response = service.executeInsert(url, body).execute();
+            if (response.isSuccessful() && response.body() != null) {
+                for (JsonObject created : response.body()) {
+                    result.addSucceeded(created);
+                }
+                return result;
+            }
+
+            logError("insert", response);
+            if (chunk.size() > 1 && isRejectedForContent(response.code())) {
+                // One bad row fails the whole statement - bisect to isolate it
+                int half = chunk.size() / 2;
+                result.addAll(insertChunk(service, url, chunk.subList(0, half)));
+                result.addAll(insertChunk(service, url, chunk.subList(half, chunk.size())));
+                return result;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Bulk insert failed: " + e.getMessage(), e);
+        }
+
+        for (JsonObject row : chunk) {
+            result.addFailed(row);
+        }
+        return result;
+    }
+
+    // ================= HELPERS =================
+
+    private static BulkResult<String> mutate(BaseQuery base, String idColumn,
+                                             Collection<String> ids, ChunkCall call) {
+        BulkResult<String> result = new BulkResult<>();
+        Set<String> unique = new LinkedHashSet<>();
+        if (ids != null) {
+            for (String id : ids) {
+                if (id != null && !id.isEmpty()) unique.add(id);
+            }
+        }
+        if (unique.isEmpty()) return result;
+
+        for (List<String> chunk : chunk(new ArrayList<>(unique), MAX_IDS_PER_REQUEST)) {
+            result.addAll(mutateChunk(base, idColumn, chunk, call));
+        }
+        Log.d(TAG, "Bulk mutation on " + idColumn + ": " + result);
+        return result;
+    }
+
+    private static BulkResult<String> mutateChunk(BaseQuery base, String idColumn,
+                                                  List<String> chunk, ChunkCall call) {
+        BulkResult<String> result = new BulkResult<>();
+        String url = base.create()
+                .select(idColumn)
+                .in(idColumn, chunk)
+                .toUrl();
+
+        try {
+            Response<List<JsonObject>> response = call.create(url).execute();
+            if (response.isSuccessful() && response.body() != null) {
+                Set<String> touched = new LinkedHashSet<>();
+                for (JsonObject row : response.body()) {
+                    JsonElement id = row.get(idColumn);
+                    if (id != null && !id.isJsonNull()) touched.add(id.getAsString());
+                }
+                // IDs the server did not return were not matched (already gone or not ours)
+                for (String id : chunk) {
+                    if (touched.contains(id)) {
+                        result.addSucceeded(id);
+                    } else {
+                        result.addFailed(id);
+                    }
+                }
+                return result;
+            }
+
+            logError("mutation", response);
+            if (chunk.size() > 1 && isRejectedForContent(response.code())) {
+                int half = chunk.size() / 2;
+                result.addAll(mutateChunk(base, idColumn, chunk.subList(0, half), call));
+                result.addAll(mutateChunk(base, idColumn, chunk.subList(half, chunk.size()), call));
+                return result;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Bulk mutation failed: " + e.getMessage(), e);
+        }
+
+        for (String id : chunk) {
+            result.addFailed(id);
+        }
+        return result;
+    }
+
+    /**
+     * Whether a failed chunk was rejected because of what is in it, so a smaller chunk may
+     * succeed. Timeouts, rate limits, auth and server errors would fail every piece alike.
+     */
+    static boolean isRejectedForContent(int code) {
+        return code >= 400 && code < 500 && code != 401 && code != 408 && code != 429;
+    }
+
+    private static <T> List<List<T>> chunk(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += size) {
+            chunks.add(items.subList(start, Math.min(start + size, items.size())));
+        }
+        return chunks;
+    }
+
+    private static void logError(String operation, Response<?> response) {
+        String body = null;
+        try {
+            if (response.errorBody() != null) body = response.errorBody().string();
+        } catch (Exception ignored) {
+        }
+        Log.e(TAG, "Bulk " + operation + " rejected: " + response.code() + " " + body);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.outpick.database.supabase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-item outcome of a bulk insert, patch or delete.
+ *
+ * For deletes and patches the items are row IDs; for inserts the succeeded
+ * items are the created rows and the failed items are the rows that were sent.
+ * Screens use this to update partially instead of treating the batch as all-or-nothing.
+ */
+public class BulkResult<T> {
+
+    private final List<T> succeeded = new ArrayList<>();
+    private final List<T> failed = new ArrayList<>();
+    private final Set<T> succeededLookup = new HashSet<>();
+
+    /** Every item succeeded, e.g. writes handed to the outbox, which apply locally right away. */
+    public static <T> BulkResult<T> allSucceeded(Collection<T> items) {
+        BulkResult<T> result = new BulkResult<>();
+        for (T item : items) {
+            result.addSucceeded(item);
+        }
+        return result;
+    }
+
+    /** Every item failed, e.g. rows that can't be sent yet. */
+    public static <T> BulkResult<T> allFailed(Collection<T> items) {
+        BulkResult<T> result = new BulkResult<>();
+        for (T item : items) {
+            result.addFailed(item);
+        }
+        return result;
+    }
+
+    void addSucceeded(T item) {
+        succeeded.add(item);
+        succeededLookup.add(item);
+    }
+
+    void addFailed(T item) {
+        failed.add(item);
+    }
+
+    public void addAll(BulkResult<T> other) {
+        succeeded.addAll(other.succeeded);
+        succeededLookup.addAll(other.succeeded);
+        failed.addAll(other.failed);
+    }
+
+    public List<T> getSucceeded() {
+        return Collections.unmodifiableList(succeeded);
+    }
+
+    public List<T> getFailed() {
+        return Collections.unmodifiableList(failed);
+    }
+
+    public int getSucceededCount() {
+        return succeeded.size();
+    }
+
+    public int getFailedCount() {
+        return failed.size();
+    }
+
+    public boolean isSucceeded(T item) {
+        return succeededLookup.contains(item);
+    }
+
+    public boolean isComplete() {
+        return failed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{succeeded=" + succeeded.size() + ", failed=" + failed.size() + "}";
+    }
+}
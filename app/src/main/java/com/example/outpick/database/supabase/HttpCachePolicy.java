@@ -0,0 +1,153 @@
+package com.example.outpick.database.supabase;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-endpoint cache hints for the on-disk HTTP cache, installed as a network interceptor.
+ *
+ * Supabase doesn't say how long its responses may be kept, so successful GETs are
+ * re-labelled before OkHttp stores them:
+ *   - public storage objects are kept for {@link #STORAGE_MAX_AGE_S} (uploads get new names);
+ *   - catalog tables are served from disk for {@link #CATALOG_MAX_AGE_S};
+ *   - every other table read is stored but revalidated each time with If-None-Match /
+ *     If-Modified-Since, so an unchanged list comes back as a 304 with no body.
+ *     Responses without an ETag or Last-Modified can't be revalidated and aren't stored.
+ * Ranged (paged) reads neither use nor fill the cache - it is keyed by URL alone and would
+ * mix pages up; {@link #rangedReadBypass()} handles the request side.
+ *
+ * A successful write to a table or storage object evicts the cached reads of that
+ * resource, so catalog edits show up immediately instead of after the max-age.
+ */
+public class HttpCachePolicy implements Interceptor {
+    private static final String TAG = "HttpCachePolicy";
+
+    public static final long STORAGE_MAX_AGE_S = 7 * 24 * 60 * 60;
+    public static final long CATALOG_MAX_AGE_S = 60;
+
+    /** Tables everyone reads and only admins change. */
+    public static final Set<String> CATALOG_TABLES = new HashSet<>(Arrays.asList("outfits"));
+
+    private static final String REST_PREFIX = "rest/v1/";
+    private static final String STORAGE_PREFIX = "storage/v1/object/";
+    private static final String PUBLIC_STORAGE_PREFIX = STORAGE_PREFIX + "public/";
+
+    /** The URLs a cache holds; removing one through the iterator evicts it (see Cache#urls). */
+    interface CachedUrls {
+        Iterator<String> urls() throws IOException;
+    }
+
+    private final CachedUrls cache;
+
+    public HttpCachePolicy(Cache cache) {
+        this(cache != null ? cache::urls : null);
+    }
+
+    HttpCachePolicy(CachedUrls cache) {
+        this.cache = cache;
+    }
+
+    /** Application interceptor that sends ranged reads straight to the network. */
+    public static Interceptor rangedReadBypass() {
+        return chain -> {
+            Request request = chain.request();
+            if (request.header("Range") != null) {
+                request = request.newBuilder().cacheControl(CacheControl.FORCE_NETWORK).build();
+            }
+            return chain.proceed(request);
+        };
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if ("HEAD".equals(request.method())) {
+            // Row counts - OkHttp never caches HEAD, and it isn't a write
+            return response;
+        }
+        if (!"GET".equals(request.method())) {
+            if (response.isSuccessful()) evict(resourceOf(request.url()));
+            return response;
+        }
+        if (!response.isSuccessful()) {
+            return response;
+        }
+
+        String policy = policyFor(request, response);
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", policy)
+                .build();
+    }
+
+    private static String policyFor(Request request, Response response) {
+        String path = pathOf(request.url());
+        if (request.header("Range") != null || response.code() == 206) {
+            return "no-store";
+        }
+        if (path.startsWith(PUBLIC_STORAGE_PREFIX)) {
+            return "public, max-age=" + STORAGE_MAX_AGE_S;
+        }
+        if (path.startsWith(REST_PREFIX) && CATALOG_TABLES.contains(tableOf(path))) {
+            return "max-age=" + CATALOG_MAX_AGE_S;
+        }
+        boolean revalidatable = response.header("ETag") != null || response.header("Last-Modified") != null;
+        return revalidatable ? "no-cache" : "no-store";
+    }
+
+    /** Drop every cached read of a table ("rest/v1/clothing") or storage object ("bucket/path"). */
+    private void evict(String resource) {
+        if (cache == null || resource == null) return;
+        try {
+            Iterator<String> urls = cache.urls();
+            while (urls.hasNext()) {
+                HttpUrl url = HttpUrl.parse(urls.next());
+                if (url != null && resource.equals(resourceOf(url))) {
+                    urls.remove();
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error evicting " + resource + " from HTTP cache: " + e.getMessage());
+        }
+    }
+
+    private static String resourceOf(HttpUrl url) {
+        String path = pathOf(url);
+        if (path.startsWith(REST_PREFIX)) {
+            return REST_PREFIX + tableOf(path);
+        }
+        if (path.startsWith(PUBLIC_STORAGE_PREFIX)) {
+            return path.substring(PUBLIC_STORAGE_PREFIX.length());
+        }
+        if (path.startsWith(STORAGE_PREFIX)) {
+            return path.substring(STORAGE_PREFIX.length());
+        }
+        return null;
+    }
+
+    private static String tableOf(String restPath) {
+        String rest = restPath.substring(REST_PREFIX.length());
+        int slash = rest.indexOf('/');
+        return slash >= 0 ? rest.substring(0, slash) : rest;
+    }
+
+    private static String pathOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        return String.join("/", segments);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.outpick.database.supabase;
+
+/**
+ * HDR-style histogram of non-negative longs (microseconds, bytes).
+ *
+ * Values below {@code 2 * SUB_BUCKETS} are counted exactly; above that every power of two is
+ * split into {@link #SUB_BUCKETS} equal buckets, so any recorded value - and any percentile
+ * read back - is within about 6% of the true one, from microseconds up to an hour, in a
+ * fixed 2 KB of counts. The counts are only allocated on the first record, so phases that
+ * rarely happen (DNS, TLS on a pooled connection) cost nothing.
+ *
+ * Thread-safe; recording is a few shifts and an increment under the histogram's lock.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 31;
+    /** Largest value kept apart; anything above is counted in the top bucket. */
+    public static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = 2 * SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS;
+
+    private int[] counts;
+    private long totalCount;
+    private long sum;
+    private long max;
+
+    public synchronized void record(long value) {
+        if (value < 0) return;
+        if (counts == null) counts = new int[BUCKETS];
+        long clamped = Math.min(value, MAX_VALUE);
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        sum += clamped;
+        max = Math.max(max, clamped);
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized long getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    /** The value at {@code percentile} (0-100), reported as its bucket's upper bound; 0 when empty. */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public synchronized void reset() {
+        counts = null;
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    private static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int k = index - 2 * SUB_BUCKETS;
+        int shift = k / SUB_BUCKETS + 1;
+        int sub = k % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.outpick.database.supabase;
+
+import com.example.outpick.database.models.ClosetItem;
+import com.example.outpick.database.models.ClothingItem;
+import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.models.OutfitHistoryItem;
+import com.example.outpick.database.models.UserModel;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapters for the models read from Supabase.
+ *
+ * Each adapter reads a row's columns straight off the JsonReader into locals, skips columns it
+ * doesn't know, and builds the model with the same fallbacks and defaults the repositories'
+ * hand-written JsonObject converters used. write() emits the same column names, so a model
+ * serialized with {@link SupabaseJson#gson()} (e.g. into an Intent extra) reads back unchanged.
+ *
+ * Registered null-safe in {@link SupabaseJson}; read() never sees a JSON null row.
+ */
+final class ModelAdapters {
+
+    private ModelAdapters() {
+    }
+
+    // ================= CLOTHING =================
+
+    static final class ClothingItemAdapter extends TypeAdapter<ClothingItem> {
+        @Override
+        public ClothingItem read(JsonReader in) throws IOException {
+            String id = null, name = null, imageUri = null, imagePath = null, category = null;
+            String season = null, occasion = null, closetName = null, userId = null;
+            boolean favorite = false, selected = false;
+            int mockDrawableId = 0;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": id = nextString(in); break;
+                    case "name": name = nextString(in); break;
+                    case "image_uri": imageUri = nextString(in); break;
+                    case "image_path": imagePath = nextString(in); break;
+                    case "category": category = nextString(in); break;
+                    case "season": season = nextString(in); break;
+                    case "occasion": occasion = nextString(in); break;
+                    case "closet_name": closetName = nextString(in); break;
+                    case "user_id": userId = nextString(in); break;
+                    case "is_favorite": favorite = nextBoolean(in, false); break;
+                    // UI state, never in a Supabase row; only Intent extras carry it
+                    case "is_selected": selected = nextBoolean(in, false); break;
+                    case "mock_drawable_id": mockDrawableId = nextInt(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+
+            ClothingItem item = new ClothingItem();
+            if (id != null) item.setId(id);
+            if (name != null) item.setName(name);
+            item.setImagePath(imageUri != null ? imageUri : imagePath);
+            if (category != null) item.setCategory(category);
+            if (season != null) item.setSeason(season);
+            if (occasion != null) item.setOccasion(occasion);
+            if (closetName != null) item.setClosetName(closetName);
+            if (userId != null) item.setUserId(userId);
+            item.setFavorite(favorite);
+            item.setSelected(selected);
+            item.setMockDrawableId(mockDrawableId);
+
+            if (item.getName() == null) item.setName("Unnamed Item");
+            if (item.getSeason() == null) item.setSeason("All-Season");
+            if (item.getOccasion() == null) item.setOccasion("Casual");
+            if (item.getClosetName() == null) item.setClosetName("user_default");
+            return item;
+        }
+
+        @Override
+        public void write(JsonWriter out, ClothingItem item) throws IOException {
+            out.beginObject();
+            out.name("id").value(item.getId());
+            out.name("name").value(item.getName());
+            out.name("image_uri").value(item.getImagePath());
+            out.name("category").value(item.getCategory());
+            out.name("season").value(item.getSeason());
+            out.name("occasion").value(item.getOccasion());
+            out.name("closet_name").value(item.getClosetName());
+            out.name("user_id").value(item.getUserId());
+            out.name("is_favorite").value(item.isFavorite());
+            out.name("is_selected").value(item.isSelected());
+            out.name("mock_drawable_id").value(item.getMockDrawableId());
+            out.endObject();
+        }
+    }
+
+    // ================= OUTFITS =================
+
+    static final class OutfitAdapter extends TypeAdapter<Outfit> {
+        @Override
+        public Outfit read(JsonReader in) throws IOException {
+            String id = null, name = null, imageUri = null, category = null, description = null;
+            String occasion = null, gender = null, event = null, season = null, style = null;
+            boolean suggestion = false;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": id = nextString(in); break;
+                    case "name": name = nextString(in); break;
+                    case "image_uri": imageUri = nextString(in); break;
+                    case "category": category = nextString(in); break;
+                    case "description": description = nextString(in); break;
+                    case "occasion": occasion = nextString(in); break;
+                    case "gender": gender = nextString(in); break;
+                    case "event": event = nextString(in); break;
+                    case "season": season = nextString(in); break;
+                    case "style": style = nextString(in); break;
+                    case "is_suggestion": suggestion = nextBoolean(in, false); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+
+            Outfit outfit = new Outfit();
+            if (id != null) outfit.setId(id);
+            if (name != null) outfit.setName(name);
+            if (imageUri != null) outfit.setImageUri(imageUri);
+            if (category != null) outfit.setCategory(category);
+            // Older rows keep the description / event in 'occasion'
+            outfit.setDescription(description != null ? description : occasion);
+            if (gender != null) outfit.setGender(gender);
+            outfit.setEvent(event != null ? event : occasion);
+            if (season != null) outfit.setSeason(season);
+            if (style != null) outfit.setStyle(style);
+            outfit.setSuggestion(suggestion);
+
+            if (outfit.getName() == null) outfit.setName("Unnamed Outfit");
+            if (outfit.getCategory() == null) outfit.setCategory("General");
+            if (outfit.getDescription() == null) outfit.setDescription("No description");
+            if (outfit.getGender() == null) outfit.setGender("Unisex");
+            if (outfit.getEvent() == null) outfit.setEvent("Casual");
+            if (outfit.getSeason() == null) outfit.setSeason("All-Season");
+            if (outfit.getStyle() == null) outfit.setStyle("Casual");
+            return outfit;
+        }
+
+        @Override
+        public void write(JsonWriter out, Outfit outfit) throws IOException {
+            out.beginObject();
+            out.name("id").value(outfit.getId());
+            out.name("name").value(outfit.getName());
+            out.name("image_uri").value(outfit.getImageUri());
+            out.name("category").value(outfit.getCategory());
+            out.name("description").value(outfit.getDescription());
+            out.name("gender").value(outfit.getGender());
+            out.name("event").value(outfit.getEvent());
+            out.name("season").value(outfit.getSeason());
+            out.name("style").value(outfit.getStyle());
+            out.name("is_suggestion").value(outfit.isSuggestion());
+            out.endObject();
+        }
+    }
+
+    // ================= CLOSETS =================
+
+    static final class ClosetItemAdapter extends TypeAdapter<ClosetItem> {
+        @Override
+        public ClosetItem read(JsonReader in) throws IOException {
+            String id = null, name = null, description = null, imageUri = null, type = null, userId = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": id = nextString(in); break;
+                    case "name": name = nextString(in); break;
+                    case "description": description = nextString(in); break;
+                    case "image_uri": imageUri = nextString(in); break;
+                    case "type": type = nextString(in); break;
+                    case "user_id": userId = nextString(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new ClosetItem(id, name, description, imageUri, type, userId);
+        }
+
+        @Override
+        public void write(JsonWriter out, ClosetItem closet) throws IOException {
+            out.beginObject();
+            out.name("id").value(closet.getId());
+            out.name("name").value(closet.getName());
+            out.name("description").value(closet.getDescription());
+            out.name("image_uri").value(closet.getCoverImageUri());
+            out.name("type").value(closet.getType());
+            out.name("user_id").value(closet.getUserId());
+            out.endObject();
+        }
+    }
+
+    // ================= OUTFIT HISTORY =================
+
+    static final class OutfitHistoryItemAdapter extends TypeAdapter<OutfitHistoryItem> {
+        @Override
+        public OutfitHistoryItem read(JsonReader in) throws IOException {
+            OutfitHistoryItem history = new OutfitHistoryItem();
+            String category = null, style = null, imagePath = null, imageUri = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": history.setId(nextInt(in)); break;
+                    case "outfit_name": history.setOutfitName(nextString(in)); break;
+                    case "category": category = nextString(in); break;
+                    case "style": style = nextString(in); break;
+                    case "date_used": history.setDateUsed(nextString(in)); break;
+                    case "action_taken": history.setActionTaken(nextString(in)); break;
+                    case "image_path": imagePath = nextString(in); break;
+                    case "image_uri": imageUri = nextString(in); break;
+                    case "event": history.setEvent(nextString(in)); break;
+                    case "season": history.setSeason(nextString(in)); break;
+                    case "gender": history.setGender(nextString(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+
+            // History rows are written with the outfit's style; the screen filters on it as the category
+            history.setCategory(category != null ? category : style);
+            history.setImagePath(imagePath != null ? imagePath : imageUri);
+            return history;
+        }
+
+        @Override
+        public void write(JsonWriter out, OutfitHistoryItem history) throws IOException {
+            out.beginObject();
+            out.name("id").value(history.getId());
+            out.name("outfit_name").value(history.getOutfitName());
+            out.name("category").value(history.getCategory());
+            out.name("date_used").value(history.getDateUsed());
+            out.name("action_taken").value(history.getActionTaken());
+            out.name("image_path").value(history.getImagePath());
+            out.name("event").value(history.getEvent());
+            out.name("season").value(history.getSeason());
+            out.name("gender").value(history.getGender());
+            out.endObject();
+        }
+    }
+
+    // ================= USERS =================
+
+    /** Raw columns only; display defaults ("N/A", "Never", ...) are up to the screen. */
+    static final class UserModelAdapter extends TypeAdapter<UserModel> {
+        @Override
+        public UserModel read(JsonReader in) throws IOException {
+            UserModel user = new UserModel();
+            boolean active = true;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": user.setId(nextString(in)); break;
+                    case "username": user.setUsername(nextString(in)); break;
+                    case "role": user.setRole(nextString(in)); break;
+                    case "gender": user.setGender(nextString(in)); break;
+                    case "created_at": user.setSignupDate(nextString(in)); break;
+                    case "last_login": user.setLastLogin(nextString(in)); break;
+                    case "last_logout": user.setLastLogout(nextString(in)); break;
+                    case "is_active": active = nextBoolean(in, true); break;
+                    case "profile_image_uri": user.setProfileImageUri(nextString(in)); break;
+                    // password is deliberately never decoded
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+
+            user.setSuspended(!active);
+            user.setStatus(active ? "Active" : "Suspended");
+            return user;
+        }
+
+        @Override
+        public void write(JsonWriter out, UserModel user) throws IOException {
+            out.beginObject();
+            out.name("id").value(user.getId());
+            out.name("username").value(user.getUsername());
+            out.name("role").value(user.getRole());
+            out.name("gender").value(user.getGender());
+            out.name("created_at").value(user.getSignupDate());
+            out.name("last_login").value(user.getLastLogin());
+            out.name("last_logout").value(user.getLastLogout());
+            out.name("is_active").value(!user.isSuspended());
+            out.name("profile_image_uri").value(user.getProfileImageUri());
+            out.endObject();
+        }
+    }
+
+    // ================= HELPERS =================
+
+    /** Column value as a string; null for JSON null and for nested objects/arrays. */
+    private static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        switch (token) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(in.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return in.nextString();
+            default:
+                in.skipValue();
+                return null;
+        }
+    }
+
+    private static boolean nextBoolean(JsonReader in, boolean fallback) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.BOOLEAN) return in.nextBoolean();
+        if (token == JsonToken.STRING) return Boolean.parseBoolean(in.nextString());
+        in.skipValue();
+        return fallback;
+    }
+
+    /** Integer column, 0 when it is null or not a number (e.g. a UUID id). */
+    private static int nextInt(JsonReader in) throws IOException {
+        String value = nextString(in);
+        if (value == null) return 0;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.outpick.database.supabase;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-endpoint timings for every call on the shared OkHttp stack, installed as its
+ * {@link EventListener.Factory}.
+ *
+ * Calls are grouped by method and resource - "GET rest/v1/clothing", "POST storage/..../bucket",
+ * or host and first path segment for other hosts - and each group keeps
+ * {@link LatencyHistogram}s of the whole call, time to first byte, DNS, connect and TLS
+ * (the last three only when a new connection was needed), plus response body sizes, cache
+ * hits / revalidations / misses and failures. Each call is also counted against the screen
+ * that was in front when it started ({@link #setScreen}).
+ *
+ * The numbers live in memory only and start over with the process or {@link #reset()}; the
+ * admin diagnostics screen shows them and exports {@link #report()}.
+ */
+public final class NetworkMetrics implements EventListener.Factory {
+    private static final String REST_PREFIX = "rest/v1/";
+    private static final String STORAGE_PREFIX = "storage/v1/object/";
+    private static final String NO_SCREEN = "(background)";
+
+    private static final NetworkMetrics INSTANCE = new NetworkMetrics();
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, ScreenStats> screens = new ConcurrentHashMap<>();
+    private volatile String currentScreen = NO_SCREEN;
+    private volatile long since = System.currentTimeMillis();
+
+    private NetworkMetrics() {
+    }
+
+    public static NetworkMetrics get() {
+        return INSTANCE;
+    }
+
+    /** The screen new calls are attributed to; called as activities resume. */
+    public void setScreen(String screen) {
+        currentScreen = screen != null ? screen : NO_SCREEN;
+    }
+
+    public void reset() {
+        endpoints.clear();
+        screens.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /** Groups sorted by name. */
+    public List<EndpointStats> getEndpoints() {
+        return new ArrayList<>(new TreeMap<>(endpoints).values());
+    }
+
+    public List<ScreenStats> getScreens() {
+        return new ArrayList<>(new TreeMap<>(screens).values());
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener(endpointOf(call.request()), currentScreen);
+    }
+
+    /** Everything collected so far as plain text, for sharing from the diagnostics screen. */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append("OutPick network metrics since ")
+                .append(new java.util.Date(since)).append('\n')
+                .append("Times in ms (p50 / p95 / p99 / max), sizes in KB\n\n");
+
+        out.append("== Endpoints ==\n");
+        for (EndpointStats stats : getEndpoints()) {
+            out.append(stats.getName()).append('\n')
+                    .append(String.format(Locale.US, "  calls %d, failed %d, cache hit %d, revalidated %d, miss %d%n",
+                            stats.getCalls(), stats.getFailures(), stats.getCacheHits(),
+                            stats.getCacheRevalidations(), stats.getCacheMisses()));
+            appendTimes(out, "total", stats.total);
+            appendTimes(out, "ttfb", stats.firstByte);
+            appendTimes(out, "dns", stats.dns);
+            appendTimes(out, "connect", stats.connect);
+            appendTimes(out, "tls", stats.tls);
+            if (stats.bodyBytes.getCount() > 0) {
+                out.append(String.format(Locale.US, "  body     %.1f / %.1f / %.1f / %.1f KB, %.1f KB total%n",
+                        kb(stats.bodyBytes.getValueAtPercentile(50)), kb(stats.bodyBytes.getValueAtPercentile(95)),
+                        kb(stats.bodyBytes.getValueAtPercentile(99)), kb(stats.bodyBytes.getMax()),
+                        kb(stats.bodyBytes.getSum())));
+            }
+        }
+
+        out.append("\n== Screens ==\n");
+        for (ScreenStats stats : getScreens()) {
+            out.append(stats.getName())
+                    .append(String.format(Locale.US, "  calls %d%n", stats.total.getCount()));
+            appendTimes(out, "total", stats.total);
+        }
+        return out.toString();
+    }
+
+    private static void appendTimes(StringBuilder out, String label, LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) return;
+        out.append(String.format(Locale.US, "  %-8s %s / %s / %s / %s (n=%d)%n", label,
+                ms(histogram.getValueAtPercentile(50)), ms(histogram.getValueAtPercentile(95)),
+                ms(histogram.getValueAtPercentile(99)), ms(histogram.getMax()), histogram.getCount()));
+    }
+
+    /** Microseconds as milliseconds with one decimal. */
+    public static String ms(long micros) {
+        return String.format(Locale.US, "%.1f", micros / 1000.0);
+    }
+
+    private static double kb(long bytes) {
+        return bytes / 1024.0;
+    }
+
+    /** "GET rest/v1/clothing" - the table (or bucket), never the filters. */
+    static String endpointOf(Request request) {
+        HttpUrl url = request.url();
+        String path = String.join("/", url.pathSegments());
+        String resource;
+        if (path.startsWith(REST_PREFIX)) {
+            resource = REST_PREFIX + firstSegment(path.substring(REST_PREFIX.length()));
+        } else if (path.startsWith(STORAGE_PREFIX)) {
+            // storage/v1/object/[public/]bucket/...
+            String rest = path.substring(STORAGE_PREFIX.length());
+            String visibility = "";
+            if (rest.startsWith("public/")) {
+                visibility = "public/";
+                rest = rest.substring("public/".length());
+            }
+            resource = STORAGE_PREFIX + visibility + firstSegment(rest);
+        } else {
+            resource = url.host() + "/" + firstSegment(path);
+        }
+        return request.method() + " " + resource;
+    }
+
+    private static String firstSegment(String path) {
+        int slash = path.indexOf('/');
+        return slash >= 0 ? path.substring(0, slash) : path;
+    }
+
+    private EndpointStats endpoint(String name) {
+        return endpoints.computeIfAbsent(name, EndpointStats::new);
+    }
+
+    private ScreenStats screen(String name) {
+        return screens.computeIfAbsent(name, ScreenStats::new);
+    }
+
+    /** One endpoint's histograms (microseconds; bodyBytes in bytes) and counters. */
+    public static final class EndpointStats {
+        private final String name;
+        final LatencyHistogram total = new LatencyHistogram();
+        final LatencyHistogram firstByte = new LatencyHistogram();
+        final LatencyHistogram dns = new LatencyHistogram();
+        final LatencyHistogram connect = new LatencyHistogram();
+        final LatencyHistogram tls = new LatencyHistogram();
+        final LatencyHistogram bodyBytes = new LatencyHistogram();
+        private long calls;
+        private long failures;
+        private long cacheHits;
+        private long cacheRevalidations;
+        private long cacheMisses;
+
+        EndpointStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        public LatencyHistogram getFirstByte() {
+            return firstByte;
+        }
+
+        public synchronized long getCalls() {
+            return calls;
+        }
+
+        public synchronized long getFailures() {
+            return failures;
+        }
+
+        public synchronized long getCacheHits() {
+            return cacheHits;
+        }
+
+        public synchronized long getCacheRevalidations() {
+            return cacheRevalidations;
+        }
+
+        public synchronized long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        synchronized void count(boolean failed, CacheOutcome cache) {
+            calls++;
+            if (failed) failures++;
+            // OkHttp reports a miss for every write too; only reads can hit
+            if (!name.startsWith("GET ")) return;
+            if (cache == CacheOutcome.HIT) cacheHits++;
+            else if (cache == CacheOutcome.REVALIDATED) cacheRevalidations++;
+            else if (cache == CacheOutcome.MISS) cacheMisses++;
+        }
+    }
+
+    /** Calls started while a screen was in front, and how long they took. */
+    public static final class ScreenStats {
+        private final String name;
+        final LatencyHistogram total = new LatencyHistogram();
+
+        ScreenStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+    }
+
+    enum CacheOutcome { NONE, HIT, REVALIDATED, MISS }
+
+    /** One call's timestamps; OkHttp delivers a call's events in order, from one thread at a time. */
+    private final class CallListener extends EventListener {
+        private final String endpoint;
+        private final String screen;
+        private long callStart;
+        private long dnsStart = -1;
+        private long connectStart = -1;
+        private long secureConnectStart = -1;
+        private long firstByte = -1;
+        private long bodyBytes = -1;
+        private CacheOutcome cache = CacheOutcome.NONE;
+        private boolean recorded;
+
+        CallListener(String endpoint, String screen) {
+            this.endpoint = endpoint;
+            this.screen = screen;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            if (dnsStart >= 0) endpoint(endpoint).dns.record(micros(dnsStart));
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            if (secureConnectStart >= 0) endpoint(endpoint).tls.record(micros(secureConnectStart));
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            // Includes the TLS handshake, as OkHttp reports it
+            if (connectStart >= 0) endpoint(endpoint).connect.record(micros(connectStart));
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (firstByte < 0) firstByte = micros(callStart);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            bodyBytes = byteCount;
+        }
+
+        @Override
+        public void cacheHit(Call call, Response response) {
+            cache = CacheOutcome.HIT;
+        }
+
+        @Override
+        public void cacheConditionalHit(Call call, Response cachedResponse) {
+            cache = CacheOutcome.REVALIDATED;
+        }
+
+        @Override
+        public void cacheMiss(Call call) {
+            cache = CacheOutcome.MISS;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish(false);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            finish(true);
+        }
+
+        @Override
+        public void canceled(Call call) {
+            // A cancelled call also ends in callFailed, which records it
+        }
+
+        private void finish(boolean failed) {
+            if (recorded) return;
+            recorded = true;
+            long total = micros(callStart);
+            EndpointStats stats = endpoint(endpoint);
+            stats.count(failed, cache);
+            stats.total.record(total);
+            if (firstByte >= 0) stats.firstByte.record(firstByte);
+            if (bodyBytes >= 0) stats.bodyBytes.record(bodyBytes);
+            screen(screen).total.record(total);
+        }
+
+        private long micros(long startNanos) {
+            return (System.nanoTime() - startNanos) / 1000;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.outpick.database.supabase;
+
+import android.util.Log;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Typed builder for PostgREST table reads.
+ *
+ * Compiles filters, column projection (select=), ordering (order=) and
+ * paging (limit/offset or a Range header) into a relative URL that
+ * {@link SupabaseService#executeGet(String, Map)} resolves against the REST base URL.
+ *
+ * Example:
+ *   PostgrestQuery.from("clothing")
+ *           .select("id", "name", "image_uri")
+ *           .eq("user_id", userId)
+ *           .order("created_at", false)
+ *           .limit(50)
+ *           .execute(supabaseService);
+ */
+public class PostgrestQuery {
+
+    private static final String TAG = "PostgrestQuery";
+
+    private final String table;
+    private final List<String> columns = new ArrayList<>();
+    private final List<String> filters = new ArrayList<>();
+    private final List<String> orders = new ArrayList<>();
+    private final Map<String, String> headers = new HashMap<>();
+    private Integer limit;
+    private Integer offset;
+
+    private PostgrestQuery(String table) {
+        this.table = table;
+    }
+
+    public static PostgrestQuery from(String table) {
+        return new PostgrestQuery(table);
+    }
+
+    // ================= PROJECTION =================
+
+    /** Only fetch the given columns. Embedded resources like "outfits(*)" are allowed. */
+    public PostgrestQuery select(String... columns) {
+        for (String column : columns) {
+            if (column != null && !column.isEmpty()) {
+                this.columns.add(column);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add {@code column} to an explicit projection. A query without select= already returns
+     * every column, so it is left as it is.
+     */
+    public PostgrestQuery alsoSelect(String column) {
+        if (!columns.isEmpty() && !columns.contains(column)) {
+            columns.add(column);
+        }
+        return this;
+    }
+
+    // ================= FILTERS =================
+
+    public PostgrestQuery eq(String column, String value) {
+        return filter(column, "eq", value);
+    }
+
+    public PostgrestQuery eq(String column, boolean value) {
+        return filter(column, "eq", String.valueOf(value));
+    }
+
+    public PostgrestQuery neq(String column, String value) {
+        return filter(column, "neq", value);
+    }
+
+    public PostgrestQuery gt(String column, String value) {
+        return filter(column, "gt", value);
+    }
+
+    public PostgrestQuery gte(String column, String value) {
+        return filter(column, "gte", value);
+    }
+
+    public PostgrestQuery lt(String column, String value) {
+        return filter(column, "lt", value);
+    }
+
+    public PostgrestQuery lte(String column, String value) {
+        return filter(column, "lte", value);
+    }
+
+    public PostgrestQuery ilike(String column, String pattern) {
+        return filter(column, "ilike", pattern);
+    }
+
+    public PostgrestQuery isNull(String column) {
+        filters.add(encode(column) + "=is.null");
+        return this;
+    }
+
+    /** column=not.is.true / not.is.null - unlike neq this also matches NULL rows. */
+    public PostgrestQuery isNot(String column, String value) {
+        filters.add(encode(column) + "=not.is." + value);
+        return this;
+    }
+
+    /** column=in.("a","b") - values are quoted so commas inside values survive. */
+    public PostgrestQuery in(String column, Collection<String> values) {
+        filters.add(encode(column) + "=in.(" + quotedList(values) + ")");
+        return this;
+    }
+
+    /** column=ov.{"a","b"} - array column shares at least one element with {@code values}. */
+    public PostgrestQuery overlaps(String column, Collection<String> values) {
+        filters.add(encode(column) + "=ov." + encode(arrayLiteral(values)));
+        return this;
+    }
+
+    /** column=cs.{"a","b"} - array column holds every one of {@code values}. */
+    public PostgrestQuery contains(String column, Collection<String> values) {
+        filters.add(encode(column) + "=cs." + encode(arrayLiteral(values)));
+        return this;
+    }
+
+    /** Adds an equality filter only when the value is set, which is how the screens pass optional filters. */
+    public PostgrestQuery eqIfPresent(String column, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return this;
+        }
+        return eq(column, value);
+    }
+
+    private PostgrestQuery filter(String column, String operator, String value) {
+        filters.add(encode(column) + "=" + operator + "." + encode(value != null ? value : ""));
+        return this;
+    }
+
+    // ================= ORDERING & PAGING =================
+
+    public PostgrestQuery order(String column, boolean ascending) {
+        orders.add(column + (ascending ? ".asc" : ".desc"));
+        return this;
+    }
+
+    public PostgrestQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public PostgrestQuery offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /** Inclusive item range sent as a Range header, e.g. range(0, 49) for the first 50 rows. */
+    public PostgrestQuery range(int from, int to) {
+        headers.put("Range-Unit", "items");
+        headers.put("Range", from + "-" + to);
+        return this;
+    }
+
+    // ================= COMPILE =================
+
+    /** Relative URL, e.g. "clothing?select=id,name&user_id=eq.42&order=created_at.desc&limit=50" */
+    public String toUrl() {
+        List<String> params = new ArrayList<>();
+
+        if (!columns.isEmpty()) {
+            params.add("select=" + String.join(",", columns));
+        }
+        params.addAll(filters);
+        if (!orders.isEmpty()) {
+            params.add("order=" + String.join(",", orders));
+        }
+        if (limit != null) {
+            params.add("limit=" + limit);
+        }
+        if (offset != null) {
+            params.add("offset=" + offset);
+        }
+        return urlWith(params);
+    }
+
+    // Filters only - select, order and paging would change the count or cost the server work
+    private String countUrl() {
+        return urlWith(filters);
+    }
+
+    private String urlWith(List<String> params) {
+        StringBuilder url = new StringBuilder(table);
+        if (!params.isEmpty()) {
+            url.append('?').append(String.join("&", params));
+        }
+        return url.toString();
+    }
+
+    public Map<String, String> headers() {
+        return new HashMap<>(headers);
+    }
+
+    /** Order terms as sent, e.g. ["created_at.desc"], so a mirror can keep rows in the same order. */
+    public List<String> orders() {
+        return new ArrayList<>(orders);
+    }
+
+    public Call<List<JsonObject>> execute(SupabaseService service) {
+        return service.executeGet(toUrl(), headers());
+    }
+
+    /**
+     * Blocking fetch. Returns null (not an empty list) when the request failed, so callers
+     * can tell "no rows" from "no connection" and fall back to the local mirror. Callers that
+     * must not hide a refused query behind the mirror use {@link #fetchRowsOrThrow} instead.
+     */
+    public List<JsonObject> fetchRows(SupabaseService service) {
+        try {
+            return fetchRowsOrThrow(service);
+        } catch (Exception e) {
+            Log.e(TAG, "Read of " + table + " failed: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Blocking fetch that tells the two kinds of failure apart. Throws IOException when
+     * Supabase couldn't be reached or failed on its side (timeouts, 429, 5xx) - serving the
+     * mirror is fair then - and {@link RejectedException} when it refused the query itself.
+     */
+    public List<JsonObject> fetchRowsOrThrow(SupabaseService service) throws IOException {
+        Response<List<JsonObject>> response = execute(service).execute();
+        if (response.isSuccessful() && response.body() != null) {
+            return response.body();
+        }
+        int code = response.code();
+        if (code >= 400 && code < 500 && code != 408 && code != 429) {
+            String errorBody = response.errorBody() != null ? response.errorBody().string() : null;
+            throw new RejectedException(code, errorBody);
+        }
+        throw new IOException("HTTP " + code);
+    }
+
+    /**
+     * Supabase answered a read with a 4xx: the query is wrong for this server (an unknown
+     * column, a bad filter), so retrying it or answering from the mirror would only hide that.
+     */
+    public static class RejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int code;
+        private final String errorCode;
+
+        RejectedException(int code, String errorBody) {
+            super("HTTP " + code + (errorBody != null ? ": " + errorBody : ""));
+            this.code = code;
+            this.errorCode = errorCodeOf(errorBody);
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /** The Postgres / PostgREST error code, e.g. "42703"; null if the body had none. */
+        public String getErrorCode() {
+            return errorCode;
+        }
+    }
+
+    /**
+     * Blocking row count of this query as a HEAD request with {@code Prefer: count=exact}:
+     * the response is a few header bytes however many rows match. Column selection, order and
+     * paging are ignored. Returns -1 when the request failed or had no total.
+     */
+    public int fetchCount(SupabaseService service) {
+        Map<String, String> countHeaders = headers();
+        String prefer = countHeaders.get("Prefer");
+        countHeaders.put("Prefer", prefer != null ? prefer + ",count=exact" : "count=exact");
+        countHeaders.remove("Range");
+        countHeaders.remove("Range-Unit");
+        try {
+            Response<Void> response = service.executeHead(countUrl(), countHeaders).execute();
+            if (response.isSuccessful()) {
+                return totalOf(response.headers().get("Content-Range"));
+            }
+            Log.e(TAG, "Count of " + table + " failed: HTTP " + response.code());
+        } catch (Exception e) {
+            Log.e(TAG, "Count of " + table + " failed: " + e.getMessage(), e);
+        }
+        return -1;
+    }
+
+    /** Total from a Content-Range header such as "0-24/3573"; -1 if it is missing or "*". */
+    static int totalOf(String contentRange) {
+        if (contentRange == null) return -1;
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0) return -1;
+        try {
+            return Integer.parseInt(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            // "*" - the server didn't count
+            return -1;
+        }
+    }
+
+    /** A typed read of {@link SupabaseService}, e.g. {@code supabaseService::readClothingItems}. */
+    public interface Reader<T> {
+        Call<List<T>> read(String url, Map<String, String> headers);
+    }
+
+    public <T> Call<List<T>> executeAs(Reader<T> reader) {
+        return reader.read(toUrl(), headers());
+    }
+
+    /**
+     * Blocking typed fetch - rows are decoded straight into models. Null on failure, like
+     * {@link #fetchRows(SupabaseService)}.
+     */
+    public <T> List<T> fetchAs(Reader<T> reader) {
+        try {
+            Response<List<T>> response = executeAs(reader).execute();
+            if (response.isSuccessful() && response.body() != null) {
+                return response.body();
+            }
+            Log.e(TAG, "Typed read of " + table + " failed: HTTP " + response.code());
+        } catch (Exception e) {
+            Log.e(TAG, "Typed read of " + table + " failed: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * The Postgres / PostgREST error code of a failed request, e.g. "23505" for a unique
+     * violation or "42703" for an unknown column; null if the body has none.
+     */
+    public static String errorCodeOf(Response<?> response) {
+        try {
+            return response.errorBody() != null ? errorCodeOf(response.errorBody().string()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** As above, for an error body that has already been read. */
+    public static String errorCodeOf(String errorBody) {
+        if (errorBody == null) return null;
+        try {
+            JsonElement body = JsonParser.parseString(errorBody);
+            if (!body.isJsonObject()) return null;
+            JsonElement code = body.getAsJsonObject().get("code");
+            return code != null && !code.isJsonNull() ? code.getAsString() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toUrl();
+    }
+
+    // ================= HELPERS =================
+
+    private static String quotedList(Collection<String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            if (value == null) continue;
+            if (builder.length() > 0) builder.append(',');
+            builder.append(encode("\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\""));
+        }
+        return builder.toString();
+    }
+
+    // Postgres array literal with every element quoted, so commas and braces inside tags survive
+    private static String arrayLiteral(Collection<String> values) {
+        StringBuilder builder = new StringBuilder("{");
+        for (String value : values) {
+            if (value == null) continue;
+            if (builder.length() > 1) builder.append(',');
+            builder.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            // URLEncoder produces form encoding; PostgREST expects %20 for spaces
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            return value;
+        }
+    }
+}
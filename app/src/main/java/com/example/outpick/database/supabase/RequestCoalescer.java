@@ -0,0 +1,186 @@
+package com.example.outpick.database.supabase;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Single-flight for Supabase reads.
+ *
+ * Identical GETs (same URL and paging/Prefer headers) that overlap share one network call:
+ * the first caller does the request, later ones wait for it and get a copy of its response.
+ * A successful response is also reused for {@link #REUSE_WINDOW_MS} after it completes, which
+ * covers screens that load the same rows twice in a row, and is dropped as soon as the window
+ * ends so finished bodies don't linger. Any write (POST/PATCH/DELETE) ends the reuse of
+ * everything fetched before it, so callers always see their own changes.
+ *
+ * Each caller gets its own copy of the body, so the rows Retrofit parses from it are never
+ * shared between callers.
+ */
+public class RequestCoalescer implements Interceptor {
+    private static final String TAG = "RequestCoalescer";
+
+    /** How long a completed response keeps answering identical GETs. */
+    public static final long REUSE_WINDOW_MS = 2_000;
+
+    /** Runs {@code task} after {@code delayMs}, off the calling thread. */
+    interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private static ScheduledExecutorService evictionExecutor;
+
+    private final Map<String, Flight> flights = new HashMap<>();
+    private final LongSupplier clock;
+    private final Scheduler scheduler;
+    // Bumped by every write; flights from an older generation are never joined
+    private long generation;
+
+    public RequestCoalescer() {
+        this(System::currentTimeMillis, RequestCoalescer::scheduleEviction);
+    }
+
+    RequestCoalescer(LongSupplier clock, Scheduler scheduler) {
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    private static final class Flight {
+        final long generation;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Response response;
+        volatile byte[] body;
+        volatile long completedAt;
+
+        Flight(long generation) {
+            this.generation = generation;
+        }
+
+        boolean isSuccessful() {
+            return response != null && response.isSuccessful();
+        }
+
+        boolean isExpired(long now) {
+            return completedAt > 0 && now - completedAt > REUSE_WINDOW_MS;
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if ("HEAD".equals(request.method())) {
+            // Counts change nothing and are too small to be worth sharing
+            return chain.proceed(request);
+        }
+        if (!"GET".equals(request.method())) {
+            invalidate();
+            try {
+                return chain.proceed(request);
+            } finally {
+                // Reads that were already in flight may predate this write as well
+                invalidate();
+            }
+        }
+
+        String key = keyOf(request);
+        Flight flight;
+        boolean leader = false;
+        synchronized (this) {
+            flight = flights.get(key);
+            // The eviction may run a little late - never reuse past the window
+            if (flight == null || flight.generation != generation || flight.isExpired(clock.getAsLong())) {
+                flight = new Flight(generation);
+                flights.put(key, flight);
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            return lead(chain, request, key, flight);
+        }
+
+        try {
+            flight.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + request.url());
+        }
+        if (!flight.isSuccessful()) {
+            // The shared call failed or was cancelled - this caller makes its own attempt
+            return chain.proceed(request);
+        }
+        Log.d(TAG, "Shared response for " + request.url().encodedPath());
+        return copyOf(flight, request);
+    }
+
+    private Response lead(Chain chain, Request request, String key, Flight flight) throws IOException {
+        try {
+            Response response = chain.proceed(request);
+            ResponseBody body = response.body();
+            flight.body = body != null ? body.bytes() : null;
+            flight.response = response;
+            return copyOf(flight, request);
+        } finally {
+            flight.completedAt = clock.getAsLong();
+            if (flight.isSuccessful()) {
+                scheduler.schedule(() -> evict(key, flight), REUSE_WINDOW_MS);
+            } else {
+                evict(key, flight);
+            }
+            flight.done.countDown();
+        }
+    }
+
+    private synchronized void evict(String key, Flight flight) {
+        flights.remove(key, flight);
+    }
+
+    /** Number of flights still held, in flight or within their reuse window. */
+    synchronized int size() {
+        return flights.size();
+    }
+
+    private static synchronized void scheduleEviction(Runnable task, long delayMs) {
+        if (evictionExecutor == null) {
+            evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, TAG);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        evictionExecutor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void invalidate() {
+        generation++;
+        flights.clear();
+    }
+
+    private static Response copyOf(Flight flight, Request request) {
+        Response.Builder builder = flight.response.newBuilder().request(request);
+        if (flight.body != null) {
+            MediaType contentType = flight.response.body() != null ? flight.response.body().contentType() : null;
+            builder.body(ResponseBody.create(flight.body, contentType));
+        }
+        return builder.build();
+    }
+
+    private static String keyOf(Request request) {
+        return request.url() + "|" + request.header("Range") + "|" + request.header("Range-Unit")
+                + "|" + request.header("Prefer") + "|" + request.header("Accept");
+    }
+}
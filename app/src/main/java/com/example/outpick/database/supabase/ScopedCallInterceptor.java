@@ -0,0 +1,38 @@
+package com.example.outpick.database.supabase;
+
+import com.example.outpick.utils.TaskScope;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Ties each call to the {@link TaskScope} whose work makes it, so cancelling a screen's scope
+ * cancels its calls in flight with {@link Call#cancel()} - which resets just that HTTP/2 stream -
+ * instead of interrupting the thread blocked in execute(), which tears down the connection every
+ * screen shares. Calls made outside scoped work (the outbox, launchToCompletion) are left alone.
+ */
+public class ScopedCallInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        TaskScope scope = TaskScope.current();
+        if (scope == null) {
+            return chain.proceed(chain.request());
+        }
+
+        Call call = chain.call();
+        Runnable cancel = call::cancel;
+        if (!scope.onCancel(cancel)) {
+            // The screen is already gone - don't start the request at all
+            call.cancel();
+        }
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            scope.removeOnCancel(cancel);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.outpick.database.supabase;
+
+import com.example.outpick.database.models.ClosetItem;
+import com.example.outpick.database.models.ClothingItem;
+import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.models.OutfitHistoryItem;
+import com.example.outpick.database.models.UserModel;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+
+/**
+ * The app's one Gson instance.
+ *
+ * Models that come from Supabase rows have hand-written streaming adapters registered here
+ * ({@link ModelAdapters}), so typed Retrofit endpoints decode the response body straight into
+ * models - no JsonObject tree per row and no reflection. The same adapters convert rows that
+ * are already trees (mirrored rows, embedded objects), so both paths map columns identically.
+ *
+ * Gson is thread-safe; share this instance instead of creating new ones.
+ */
+public final class SupabaseJson {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ClothingItem.class, new ModelAdapters.ClothingItemAdapter().nullSafe())
+            .registerTypeAdapter(Outfit.class, new ModelAdapters.OutfitAdapter().nullSafe())
+            .registerTypeAdapter(ClosetItem.class, new ModelAdapters.ClosetItemAdapter().nullSafe())
+            .registerTypeAdapter(OutfitHistoryItem.class, new ModelAdapters.OutfitHistoryItemAdapter().nullSafe())
+            .registerTypeAdapter(UserModel.class, new ModelAdapters.UserModelAdapter().nullSafe())
+            .create();
+
+    private SupabaseJson() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /** Convert a row that is already a tree (e.g. from the local mirror) with the registered adapter. */
+    public static <T> T fromRow(JsonElement row, Class<T> type) {
+        return GSON.fromJson(row, type);
+    }
+}
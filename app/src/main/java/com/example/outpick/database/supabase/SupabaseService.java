@@ -1,5 +1,11 @@
 package com.example.outpick.database.supabase;
 
+import com.example.outpick.database.models.ClosetItem;
+import com.example.outpick.database.models.ClothingItem;
+import com.example.outpick.database.models.Outfit;
+import com.example.outpick.database.models.OutfitHistoryItem;
+import com.example.outpick.database.models.UserModel;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
@@ -8,6 +14,7 @@ import retrofit2.Call;
 import retrofit2.http.*;
 
 import java.util.List;
+import java.util.Map;
 
 public interface SupabaseService {
 
@@ -252,21 +259,7 @@ public interface SupabaseService {
     Call<Void> removeSnapshotFromCloset(@Query("id") String snapshotId);
 
     // ================= ADVANCED FILTERING =================
-    @GET("outfits")
-    Call<List<JsonObject>> getFilteredOutfits(
-            @Query("category") String category,
-            @Query("gender") String gender,
-            @Query("event") String event,
-            @Query("season") String season,
-            @Query("style") String style
-    );
-
-    @GET("clothing")
-    Call<List<JsonObject>> getFilteredClothing(
-            @Query("category") String category,
-            @Query("season") String season,
-            @Query("occasion") String occasion
-    );
+    // Tag filters go through PostgrestQuery + TagFilter (ov/cs on the *_tags arrays)
 
     // ================= CUSTOM RPC FUNCTIONS =================
     @Headers("Content-Type: application/json")
@@ -299,4 +292,75 @@ public interface SupabaseService {
     // ✅ ADDED: Custom method for Supabase filters
     @GET
     Call<List<JsonObject>> executeGet(@Url String url);
-}
\ No newline at end of file
+
+    // ✅ ADDED: Used by PostgrestQuery so Range / Prefer headers travel with the filter URL
+    @GET
+    Call<List<JsonObject>> executeGet(@Url String url, @HeaderMap Map<String, String> headers);
+
+    // ================= COUNTS =================
+    // ✅ ADDED: HEAD with "Prefer: count=exact" - PostgREST sends no rows, only the total in
+    // Content-Range (e.g. "*/42"). Used via PostgrestQuery.fetchCount
+    @HEAD
+    Call<Void> executeHead(@Url String url, @HeaderMap Map<String, String> headers);
+
+    // ================= TYPED READS =================
+    // ✅ ADDED: Same URLs as executeGet, but the body is stream-decoded straight into models
+    // by SupabaseJson's adapters - no JsonObject tree in between. Used via PostgrestQuery.fetchAs
+    @GET
+    Call<List<ClothingItem>> readClothingItems(@Url String url, @HeaderMap Map<String, String> headers);
+
+    @GET
+    Call<List<Outfit>> readOutfits(@Url String url, @HeaderMap Map<String, String> headers);
+
+    @GET
+    Call<List<ClosetItem>> readClosets(@Url String url, @HeaderMap Map<String, String> headers);
+
+    @GET
+    Call<List<OutfitHistoryItem>> readOutfitHistory(@Url String url, @HeaderMap Map<String, String> headers);
+
+    @GET
+    Call<List<UserModel>> readUsers(@Url String url, @HeaderMap Map<String, String> headers);
+
+    // ================= BULK MUTATIONS =================
+    // ✅ ADDED: Array-body insert - PostgREST inserts every row in a single statement
+    @Headers({
+            "Content-Type: application/json",
+            "Prefer: return=representation"
+    })
+    @POST
+    Call<List<JsonObject>> executeInsert(@Url String url, @Body JsonArray rows);
+
+    // ✅ ADDED: Filtered PATCH (e.g. id=in.(...)) that returns the rows it touched
+    @Headers({
+            "Content-Type: application/json",
+            "Prefer: return=representation"
+    })
+    @PATCH
+    Call<List<JsonObject>> executePatch(@Url String url, @Body JsonObject updates);
+
+    // ✅ ADDED: Filtered DELETE that returns the deleted rows so callers know which IDs went
+    @Headers("Prefer: return=representation")
+    @HTTP(method = "DELETE", hasBody = false)
+    Call<List<JsonObject>> executeDeleteReturning(@Url String url);
+
+    // ================= OUTBOX REPLAY =================
+    // ✅ ADDED: Same writes with extra headers - the outbox sends each op's Idempotency-Key
+    // so retries can be told apart from new writes. Used by database.local.Outbox
+    @Headers({
+            "Content-Type: application/json",
+            "Prefer: return=representation"
+    })
+    @POST
+    Call<List<JsonObject>> executeInsert(@Url String url, @Body JsonArray rows, @HeaderMap Map<String, String> headers);
+
+    @Headers({
+            "Content-Type: application/json",
+            "Prefer: return=representation"
+    })
+    @PATCH
+    Call<List<JsonObject>> executePatch(@Url String url, @Body JsonObject updates, @HeaderMap Map<String, String> headers);
+
+    @Headers("Prefer: return=representation")
+    @HTTP(method = "DELETE", hasBody = false)
+    Call<List<JsonObject>> executeDeleteReturning(@Url String url, @HeaderMap Map<String, String> headers);
+}
@@ -0,0 +1,150 @@
+package com.example.outpick.database.supabase;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * "Any of" / "all of" filters on multi-valued tag fields, evaluated by PostgREST.
+ *
+ * Tag fields (clothing season and occasion; outfit category, event, season and style) are
+ * stored as text like "Casual, Party". Each has a companion text[] column named
+ * {@code <field>_tags} holding the same tags split on , ; or /, trimmed, lower-cased and
+ * de-duplicated, with a GIN index. Server side this needs, per field:
+ *   alter table outfits add column event_tags text[] not null default '{}';
+ *   create index outfits_event_tags_idx on outfits using gin (event_tags);
+ * plus a before insert/update trigger that sets {@code new.event_tags} from {@code new.event}
+ * with the same normalization as {@link #normalize(String)} (and a one-off backfill).
+ * Writers keep sending the text columns; the trigger keeps the arrays in step.
+ *
+ * Any-of compiles to {@code event_tags=ov.{...}} and all-of to {@code event_tags=cs.{...}}.
+ * Filter values are normalized the same way, so matching is case-insensitive and runs on the
+ * index instead of on downloaded rows. {@link #matches(JsonObject)} applies the same rules to
+ * mirrored rows when the server can't be asked, and TagIndex answers it from bitsets for
+ * lists already in memory.
+ */
+public final class TagFilter {
+    public static final String COLUMN_SUFFIX = "_tags";
+
+    private static final Pattern SEPARATORS = Pattern.compile("[,;/]");
+
+    private final Map<String, List<String>> anyOf = new LinkedHashMap<>();
+    private final Map<String, List<String>> allOf = new LinkedHashMap<>();
+
+    /** Rows with at least one of {@code tags} in {@code field}. No tags adds no filter. */
+    public TagFilter anyOf(String field, Collection<String> tags) {
+        List<String> normalized = normalize(tags);
+        if (!normalized.isEmpty()) anyOf.put(field, normalized);
+        return this;
+    }
+
+    /** Same as {@link #anyOf(String, Collection)} with tags given as text, e.g. "Summer, Spring". */
+    public TagFilter anyOf(String field, String tags) {
+        return anyOf(field, normalize(tags));
+    }
+
+    /** Rows with every one of {@code tags} in {@code field}. No tags adds no filter. */
+    public TagFilter allOf(String field, Collection<String> tags) {
+        List<String> normalized = normalize(tags);
+        if (!normalized.isEmpty()) allOf.put(field, normalized);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return anyOf.isEmpty() && allOf.isEmpty();
+    }
+
+    /** Field -> normalized tags, at least one of which must match. */
+    public Map<String, List<String>> getAnyOf() {
+        return Collections.unmodifiableMap(anyOf);
+    }
+
+    /** Field -> normalized tags that must all match. */
+    public Map<String, List<String>> getAllOf() {
+        return Collections.unmodifiableMap(allOf);
+    }
+
+    /** A copy without the any-of selection on {@code field} - the base its facet counts are taken against. */
+    public TagFilter withoutAnyOf(String field) {
+        TagFilter copy = new TagFilter();
+        copy.anyOf.putAll(anyOf);
+        copy.anyOf.remove(field);
+        copy.allOf.putAll(allOf);
+        return copy;
+    }
+
+    public void applyTo(PostgrestQuery query) {
+        applyTo(query, "");
+    }
+
+    /** {@code prefix} names an embedded resource, e.g. "outfits." (embed it with !inner). */
+    public void applyTo(PostgrestQuery query, String prefix) {
+        for (Map.Entry<String, List<String>> entry : anyOf.entrySet()) {
+            query.overlaps(prefix + entry.getKey() + COLUMN_SUFFIX, entry.getValue());
+        }
+        for (Map.Entry<String, List<String>> entry : allOf.entrySet()) {
+            query.contains(prefix + entry.getKey() + COLUMN_SUFFIX, entry.getValue());
+        }
+    }
+
+    /** Whether a row (mirrored, or already downloaded) passes the filter, as PostgREST would decide. */
+    public boolean matches(JsonObject row) {
+        for (Map.Entry<String, List<String>> entry : anyOf.entrySet()) {
+            if (Collections.disjoint(tagsOf(row, entry.getKey()), entry.getValue())) return false;
+        }
+        for (Map.Entry<String, List<String>> entry : allOf.entrySet()) {
+            if (!tagsOf(row, entry.getKey()).containsAll(entry.getValue())) return false;
+        }
+        return true;
+    }
+
+    // The array column when the row carries it, otherwise the text column split the same way
+    private static Set<String> tagsOf(JsonObject row, String field) {
+        JsonElement array = row.get(field + COLUMN_SUFFIX);
+        if (array != null && array.isJsonArray()) {
+            Set<String> tags = new LinkedHashSet<>();
+            for (JsonElement tag : (JsonArray) array) {
+                if (!tag.isJsonNull()) tags.add(tag.getAsString());
+            }
+            return tags;
+        }
+        JsonElement text = row.get(field);
+        return new LinkedHashSet<>(normalize(text != null && !text.isJsonNull() ? text.getAsString() : null));
+    }
+
+    /** "Casual, Party/ casual" -> [casual, party] */
+    public static List<String> normalize(String tags) {
+        if (tags == null || tags.trim().isEmpty()) return new ArrayList<>();
+        List<String> parts = new ArrayList<>();
+        Collections.addAll(parts, SEPARATORS.split(tags));
+        return normalize(parts);
+    }
+
+    public static List<String> normalize(Collection<String> tags) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag == null) continue;
+                String value = tag.trim().toLowerCase(Locale.ROOT);
+                if (!value.isEmpty()) normalized.add(value);
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    @Override
+    public String toString() {
+        return "any" + anyOf + " all" + allOf;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.outpick.dialogs;
+
+import com.example.outpick.database.supabase.TagFilter;
+import com.google.android.material.button.MaterialButton;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The filter chips of one sheet and their facet counts.
+ *
+ * Each chip is registered with the tag field it filters and its label; {@link #show} then
+ * renders "Party (3)" and disables chips that would match nothing. A selected chip stays
+ * enabled whatever its count, so it can always be turned off again.
+ */
+final class FacetChips {
+
+    private static final class Chip {
+        final String field;
+        final String label;
+        final String value;
+
+        Chip(String field, String label) {
+            this.field = field;
+            this.label = label;
+            List<String> normalized = TagFilter.normalize(label);
+            this.value = normalized.isEmpty() ? "" : normalized.get(0);
+        }
+    }
+
+    private final Map<MaterialButton, Chip> chips = new LinkedHashMap<>();
+
+    /** Register {@code button} under {@code field}, labelled with its current text. */
+    String add(String field, MaterialButton button) {
+        return add(field, button, button.getText().toString());
+    }
+
+    String add(String field, MaterialButton button, String label) {
+        if (button != null) chips.put(button, new Chip(field, label));
+        return label;
+    }
+
+    /** The label a chip was registered with, without any count. */
+    String labelOf(MaterialButton button) {
+        Chip chip = chips.get(button);
+        return chip != null ? chip.label : button.getText().toString();
+    }
+
+    void show(Map<String, Map<String, Integer>> counts, TagFilter selection) {
+        for (Map.Entry<MaterialButton, Chip> entry : chips.entrySet()) {
+            MaterialButton button = entry.getKey();
+            Chip chip = entry.getValue();
+            Map<String, Integer> fieldCounts = counts.get(chip.field);
+            if (fieldCounts == null) continue;
+
+            Integer count = fieldCounts.get(chip.value);
+            int n = count != null ? count : 0;
+            List<String> selected = selection.getAnyOf().get(chip.field);
+            boolean isSelected = selected != null && selected.contains(chip.value);
+
+            button.setText(chip.label + " (" + n + ")");
+            button.setEnabled(n > 0 || isSelected);
+            button.setAlpha(button.isEnabled() ? 1f : 0.4f);
+        }
+    }
+}
@@ -12,6 +12,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.outpick.R;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.FacetCounter;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 import com.google.android.material.button.MaterialButton;
 
@@ -42,6 +45,11 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
     // Listener
     private FilterListener filterListener;
 
+    // ---- Live facet counts (optional) ----
+    private final TaskScope taskScope = TaskScope.of(this);
+    private final FacetChips facetChips = new FacetChips();
+    private FacetCounter<?> facetCounter;
+
     public interface FilterListener {
         void onFilterApplied(Set<String> seasons, Set<String> occasions);
     }
@@ -50,6 +58,11 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
         this.filterListener = listener;
     }
 
+    /** Show how many items each chip would match, counted over "season" and "occasion". */
+    public void setFacetCounter(FacetCounter<?> counter) {
+        this.facetCounter = counter;
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -70,7 +83,8 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
         seasonButtons.add(btnElNiño);
 
         for (MaterialButton btn : seasonButtons) {
-            btn.setOnClickListener(v -> toggleButtonSelection(btn, selectedSeasons));
+            String label = facetChips.add("season", btn);
+            btn.setOnClickListener(v -> toggleButtonSelection(btn, label, selectedSeasons));
         }
 
         // ---- Occasion buttons ----
@@ -101,7 +115,8 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
         occasionButtons.add(btnEtc);
 
         for (MaterialButton btn : occasionButtons) {
-            btn.setOnClickListener(v -> toggleButtonSelection(btn, selectedOccasions));
+            String label = facetChips.add("occasion", btn);
+            btn.setOnClickListener(v -> toggleButtonSelection(btn, label, selectedOccasions));
         }
 
         // ---- Done button ----
@@ -120,13 +135,13 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
 
         // Restore previously saved selections
         loadSelections();
+        refreshCounts();
 
         return view;
     }
 
     // ---- Toggle multi-selection button ----
-    private void toggleButtonSelection(MaterialButton button, Set<String> selectedSet) {
-        String text = button.getText().toString();
+    private void toggleButtonSelection(MaterialButton button, String text, Set<String> selectedSet) {
         if (selectedSet.contains(text)) {
             selectedSet.remove(text);
             button.setBackgroundColor(getResources().getColor(android.R.color.white));
@@ -136,6 +151,16 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
             button.setBackgroundColor(getResources().getColor(android.R.color.black));
             button.setTextColor(getResources().getColor(android.R.color.white));
         }
+        refreshCounts();
+    }
+
+    // ---- Recount every chip against the current selection (in the background) ----
+    private void refreshCounts() {
+        if (facetCounter == null) return;
+        TagFilter selection = new TagFilter()
+                .anyOf("season", selectedSeasons)
+                .anyOf("occasion", selectedOccasions);
+        facetCounter.count(taskScope, selection, counts -> facetChips.show(counts, selection));
     }
 
     // ---- Save selections to SharedPreferences ----
@@ -159,10 +184,10 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
 
         // Restore button states visually
         for (MaterialButton btn : seasonButtons) {
-            updateButtonVisual(btn, selectedSeasons.contains(btn.getText().toString()));
+            updateButtonVisual(btn, selectedSeasons.contains(facetChips.labelOf(btn)));
         }
         for (MaterialButton btn : occasionButtons) {
-            updateButtonVisual(btn, selectedOccasions.contains(btn.getText().toString()));
+            updateButtonVisual(btn, selectedOccasions.contains(facetChips.labelOf(btn)));
         }
     }
 
@@ -178,6 +203,7 @@ public class FilterBottomSheetDialog extends BottomSheetDialogFragment {
         for (MaterialButton btn : occasionButtons) {
             updateButtonVisual(btn, false);
         }
+        refreshCounts();
     }
 
     // ---- Update visual state of a button ----
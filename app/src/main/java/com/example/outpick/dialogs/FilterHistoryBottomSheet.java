@@ -16,6 +16,9 @@ import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
 import com.example.outpick.R;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.FacetCounter;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 import com.google.android.material.button.MaterialButton;
 
@@ -42,6 +45,11 @@ public class FilterHistoryBottomSheet extends BottomSheetDialogFragment {
     private MaterialButton btnApply;
     private ImageView btnBack;
 
+    // ---- Live facet counts (optional) ----
+    private final TaskScope taskScope = TaskScope.of(this);
+    private final FacetChips facetChips = new FacetChips();
+    private FacetCounter<?> facetCounter;
+
     public interface OnFilterAppliedListener {
         void onFilterApplied(String query,
                              Set<String> selectedStyles,
@@ -65,6 +73,11 @@ public class FilterHistoryBottomSheet extends BottomSheetDialogFragment {
         return fragment;
     }
 
+    /** Show how many outfits each chip would match; styles are counted over "category". */
+    public void setFacetCounter(FacetCounter<?> counter) {
+        this.facetCounter = counter;
+    }
+
     @Override
     public void onAttach(@NonNull Context context) {
         super.onAttach(context);
@@ -138,6 +151,7 @@ public class FilterHistoryBottomSheet extends BottomSheetDialogFragment {
         setupToggleButton(view, R.id.btnLaNina, "La Niña", selectedSeasons);
         // Update "All" text for styles
         allTextView.setText(selectedStyles.isEmpty() ? "All" : TextUtils.join(", ", selectedStyles));
+        refreshCounts();
 
         // Apply button
         btnApply.setOnClickListener(v -> {
@@ -164,6 +178,7 @@ public class FilterHistoryBottomSheet extends BottomSheetDialogFragment {
                         selectedStyles.clear();
                         selectedStyles.addAll(styles);
                         updateInlineButtons(view);
+                        refreshCounts();
                     }, pre
             );
             dialog.show(getParentFragmentManager(), "StyleBottomSheet");
@@ -175,6 +190,7 @@ public class FilterHistoryBottomSheet extends BottomSheetDialogFragment {
     private void setupToggleButton(View parentView, int buttonId, String key, Set<String> set) {
         MaterialButton button = parentView.findViewById(buttonId);
         if (button == null) return;
+        facetChips.add(fieldOf(set), button, key);
 
         if (set.contains(key)) setButtonSelected(button, true);
 
@@ -190,9 +206,27 @@ public class FilterHistoryBottomSheet extends BottomSheetDialogFragment {
             if (set == selectedStyles) {
                 allTextView.setText(set.isEmpty() ? "All" : TextUtils.join(", ", set));
             }
+            refreshCounts();
         });
     }
 
+    // Same tag fields OutfitHistoryActivity filters on
+    private String fieldOf(Set<String> set) {
+        if (set == selectedStyles) return "category";
+        if (set == selectedEvents) return "event";
+        return "season";
+    }
+
+    // Recount every chip against the current selection (in the background)
+    private void refreshCounts() {
+        if (facetCounter == null) return;
+        TagFilter selection = new TagFilter()
+                .anyOf("category", selectedStyles)
+                .anyOf("event", selectedEvents)
+                .anyOf("season", selectedSeasons);
+        facetCounter.count(taskScope, selection, counts -> facetChips.show(counts, selection));
+    }
+
     private void setButtonSelected(MaterialButton button, boolean selected) {
         if (selected) {
             button.setBackgroundColor(ContextCompat.getColor(requireContext(), android.R.color.black));
@@ -13,6 +13,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.outpick.R;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.FacetCounter;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 import com.google.android.material.button.MaterialButton;
 
@@ -40,6 +43,11 @@ public class ItemFilterBottomSheetDialog extends BottomSheetDialogFragment {
     private FilterListener listener;
     private SharedPreferences preferences;
 
+    // ---- Live facet counts (optional) ----
+    private final TaskScope taskScope = TaskScope.of(this);
+    private final FacetChips facetChips = new FacetChips();
+    private FacetCounter<?> facetCounter;
+
     private static final String PREF_NAME = "ItemFilterPrefs";
     private static final String KEY_OCCASIONS = "SelectedOccasions";
     private static final String KEY_SEASONS = "SelectedSeasons";
@@ -53,6 +61,11 @@ public class ItemFilterBottomSheetDialog extends BottomSheetDialogFragment {
         this.listener = listener;
     }
 
+    /** Show how many items each chip would match, counted over "season" and "occasion". */
+    public void setFacetCounter(FacetCounter<?> counter) {
+        this.facetCounter = counter;
+    }
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -130,6 +143,7 @@ public class ItemFilterBottomSheetDialog extends BottomSheetDialogFragment {
     // ================= BUTTON LOGIC =================
 
     private void setupOccasionButton(MaterialButton button, String occasion) {
+        facetChips.add("occasion", button, occasion);
         setButtonSelected(button, selectedOccasions.contains(occasion));
         button.setOnClickListener(v -> {
             if (selectedOccasions.contains(occasion)) {
@@ -144,6 +158,7 @@ public class ItemFilterBottomSheetDialog extends BottomSheetDialogFragment {
     }
 
     private void setupSeasonButton(MaterialButton button, String season) {
+        facetChips.add("season", button, season);
         setButtonSelected(button, selectedSeasons.contains(season));
         button.setOnClickListener(v -> {
             if (selectedSeasons.contains(season)) {
@@ -171,6 +186,16 @@ public class ItemFilterBottomSheetDialog extends BottomSheetDialogFragment {
     private void updateResetVisibility() {
         boolean anySelected = !selectedOccasions.isEmpty() || !selectedSeasons.isEmpty();
         resetAllText.setVisibility(anySelected ? View.VISIBLE : View.GONE);
+        refreshCounts();
+    }
+
+    // Recount every chip against the current selection (in the background)
+    private void refreshCounts() {
+        if (facetCounter == null) return;
+        TagFilter selection = new TagFilter()
+                .anyOf("occasion", selectedOccasions)
+                .anyOf("season", selectedSeasons);
+        facetCounter.count(taskScope, selection, counts -> facetChips.show(counts, selection));
     }
 
     // ================= RESET LOGIC =================
@@ -181,6 +206,7 @@ public class ItemFilterBottomSheetDialog extends BottomSheetDialogFragment {
         resetAllButtons();
         preferences.edit().clear().apply();
         resetAllText.setVisibility(View.GONE);
+        refreshCounts();
     }
 
     private void resetAllButtons() {
@@ -14,6 +14,9 @@ import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
 import com.example.outpick.R;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.FacetCounter;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 
@@ -47,6 +50,11 @@ public class OutfitFilterBottomSheet extends BottomSheetDialogFragment {
     private TextView tvSearchLabel; // Added reference for the search label
     private TextView tvStylesDisplay; // Reference to the TextView that displays selected styles
 
+    // Live facet counts (optional)
+    private final TaskScope taskScope = TaskScope.of(this);
+    private final FacetChips facetChips = new FacetChips();
+    private FacetCounter<?> facetCounter;
+
     /**
      * Constructor fixed to accept 7 content arguments (5 Sets + 1 String + the Categories Set)
      * to match the call signature expected by OutfitSuggestionActivity.
@@ -72,6 +80,11 @@ public class OutfitFilterBottomSheet extends BottomSheetDialogFragment {
         this.searchKeyword = searchKeyword != null ? searchKeyword : "";
     }
 
+    /** Show how many outfits each chip would match, over "category", "event", "season" and "style". */
+    public void setFacetCounter(FacetCounter<?> counter) {
+        this.facetCounter = counter;
+    }
+
     // Helper to ensure initial data is consistent (lowercased)
     private Set<String> toLowerTrimSet(Set<String> inputSet) {
         Set<String> newSet = new HashSet<>();
@@ -150,6 +163,7 @@ public class OutfitFilterBottomSheet extends BottomSheetDialogFragment {
                     // Ensure styles from sub-sheet are lowercased and trimmed before adding
                     selectedStyles.addAll(toLowerTrimSet(styles));
                     updateStyleTextView(); // Update after returning from sub-sheet
+                    refreshCounts();
                 });
                 if (getParentFragmentManager() != null) {
                     styleSheet.show(getParentFragmentManager(), "StyleBottomSheet");
@@ -176,6 +190,8 @@ public class OutfitFilterBottomSheet extends BottomSheetDialogFragment {
             dismiss();
         });
 
+        refreshCounts();
+
         // --- Toggle visibility for search section ---
         ImageButton btnSearchIcon = view.findViewById(R.id.btnSearch);
 
@@ -221,6 +237,7 @@ public class OutfitFilterBottomSheet extends BottomSheetDialogFragment {
 
             // Convert button text to lowercase for the filter key (e.g., "El Niño" -> "el niño")
             final String key = btn.getText().toString().trim().toLowerCase();
+            facetChips.add(fieldOf(selectedSet), btn);
 
             updateCategoryButtonUI(btn, selectedSet.contains(key));
             btn.setOnClickListener(v -> {
@@ -232,10 +249,30 @@ public class OutfitFilterBottomSheet extends BottomSheetDialogFragment {
                 if (textViewToUpdate != null) {
                     updateStyleTextView();
                 }
+                refreshCounts();
             });
         }
     }
 
+    // Same tag fields OutfitSuggestionActivity filters on
+    private String fieldOf(Set<String> selectedSet) {
+        if (selectedSet == selectedCategories) return "category";
+        if (selectedSet == selectedEvents) return "event";
+        if (selectedSet == selectedSeasons) return "season";
+        return "style";
+    }
+
+    // Recount every chip against the current selection (in the background)
+    private void refreshCounts() {
+        if (facetCounter == null) return;
+        TagFilter selection = new TagFilter()
+                .anyOf("category", selectedCategories)
+                .anyOf("event", selectedEvents)
+                .anyOf("season", selectedSeasons)
+                .anyOf("style", selectedStyles);
+        facetCounter.count(taskScope, selection, counts -> facetChips.show(counts, selection));
+    }
+
     private void updateCategoryButtonUI(MaterialButton button, boolean selected) {
         if (selected) {
             button.setBackgroundTintList(ContextCompat.getColorStateList(requireContext(), android.R.color.black));
@@ -13,13 +13,16 @@ import com.example.outpick.database.models.Outfit;
 import com.example.outpick.R;
 import com.example.outpick.common.BaseDrawerActivity;
 import com.example.outpick.common.adapters.FavoritesAdapter;
+import com.example.outpick.database.repositories.FavoritesRepository;
 import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.navigation.NavigationView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class FavoritesActivity extends BaseDrawerActivity {
 
@@ -27,10 +30,12 @@ public class FavoritesActivity extends BaseDrawerActivity {
     private ImageView backArrow;
     private SupabaseService supabaseService;
     private OutfitRepository outfitRepository;
+    private FavoritesRepository favoritesRepository;
     private FavoritesAdapter adapter;
 
     // ⭐ CRITICAL: Current User ID (String for Supabase UUID)
     private String currentUserId = "";
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,6 +45,7 @@ public class FavoritesActivity extends BaseDrawerActivity {
         // --- Supabase setup ---
         supabaseService = SupabaseClient.getService();
         outfitRepository = new OutfitRepository(supabaseService);
+        favoritesRepository = FavoritesRepository.getInstance(supabaseService);
 
         // --- Get user ID from SharedPreferences ---
         currentUserId = getSharedPreferences("UserPrefs", MODE_PRIVATE).getString("user_id", "");
@@ -99,12 +105,12 @@ public class FavoritesActivity extends BaseDrawerActivity {
         // Show loading state
         recyclerViewFavorites.setVisibility(View.GONE);
 
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
                 // Get user favorites from Supabase
                 List<Outfit> favoriteOutfits = getUserFavoritesFromSupabase();
 
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     if (adapter == null) {
                         // CRITICAL: The adapter MUST know the user ID to handle the toggle click later
                         adapter = new FavoritesAdapter(FavoritesActivity.this, favoriteOutfits, supabaseService, currentUserId);
@@ -122,41 +128,27 @@ public class FavoritesActivity extends BaseDrawerActivity {
                     }
                 });
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     Toast.makeText(FavoritesActivity.this, "Error loading favorites: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     recyclerViewFavorites.setVisibility(View.GONE);
                 });
             }
-        }).start();
+        });
     }
 
     private List<Outfit> getUserFavoritesFromSupabase() {
         List<Outfit> favoriteOutfits = new ArrayList<>();
 
         try {
-            // Get user's favorite outfit IDs
-            retrofit2.Call<List<com.google.gson.JsonObject>> favoritesCall =
-                    supabaseService.getUserFavorites(currentUserId);
-            retrofit2.Response<List<com.google.gson.JsonObject>> favoritesResponse = favoritesCall.execute();
-
-            if (favoritesResponse.isSuccessful() && favoritesResponse.body() != null) {
-                List<String> favoriteOutfitIds = new ArrayList<>();
-
-                for (com.google.gson.JsonObject favorite : favoritesResponse.body()) {
-                    if (favorite.has("outfit_id")) {
-                        favoriteOutfitIds.add(favorite.get("outfit_id").getAsString());
-                    }
-                }
-
-                // Get full outfit details for each favorite
-                if (!favoriteOutfitIds.isEmpty()) {
-                    List<Outfit> allOutfits = outfitRepository.getAllOutfits();
-                    for (Outfit outfit : allOutfits) {
-                        if (favoriteOutfitIds.contains(outfit.getId())) {
-                            outfit.setFavorite(true); // Mark as favorite
-                            favoriteOutfits.add(outfit);
-                        }
-                    }
+            // Favorite IDs come from the shared store (one request the first time, none after)
+            favoritesRepository.ensureLoaded(currentUserId);
+            Set<String> favoriteOutfitIds = favoritesRepository.getFavoriteIds();
+
+            // Fetch only the favorited outfits instead of scanning the whole table
+            if (!favoriteOutfitIds.isEmpty()) {
+                for (Outfit outfit : outfitRepository.getOutfitsByIds(favoriteOutfitIds)) {
+                    outfit.setFavorite(true); // Mark as favorite
+                    favoriteOutfits.add(outfit);
                 }
             }
         } catch (Exception e) {
@@ -165,4 +157,4 @@ public class FavoritesActivity extends BaseDrawerActivity {
 
         return favoriteOutfits;
     }
-}
\ No newline at end of file
+}
@@ -24,23 +24,31 @@ import com.example.outpick.dialogs.CustomizeBottomSheet;
 import com.example.outpick.MainActivity;
 import com.example.outpick.common.adapters.ClosetListAdapter;
 import com.example.outpick.common.adapters.OutfitPathAdapter;
+import com.example.outpick.database.repositories.ClosetRepository;
 import com.example.outpick.database.repositories.ClosetSnapshotRepository;
 import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.repositories.UserOutfitRepository;
+import com.example.outpick.database.supabase.BulkResult;
 import com.example.outpick.database.supabase.SupabaseClient;
+import com.example.outpick.database.supabase.SupabaseJson;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.AppLog;
+import com.example.outpick.utils.GridWarmup;
 import com.example.outpick.utils.ImageUploader;
+import com.example.outpick.utils.Pager;
+import com.example.outpick.utils.PagingScrollListener;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
-import retrofit2.Call;
-import retrofit2.Response;
+import java.util.concurrent.CompletableFuture;
 
 public class OutfitCombinationActivity extends AppCompatActivity
         implements CustomizeBottomSheet.OnFiltersAppliedListener {
@@ -50,6 +58,8 @@ public class OutfitCombinationActivity extends AppCompatActivity
 
     private RecyclerView recyclerView;
     private OutfitPathAdapter adapter;
+    private Pager<ClosetContentItem> pager;
+    private PagingScrollListener pagingScrollListener;
 
     private String username = "Guest";
     private View bottomBar;
@@ -59,17 +69,18 @@ public class OutfitCombinationActivity extends AppCompatActivity
     private boolean isInMultiSelectMode = false;
 
     private List<ClosetContentItem> outfitItems = new ArrayList<>();
-    private List<ClosetContentItem> filteredItems = new ArrayList<>();
     private SupabaseService supabaseService;
     private OutfitRepository outfitRepository;
     private UserOutfitRepository userOutfitRepository;
     private ClosetSnapshotRepository closetSnapshotRepository;
+    private ClosetRepository closetRepository;
     private ImageUploader imageUploader;
     private String currentUserId;
 
     private Set<String> selectedCategories = new HashSet<>();
     private Set<String> selectedSeasons = new HashSet<>();
     private Set<String> selectedStyles = new HashSet<>();
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -81,6 +92,7 @@ public class OutfitCombinationActivity extends AppCompatActivity
         outfitRepository = new OutfitRepository(supabaseService);
         userOutfitRepository = new UserOutfitRepository(supabaseService, outfitRepository);
         closetSnapshotRepository = new ClosetSnapshotRepository(supabaseService);
+        closetRepository = new ClosetRepository(supabaseService);
         imageUploader = new ImageUploader(this);
 
         // ✅ GET CURRENT USER ID
@@ -104,8 +116,14 @@ public class OutfitCombinationActivity extends AppCompatActivity
         recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
 
         // ✅ Initialize adapter BEFORE loading data
-        adapter = new OutfitPathAdapter(this, filteredItems);
+        adapter = new OutfitPathAdapter(this, new ArrayList<>());
         recyclerView.setAdapter(adapter);
+        // ✅ Outfit cards inflate in idle time while the first page loads
+        GridWarmup.prepare(recyclerView, taskScope);
+
+        pager = new Pager<>(taskScope, this::onOutfitPageLoaded);
+        pagingScrollListener = new PagingScrollListener(pager);
+        recyclerView.addOnScrollListener(pagingScrollListener);
 
         // Load outfits for CURRENT USER only
         loadOutfitsForCurrentUser();
@@ -136,26 +154,18 @@ public class OutfitCombinationActivity extends AppCompatActivity
 
         // Delete selected outfits
         btnDeleteSelected.setOnClickListener(v -> {
-            Set<Integer> selected = adapter.getSelectedItems();
-            if (selected.isEmpty()) {
+            List<ClosetContentItem> toDelete = adapter.getSelectedItems();
+            if (toDelete.isEmpty()) {
                 Toast.makeText(this, "No items selected to delete", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            List<ClosetContentItem> toDelete = new ArrayList<>();
-            for (int pos : selected) {
-                if (pos >= 0 && pos < filteredItems.size()) {
-                    toDelete.add(filteredItems.get(pos));
-                }
-            }
-
             deleteOutfitsFromSupabase(toDelete);
         });
 
         // More options (when multiple items selected)
         btnMoreSelected.setOnClickListener(v -> {
-            Set<Integer> selected = adapter.getSelectedItems();
-            if (selected.isEmpty()) {
+            if (adapter.getSelectedItems().isEmpty()) {
                 Toast.makeText(this, "No items selected for this action", Toast.LENGTH_SHORT).show();
                 return;
             }
@@ -177,119 +187,93 @@ public class OutfitCombinationActivity extends AppCompatActivity
         return userId;
     }
 
-    // ✅ UPDATED: LOAD OUTFITS FOR CURRENT USER
+    // ✅ UPDATED: LOAD OUTFITS FOR CURRENT USER - one page at a time
     private void loadOutfitsForCurrentUser() {
         if (currentUserId == null) {
             Toast.makeText(this, "Please log in to view your outfits", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        new Thread(() -> {
-            try {
-                List<Outfit> outfits = userOutfitRepository.getOutfitsForUser(currentUserId);
-
-                Log.d(TAG, "Loaded " + outfits.size() + " outfits for user: " + currentUserId);
-
-                // ✅ CONVERT Outfit objects to ClosetContentItem objects
-                outfitItems.clear();
-                for (Outfit outfit : outfits) {
-                    // ✅ ADDED: Only show user's own outfits (not suggestions)
-                    if (!outfit.isSuggestion()) {
-                        ClosetContentItem item = new ClosetContentItem();
-                        item.setType(ClosetContentItem.ItemType.SNAPSHOT);
-                        item.setSnapshotPath(outfit.getImageUri());
-                        item.setName(outfit.getName());
-                        item.setCategory(outfit.getCategory());
-                        item.setSeason(outfit.getSeason());
-                        item.setStyle(outfit.getStyle());
-                        outfitItems.add(item);
-
-                        Log.d(TAG, "Converted user outfit: " + outfit.getName() + " - " + outfit.getImageUri());
-                    }
-                }
-
-                runOnUiThread(() -> {
-                    filteredItems.clear();
-                    filteredItems.addAll(outfitItems);
-                    adapter.notifyDataSetChanged();
-
-                    if (outfitItems.isEmpty()) {
-                        Toast.makeText(this, "No outfits found. Create some outfits first!", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(this, "Loaded " + outfitItems.size() + " of your outfits", Toast.LENGTH_SHORT).show();
-                    }
-                });
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading user outfits: " + e.getMessage());
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Error loading outfits: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+        // ✅ ADDED: Only the user's own outfits (not suggestions), filtered on the server
+        pager.reset((from, to) -> {
+            List<ClosetContentItem> page = new ArrayList<>();
+            for (Outfit outfit : userOutfitRepository.getOutfitPageForUser(currentUserId, false, from, to)) {
+                page.add(toContentItem(outfit));
             }
-        }).start();
+            return page;
+        });
     }
 
-    // ✅ LOAD USER CLOSETS FROM SUPABASE
-    private List<ClosetItem> loadUserClosetsFromSupabase() {
-        List<ClosetItem> userClosets = new ArrayList<>();
-
-        try {
-            Call<List<JsonObject>> call = supabaseService.getClosets();
-            Response<List<JsonObject>> response = call.execute();
-
-            if (response.isSuccessful() && response.body() != null) {
-                for (JsonObject jsonObject : response.body()) {
-                    // Filter by current user
-                    String userId = jsonObject.has("user_id") && !jsonObject.get("user_id").isJsonNull()
-                            ? jsonObject.get("user_id").getAsString() : "";
-
-                    if (currentUserId.equals(userId)) {
-                        ClosetItem closet = new ClosetItem(
-                                jsonObject.get("id").getAsString(),
-                                jsonObject.get("name").getAsString(),
-                                "",
-                                jsonObject.get("image_uri").getAsString(),
-                                ""
-                        );
-                        userClosets.add(closet);
-                        Log.d(TAG, "Found user closet: " + closet.getName() + " - ID: " + closet.getId());
-                    }
-                }
+    private void onOutfitPageLoaded(List<ClosetContentItem> page, boolean firstPage) {
+        if (firstPage) {
+            outfitItems.clear();
+        }
+        outfitItems.addAll(page);
+        Log.d(TAG, "Loaded " + page.size() + " outfits for user: " + currentUserId);
+
+        List<ClosetContentItem> visible = applyFilters(page);
+        if (firstPage) {
+            adapter.replaceItems(visible);
+            if (outfitItems.isEmpty()) {
+                Toast.makeText(this, "No outfits found. Create some outfits first!", Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading user closets: " + e.getMessage());
+        } else {
+            adapter.appendItems(visible);
         }
 
-        Log.d(TAG, "Total user closets found: " + userClosets.size());
-        return userClosets;
+        // Filters may hide most of a page - keep loading until the screen fills
+        recyclerView.post(() -> pagingScrollListener.maybeLoadMore(recyclerView));
     }
 
-    // ✅ ADD OUTFITS TO CLOSET
-    private void addOutfitsToCloset(Set<Integer> selectedPositions, String closetId, String closetName) {
-        new Thread(() -> {
-            int addedCount = 0;
-
-            for (int position : selectedPositions) {
-                if (position >= 0 && position < filteredItems.size()) {
-                    ClosetContentItem outfit = filteredItems.get(position);
-                    String snapshotPath = outfit.getSnapshotPath(); // This is the outfit image URL
-
-                    boolean success = closetSnapshotRepository.addOutfitToCloset(closetId, snapshotPath);
-                    if (success) {
-                        addedCount++;
-                        Log.d(TAG, "✅ Added outfit to closet: " + outfit.getName() + " -> " + closetName);
-                    } else {
-                        Log.e(TAG, "❌ Failed to add outfit to closet: " + outfit.getName());
+    // ✅ CONVERT Outfit objects to ClosetContentItem objects
+    private ClosetContentItem toContentItem(Outfit outfit) {
+        ClosetContentItem item = new ClosetContentItem();
+        item.setType(ClosetContentItem.ItemType.SNAPSHOT);
+        item.setClothingId(outfit.getId()); // outfit ID, used for bulk deletes
+        item.setSnapshotPath(outfit.getImageUri());
+        item.setName(outfit.getName());
+        item.setCategory(outfit.getCategory());
+        item.setSeason(outfit.getSeason());
+        item.setStyle(outfit.getStyle());
+        return item;
+    }
+
+    // ✅ LOAD USER CLOSETS FROM SUPABASE - off the UI thread
+    private CompletableFuture<List<ClosetItem>> loadUserClosetsFromSupabase() {
+        // ✅ Server-side user filter, served from the local mirror when offline
+        return closetRepository.getClosetsForUserAsync(taskScope, currentUserId)
+                .thenApply(rows -> {
+                    List<ClosetItem> userClosets = new ArrayList<>();
+                    AppLog.Sampler rowLog = AppLog.sample(25);
+                    for (JsonObject jsonObject : rows) {
+                        ClosetItem closet = SupabaseJson.fromRow(jsonObject, ClosetItem.class);
+                        userClosets.add(closet);
+                        if (rowLog.next()) {
+                            Log.d(TAG, "Found user closet: " + closet.getName() + " - ID: " + closet.getId());
+                        }
                     }
-                }
+                    AppLog.d(TAG, () -> "Total user closets found: " + userClosets.size());
+                    return userClosets;
+                });
+    }
+
+    // ✅ ADD OUTFITS TO CLOSET
+    private void addOutfitsToCloset(List<ClosetContentItem> selectedOutfits, String closetId, String closetName) {
+        taskScope.launchToCompletion(() -> {
+            List<String> snapshotPaths = new ArrayList<>();
+            for (ClosetContentItem outfit : selectedOutfits) {
+                snapshotPaths.add(outfit.getSnapshotPath()); // outfit image URL
             }
 
-            final int finalCount = addedCount;
-            runOnUiThread(() -> {
+            // ✅ Queued in the outbox - sent as one array-body insert and retried until Supabase has it
+            final int finalCount = closetSnapshotRepository.addOutfitsToCloset(closetId, snapshotPaths);
+            Log.d(TAG, "✅ Queued " + finalCount + " outfit(s) for closet " + closetName);
+
+            taskScope.post(() -> {
                 exitMultiSelectMode();
                 if (finalCount > 0) {
                     Toast.makeText(this,
-                            "✅ Added " + finalCount + " outfit(s) to " + closetName,
+                            "✅ Saving " + finalCount + " outfit(s) to " + closetName,
                             Toast.LENGTH_SHORT).show();
                 } else {
                     Toast.makeText(this,
@@ -297,11 +281,18 @@ public class OutfitCombinationActivity extends AppCompatActivity
                             Toast.LENGTH_SHORT).show();
                 }
             });
-        }).start();
+        });
     }
 
-    // ✅ UPDATED: SHOW ADD CLOSET BOTTOM SHEET
+    // ✅ UPDATED: SHOW ADD CLOSET BOTTOM SHEET once the user's closets are loaded
     private void showAddClosetBottomSheet() {
+        taskScope.deliver(loadUserClosetsFromSupabase(), this::showAddClosetBottomSheet, e -> {
+            Log.e(TAG, "Error loading user closets: " + e.getMessage());
+            Toast.makeText(this, "Failed to load closets", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    private void showAddClosetBottomSheet(List<ClosetItem> userClosets) {
         BottomSheetDialog addDialog = new BottomSheetDialog(this);
         View addView = getLayoutInflater().inflate(R.layout.bottom_sheet_add_closet, null);
         addDialog.setContentView(addView);
@@ -309,8 +300,6 @@ public class OutfitCombinationActivity extends AppCompatActivity
         RecyclerView closetRecycler = addView.findViewById(R.id.bottomClosetRecyclerView);
         Button btnAddSelectedItems = addView.findViewById(R.id.btn_add_selected_items);
 
-        // ✅ LOAD ACTUAL USER CLOSETS FROM SUPABASE
-        List<ClosetItem> userClosets = loadUserClosetsFromSupabase();
         List<String> closetNames = new ArrayList<>();
         List<String> closetIds = new ArrayList<>();
 
@@ -336,8 +325,8 @@ public class OutfitCombinationActivity extends AppCompatActivity
                 return;
             }
 
-            Set<Integer> selectedOutfitPositions = adapter.getSelectedItems();
-            if (selectedOutfitPositions.isEmpty()) {
+            List<ClosetContentItem> selectedOutfits = adapter.getSelectedItems();
+            if (selectedOutfits.isEmpty()) {
                 Toast.makeText(this, "No outfits selected", Toast.LENGTH_SHORT).show();
                 return;
             }
@@ -346,7 +335,7 @@ public class OutfitCombinationActivity extends AppCompatActivity
             String selectedClosetName = closetNames.get(selectedPosition);
 
             // ✅ ADD SELECTED OUTFITS TO CLOSET
-            addOutfitsToCloset(selectedOutfitPositions, selectedClosetId, selectedClosetName);
+            addOutfitsToCloset(selectedOutfits, selectedClosetId, selectedClosetName);
 
             addDialog.dismiss();
         });
@@ -374,9 +363,8 @@ public class OutfitCombinationActivity extends AppCompatActivity
 
             // Add to lists
             outfitItems.add(0, newItem);
-            filteredItems.add(0, newItem);
-            adapter.notifyItemInserted(0);
-            recyclerView.scrollToPosition(0);
+            adapter.addFirst(newItem, () -> recyclerView.scrollToPosition(0));
+            if (pager.getLoadedCount() > 0) pager.onItemsInserted(1);
 
             getIntent().removeExtra("cloud_image_url");
             Toast.makeText(this, "New outfit added!", Toast.LENGTH_SHORT).show();
@@ -403,9 +391,8 @@ public class OutfitCombinationActivity extends AppCompatActivity
                     newItem.setStyle(style != null ? style : "Casual");
 
                     outfitItems.add(0, newItem);
-                    filteredItems.add(0, newItem);
-                    adapter.notifyItemInserted(0);
-                    recyclerView.scrollToPosition(0);
+                    adapter.addFirst(newItem, () -> recyclerView.scrollToPosition(0));
+                    if (pager.getLoadedCount() > 0) pager.onItemsInserted(1);
 
                     Toast.makeText(OutfitCombinationActivity.this, "Outfit saved to cloud!", Toast.LENGTH_SHORT).show();
                 });
@@ -422,8 +409,9 @@ public class OutfitCombinationActivity extends AppCompatActivity
     }
 
     private void saveOutfitToSupabase(String imageUrl, String name, String event, String season, String style) {
-        new Thread(() -> {
-            boolean outfitAdded = outfitRepository.addOutfit(
+        taskScope.launchToCompletion(() -> {
+            Outfit draft = new Outfit(
+                    null,
                     imageUrl,
                     name != null ? name : "New Outfit",
                     "General",
@@ -433,83 +421,82 @@ public class OutfitCombinationActivity extends AppCompatActivity
                     season != null ? season : "All-Season",
                     style != null ? style : "Casual"
             );
+            // Insert returns the new row, so the assignment uses its ID directly
+            UserOutfitRepository.CreatedOutfit result =
+                    userOutfitRepository.createOutfitForUser(draft, currentUserId, "self", null);
+            boolean outfitAdded = result.outfit != null;
 
             if (outfitAdded && currentUserId != null) {
-                List<Outfit> allOutfits = outfitRepository.getAllOutfits();
-                String newOutfitId = null;
-
-                for (Outfit outfit : allOutfits) {
-                    if (outfit.getImageUri().equals(imageUrl)) {
-                        newOutfitId = outfit.getId();
-                        break;
-                    }
-                }
-
-                if (newOutfitId != null) {
-                    boolean assigned = userOutfitRepository.assignOutfitToUser(
-                            newOutfitId,
-                            currentUserId,
-                            "self"
-                    );
-
-                    if (assigned) {
-                        Log.d(TAG, "Outfit successfully assigned to user: " + newOutfitId);
-                    } else {
-                        Log.e(TAG, "Failed to assign outfit to user");
-                    }
+                if (result.assigned) {
+                    Log.d(TAG, "Outfit successfully assigned to user: " + result.outfit.getId());
                 } else {
-                    Log.e(TAG, "Could not find newly created outfit ID");
+                    Log.e(TAG, "Failed to assign outfit to user");
                 }
             }
 
-            runOnUiThread(() -> {
+            taskScope.post(() -> {
                 if (!outfitAdded) {
                     Toast.makeText(this, "Failed to save outfit to database", Toast.LENGTH_SHORT).show();
                 } else {
                     Toast.makeText(this, "Outfit saved successfully!", Toast.LENGTH_SHORT).show();
                 }
             });
-        }).start();
+        });
     }
 
     private void deleteOutfitsFromSupabase(List<ClosetContentItem> itemsToDelete) {
-        new Thread(() -> {
-            int deletedCount = 0;
-
-            for (ClosetContentItem item : itemsToDelete) {
-                boolean success = deleteOutfitByImageUrl(item.getSnapshotPath());
-                if (success) {
-                    deletedCount++;
-                    outfitItems.remove(item);
-                    filteredItems.remove(item);
+        taskScope.launchToCompletion(() -> {
+            List<ClosetContentItem> deleted = new ArrayList<>();
+            try {
+                Map<ClosetContentItem, String> outfitIds = resolveOutfitIds(itemsToDelete);
+
+                // ✅ Assignments + outfits removed with id=in.(...) deletes - two requests, not two per outfit
+                BulkResult<String> result = userOutfitRepository.deleteOutfitsForUser(currentUserId, outfitIds.values());
+                for (Map.Entry<ClosetContentItem, String> entry : outfitIds.entrySet()) {
+                    if (result.isSucceeded(entry.getValue())) {
+                        deleted.add(entry.getKey());
+                    }
                 }
+            } catch (Exception e) {
+                Log.e(TAG, "Error deleting outfits: " + e.getMessage());
             }
 
-            final int finalCount = deletedCount;
-            runOnUiThread(() -> {
+            final int finalCount = deleted.size();
+            taskScope.post(() -> {
+                outfitItems.removeAll(deleted);
+                adapter.removeItems(deleted);
+                pager.onItemsRemoved(finalCount);
                 exitMultiSelectMode();
-                adapter.notifyDataSetChanged();
                 Toast.makeText(this, finalCount + " outfit(s) deleted.", Toast.LENGTH_SHORT).show();
             });
-        }).start();
+        });
     }
 
-    private boolean deleteOutfitByImageUrl(String imageUrl) {
-        try {
-            List<Outfit> allOutfits = outfitRepository.getAllOutfits();
-            for (Outfit outfit : allOutfits) {
-                if (outfit.getImageUri().equals(imageUrl)) {
-                    if (currentUserId != null) {
-                        userOutfitRepository.removeOutfitFromUser(outfit.getId(), currentUserId);
-                    }
-                    return outfitRepository.deleteOutfit(outfit.getId());
+    /**
+     * Outfit ID for each item. Items saved in this session only know their image URL,
+     * so those are looked up together in one image_uri=in.(...) request.
+     */
+    private Map<ClosetContentItem, String> resolveOutfitIds(List<ClosetContentItem> items) {
+        Map<ClosetContentItem, String> outfitIds = new LinkedHashMap<>();
+        List<String> unknownUris = new ArrayList<>();
+        for (ClosetContentItem item : items) {
+            if (item.getClothingId() != null && !item.getClothingId().isEmpty()) {
+                outfitIds.put(item, item.getClothingId());
+            } else if (item.getSnapshotPath() != null) {
+                unknownUris.add(item.getSnapshotPath());
+            }
+        }
+
+        if (!unknownUris.isEmpty()) {
+            Map<String, String> idsByUri = outfitRepository.getOutfitIdsByImageUris(unknownUris);
+            for (ClosetContentItem item : items) {
+                String id = idsByUri.get(item.getSnapshotPath());
+                if (id != null && !outfitIds.containsKey(item)) {
+                    outfitIds.put(item, id);
                 }
             }
-            return false;
-        } catch (Exception e) {
-            Log.e(TAG, "Error deleting outfit: " + e.getMessage());
-            return false;
         }
+        return outfitIds;
     }
 
     private void showBottomOptionsDialog() {
@@ -575,48 +562,51 @@ public class OutfitCombinationActivity extends AppCompatActivity
         if (seasons != null) selectedSeasons.addAll(seasons);
         if (styles != null) selectedStyles.addAll(styles);
 
-        filteredItems.clear();
+        adapter.replaceItems(applyFilters(outfitItems));
+        recyclerView.post(() -> pagingScrollListener.maybeLoadMore(recyclerView));
+    }
 
+    private List<ClosetContentItem> applyFilters(List<ClosetContentItem> source) {
         if (selectedCategories.isEmpty() && selectedSeasons.isEmpty() && selectedStyles.isEmpty()) {
-            filteredItems.addAll(outfitItems);
-        } else {
-            for (ClosetContentItem item : outfitItems) {
-                boolean matches = false;
-
-                if (!selectedCategories.isEmpty() && item.getCategory() != null) {
-                    for (String category : selectedCategories) {
-                        if (item.getCategory().toLowerCase().contains(category.toLowerCase())) {
-                            matches = true;
-                            break;
-                        }
+            return new ArrayList<>(source);
+        }
+
+        List<ClosetContentItem> filtered = new ArrayList<>();
+        for (ClosetContentItem item : source) {
+            boolean matches = false;
+
+            if (!selectedCategories.isEmpty() && item.getCategory() != null) {
+                for (String category : selectedCategories) {
+                    if (item.getCategory().toLowerCase().contains(category.toLowerCase())) {
+                        matches = true;
+                        break;
                     }
                 }
+            }
 
-                if (!matches && !selectedSeasons.isEmpty() && item.getSeason() != null) {
-                    for (String season : selectedSeasons) {
-                        if (item.getSeason().toLowerCase().contains(season.toLowerCase())) {
-                            matches = true;
-                            break;
-                        }
+            if (!matches && !selectedSeasons.isEmpty() && item.getSeason() != null) {
+                for (String season : selectedSeasons) {
+                    if (item.getSeason().toLowerCase().contains(season.toLowerCase())) {
+                        matches = true;
+                        break;
                     }
                 }
+            }
 
-                if (!matches && !selectedStyles.isEmpty() && item.getStyle() != null) {
-                    for (String style : selectedStyles) {
-                        if (item.getStyle().toLowerCase().contains(style.toLowerCase())) {
-                            matches = true;
-                            break;
-                        }
+            if (!matches && !selectedStyles.isEmpty() && item.getStyle() != null) {
+                for (String style : selectedStyles) {
+                    if (item.getStyle().toLowerCase().contains(style.toLowerCase())) {
+                        matches = true;
+                        break;
                     }
                 }
+            }
 
-                if (matches) {
-                    filteredItems.add(item);
-                }
+            if (matches) {
+                filtered.add(item);
             }
         }
-
-        adapter.notifyDataSetChanged();
+        return filtered;
     }
 
     public void startSnapshotDetailsForResult(Intent intent, int position) {
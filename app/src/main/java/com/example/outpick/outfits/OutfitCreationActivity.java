@@ -30,6 +30,7 @@ import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.utils.ImageUploader;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.button.MaterialButton;
 import com.google.gson.JsonObject;
 
@@ -70,6 +71,7 @@ public class OutfitCreationActivity extends AppCompatActivity {
     private List<ClothingItem> userClothingItems = new ArrayList<>();
     private LinearLayout closetBrowserLayout;
     private TextView closetTitle;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -225,12 +227,12 @@ public class OutfitCreationActivity extends AppCompatActivity {
         // Show loading
         closetTitle.setText("Loading your clothes...");
 
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
                 // ✅ USE THE SAME METHOD AS YourClothesActivity
                 List<ClothingItem> items = clothingRepository.getClothingByUserId(currentUserId);
 
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     if (items != null && !items.isEmpty()) {
                         userClothingItems.clear();
                         userClothingItems.addAll(items);
@@ -252,13 +254,13 @@ public class OutfitCreationActivity extends AppCompatActivity {
 
             } catch (Exception e) {
                 Log.e(TAG, "❌ Error loading clothes: " + e.getMessage());
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     closetTitle.setText("My Clothes (Error)");
                     Toast.makeText(OutfitCreationActivity.this,
                             "Error loading clothes: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
             }
-        }).start();
+        });
     }
 
     /**
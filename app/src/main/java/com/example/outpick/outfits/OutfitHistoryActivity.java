@@ -15,15 +15,17 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 
 import com.example.outpick.database.models.OutfitHistoryItem;
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
 import com.example.outpick.dialogs.FilterHistoryBottomSheet;
 import com.example.outpick.R;
 import com.example.outpick.common.SuggestionPreviewImageActivity;
 import com.example.outpick.common.BaseDrawerActivity;
+import com.example.outpick.utils.FacetCounter;
+import com.example.outpick.utils.TagIndex;
 import com.google.android.material.navigation.NavigationView;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -52,6 +54,9 @@ public class OutfitHistoryActivity extends BaseDrawerActivity
     private Set<String> lastSelectedSeasons = null;
     private String lastSelectedGender = null;
 
+    // ✅ History is loaded once; filter changes are answered from its tag index
+    private TagIndex<OutfitHistoryItem> historyIndex;
+
     // Define the number of columns being DISPLAYED in the TableLayout
     private static final int DISPLAY_COLUMN_COUNT = 4; // Outfit Name, Event, Date, Action (Category is hidden)
 
@@ -97,6 +102,14 @@ public class OutfitHistoryActivity extends BaseDrawerActivity
                     lastSelectedEvents,
                     lastSelectedSeasons
             );
+            if (historyIndex != null) {
+                // Chip counts over the loaded history (within the gender filter, which the sheet doesn't show)
+                List<OutfitHistoryItem> scope = historyIndex.select(new TagFilter().anyOf("gender", lastSelectedGender));
+                bottomSheet.setFacetCounter(FacetCounter.of(scope, () -> new TagIndex<OutfitHistoryItem>()
+                        .field("category", OutfitHistoryItem::getCategory)
+                        .field("event", OutfitHistoryItem::getEvent)
+                        .field("season", OutfitHistoryItem::getSeason)));
+            }
             bottomSheet.show(getSupportFragmentManager(), "FilterHistoryBottomSheet");
         });
 
@@ -154,6 +167,11 @@ public class OutfitHistoryActivity extends BaseDrawerActivity
 
         if (tableLayoutHistory == null) return;
 
+        if (historyIndex != null) {
+            displayHistoryItems(applyLocalFilters(searchQuery, selectedStyles, selectedEvents, selectedSeasons, selectedGender));
+            return;
+        }
+
         // Clear previous rows (keeping the header row at index 0)
         if (tableLayoutHistory.getChildCount() > 1) {
             tableLayoutHistory.removeViews(1, tableLayoutHistory.getChildCount() - 1);
@@ -173,16 +191,23 @@ public class OutfitHistoryActivity extends BaseDrawerActivity
                                          String selectedGender) {
 
         // Build the Supabase query - get history for current user
-        Call<List<JsonObject>> call = supabaseService.getOutfitHistory();
+        // ✅ Rows are decoded straight into OutfitHistoryItem as the response streams in
+        Call<List<OutfitHistoryItem>> call = PostgrestQuery.from("outfit_history")
+                .executeAs(supabaseService::readOutfitHistory);
 
-        call.enqueue(new Callback<List<JsonObject>>() {
+        call.enqueue(new Callback<List<OutfitHistoryItem>>() {
             @Override
-            public void onResponse(@NonNull Call<List<JsonObject>> call, @NonNull Response<List<JsonObject>> response) {
+            public void onResponse(@NonNull Call<List<OutfitHistoryItem>> call, @NonNull Response<List<OutfitHistoryItem>> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    List<OutfitHistoryItem> historyItems = parseHistoryItems(response.body());
-                    // Apply local filtering since Supabase query is simple
+                    // Tokenize every item's tags once; later filter changes never re-read them
+                    historyIndex = new TagIndex<OutfitHistoryItem>()
+                            .field("category", OutfitHistoryItem::getCategory)
+                            .field("event", OutfitHistoryItem::getEvent)
+                            .field("season", OutfitHistoryItem::getSeason)
+                            .field("gender", OutfitHistoryItem::getGender);
+                    historyIndex.addAll(response.body());
                     List<OutfitHistoryItem> filteredItems = applyLocalFilters(
-                            historyItems, searchQuery, selectedStyles, selectedEvents, selectedSeasons, selectedGender
+                            searchQuery, selectedStyles, selectedEvents, selectedSeasons, selectedGender
                     );
                     displayHistoryItems(filteredItems);
                 } else {
@@ -193,7 +218,7 @@ public class OutfitHistoryActivity extends BaseDrawerActivity
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<JsonObject>> call, @NonNull Throwable t) {
+            public void onFailure(@NonNull Call<List<OutfitHistoryItem>> call, @NonNull Throwable t) {
                 Log.e(TAG, "Network error: " + t.getMessage());
                 Toast.makeText(OutfitHistoryActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
                 displayEmptyState();
@@ -201,86 +226,30 @@ public class OutfitHistoryActivity extends BaseDrawerActivity
         });
     }
 
-    private List<OutfitHistoryItem> parseHistoryItems(List<JsonObject> jsonObjects) {
-        List<OutfitHistoryItem> historyItems = new ArrayList<>();
-        Gson gson = new Gson();
-
-        for (JsonObject jsonObject : jsonObjects) {
-            try {
-                OutfitHistoryItem history = gson.fromJson(jsonObject, OutfitHistoryItem.class);
-                // Only include items for current user
-                historyItems.add(history);
-            } catch (Exception e) {
-                Log.e(TAG, "Error parsing history item: " + e.getMessage());
-            }
-        }
-
-        return historyItems;
-    }
-
-    private List<OutfitHistoryItem> applyLocalFilters(List<OutfitHistoryItem> allItems,
-                                                      String searchQuery,
+    // ✅ Tags come from the index built when the history loaded; only the name search scans items
+    private List<OutfitHistoryItem> applyLocalFilters(String searchQuery,
                                                       Set<String> selectedStyles,
                                                       Set<String> selectedEvents,
                                                       Set<String> selectedSeasons,
                                                       String selectedGender) {
-
+        TagFilter tags = new TagFilter()
+                .anyOf("category", selectedStyles)
+                .anyOf("event", selectedEvents)
+                .anyOf("season", selectedSeasons)
+                .anyOf("gender", selectedGender);
+        List<OutfitHistoryItem> candidates = historyIndex.select(tags);
+
+        if (searchQuery == null || searchQuery.trim().isEmpty()) {
+            return candidates;
+        }
+        String query = searchQuery.toLowerCase().trim();
         List<OutfitHistoryItem> filtered = new ArrayList<>();
-
-        for (OutfitHistoryItem item : allItems) {
-            boolean matches = true;
-
-            // Text search
-            if (searchQuery != null && !searchQuery.trim().isEmpty()) {
-                String query = searchQuery.toLowerCase().trim();
-                String outfitName = item.getOutfitName() != null ? item.getOutfitName().toLowerCase() : "";
-                if (!outfitName.contains(query)) {
-                    matches = false;
-                    continue;
-                }
-            }
-
-            // Style filter
-            if (selectedStyles != null && !selectedStyles.isEmpty()) {
-                String itemStyle = item.getCategory() != null ? item.getCategory() : "";
-                if (!selectedStyles.contains(itemStyle)) {
-                    matches = false;
-                    continue;
-                }
-            }
-
-            // Event filter
-            if (selectedEvents != null && !selectedEvents.isEmpty()) {
-                String itemEvent = item.getEvent() != null ? item.getEvent() : "";
-                if (!selectedEvents.contains(itemEvent)) {
-                    matches = false;
-                    continue;
-                }
-            }
-
-            // Season filter
-            if (selectedSeasons != null && !selectedSeasons.isEmpty()) {
-                String itemSeason = item.getSeason() != null ? item.getSeason() : "";
-                if (!selectedSeasons.contains(itemSeason)) {
-                    matches = false;
-                    continue;
-                }
-            }
-
-            // Gender filter
-            if (selectedGender != null && !selectedGender.isEmpty()) {
-                String itemGender = item.getGender() != null ? item.getGender() : "";
-                if (!selectedGender.equalsIgnoreCase(itemGender)) {
-                    matches = false;
-                    continue;
-                }
-            }
-
-            if (matches) {
+        for (OutfitHistoryItem item : candidates) {
+            String outfitName = item.getOutfitName() != null ? item.getOutfitName().toLowerCase() : "";
+            if (outfitName.contains(query)) {
                 filtered.add(item);
             }
         }
-
         return filtered;
     }
 
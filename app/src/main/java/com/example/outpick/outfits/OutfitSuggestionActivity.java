@@ -28,10 +28,14 @@ import com.example.outpick.R;
 import com.example.outpick.common.BaseDrawerActivity;
 import com.example.outpick.common.PreviewImageActivity;
 import com.example.outpick.common.adapters.OutfitSuggestionAdapter;
+import com.example.outpick.database.repositories.FavoritesRepository;
 import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.repositories.UserOutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.SortedView;
+import com.example.outpick.utils.TaskScope;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.gson.JsonObject;
 
@@ -39,15 +43,11 @@ import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class OutfitSuggestionActivity extends BaseDrawerActivity {
 
@@ -66,6 +66,7 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
     private SupabaseService supabaseService;
     private OutfitRepository outfitRepository;
     private UserOutfitRepository userOutfitRepository;
+    private FavoritesRepository favoritesRepository;
 
     // Persistent filter selections
     private Set<String> lastSelectedCategories = new HashSet<>();
@@ -74,6 +75,9 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
     private Set<String> lastSelectedSeasons = new HashSet<>();
     private Set<String> lastSelectedStyles = new HashSet<>();
     private String lastSearchKeyword = "";
+    // Suggested outfits in name order, as last loaded
+    private SortedView<Outfit> sortedSuggestions = new SortedView<>(Outfit.BY_NAME);
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -84,6 +88,7 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
         supabaseService = SupabaseClient.getService();
         outfitRepository = new OutfitRepository(supabaseService);
         userOutfitRepository = new UserOutfitRepository(supabaseService, outfitRepository);
+        favoritesRepository = FavoritesRepository.getInstance(supabaseService);
 
         // --- Get username and User ID ---
         username = getImmutableLoginId();
@@ -195,7 +200,7 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
 
     // ---------------- LOAD OUTFITS FROM SUPABASE ----------------
     private void loadOutfitsFromSupabase() {
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
                 // Get user-specific outfits
                 List<Outfit> userOutfits = new ArrayList<>();
@@ -207,7 +212,7 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
 
                 final List<Outfit> finalUserOutfits = userOutfits; // Create final copy
 
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     if (finalUserOutfits.isEmpty()) {
                         TextView tvNoOutfits = findViewById(R.id.tvNoOutfits);
                         if (tvNoOutfits != null) {
@@ -221,18 +226,18 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
                 });
             } catch (Exception e) {
                 Log.e(TAG, "❌ Error loading outfits: " + e.getMessage());
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     Toast.makeText(OutfitSuggestionActivity.this, "Error loading outfits: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
             }
-        }).start();
+        });
     }
 
     // ---------------- LOAD USER GENDER FROM SUPABASE ----------------
     private void loadUserGenderFromSupabase() {
         if (currentUserId.isEmpty()) return;
 
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
                 retrofit2.Call<List<JsonObject>> call = supabaseService.getUserById(currentUserId);
                 retrofit2.Response<List<JsonObject>> response = call.execute();
@@ -247,30 +252,35 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
             } catch (Exception e) {
                 Log.e(TAG, "Error loading user gender: " + e.getMessage());
             }
-        }).start();
+        });
     }
 
     // ---------------- APPLY FILTERS TO USER-SPECIFIC OUTFITS ----------------
     private void applyLastFiltersInternally() {
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
+                // ✅ Tag filters run on the server, against the outfits' indexed tag arrays
+                TagFilter tags = new TagFilter()
+                        .anyOf("category", lastSelectedCategories)
+                        .anyOf("event", lastSelectedEvents)
+                        .anyOf("season", lastSelectedSeasons)
+                        .anyOf("style", lastSelectedStyles);
+
                 // Get ONLY user-specific outfits
                 List<Outfit> userOutfits = new ArrayList<>();
 
                 if (!currentUserId.isEmpty()) {
-                    userOutfits = userOutfitRepository.getOutfitsForUser(currentUserId);
+                    userOutfits = tags.isEmpty()
+                            ? userOutfitRepository.getOutfitsForUser(currentUserId)
+                            : userOutfitRepository.getSuggestedOutfitsForUser(currentUserId, tags);
                 }
 
-                // Apply filters to user-specific outfits only
-                List<Outfit> filtered = new ArrayList<>();
-
-                Set<String> categories = lastSelectedCategories.stream().map(String::toLowerCase).collect(Collectors.toSet());
-                Set<String> genders = lastSelectedGenders.stream().map(String::toLowerCase).collect(Collectors.toSet());
-                Set<String> events = lastSelectedEvents.stream().map(String::toLowerCase).collect(Collectors.toSet());
-                Set<String> seasons = lastSelectedSeasons.stream().map(String::toLowerCase).collect(Collectors.toSet());
-                Set<String> styles = lastSelectedStyles.stream().map(String::toLowerCase).collect(Collectors.toSet());
+                // Only the keyword is left to check, and it's checked against the sorted list
+                List<Outfit> suggested = new ArrayList<>();
 
-                boolean canCheckFavorites = !currentUserId.isEmpty();
+                // One request for the whole favorite set instead of one per outfit
+                boolean canCheckFavorites = !currentUserId.isEmpty()
+                        && favoritesRepository.ensureLoaded(currentUserId);
 
                 for (Outfit o : userOutfits) {
                     // ✅ ADDED: Only show suggested outfits (from admin)
@@ -279,43 +289,38 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
 
                         // Load favorite status
                         if (canCheckFavorites) {
-                            boolean isFav = isOutfitFavoriteInSupabase(o.getId());
-                            o.setFavorite(isFav);
+                            o.setFavorite(favoritesRepository.isFavorite(o.getId()));
                         } else {
                             o.setFavorite(false);
                         }
 
-                        // Apply general filters
-                        if (filterMatches(o, categories, genders, events, seasons, styles, lastSearchKeyword)) {
-                            filtered.add(o);
-                        }
+                        suggested.add(o);
                     }
                 }
 
-                Collections.sort(filtered, Comparator.comparing(o -> o.getName().toLowerCase()));
+                // ✅ Sorted once here, by collation keys built once per outfit
+                SortedView<Outfit> sorted = new SortedView<>(Outfit.BY_NAME);
+                sorted.replaceAll(suggested);
 
-                Log.d(TAG, "📊 FINAL: Showing " + filtered.size() + " suggested outfits");
-
-                runOnUiThread(() -> updateRecyclerView(filtered));
+                taskScope.post(() -> {
+                    sortedSuggestions = sorted;
+                    showSuggestions();
+                });
 
             } catch (Exception e) {
                 Log.e(TAG, "❌ Error applying filters: " + e.getMessage());
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     Toast.makeText(this, "Error loading outfits: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
             }
-        }).start();
+        });
     }
 
-    private boolean isOutfitFavoriteInSupabase(String outfitId) {
-        try {
-            retrofit2.Call<List<JsonObject>> call = supabaseService.checkFavorite(currentUserId, outfitId);
-            retrofit2.Response<List<JsonObject>> response = call.execute();
-            return response.isSuccessful() && response.body() != null && !response.body().isEmpty();
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking favorite status: " + e.getMessage());
-            return false;
-        }
+    // Keyword changes only filter the sorted list; nothing is re-sorted
+    private void showSuggestions() {
+        List<Outfit> filtered = sortedSuggestions.filter(o -> filterMatches(o, lastSearchKeyword));
+        Log.d(TAG, "📊 FINAL: Showing " + filtered.size() + " suggested outfits");
+        updateRecyclerView(filtered);
     }
 
     // ---------------- RECYCLERVIEW UPDATE ----------------
@@ -419,44 +424,9 @@ public class OutfitSuggestionActivity extends BaseDrawerActivity {
     }
 
     // ---------------- FILTERING LOGIC ----------------
-    private boolean filterMatches(Outfit o, Set<String> categories, Set<String> genders,
-                                  Set<String> events, Set<String> seasons, Set<String> styles,
-                                  String keyword) {
-        if (!keyword.isEmpty() && !o.getName().toLowerCase().contains(keyword.toLowerCase())) {
-            return false;
-        }
-
-        if (!categories.isEmpty() && !isAnyTagMatching(normalizeTags(o.getCategory()), categories)) {
-            return false;
-        }
-        if (!events.isEmpty() && !isAnyTagMatching(normalizeTags(o.getEvent()), events)) {
-            return false;
-        }
-        if (!seasons.isEmpty() && !isAnyTagMatching(normalizeTags(o.getSeason()), seasons)) {
-            return false;
-        }
-        if (!styles.isEmpty() && !isAnyTagMatching(normalizeTags(o.getStyle()), styles)) {
-            return false;
-        }
-
-        return true;
-    }
-
-    private Set<String> normalizeTags(String tags) {
-        if (tags == null || tags.trim().isEmpty()) return Collections.emptySet();
-        return Arrays.stream(tags.split(","))
-                .map(String::trim)
-                .map(String::toLowerCase)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toSet());
-    }
-
-    private boolean isAnyTagMatching(Set<String> outfitTags, Set<String> filterTags) {
-        if (filterTags.isEmpty()) return true;
-        for (String tag : outfitTags) {
-            if (filterTags.contains(tag)) return true;
-        }
-        return false;
+    // Category, event, season and style tags are matched by the server (see TagFilter)
+    private boolean filterMatches(Outfit o, String keyword) {
+        return keyword.isEmpty() || o.getName().toLowerCase().contains(keyword.toLowerCase());
     }
 
     // Placeholder for opening filter bottom sheet
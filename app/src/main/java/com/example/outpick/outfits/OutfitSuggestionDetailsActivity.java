@@ -14,20 +14,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.Outfit;
 import com.example.outpick.R;
+import com.example.outpick.database.repositories.FavoritesRepository;
 import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
-import com.google.gson.JsonObject;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class OutfitSuggestionDetailsActivity extends AppCompatActivity {
 
     private static final String TAG = "OutfitDetailsActivity";
@@ -40,6 +35,7 @@ public class OutfitSuggestionDetailsActivity extends AppCompatActivity {
     private Button useButton, recreateButton;
 
     private SupabaseService supabaseService;
+    private FavoritesRepository favoritesRepository;
     private OutfitRepository outfitRepository;
 
     private String outfitId = ""; // Changed to String for Supabase UUID
@@ -62,6 +58,7 @@ public class OutfitSuggestionDetailsActivity extends AppCompatActivity {
         // --- 1. Initialize Supabase ---
         supabaseService = SupabaseClient.getService();
         outfitRepository = new OutfitRepository(supabaseService);
+        favoritesRepository = FavoritesRepository.getInstance(supabaseService);
 
         // --- 2. Initialize Views ---
         previewOutfitImageView = findViewById(R.id.previewOutfitImageView);
@@ -173,35 +170,18 @@ public class OutfitSuggestionDetailsActivity extends AppCompatActivity {
         super.onBackPressed();
     }
 
-    // --- Helper to get favorite status from Supabase (User-Scoped) ---
+    // --- Favorite status from the shared favorites store (User-Scoped) ---
     private void loadOutfitFavoriteStatus() {
         if (outfitId == null || outfitId.isEmpty() || currentUserId == null || currentUserId.isEmpty()) {
             outfit.setFavorite(false);
             return;
         }
 
-        // Check if this outfit is in user's favorites
-        Call<List<JsonObject>> call = supabaseService.checkFavorite(currentUserId, outfitId);
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    boolean isFavorite = !response.body().isEmpty();
-                    outfit.setFavorite(isFavorite);
-                    updateFavoriteIcon();
-                    Log.d(TAG, "Outfit ID: " + outfitId + ", User ID: " + currentUserId + ", Favorite: " + isFavorite);
-                } else {
-                    outfit.setFavorite(false);
-                    updateFavoriteIcon();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                Log.e(TAG, "Failed to check favorite status: " + t.getMessage());
-                outfit.setFavorite(false);
-                updateFavoriteIcon();
-            }
+        // Usually already loaded by the grid; otherwise one request for the whole set
+        favoritesRepository.loadAsync(currentUserId, () -> {
+            outfit.setFavorite(favoritesRepository.isFavorite(outfitId));
+            updateFavoriteIcon();
+            Log.d(TAG, "Outfit ID: " + outfitId + ", User ID: " + currentUserId + ", Favorite: " + outfit.isFavorite());
         });
     }
 
@@ -215,76 +195,23 @@ public class OutfitSuggestionDetailsActivity extends AppCompatActivity {
         boolean newFavoriteStatus = !outfit.isFavorite();
         outfit.setFavorite(newFavoriteStatus);
 
-        if (newFavoriteStatus) {
-            // Add to favorites
-            addToFavorites();
-        } else {
-            // Remove from favorites
-            removeFromFavorites();
-        }
-
-        updateFavoriteIcon();
-        setResult(RESULT_OK);
-    }
-
-    private void addToFavorites() {
-        JsonObject favorite = new JsonObject();
-        favorite.addProperty("user_id", currentUserId);
-        favorite.addProperty("outfit_id", outfitId);
-
-        Call<List<JsonObject>> call = supabaseService.addFavorite(favorite);
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(OutfitSuggestionDetailsActivity.this,
-                            "Outfit added to Favorites!", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(OutfitSuggestionDetailsActivity.this,
-                            "Failed to add to favorites", Toast.LENGTH_SHORT).show();
-                    // Revert UI state on failure
-                    outfit.setFavorite(false);
-                    updateFavoriteIcon();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
+        favoritesRepository.setFavorite(currentUserId, outfitId, newFavoriteStatus, success -> {
+            if (success) {
                 Toast.makeText(OutfitSuggestionDetailsActivity.this,
-                        "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                // Revert UI state on failure
-                outfit.setFavorite(false);
-                updateFavoriteIcon();
-            }
-        });
-    }
-
-    private void removeFromFavorites() {
-        Call<Void> call = supabaseService.removeFavorite(currentUserId, outfitId);
-        call.enqueue(new Callback<Void>() {
-            @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(OutfitSuggestionDetailsActivity.this,
-                            "Outfit removed from Favorites!", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(OutfitSuggestionDetailsActivity.this,
-                            "Failed to remove from favorites", Toast.LENGTH_SHORT).show();
-                    // Revert UI state on failure
-                    outfit.setFavorite(true);
-                    updateFavoriteIcon();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<Void> call, Throwable t) {
+                        newFavoriteStatus ? "Outfit added to Favorites!" : "Outfit removed from Favorites!",
+                        Toast.LENGTH_SHORT).show();
+            } else {
                 Toast.makeText(OutfitSuggestionDetailsActivity.this,
-                        "Network error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+                        newFavoriteStatus ? "Failed to add to favorites" : "Failed to remove from favorites",
+                        Toast.LENGTH_SHORT).show();
                 // Revert UI state on failure
-                outfit.setFavorite(true);
+                outfit.setFavorite(!newFavoriteStatus);
                 updateFavoriteIcon();
             }
         });
+
+        updateFavoriteIcon();
+        setResult(RESULT_OK);
     }
 
     // ---------------- HELPER METHODS FOR FORMATTING ----------------
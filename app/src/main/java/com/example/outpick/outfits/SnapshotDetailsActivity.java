@@ -15,8 +15,10 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.R;
+import com.example.outpick.database.local.Outbox;
 import com.example.outpick.database.models.Outfit;
 import com.example.outpick.database.repositories.OutfitRepository;
+import com.example.outpick.database.supabase.PostgrestQuery;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.google.android.flexbox.FlexboxLayout;
@@ -38,6 +40,9 @@ import retrofit2.Response;
 
 public class SnapshotDetailsActivity extends AppCompatActivity {
 
+    private static final String HISTORY_TABLE = "outfit_history";
+    private static final String USED = "Used";
+
     private EditText etOutfitName;
 
     private ImageView ivSnapshot, eventArrow, seasonArrow, styleArrow;
@@ -364,6 +369,18 @@ public class SnapshotDetailsActivity extends AppCompatActivity {
     }
 
     private void checkOutfitInHistory() {
+        // ✅ A toggle still waiting in the outbox is newer than what Supabase has
+        Outbox outbox = Outbox.get();
+        Outbox.Kind pending = outbox != null ? outbox.pendingKind(historyEntity()) : null;
+        if (pending == Outbox.Kind.DELETE) {
+            addToHistory();
+            return;
+        }
+        if (pending == Outbox.Kind.INSERT) {
+            removeFromHistory();
+            return;
+        }
+
         Call<List<JsonObject>> call = supabaseService.checkOutfitInHistory(snapshotId, "Used");
         call.enqueue(new Callback<List<JsonObject>>() {
             @Override
@@ -391,7 +408,7 @@ public class SnapshotDetailsActivity extends AppCompatActivity {
         String event = String.join(", ", selectedEvents);
         String season = String.join(", ", selectedSeasons);
         String style = String.join(", ", selectedStyles);
-        String action = "Used";
+        String action = USED;
         String date = new SimpleDateFormat("yyyy-MM-dd hh:mm a", Locale.getDefault()).format(new Date());
 
         JsonObject history = new JsonObject();
@@ -403,78 +420,77 @@ public class SnapshotDetailsActivity extends AppCompatActivity {
         history.addProperty("date_used", date);
         history.addProperty("action_taken", action);
 
-        // ✅ FIXED: Changed to List<JsonObject>
-        Call<List<JsonObject>> call = supabaseService.insertOutfitHistory(history);
-        call.enqueue(new Callback<List<JsonObject>>() {
+        // ✅ Queued in the outbox: marked right away, sent (and retried) in the background
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            Toast.makeText(this, "Failed to add to history", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        outbox.enqueue(Outbox.Op.insert(HISTORY_TABLE, history)
+                .onEntity(historyEntity())
+                .probe(PostgrestQuery.from(HISTORY_TABLE)
+                        .eq("outfit_ref_id", snapshotId)
+                        .eq("date_used", date)
+                        .eq("action_taken", action)), new Outbox.Listener() {
             @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(SnapshotDetailsActivity.this, "Outfit marked as 'Used' and added to history!", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(SnapshotDetailsActivity.this, "Failed to add to history", Toast.LENGTH_SHORT).show();
-                }
-                updateUseButtonText();
+            public void onApplied(List<JsonObject> rows) {
             }
 
             @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                Toast.makeText(SnapshotDetailsActivity.this, "Network error adding to history", Toast.LENGTH_SHORT).show();
-                updateUseButtonText();
+            public void onRejected(String error) {
+                runOnUiThread(() -> {
+                    if (isDestroyed()) return;
+                    Toast.makeText(SnapshotDetailsActivity.this, "Failed to add to history", Toast.LENGTH_SHORT).show();
+                    updateUseButtonText();
+                });
             }
         });
+        Toast.makeText(this, "Outfit marked as 'Used' and added to history!", Toast.LENGTH_SHORT).show();
+        btnUse.setText("Used");
     }
 
-    private void removeFromHistory() {
-        Call<List<JsonObject>> call = supabaseService.checkOutfitInHistory(snapshotId, "Used");
-        call.enqueue(new Callback<List<JsonObject>>() {
-            @Override
-            public void onResponse(Call<List<JsonObject>> call, Response<List<JsonObject>> response) {
-                if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
-                    // ADDED NULL CHECK
-                    JsonObject historyEntry = response.body().get(0);
-                    if (historyEntry.has("id") && !historyEntry.get("id").isJsonNull()) {
-                        String historyId = historyEntry.get("id").getAsString();
-                        deleteFromHistory(historyId);
-                    } else {
-                        Toast.makeText(SnapshotDetailsActivity.this, "Invalid history entry", Toast.LENGTH_SHORT).show();
-                        updateUseButtonText();
-                    }
-                } else {
-                    Toast.makeText(SnapshotDetailsActivity.this, "Failed to find history entry", Toast.LENGTH_SHORT).show();
-                    updateUseButtonText();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<List<JsonObject>> call, Throwable t) {
-                Toast.makeText(SnapshotDetailsActivity.this, "Network error removing from history", Toast.LENGTH_SHORT).show();
-                updateUseButtonText();
-            }
-        });
+    /** Outbox entity for this outfit's 'Used' history entry, so use / unuse toggles stay in order */
+    private String historyEntity() {
+        return HISTORY_TABLE + "/" + snapshotId + "/" + USED;
     }
 
-    private void deleteFromHistory(String historyId) {
-        Call<Void> call = supabaseService.deleteOutfitHistory(historyId);
-        call.enqueue(new Callback<Void>() {
+    private void removeFromHistory() {
+        // ✅ Same outbox entity as the insert, so use / unuse toggles reach Supabase in order
+        Outbox outbox = Outbox.get();
+        if (outbox == null) {
+            Toast.makeText(this, "Failed to remove from history", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        outbox.enqueue(Outbox.Op.delete(PostgrestQuery.from(HISTORY_TABLE)
+                        .eq("outfit_ref_id", snapshotId)
+                        .eq("action_taken", USED))
+                .onEntity(historyEntity()), new Outbox.Listener() {
             @Override
-            public void onResponse(Call<Void> call, Response<Void> response) {
-                if (response.isSuccessful()) {
-                    Toast.makeText(SnapshotDetailsActivity.this, "Outfit marked as 'Unused'", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(SnapshotDetailsActivity.this, "Failed to remove from history", Toast.LENGTH_SHORT).show();
-                }
-                updateUseButtonText();
+            public void onApplied(List<JsonObject> rows) {
             }
 
             @Override
-            public void onFailure(Call<Void> call, Throwable t) {
-                Toast.makeText(SnapshotDetailsActivity.this, "Network error removing from history", Toast.LENGTH_SHORT).show();
-                updateUseButtonText();
+            public void onRejected(String error) {
+                runOnUiThread(() -> {
+                    if (isDestroyed()) return;
+                    Toast.makeText(SnapshotDetailsActivity.this, "Failed to remove from history", Toast.LENGTH_SHORT).show();
+                    updateUseButtonText();
+                });
             }
         });
+        Toast.makeText(this, "Outfit marked as 'Unused'", Toast.LENGTH_SHORT).show();
+        btnUse.setText("Use");
     }
 
     private void updateUseButtonText() {
+        Outbox outbox = Outbox.get();
+        Outbox.Kind pending = outbox != null ? outbox.pendingKind(historyEntity()) : null;
+        if (pending != null) {
+            // ✅ The queued write is newer than anything Supabase can tell us
+            btnUse.setText(pending == Outbox.Kind.INSERT ? "Used" : "Use");
+            return;
+        }
+
         Call<List<JsonObject>> call = supabaseService.checkOutfitInHistory(snapshotId, "Used");
         call.enqueue(new Callback<List<JsonObject>>() {
             @Override
@@ -26,20 +26,19 @@ import androidx.drawerlayout.widget.DrawerLayout;
 
 import com.bumptech.glide.Glide;
 import com.example.outpick.database.models.ClothingItem;
+import com.example.outpick.database.repositories.ClothingRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
+import com.example.outpick.database.supabase.SupabaseJson;
 import com.example.outpick.database.supabase.SupabaseService;
 import com.example.outpick.closet.ItemSelectionActivity;
 import com.example.outpick.R;
 import com.example.outpick.utils.ResizableImageView;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.example.outpick.utils.TaskScope;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Response;
 
 public class TryOnActivity extends AppCompatActivity {
 
@@ -59,6 +58,7 @@ public class TryOnActivity extends AppCompatActivity {
 
     // Supabase service
     private SupabaseService supabaseService;
+    private ClothingRepository clothingRepository;
     private List<ClothingItem> allClothesItemsFromDB = new ArrayList<>();
 
     // Current user ID
@@ -66,6 +66,7 @@ public class TryOnActivity extends AppCompatActivity {
 
     // --- Activity Result Launcher ---
     private ActivityResultLauncher<Intent> itemSelectionLauncher;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -75,6 +76,7 @@ public class TryOnActivity extends AppCompatActivity {
 
         // --- Supabase setup ---
         supabaseService = SupabaseClient.getService();
+        clothingRepository = ClothingRepository.getInstance(supabaseService);
 
         // --- Get current user ID ---
         SharedPreferences prefs = getSharedPreferences("UserPrefs", MODE_PRIVATE);
@@ -165,37 +167,22 @@ public class TryOnActivity extends AppCompatActivity {
             return;
         }
 
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
-                // Get all clothing items for the current user
-                Call<List<JsonObject>> call = supabaseService.getClothing();
-                Response<List<JsonObject>> response = call.execute();
-
-                if (response.isSuccessful() && response.body() != null) {
-                    List<ClothingItem> clothingItems = new ArrayList<>();
-                    Gson gson = new Gson();
-
-                    for (JsonObject jsonObject : response.body()) {
-                        // Convert JsonObject to ClothingItem
-                        ClothingItem item = gson.fromJson(jsonObject, ClothingItem.class);
-                        clothingItems.add(item);
-                    }
+                // Only the current user's clothes, filtered on the server
+                List<ClothingItem> clothingItems = clothingRepository.getClothingByUserId(currentUserId);
 
-                    runOnUiThread(() -> {
-                        allClothesItemsFromDB = clothingItems;
-                        // Refresh the drawer items after loading data
-                        setupDrawerListeners();
-                    });
-                } else {
-                    runOnUiThread(() ->
-                            Toast.makeText(TryOnActivity.this, "Failed to load clothing items", Toast.LENGTH_SHORT).show());
-                }
+                taskScope.post(() -> {
+                    allClothesItemsFromDB = clothingItems;
+                    // Refresh the drawer items after loading data
+                    setupDrawerListeners();
+                });
             } catch (Exception e) {
                 e.printStackTrace();
-                runOnUiThread(() ->
+                taskScope.post(() ->
                         Toast.makeText(TryOnActivity.this, "Error loading clothing: " + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
-        }).start();
+        });
     }
 
     /**
@@ -210,8 +197,7 @@ public class TryOnActivity extends AppCompatActivity {
                         if (data != null) {
                             String selectedItemJson = data.getStringExtra(ItemSelectionActivity.EXTRA_SELECTED_ITEM_JSON);
                             if (selectedItemJson != null) {
-                                Gson gson = new Gson();
-                                ClothingItem selectedItem = gson.fromJson(selectedItemJson, ClothingItem.class);
+                                ClothingItem selectedItem = SupabaseJson.gson().fromJson(selectedItemJson, ClothingItem.class);
                                 addClothingItemToMannequin(selectedItem);
                             }
                         }
@@ -333,8 +319,7 @@ public class TryOnActivity extends AppCompatActivity {
             return;
         }
 
-        Gson gson = new Gson();
-        String itemListJson = gson.toJson(allClothesItemsFromDB);
+        String itemListJson = SupabaseJson.gson().toJson(allClothesItemsFromDB);
 
         Intent intent = new Intent(this, ItemSelectionActivity.class);
         intent.putExtra(ItemSelectionActivity.EXTRA_ITEM_CATEGORY, selectionCategory);
@@ -17,6 +17,8 @@ import com.example.outpick.database.repositories.OutfitRepository;
 import com.example.outpick.database.repositories.UserOutfitRepository;
 import com.example.outpick.database.supabase.SupabaseClient;
 import com.example.outpick.database.supabase.SupabaseService;
+import com.example.outpick.utils.AppLog;
+import com.example.outpick.utils.TaskScope;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +34,7 @@ public class ViewOutfitCombinationsActivity extends BaseDrawerActivity {
     private OutfitRepository outfitRepository;
     private UserOutfitRepository userOutfitRepository;
     private TextView tvEmptyState;
+    private final TaskScope taskScope = TaskScope.of(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -87,19 +90,21 @@ public class ViewOutfitCombinationsActivity extends BaseDrawerActivity {
             return;
         }
 
-        new Thread(() -> {
+        taskScope.launch(() -> {
             try {
                 // ✅ FIXED: Get ONLY the current user's outfits
                 List<Outfit> userOutfits = userOutfitRepository.getOutfitsForUser(currentUserId);
 
-                // ✅ ADD LOGGING TO VERIFY USER-SPECIFIC DATA
-                Log.d(TAG, "User ID: " + currentUserId);
-                Log.d(TAG, "Found " + userOutfits.size() + " outfits for current user");
+                // ✅ ADD LOGGING TO VERIFY USER-SPECIFIC DATA (sampled, debug builds only)
+                AppLog.d(TAG, () -> "Found " + userOutfits.size() + " outfits for user " + currentUserId);
+                AppLog.Sampler rowLog = AppLog.sample(25);
                 for (Outfit outfit : userOutfits) {
-                    Log.d(TAG, "User Outfit: " + outfit.getName() + " | Image URL: " + outfit.getImageUri());
+                    if (rowLog.next()) {
+                        Log.d(TAG, "User Outfit: " + outfit.getName() + " | Image URL: " + outfit.getImageUri());
+                    }
                 }
 
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     outfitList.clear();
                     outfitList.addAll(userOutfits);
 
@@ -122,7 +127,7 @@ public class ViewOutfitCombinationsActivity extends BaseDrawerActivity {
 
             } catch (Exception e) {
                 Log.e(TAG, "Error loading user outfits: " + e.getMessage());
-                runOnUiThread(() -> {
+                taskScope.post(() -> {
                     Toast.makeText(this, "Error loading your outfits: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     if (tvEmptyState != null) {
                         tvEmptyState.setText("Error loading your outfits");
@@ -130,6 +135,6 @@ public class ViewOutfitCombinationsActivity extends BaseDrawerActivity {
                     }
                 });
             }
-        }).start();
+        });
     }
 }
\ No newline at end of file
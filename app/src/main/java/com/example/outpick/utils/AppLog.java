@@ -0,0 +1,94 @@
+package com.example.outpick.utils;
+
+import android.util.Log;
+
+import com.example.outpick.BuildConfig;
+
+import java.util.function.Supplier;
+
+/**
+ * Leveled logging for code that runs per row or per bind.
+ *
+ * Debug and verbose messages are only built when they will be written: pass them as a
+ * {@link Supplier}, or guard the call with {@link #DEBUG}. DEBUG is BuildConfig.DEBUG, a
+ * compile-time constant, so release builds drop {@code if (AppLog.DEBUG)} blocks at compile
+ * time and {@link #d}/{@link #v} return before touching the supplier.
+ *
+ * Loops that would log every row take a {@link Sampler} instead, which lets through the first
+ * row and then one in every N:
+ *   AppLog.Sampler rowLog = AppLog.sample(50);
+ *   for (JsonObject row : rows) {
+ *       if (rowLog.next()) Log.d(TAG, "Row: " + row);
+ *   }
+ *
+ * Info, warnings and errors are always written, as before.
+ */
+public final class AppLog {
+
+    /** False in release builds; blocks guarded by it are compiled out. */
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    // Debug builds can raise this (e.g. to Log.INFO) to quiet a noisy session
+    private static volatile int minLevel = DEBUG ? Log.DEBUG : Log.INFO;
+
+    private AppLog() {
+    }
+
+    /** Lowest level written; anything below {@link Log#INFO} only applies to debug builds. */
+    public static void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= minLevel && (DEBUG || level >= Log.INFO);
+    }
+
+    public static void v(String tag, Supplier<String> message) {
+        if (DEBUG && isLoggable(Log.VERBOSE)) Log.v(tag, message.get());
+    }
+
+    public static void d(String tag, Supplier<String> message) {
+        if (DEBUG && isLoggable(Log.DEBUG)) Log.d(tag, message.get());
+    }
+
+    public static void i(String tag, String message) {
+        if (isLoggable(Log.INFO)) Log.i(tag, message);
+    }
+
+    public static void w(String tag, String message) {
+        if (isLoggable(Log.WARN)) Log.w(tag, message);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        if (isLoggable(Log.ERROR)) Log.e(tag, message, error);
+    }
+
+    /** A debug sampler letting through the first call of {@link Sampler#next()} and every {@code every}th. */
+    public static Sampler sample(int every) {
+        return DEBUG ? new Sampler(every) : Sampler.OFF;
+    }
+
+    /** Per-loop (or per-adapter) sampling; use it from one thread. */
+    public static final class Sampler {
+        static final Sampler OFF = new Sampler(Integer.MAX_VALUE);
+
+        private final int every;
+        private int count;
+
+        private Sampler(int every) {
+            this.every = Math.max(1, every);
+        }
+
+        /** Whether this call should log. Always false in release builds. */
+        public boolean next() {
+            if (!DEBUG) return false;
+            boolean due = count++ % every == 0;
+            return due && isLoggable(Log.DEBUG);
+        }
+
+        /** Calls to {@link #next()} so far, logged or not (debug builds only). */
+        public int getCount() {
+            return count;
+        }
+    }
+}
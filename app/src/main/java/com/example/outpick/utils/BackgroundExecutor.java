@@ -0,0 +1,110 @@
+package com.example.outpick.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The app's one pool for background work.
+ *
+ * A fixed number of threads (2-4, by core count) serve a priority queue, so a burst of work -
+ * fast scrolling, screens opened and closed in a row - queues up instead of spawning a thread
+ * per call. Work the user is waiting on jumps ahead of prefetches; equal priorities run in
+ * submission order. Threads run at background OS priority so they never compete with the UI.
+ *
+ * Callers go through {@link TaskScope}, which cancels a screen's queued and running work when
+ * it is destroyed.
+ */
+public final class BackgroundExecutor {
+    private static final String TAG = "BackgroundExecutor";
+
+    public enum Priority {
+        /** The user is looking at a spinner or just tapped something. */
+        IMMEDIATE,
+        /** Regular loads and saves. */
+        NORMAL,
+        /** Counts, next pages and other work nobody waits on yet. */
+        PREFETCH
+    }
+
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long KEEP_ALIVE_S = 30;
+
+    private static final AtomicLong sequence = new AtomicLong();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private static final ThreadPoolExecutor pool = createPool();
+
+    private BackgroundExecutor() {
+    }
+
+    private static ThreadPoolExecutor createPool() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_S, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, "outpick-bg-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Idle apps hold no threads
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** A queued unit of work, ordered by priority and then by submission. */
+    static final class Task extends FutureTask<Void> implements Comparable<Task> {
+        private final Priority priority;
+        private final long order = sequence.getAndIncrement();
+        private final Consumer<Task> onDone;
+
+        Task(Priority priority, Runnable work, Consumer<Task> onDone) {
+            super(work, null);
+            this.priority = priority;
+            this.onDone = onDone;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+
+        @Override
+        protected void done() {
+            if (onDone != null) onDone.accept(this);
+            if (isCancelled()) return;
+            try {
+                get();
+            } catch (Exception e) {
+                // Surface crashes in background work instead of losing them inside the FutureTask
+                Log.e(TAG, "Background task failed: " + e.getCause(), e.getCause());
+            }
+        }
+    }
+
+    static void submit(Task task) {
+        pool.execute(task);
+    }
+
+    /** Drop cancelled tasks still sitting in the queue. */
+    static void purge() {
+        pool.purge();
+    }
+
+    static void postToMain(Runnable runnable) {
+        mainHandler.post(runnable);
+    }
+}
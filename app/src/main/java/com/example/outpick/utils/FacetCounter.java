@@ -0,0 +1,90 @@
+package com.example.outpick.utils;
+
+import com.example.outpick.database.supabase.TagFilter;
+import com.example.outpick.utils.BackgroundExecutor.Priority;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Live facet counts for a filter sheet, computed off the main thread.
+ *
+ * The screen opening the sheet hands over its current result set - a snapshot list, or a
+ * background load of just the tag columns - and how to index it. The {@link TagIndex} is built
+ * on the first {@link #count}, and every chip toggle then asks for new counts: the previous
+ * query is cancelled, and only fields whose base selection changed are recounted (toggling a
+ * season changes the occasion counts but not the season ones).
+ *
+ * Example:
+ *   FacetCounter<ClothingItem> facets = FacetCounter.of(new ArrayList<>(items), () -> new TagIndex<ClothingItem>()
+ *           .field("season", ClothingItem::getSeason)
+ *           .field("occasion", ClothingItem::getOccasion));
+ *   facets.count(taskScope, selection, counts -> showCounts(counts));
+ */
+public final class FacetCounter<T> {
+
+    /** Field -> normalized value -> matching items; delivered on the main thread. */
+    public interface Listener {
+        void onCounts(Map<String, Map<String, Integer>> counts);
+    }
+
+    private final Supplier<TagIndex<T>> source;
+
+    // Guarded by this; counting runs on background threads
+    private TagIndex<T> index;
+    private final Map<String, String> lastBase = new HashMap<>();
+    private final Map<String, Map<String, Integer>> lastCounts = new HashMap<>();
+
+    // Main thread only
+    private TaskScope pending;
+
+    /** {@code source} runs in the background on the first count and may hit the network. */
+    public FacetCounter(Supplier<TagIndex<T>> source) {
+        this.source = source;
+    }
+
+    /** Counts over {@code items}, indexed with the fields {@code emptyIndex} declares. */
+    public static <T> FacetCounter<T> of(List<T> items, Supplier<TagIndex<T>> emptyIndex) {
+        return new FacetCounter<>(() -> {
+            TagIndex<T> index = emptyIndex.get();
+            index.addAll(items);
+            return index;
+        });
+    }
+
+    /** Count every field against {@code selection}, replacing any query still running. Main thread. */
+    public void count(TaskScope scope, TagFilter selection, Listener listener) {
+        if (pending != null) pending.cancel();
+        TaskScope query = scope.child();
+        pending = query;
+        query.launch(Priority.IMMEDIATE, () -> {
+            Map<String, Map<String, Integer>> counts = compute(selection, query);
+            if (counts != null) query.post(() -> listener.onCounts(counts));
+        });
+    }
+
+    private synchronized Map<String, Map<String, Integer>> compute(TagFilter selection, TaskScope query) {
+        if (index == null) {
+            index = source.get();
+            if (index == null) return null;
+        }
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (String field : index.getFields()) {
+            // A newer toggle has replaced this query
+            if (!query.isActive()) return null;
+
+            String base = selection.withoutAnyOf(field).toString();
+            Map<String, Integer> fieldCounts = lastCounts.get(field);
+            if (fieldCounts == null || !base.equals(lastBase.get(field))) {
+                fieldCounts = index.facetCounts(selection, field);
+                lastBase.put(field, base);
+                lastCounts.put(field, fieldCounts);
+            }
+            counts.put(field, fieldCounts);
+        }
+        return counts;
+    }
+}
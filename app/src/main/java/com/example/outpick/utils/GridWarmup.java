@@ -0,0 +1,90 @@
+package com.example.outpick.utils;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.DisplayMetrics;
+import android.util.Log;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Gets a closet grid ready before its data arrives, so the first frame binds rows instead of
+ * inflating them.
+ *
+ * {@link #prepare} inflates a screenful of view holders on the main thread, one per idle
+ * moment of its message queue (an {@link MessageQueue.IdleHandler}), while the screen is still
+ * waiting for data, and parks them in the list's {@link RecyclerView.RecycledViewPool}; the
+ * first layout then takes them from the pool like any recycled row. Inflating on the main
+ * thread keeps onCreateViewHolder where the adapter expects it and never holds a layout up:
+ * a frame due while warming runs before the next idle slot, and rows still missing when the
+ * data lands are inflated by the list as usual. It also sizes the pool and the attached-view
+ * cache to the grid's span, so a row scrolled off and back is reused without rebinding.
+ *
+ * The pool is the list's own, kept for the life of the screen. Holders keep their adapter and
+ * activity (click listeners, Glide contexts), so a pool shared across activities would leak
+ * finished screens and hand holders to an adapter that didn't create them.
+ *
+ * Example, right after setAdapter:
+ *   GridWarmup.prepare(recyclerView, taskScope, ClothingAdapter.VIEW_TYPE_CLOTHING);
+ */
+public final class GridWarmup {
+
+    private static final String TAG = "GridWarmup";
+
+    private GridWarmup() {
+    }
+
+    /** For adapters with a single row type. */
+    public static void prepare(RecyclerView recyclerView, TaskScope scope) {
+        // The type RecyclerView.Adapter#getItemViewType returns unless overridden
+        prepare(recyclerView, scope, 0);
+    }
+
+    /** Call on the main thread once {@code recyclerView} has its adapter and GridLayoutManager. */
+    public static void prepare(RecyclerView recyclerView, TaskScope scope, int viewType) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (adapter == null || !(layoutManager instanceof GridLayoutManager)) return;
+
+        int spanCount = ((GridLayoutManager) layoutManager).getSpanCount();
+        int count = screenful(recyclerView.getContext(), spanCount);
+
+        // The closet grids fill their screen whatever the data, so a change never re-measures it
+        recyclerView.setHasFixedSize(true);
+        // Two rows scrolled off come back without a rebind (the default keeps two views)
+        recyclerView.setItemViewCacheSize(spanCount * 2);
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        // A screenful, plus a row in flight while scrolling
+        pool.setMaxRecycledViews(viewType, count + spanCount);
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            private int created;
+
+            @Override
+            public boolean queueIdle() {
+                // The screen is gone or got a new adapter; returning false unregisters us
+                if (!scope.isActive() || recyclerView.getAdapter() != adapter) return false;
+                try {
+                    // One row per idle slot, so input and frames in between are never held up
+                    pool.putRecycledView(adapter.createViewHolder(recyclerView, viewType));
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Pre-inflation stopped after " + created + " rows: " + e.getMessage());
+                    return false;
+                }
+                if (++created < count) return true;
+                AppLog.d(TAG, () -> "Pre-inflated " + created + " rows of type " + viewType);
+                return false;
+            }
+        });
+    }
+
+    /** Rows that fit the screen plus the one cut off at the bottom, for cells about as tall as wide. */
+    private static int screenful(Context context, int spanCount) {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int cellSize = Math.max(1, metrics.widthPixels / spanCount);
+        int rows = (metrics.heightPixels + cellSize - 1) / cellSize + 1;
+        return rows * spanCount;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.outpick.utils;
+
+import android.util.Log;
+
+import java.util.List;
+
+/**
+ * Loads a list one page at a time from a blocking {@link PageSource}.
+ *
+ * Pages are fetched on {@link BackgroundExecutor} and handed to the {@link PageListener} on the
+ * main thread. Only one page is in flight at a time, and {@link #reset(PageSource)} cancels
+ * any page still loading for the previous query (e.g. after a sort or tab change). Nothing
+ * loads or is delivered once the owning {@link TaskScope} is cancelled.
+ */
+public class Pager<T> {
+
+    private static final String TAG = "Pager";
+    public static final int DEFAULT_PAGE_SIZE = 40;
+
+    /** Returns rows from..to (inclusive), or an empty list once there are no more rows. */
+    public interface PageSource<T> {
+        List<T> loadPage(int from, int to);
+    }
+
+    public interface PageListener<T> {
+        void onPageLoaded(List<T> page, boolean firstPage);
+    }
+
+    /** A page failed to load; the next {@link #loadNextPage()} (e.g. the next scroll) tries it again. */
+    public interface PageErrorListener {
+        void onPageFailed(Exception error);
+    }
+
+    private final int pageSize;
+    private final PageListener<T> listener;
+    private final TaskScope scope;
+    private PageErrorListener errorListener;
+
+    private PageSource<T> source;
+    // One child scope per query, so a reset cancels only the previous query's page
+    private TaskScope queryScope;
+    private int loadedCount = 0;
+    private boolean loading = false;
+    private boolean endReached = false;
+    private int generation = 0;
+
+    public Pager(TaskScope scope, PageListener<T> listener) {
+        this(scope, DEFAULT_PAGE_SIZE, listener);
+    }
+
+    public Pager(TaskScope scope, int pageSize, PageListener<T> listener) {
+        this.scope = scope;
+        this.pageSize = pageSize;
+        this.listener = listener;
+    }
+
+    public void setOnPageFailed(PageErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /** Start over with a new query and load its first page. */
+    public void reset(PageSource<T> newSource) {
+        generation++;
+        if (queryScope != null) queryScope.cancel();
+        queryScope = scope.child();
+        source = newSource;
+        loadedCount = 0;
+        loading = false;
+        endReached = false;
+        loadNextPage();
+    }
+
+    public void loadNextPage() {
+        if (source == null || loading || endReached) return;
+
+        loading = true;
+        final int requestGeneration = generation;
+        final PageSource<T> requestSource = source;
+        final int from = loadedCount;
+        final int to = from + pageSize - 1;
+        final TaskScope requestScope = queryScope;
+        // The first page is what the user is waiting on; later pages are read-ahead
+        BackgroundExecutor.Priority priority = from == 0
+                ? BackgroundExecutor.Priority.IMMEDIATE : BackgroundExecutor.Priority.NORMAL;
+
+        requestScope.launch(priority, () -> {
+            List<T> page;
+            Exception failure = null;
+            try {
+                page = requestSource.loadPage(from, to);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading page " + from + "-" + to + ": " + e.getMessage());
+                page = null;
+                failure = e;
+            }
+
+            final List<T> result = page;
+            final Exception error = failure;
+            requestScope.post(() -> {
+                // A reset happened while this page was loading - drop it
+                if (requestGeneration != generation) return;
+
+                loading = false;
+                if (result == null) {
+                    // Leave endReached unset so the next scroll retries
+                    if (error != null && errorListener != null) errorListener.onPageFailed(error);
+                    return;
+                }
+                loadedCount += result.size();
+                endReached = result.size() < pageSize;
+                listener.onPageLoaded(result, from == 0);
+            });
+        });
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean hasMore() {
+        return !endReached;
+    }
+
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    /** Keep the next offset aligned after rows were deleted from the loaded range. */
+    public void onItemsRemoved(int count) {
+        loadedCount = Math.max(0, loadedCount - count);
+    }
+
+    /** Keep the next offset aligned after rows were inserted at the head of the list. */
+    public void onItemsInserted(int count) {
+        loadedCount += count;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.outpick.utils;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asks the {@link Pager} for the next page once the user scrolls within
+ * {@code prefetchDistance} rows of the end, so the next page is usually there before it is needed.
+ * Works with LinearLayoutManager and GridLayoutManager.
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+
+    public static final int DEFAULT_PREFETCH_DISTANCE = 12;
+
+    private final Pager<?> pager;
+    private final int prefetchDistance;
+
+    public PagingScrollListener(Pager<?> pager) {
+        this(pager, DEFAULT_PREFETCH_DISTANCE);
+    }
+
+    public PagingScrollListener(Pager<?> pager, int prefetchDistance) {
+        this.pager = pager;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy < 0) return;
+        maybeLoadMore(recyclerView);
+    }
+
+    /**
+     * Also called after a page is appended: if client-side filtering left too few rows
+     * to scroll, keep loading until the screen is filled or the data runs out.
+     */
+    public void maybeLoadMore(@NonNull RecyclerView recyclerView) {
+        if (!pager.hasMore() || pager.isLoading()) return;
+
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) return;
+
+        int lastVisible = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        int total = layoutManager.getItemCount();
+        if (lastVisible == RecyclerView.NO_POSITION && total > 0) return;
+
+        if (lastVisible >= total - 1 - prefetchDistance) {
+            pager.loadNextPage();
+        }
+    }
+}
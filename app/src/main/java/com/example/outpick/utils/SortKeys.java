@@ -0,0 +1,70 @@
+package com.example.outpick.utils;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Precomputed sort keys, so sorting never builds strings inside a comparison.
+ *
+ * {@link #collate} turns display text into a {@link CollationKey} for the device locale -
+ * case-insensitive, so "dress" and "Dress" sort together and accented letters sort next to
+ * their base letter - that compares as a plain byte comparison. Models cache theirs (see
+ * ClothingItem#getNameKey), so an item's key is built once however often it is sorted.
+ *
+ * {@link #sortBy} is the decorate-sort-undecorate pattern for everything else: each element's
+ * key is computed once, not twice per comparison as {@code Comparator.comparing} would.
+ */
+public final class SortKeys {
+
+    private static final Collator COLLATOR = createCollator();
+
+    private SortKeys() {
+    }
+
+    private static Collator createCollator() {
+        Collator collator = Collator.getInstance();
+        // Letters and accents count, case doesn't
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
+    }
+
+    /** Locale collation key of {@code text}; null sorts like "". */
+    public static CollationKey collate(String text) {
+        // Collators aren't thread-safe
+        synchronized (COLLATOR) {
+            return COLLATOR.getCollationKey(text != null ? text : "");
+        }
+    }
+
+    /** Sort {@code list} in place by {@code key}, computing each element's key once. Stable. */
+    public static <T, K> void sortBy(List<T> list, Function<? super T, ? extends K> key, Comparator<? super K> order) {
+        int size = list.size();
+        if (size < 2) return;
+        List<Keyed<T, K>> keyed = new ArrayList<>(size);
+        for (T item : list) {
+            keyed.add(new Keyed<>(key.apply(item), item));
+        }
+        keyed.sort((a, b) -> order.compare(a.key, b.key));
+        for (int i = 0; i < size; i++) {
+            list.set(i, keyed.get(i).item);
+        }
+    }
+
+    public static <T, K extends Comparable<? super K>> void sortBy(List<T> list, Function<? super T, ? extends K> key) {
+        sortBy(list, key, Comparator.<K>naturalOrder());
+    }
+
+    private static final class Keyed<T, K> {
+        final K key;
+        final T item;
+
+        Keyed(K key, T item) {
+            this.key = key;
+            this.item = item;
+        }
+    }
+}
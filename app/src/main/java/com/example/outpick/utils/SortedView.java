@@ -0,0 +1,117 @@
+package com.example.outpick.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A list kept in comparator order as it changes, instead of being re-sorted after every change.
+ *
+ * Single items go in at their binary-searched position; a batch (a fetched page) is sorted on
+ * its own and merged in one linear pass. Filtering walks the list in order, so a filtered view
+ * is already sorted and a filter change never sorts anything. Only {@link #setComparator} with
+ * a different order re-sorts. Give it a comparator over precomputed keys ({@link SortKeys}).
+ *
+ * Not thread-safe; use it from one thread.
+ */
+public final class SortedView<T> {
+
+    private Comparator<? super T> comparator;
+    private List<T> items = new ArrayList<>();
+
+    public SortedView(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /** Re-sorts only when the order actually changes. */
+    public void setComparator(Comparator<? super T> newComparator) {
+        if (newComparator == comparator) return;
+        comparator = newComparator;
+        items.sort(comparator);
+    }
+
+    /** Insert at the sorted position; equal items keep insertion order. */
+    public int add(T item) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(items.get(mid), item) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        items.add(low, item);
+        return low;
+    }
+
+    /** Merge a batch in: O(batch log batch + size) instead of re-sorting everything. */
+    public void addAll(Collection<? extends T> batch) {
+        if (batch.isEmpty()) return;
+        List<T> incoming = new ArrayList<>(batch);
+        incoming.sort(comparator);
+        if (items.isEmpty()) {
+            items = incoming;
+            return;
+        }
+        // Appending pages that arrive in order is the common case
+        if (comparator.compare(items.get(items.size() - 1), incoming.get(0)) <= 0) {
+            items.addAll(incoming);
+            return;
+        }
+
+        List<T> merged = new ArrayList<>(items.size() + incoming.size());
+        int i = 0;
+        int j = 0;
+        while (i < items.size() && j < incoming.size()) {
+            if (comparator.compare(items.get(i), incoming.get(j)) <= 0) {
+                merged.add(items.get(i++));
+            } else {
+                merged.add(incoming.get(j++));
+            }
+        }
+        merged.addAll(items.subList(i, items.size()));
+        merged.addAll(incoming.subList(j, incoming.size()));
+        items = merged;
+    }
+
+    /** Replace the contents with {@code batch}, sorted once. */
+    public void replaceAll(Collection<? extends T> batch) {
+        items = new ArrayList<>();
+        addAll(batch);
+    }
+
+    public boolean remove(T item) {
+        return items.remove(item);
+    }
+
+    public boolean removeAll(Collection<?> toRemove) {
+        return items.removeAll(toRemove);
+    }
+
+    public void clear() {
+        items.clear();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /** The items passing {@code filter}, already in order. */
+    public List<T> filter(Predicate<? super T> filter) {
+        List<T> matching = new ArrayList<>();
+        for (T item : items) {
+            if (filter.test(item)) matching.add(item);
+        }
+        return matching;
+    }
+
+    /** Read-only view of the sorted items. */
+    public List<T> asList() {
+        return Collections.unmodifiableList(items);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.outpick.utils;
+
+import com.example.outpick.database.supabase.TagFilter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory tag index for filtering a loaded list without re-reading any tag text.
+ *
+ * Each item's tag fields are tokenized once, with the same normalization as
+ * {@link TagFilter#normalize(String)}, into per-field dictionary IDs, and every tag value keeps
+ * a {@link BitSet} of the item positions carrying it. A {@link TagFilter} is then answered with
+ * bitwise operations - OR across an any-of field's values, AND across fields and all-of values -
+ * so a chip tap on a few thousand items costs a handful of word-wide ORs and ANDs instead of a
+ * split, trim and lower-case per item.
+ *
+ * The same TagFilter can be sent to the server ({@link TagFilter#applyTo}) or evaluated here,
+ * with identical results. {@link #facetCounts} gives the per-value counts a filter sheet shows
+ * next to its chips. Not thread-safe while items are being added; once built, queries may run
+ * on any thread.
+ *
+ * Example:
+ *   TagIndex<Outfit> index = new TagIndex<Outfit>()
+ *           .field("season", Outfit::getSeason)
+ *           .field("style", Outfit::getStyle);
+ *   index.addAll(outfits);
+ *   List<Outfit> summer = index.select(new TagFilter().anyOf("season", "Summer"));
+ */
+public final class TagIndex<T> {
+
+    /** Raw tag text of one field, e.g. "Casual, Party". */
+    public interface TagSource<T> {
+        String tagsOf(T item);
+    }
+
+    private static final class Field<T> {
+        final TagSource<T> source;
+        // First-seen order, which is also id order
+        final Map<String, Integer> ids = new LinkedHashMap<>();
+        final List<BitSet> postings = new ArrayList<>();
+
+        Field(TagSource<T> source) {
+            this.source = source;
+        }
+
+        BitSet posting(String tag) {
+            Integer id = ids.get(tag);
+            return id != null ? postings.get(id) : null;
+        }
+    }
+
+    private final Map<String, Field<T>> fields = new LinkedHashMap<>();
+    private final List<T> items = new ArrayList<>();
+
+    /** Index {@code field} (the name a TagFilter uses) from {@code source}. Add fields before items. */
+    public TagIndex<T> field(String field, TagSource<T> source) {
+        if (!items.isEmpty()) {
+            throw new IllegalStateException("Fields must be declared before items are added");
+        }
+        fields.put(field, new Field<>(source));
+        return this;
+    }
+
+    public void add(T item) {
+        int position = items.size();
+        items.add(item);
+        for (Field<T> field : fields.values()) {
+            for (String tag : TagFilter.normalize(field.source.tagsOf(item))) {
+                Integer id = field.ids.get(tag);
+                if (id == null) {
+                    id = field.postings.size();
+                    field.ids.put(tag, id);
+                    field.postings.add(new BitSet());
+                }
+                field.postings.get(id).set(position);
+            }
+        }
+    }
+
+    public void addAll(Collection<? extends T> newItems) {
+        for (T item : newItems) {
+            add(item);
+        }
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /** Field names, in declaration order. */
+    public Set<String> getFields() {
+        return fields.keySet();
+    }
+
+    /**
+     * Normalized value -> number of items that would match if that value of {@code field} were
+     * also picked. Values within a field are OR'ed, so the field's own any-of selection is left
+     * out of the base (picking a second season widens the result instead of emptying it); every
+     * other field's selection, and all-of selections, still apply. Values in first-seen order.
+     */
+    public Map<String, Integer> facetCounts(TagFilter filter, String field) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Field<T> indexed = fields.get(field);
+        if (indexed == null) return counts;
+
+        BitSet base = matching(filter.withoutAnyOf(field));
+        BitSet scratch = new BitSet(items.size());
+        for (Map.Entry<String, Integer> value : indexed.ids.entrySet()) {
+            scratch.clear();
+            scratch.or(base);
+            scratch.and(indexed.postings.get(value.getValue()));
+            counts.put(value.getKey(), scratch.cardinality());
+        }
+        return counts;
+    }
+
+    /** Positions (in insertion order) of the items passing {@code filter}; an empty filter passes all. */
+    public BitSet matching(TagFilter filter) {
+        BitSet result = new BitSet(items.size());
+        result.set(0, items.size());
+
+        for (Map.Entry<String, List<String>> entry : filter.getAnyOf().entrySet()) {
+            Field<T> field = fields.get(entry.getKey());
+            BitSet any = new BitSet(items.size());
+            if (field != null) {
+                for (String tag : entry.getValue()) {
+                    BitSet posting = field.posting(tag);
+                    if (posting != null) any.or(posting);
+                }
+            }
+            result.and(any);
+            if (result.isEmpty()) return result;
+        }
+
+        for (Map.Entry<String, List<String>> entry : filter.getAllOf().entrySet()) {
+            Field<T> field = fields.get(entry.getKey());
+            for (String tag : entry.getValue()) {
+                BitSet posting = field != null ? field.posting(tag) : null;
+                if (posting == null) {
+                    result.clear();
+                    return result;
+                }
+                result.and(posting);
+            }
+        }
+        return result;
+    }
+
+    /** The items passing {@code filter}, in insertion order. */
+    public List<T> select(TagFilter filter) {
+        BitSet matching = matching(filter);
+        List<T> selected = new ArrayList<>(matching.cardinality());
+        for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+            selected.add(items.get(i));
+        }
+        return selected;
+    }
+}
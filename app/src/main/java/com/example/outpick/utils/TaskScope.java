@@ -0,0 +1,267 @@
+package com.example.outpick.utils;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.outpick.utils.BackgroundExecutor.Priority;
+import com.example.outpick.utils.BackgroundExecutor.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Cancellation token for background work that belongs to a screen (or a view holder, or a query).
+ *
+ * Work launched through a scope runs on {@link BackgroundExecutor}. When the scope is cancelled -
+ * for {@link #of(LifecycleOwner)}, when the activity is destroyed - its queued work is dropped,
+ * the HTTP calls its running work is making are cancelled (see {@link #onCancel}), and nothing it
+ * {@link #post}s reaches the UI any more. Running work is not interrupted: an interrupt inside a
+ * blocking OkHttp read tears down the shared HTTP/2 connection, so long loops check
+ * {@link #isActive()} instead.
+ * Child scopes are cancelled with their parent and can also be cancelled on their own, e.g. when
+ * a view holder is rebound or a list is re-queried.
+ *
+ * Typical use in an activity:
+ *   private final TaskScope taskScope = TaskScope.of(this);
+ *   ...
+ *   taskScope.launch(() -> {
+ *       List<ClothingItem> items = clothingRepository.getClothingByUserId(userId);
+ *       taskScope.post(() -> adapter.updateItems(items));
+ *   });
+ *
+ * or, to fan independent reads out and join them, with futures:
+ *   CompletableFuture<List<ClothingItem>> clothes = clothingRepository.getClothingByClosetAsync(taskScope, name);
+ *   CompletableFuture<List<JsonObject>> snapshots = closetSnapshotRepository.getSnapshotsInClosetAsync(taskScope, id);
+ *   taskScope.deliver(clothes.thenCombine(snapshots, this::merge), this::show, this::showError);
+ */
+public final class TaskScope {
+
+    /** Never cancelled - for work that belongs to the app rather than to a screen. */
+    public static final TaskScope APP = new TaskScope(null);
+
+    // Scope of the work running on this thread, for onCancel hooks registered deep in a call
+    private static final ThreadLocal<TaskScope> RUNNING = new ThreadLocal<>();
+
+    private final TaskScope parent;
+    private final Set<Task> tasks = new HashSet<>();
+    private final Set<Runnable> cancelHooks = new HashSet<>();
+    private final List<TaskScope> children = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    private TaskScope(TaskScope parent) {
+        this.parent = parent;
+    }
+
+    /** A scope cancelled when {@code owner} is destroyed. Call on the main thread. */
+    public static TaskScope of(LifecycleOwner owner) {
+        TaskScope scope = new TaskScope(null);
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            scope.cancel();
+            return scope;
+        }
+        lifecycle.addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) scope.cancel();
+        });
+        return scope;
+    }
+
+    /** A scope cancelled with this one, or earlier by its own {@link #cancel()}. */
+    public TaskScope child() {
+        TaskScope child = new TaskScope(this);
+        synchronized (this) {
+            if (cancelled) {
+                child.cancelled = true;
+            } else {
+                children.add(child);
+            }
+        }
+        return child;
+    }
+
+    public boolean isActive() {
+        return !cancelled && (parent == null || parent.isActive());
+    }
+
+    /** The scope whose work is running on this thread, or null outside launch/supply work. */
+    public static TaskScope current() {
+        return RUNNING.get();
+    }
+
+    /**
+     * Run {@code hook} when this scope is cancelled, e.g. to cancel an HTTP call in flight.
+     * Returns false, without keeping the hook, if the scope is already cancelled.
+     * Remove it with {@link #removeOnCancel} once the call is done.
+     */
+    public boolean onCancel(Runnable hook) {
+        synchronized (this) {
+            if (isActive()) {
+                cancelHooks.add(hook);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void removeOnCancel(Runnable hook) {
+        cancelHooks.remove(hook);
+    }
+
+    /** Run {@code work} in the background; cancelled with the scope. */
+    public void launch(Runnable work) {
+        launch(Priority.NORMAL, work);
+    }
+
+    public void launch(Priority priority, Runnable work) {
+        submit(new Task(priority, () -> runInScope(work), this::finished));
+    }
+
+    /**
+     * Compute a value in the background. The future completes with the result, exceptionally
+     * with whatever {@code work} threw, or is cancelled with the scope. Cancelling the future
+     * drops the work if it hasn't started; running work finishes but its result is dropped.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return supply(Priority.NORMAL, work);
+    }
+
+    public <T> CompletableFuture<T> supply(Priority priority, Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // Its own scope, so cancelling just this future also cancels the calls it is making
+        TaskScope own = child();
+        Task task = new Task(priority, () -> own.runInScope(() -> {
+            try {
+                T result = work.get();
+                // Cancelled work may still return; a cancelled scope's result is never used
+                if (own.isActive()) {
+                    future.complete(result);
+                } else {
+                    future.cancel(false);
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }), done -> {
+            finished(done);
+            removeChild(own);
+            if (done.isCancelled()) future.cancel(false);
+        });
+        if (!submit(task)) {
+            removeChild(own);
+            future.cancel(false);
+            return future;
+        }
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                task.cancel(false);
+                own.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Hand a future's outcome to the main thread - {@code onResult} or {@code onError} with the
+     * underlying cause - unless the scope is cancelled by then. Cancellation, of the future or
+     * of anything it was composed from, reports nothing.
+     */
+    public <T> void deliver(CompletableFuture<T> future, Consumer<T> onResult, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> {
+            if (error == null) {
+                post(() -> onResult.accept(result));
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof CancellationException || onError == null) return;
+            post(() -> onError.accept(cause));
+        });
+    }
+
+    /**
+     * Run {@code work} in the background and let it finish even if the scope is cancelled - for
+     * saves and deletes that must not stop halfway. Its {@link #post}s are still dropped once
+     * the scope is gone.
+     */
+    public void launchToCompletion(Runnable work) {
+        BackgroundExecutor.submit(new Task(Priority.IMMEDIATE, work, null));
+    }
+
+    /** Run {@code uiWork} on the main thread, unless the scope is cancelled by then. */
+    public void post(Runnable uiWork) {
+        BackgroundExecutor.postToMain(() -> {
+            if (isActive()) uiWork.run();
+        });
+    }
+
+    /**
+     * Drop queued work, cancel the calls running work is making and silence pending posts - here
+     * and in children.
+     */
+    public void cancel() {
+        List<Task> toCancel;
+        List<Runnable> hooks;
+        List<TaskScope> toCancelChildren;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            toCancel = new ArrayList<>(tasks);
+            hooks = new ArrayList<>(cancelHooks);
+            toCancelChildren = new ArrayList<>(children);
+            tasks.clear();
+            cancelHooks.clear();
+            children.clear();
+        }
+        for (Task task : toCancel) {
+            // Never interrupt: it would break the HTTP/2 connection every screen shares
+            task.cancel(false);
+        }
+        for (Runnable hook : hooks) {
+            hook.run();
+        }
+        for (TaskScope child : toCancelChildren) {
+            child.cancel();
+        }
+        if (parent != null) {
+            parent.removeChild(this);
+        }
+        if (!toCancel.isEmpty()) {
+            BackgroundExecutor.purge();
+        }
+    }
+
+    private boolean submit(Task task) {
+        synchronized (this) {
+            if (!isActive()) return false;
+            tasks.add(task);
+        }
+        BackgroundExecutor.submit(task);
+        return true;
+    }
+
+    private void runInScope(Runnable work) {
+        TaskScope outer = RUNNING.get();
+        RUNNING.set(this);
+        try {
+            work.run();
+        } finally {
+            RUNNING.set(outer);
+        }
+    }
+
+    private synchronized void finished(Task task) {
+        tasks.remove(task);
+    }
+
+    private synchronized void removeChild(TaskScope child) {
+        children.remove(child);
+    }
+}
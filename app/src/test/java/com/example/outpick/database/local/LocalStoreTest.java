@@ -0,0 +1,211 @@
+package com.example.outpick.database.local;
+
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LocalStoreTest {
+
+    private static JsonObject row(String id, String createdAt, Integer rank) {
+        JsonObject row = new JsonObject();
+        row.addProperty("id", id);
+        row.addProperty("created_at", createdAt);
+        row.addProperty("rank", rank);
+        return row;
+    }
+
+    private static List<String> idsSortedBy(List<JsonObject> rows, String... order) {
+        List<JsonObject> sorted = new ArrayList<>(rows);
+        sorted.sort(LocalStore.orderComparator(Arrays.asList(order)));
+        List<String> ids = new ArrayList<>();
+        for (JsonObject row : sorted) {
+            ids.add(row.get("id").getAsString());
+        }
+        return ids;
+    }
+
+    @Test
+    public void orderComparator_sortsLikeTheServerQuery() {
+        List<JsonObject> rows = Arrays.asList(
+                row("a", "2024-01-01T00:00:00+00:00", 2),
+                row("b", "2024-03-01T00:00:00+00:00", 1),
+                row("c", "2024-02-01T00:00:00+00:00", 1));
+
+        assertEquals(Arrays.asList("b", "c", "a"), idsSortedBy(rows, "created_at.desc"));
+        assertEquals(Arrays.asList("a", "c", "b"), idsSortedBy(rows, "created_at.asc"));
+        assertEquals(Arrays.asList("c", "b", "a"), idsSortedBy(rows, "rank.asc", "created_at.asc"));
+    }
+
+    @Test
+    public void orderComparator_comparesNumbersByValue() {
+        List<JsonObject> rows = Arrays.asList(row("ten", null, 10), row("nine", null, 9));
+        assertEquals(Arrays.asList("nine", "ten"), idsSortedBy(rows, "rank.asc"));
+    }
+
+    @Test
+    public void orderComparator_putsNullsLastAscendingAndFirstDescending() {
+        // A provisional row not yet stamped by the server, like Postgres' default NULLS placement
+        List<JsonObject> rows = Arrays.asList(
+                row("old", "2024-01-01T00:00:00+00:00", null),
+                row("pending", null, null),
+                row("new", "2024-02-01T00:00:00+00:00", null));
+
+        assertEquals(Arrays.asList("old", "new", "pending"), idsSortedBy(rows, "created_at.asc"));
+        assertEquals(Arrays.asList("pending", "new", "old"), idsSortedBy(rows, "created_at.desc"));
+    }
+
+    @Test
+    public void orderComparator_withoutTermsKeepsTheCurrentOrder() {
+        List<JsonObject> rows = Arrays.asList(row("x", "2024-02-01", 1), row("y", "2024-01-01", 0));
+        assertEquals(Arrays.asList("x", "y"), idsSortedBy(rows));
+        assertTrue(idsSortedBy(Collections.emptyList(), "created_at.desc").isEmpty());
+    }
+
+    // ================= MERGE RULES =================
+
+    private static JsonObject item(String id, String name) {
+        JsonObject row = new JsonObject();
+        if (id != null) row.addProperty("id", id);
+        row.addProperty("name", name);
+        return row;
+    }
+
+    private static List<String> namesOf(List<JsonObject> rows) {
+        List<String> names = new ArrayList<>();
+        for (JsonObject row : rows) {
+            names.add(row.get("name").getAsString());
+        }
+        return names;
+    }
+
+    @Test
+    public void mergeSnapshot_keepsProvisionalRowsOfQueuedInsertsAfterTheServerRows() {
+        Map<String, String> queued = new HashMap<>();
+        queued.put("pending-1", "INSERT");
+        queued.put("pending-2", "INSERT");
+        Map<String, JsonObject> provisional = new LinkedHashMap<>();
+        provisional.put("pending-1", item("pending-1", "new shirt"));
+        provisional.put("pending-2", item("pending-2", "new shoes"));
+
+        List<JsonObject> merged = LocalStore.mergeSnapshot(LocalStore.CLOTHING,
+                Arrays.asList(item("1", "jeans"), item("2", "coat")), queued, provisional);
+
+        assertEquals(Arrays.asList("jeans", "coat", "new shirt", "new shoes"), namesOf(merged));
+    }
+
+    @Test
+    public void mergeSnapshot_letsTheServerRowWinOverTheProvisionalOne() {
+        // A favorite keys on outfit_id, so the confirmed row has the provisional row's key
+        JsonObject provisionalRow = new JsonObject();
+        provisionalRow.addProperty("outfit_id", "7");
+        JsonObject serverRow = provisionalRow.deepCopy();
+        serverRow.addProperty("created_at", "2024-01-01T00:00:00+00:00");
+
+        List<JsonObject> merged = LocalStore.mergeSnapshot(LocalStore.USER_FAVORITES,
+                Collections.singletonList(serverRow),
+                Collections.singletonMap("7", "INSERT"),
+                Collections.singletonMap("7", provisionalRow));
+
+        assertEquals(Collections.singletonList(serverRow), merged);
+    }
+
+    @Test
+    public void mergeSnapshot_leavesOutRowsWithAQueuedDelete() {
+        Map<String, String> queued = new HashMap<>();
+        queued.put("2", "DELETE");
+        queued.put("3", "PATCH");
+
+        List<JsonObject> merged = LocalStore.mergeSnapshot(LocalStore.CLOTHING,
+                Arrays.asList(item("1", "jeans"), item("2", "coat"), item("3", "hat"), item(null, "no id")),
+                queued, Collections.emptyMap());
+
+        assertEquals(Arrays.asList("jeans", "hat"), namesOf(merged));
+    }
+
+    @Test
+    public void withoutQueuedDeletes_isTheDeltaFilterToo() {
+        List<JsonObject> kept = LocalStore.withoutQueuedDeletes(LocalStore.CLOTHING,
+                Arrays.asList(item("1", "jeans"), item("2", "coat")),
+                Collections.singletonMap("1", "DELETE"));
+        assertEquals(Collections.singletonList("coat"), namesOf(kept));
+    }
+
+    @Test
+    public void outlives_keepsRowsUpdatedAfterTheirTombstone() {
+        // An outfit assigned again after it was unassigned
+        assertTrue(LocalStore.outlives("2024-01-01T10:00:01+00:00", "2024-01-01T10:00:00+00:00"));
+        assertFalse(LocalStore.outlives("2024-01-01T10:00:00+00:00", "2024-01-01T10:00:00+00:00"));
+        assertFalse(LocalStore.outlives("2024-01-01T09:00:00+00:00", "2024-01-01T10:00:00+00:00"));
+        // Without timestamps the tombstone wins
+        assertFalse(LocalStore.outlives(null, "2024-01-01T10:00:00+00:00"));
+        assertFalse(LocalStore.outlives("2024-01-01T10:00:00+00:00", null));
+    }
+
+    @Test
+    public void outlives_comparesInstantsNotText() {
+        // 11:30+02:00 is 09:30 UTC - before the tombstone, although it sorts after it as text
+        assertFalse(LocalStore.outlives("2024-01-01T11:30:00+02:00", "2024-01-01T10:00:00+00:00"));
+    }
+
+    // ================= WATERMARKS =================
+
+    @Test
+    public void later_picksTheLaterTimestamp() {
+        assertEquals("2024-01-02T00:00:00+00:00", LocalStore.later("2024-01-01T00:00:00+00:00", "2024-01-02T00:00:00+00:00"));
+        assertEquals("2024-01-02T00:00:00+00:00", LocalStore.later("2024-01-02T00:00:00+00:00", "2024-01-01T00:00:00+00:00"));
+    }
+
+    @Test
+    public void later_treatsNullAsEarliest() {
+        assertEquals("2024-01-01T00:00:00+00:00", LocalStore.later(null, "2024-01-01T00:00:00+00:00"));
+        assertEquals("2024-01-01T00:00:00+00:00", LocalStore.later("2024-01-01T00:00:00+00:00", null));
+        assertNull(LocalStore.later(null, null));
+    }
+
+    @Test
+    public void later_handlesMixedPrecision() {
+        // As text "10:00:00Z" sorts after "10:00:00.1", as 'Z' comes after '.'
+        assertEquals("2024-01-01T10:00:00.1+00:00",
+                LocalStore.later("2024-01-01T10:00:00Z", "2024-01-01T10:00:00.1+00:00"));
+        assertEquals("2024-01-01T10:00:00.5+00:00",
+                LocalStore.later("2024-01-01T10:00:00.5+00:00", "2024-01-01T10:00:00.123456+00:00"));
+        assertEquals("2024-01-01T10:00:00.000001+00:00",
+                LocalStore.later("2024-01-01T10:00:00+00:00", "2024-01-01T10:00:00.000001+00:00"));
+    }
+
+    @Test
+    public void later_handlesMixedOffsetsAndSeparators() {
+        assertEquals("2024-01-01T10:00:00Z", LocalStore.later("2024-01-01T10:00:00Z", "2024-01-01T11:30:00+02:00"));
+        assertEquals("2024-01-01 10:00:01+00", LocalStore.later("2024-01-01T10:00:00+00:00", "2024-01-01 10:00:01+00"));
+    }
+
+    @Test
+    public void compareTimestamps_treatsEqualInstantsAsEqual() {
+        assertEquals(0, LocalStore.compareTimestamps("2024-01-01T10:00:00+00:00", "2024-01-01T12:00:00.000+02:00"));
+        assertEquals(0, LocalStore.compareTimestamps("2024-01-01T10:00:00Z", "2024-01-01T10:00:00"));
+    }
+
+    @Test
+    public void compareTimestamps_fallsBackToTextForOtherValues() {
+        assertTrue(LocalStore.compareTimestamps("apple", "banana") < 0);
+        assertTrue(LocalStore.compareTimestamps("2024-13-45T99:00:00+00:00", "2024-01-01T00:00:00+00:00") > 0);
+    }
+
+    @Test
+    public void orderComparator_ordersTimestampsByInstant() {
+        List<JsonObject> rows = Arrays.asList(
+                row("utc", "2024-01-01T10:00:00+00:00", null),
+                row("cest", "2024-01-01T11:30:00+02:00", null));
+        assertEquals(Arrays.asList("cest", "utc"), idsSortedBy(rows, "created_at.asc"));
+    }
+}
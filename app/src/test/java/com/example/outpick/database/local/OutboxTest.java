@@ -0,0 +1,149 @@
+package com.example.outpick.database.local;
+
+import com.example.outpick.database.supabase.PostgrestQuery;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class OutboxTest {
+
+    // Up to 20% jitter on top of the base delay
+    private static void assertBackoffBetween(long base, int attempts) {
+        for (int i = 0; i < 200; i++) {
+            long delay = Outbox.backoffMs(attempts);
+            assertTrue("attempt " + attempts + " waited " + delay + "ms", delay >= base && delay <= base + base / 5);
+        }
+    }
+
+    @Test
+    public void backoffMs_doublesFromTheBaseDelay() {
+        assertBackoffBetween(Outbox.BASE_BACKOFF_MS, 1);
+        assertBackoffBetween(Outbox.BASE_BACKOFF_MS * 2, 2);
+        assertBackoffBetween(Outbox.BASE_BACKOFF_MS * 4, 3);
+        assertBackoffBetween(Outbox.BASE_BACKOFF_MS * 8, 4);
+    }
+
+    @Test
+    public void backoffMs_isCappedAtTheMaximum() {
+        assertBackoffBetween(Outbox.MAX_BACKOFF_MS, 10);
+        assertBackoffBetween(Outbox.MAX_BACKOFF_MS, 30);
+        // Past the shift limit the delay must not overflow
+        assertBackoffBetween(Outbox.MAX_BACKOFF_MS, 1000);
+    }
+
+    @Test
+    public void backoffMs_jitters() {
+        long first = Outbox.backoffMs(5);
+        for (int i = 0; i < 100; i++) {
+            if (Outbox.backoffMs(5) != first) return;
+        }
+        fail("100 retries all waited exactly " + first + "ms");
+    }
+
+    // ================= COALESCING =================
+
+    private static final String ENTITY = "user_favorites/42/7";
+
+    private static JsonObject fields(String name, String value) {
+        JsonObject fields = new JsonObject();
+        fields.addProperty(name, value);
+        return fields;
+    }
+
+    private static Outbox.Op insert() {
+        return Outbox.Op.insert("user_favorites", fields("outfit_id", "7")).onEntity(ENTITY);
+    }
+
+    private static Outbox.Op patch(String id, String name, String value) {
+        return Outbox.Op.patch(PostgrestQuery.from("clothing").eq("id", id), fields(name, value)).onEntity(ENTITY);
+    }
+
+    private static Outbox.Op delete() {
+        return Outbox.Op.delete(PostgrestQuery.from("user_favorites").eq("outfit_id", "7")).onEntity(ENTITY);
+    }
+
+    @Test
+    public void coalesce_deleteCancelsOutWithAQueuedInsert() {
+        Outbox.Op insert = insert();
+        Outbox.Coalescing plan = Outbox.coalesce(delete(), Collections.singletonList(insert));
+
+        assertTrue(plan.cancelled);
+        assertEquals(Collections.singletonList(insert), plan.removed);
+        assertNull(plan.foldInto);
+    }
+
+    @Test
+    public void coalesce_deleteDropsThePatchesBeforeIt() {
+        Outbox.Op first = patch("1", "name", "a");
+        Outbox.Op second = patch("1", "name", "b");
+        Outbox.Coalescing plan = Outbox.coalesce(delete(), Arrays.asList(first, second));
+
+        // The delete itself still has to go out
+        assertFalse(plan.cancelled);
+        assertEquals(Arrays.asList(second, first), plan.removed);
+    }
+
+    @Test
+    public void coalesce_deleteCancelsAnInsertBehindPatches() {
+        Outbox.Op insert = insert();
+        Outbox.Op patch = patch("1", "name", "a");
+        Outbox.Coalescing plan = Outbox.coalesce(delete(), Arrays.asList(insert, patch));
+
+        assertTrue(plan.cancelled);
+        assertEquals(Arrays.asList(patch, insert), plan.removed);
+    }
+
+    @Test
+    public void coalesce_deleteAfterADeleteIsStored() {
+        Outbox.Coalescing plan = Outbox.coalesce(delete(), Collections.singletonList(delete()));
+        assertFalse(plan.cancelled);
+        assertTrue(plan.removed.isEmpty());
+        assertNull(plan.foldInto);
+    }
+
+    @Test
+    public void coalesce_patchFoldsIntoAQueuedInsert() {
+        Outbox.Op insert = insert();
+        Outbox.Coalescing plan = Outbox.coalesce(patch("1", "name", "a"), Collections.singletonList(insert));
+
+        assertSame(insert, plan.foldInto);
+        assertTrue(plan.removed.isEmpty());
+    }
+
+    @Test
+    public void coalesce_patchFoldsOnlyIntoAPatchOfTheSameRows() {
+        Outbox.Op same = patch("1", "name", "a");
+        assertSame(same, Outbox.coalesce(patch("1", "season", "Summer"), Collections.singletonList(same)).foldInto);
+
+        Outbox.Op other = patch("2", "name", "a");
+        assertNull(Outbox.coalesce(patch("1", "season", "Summer"), Collections.singletonList(other)).foldInto);
+    }
+
+    @Test
+    public void coalesce_withNothingUnsentStoresTheOp() {
+        for (Outbox.Op op : Arrays.asList(insert(), patch("1", "name", "a"), delete())) {
+            Outbox.Coalescing plan = Outbox.coalesce(op, Collections.emptyList());
+            assertFalse(plan.cancelled);
+            assertTrue(plan.removed.isEmpty());
+            assertNull(plan.foldInto);
+        }
+    }
+
+    @Test
+    public void fold_mergesFieldsAndLaterValuesWin() {
+        Outbox.Op into = patch("1", "name", "old");
+        Outbox.Op later = patch("1", "name", "new");
+        later.body.getAsJsonObject().addProperty("season", "Summer");
+
+        Outbox.fold(later, into);
+
+        JsonObject body = into.body.getAsJsonObject();
+        assertEquals("new", body.get("name").getAsString());
+        assertEquals("Summer", body.get("season").getAsString());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.outpick.database.supabase;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BulkRequestsTest {
+
+    @Test
+    public void isRejectedForContent_splitsOnClientErrorsAboutTheRows() {
+        assertTrue(BulkRequests.isRejectedForContent(400));
+        assertTrue(BulkRequests.isRejectedForContent(403));
+        assertTrue(BulkRequests.isRejectedForContent(404));
+        assertTrue(BulkRequests.isRejectedForContent(409));
+        assertTrue(BulkRequests.isRejectedForContent(422));
+    }
+
+    @Test
+    public void isRejectedForContent_failsTheWholeChunkOtherwise() {
+        // Smaller chunks would fail exactly the same way
+        assertFalse(BulkRequests.isRejectedForContent(401));
+        assertFalse(BulkRequests.isRejectedForContent(408));
+        assertFalse(BulkRequests.isRejectedForContent(429));
+        assertFalse(BulkRequests.isRejectedForContent(500));
+        assertFalse(BulkRequests.isRejectedForContent(503));
+        assertFalse(BulkRequests.isRejectedForContent(302));
+    }
+}
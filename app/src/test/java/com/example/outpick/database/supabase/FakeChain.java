@@ -0,0 +1,101 @@
+package com.example.outpick.database.supabase;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/** Interceptor chain whose "network" is a function, for testing interceptors without a server. */
+class FakeChain implements Interceptor.Chain {
+
+    interface Server {
+        Response respond(Request request) throws IOException;
+    }
+
+    private final Request request;
+    private final Server server;
+    private Call call;
+
+    FakeChain(Request request, Server server) {
+        this.request = request;
+        this.server = server;
+    }
+
+    static Request get(String url) {
+        return new Request.Builder().url(url).build();
+    }
+
+    /** A response to {@code request} with a JSON body and the given headers (name, value, ...). */
+    static Response response(Request request, int code, String body, String... headers) {
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_2)
+                .code(code)
+                .message("")
+                .body(ResponseBody.create(body, MediaType.get("application/json")));
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Request request() {
+        return request;
+    }
+
+    @Override
+    public Response proceed(Request request) throws IOException {
+        return server.respond(request);
+    }
+
+    @Override
+    public Connection connection() {
+        return null;
+    }
+
+    /** A real but never executed call, so interceptors can cancel it. */
+    @Override
+    public synchronized Call call() {
+        if (call == null) call = new OkHttpClient().newCall(request);
+        return call;
+    }
+
+    @Override
+    public int connectTimeoutMillis() {
+        return 0;
+    }
+
+    @Override
+    public Interceptor.Chain withConnectTimeout(int timeout, TimeUnit unit) {
+        return this;
+    }
+
+    @Override
+    public int readTimeoutMillis() {
+        return 0;
+    }
+
+    @Override
+    public Interceptor.Chain withReadTimeout(int timeout, TimeUnit unit) {
+        return this;
+    }
+
+    @Override
+    public int writeTimeoutMillis() {
+        return 0;
+    }
+
+    @Override
+    public Interceptor.Chain withWriteTimeout(int timeout, TimeUnit unit) {
+        return this;
+    }
+}
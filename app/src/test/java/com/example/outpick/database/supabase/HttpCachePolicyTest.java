@@ -0,0 +1,140 @@
+package com.example.outpick.database.supabase;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.CacheControl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class HttpCachePolicyTest {
+
+    private static final String HOST = "https://example.supabase.co/";
+
+    private final List<String> cachedUrls = new ArrayList<>();
+    private final HttpCachePolicy policy = new HttpCachePolicy(() -> cachedUrls.iterator());
+
+    private Response intercept(Request request, int code, String... headers) throws IOException {
+        return policy.intercept(new FakeChain(request, r -> FakeChain.response(r, code, "[]", headers)));
+    }
+
+    private String cacheControlOf(String url, String... headers) throws IOException {
+        return intercept(FakeChain.get(HOST + url), 200, headers).header("Cache-Control");
+    }
+
+    private static Request write(String method, String url) {
+        return new Request.Builder()
+                .url(HOST + url)
+                .method(method, RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+    }
+
+    @Test
+    public void publicStorageObjects_areKeptForAWeek() throws IOException {
+        assertEquals("public, max-age=" + HttpCachePolicy.STORAGE_MAX_AGE_S,
+                cacheControlOf("storage/v1/object/public/clothing/42/shirt.png"));
+    }
+
+    @Test
+    public void catalogTables_areServedFromDiskBriefly() throws IOException {
+        assertEquals("max-age=" + HttpCachePolicy.CATALOG_MAX_AGE_S,
+                cacheControlOf("rest/v1/outfits?select=id,name"));
+    }
+
+    @Test
+    public void otherTables_areRevalidatedWhenTheyCanBe() throws IOException {
+        assertEquals("no-cache", cacheControlOf("rest/v1/clothing?user_id=eq.42", "ETag", "W/\"abc\""));
+        assertEquals("no-cache", cacheControlOf("rest/v1/clothing?user_id=eq.42",
+                "Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"));
+    }
+
+    @Test
+    public void otherTables_withoutAValidatorAreNotStored() throws IOException {
+        assertEquals("no-store", cacheControlOf("rest/v1/clothing?user_id=eq.42"));
+    }
+
+    @Test
+    public void serverCachingHeaders_areReplaced() throws IOException {
+        Response response = intercept(FakeChain.get(HOST + "rest/v1/outfits"), 200,
+                "Pragma", "no-cache", "Cache-Control", "private, no-store");
+        assertNull(response.header("Pragma"));
+        assertEquals("max-age=" + HttpCachePolicy.CATALOG_MAX_AGE_S, response.header("Cache-Control"));
+    }
+
+    @Test
+    public void rangedReads_areNeverStored() throws IOException {
+        Request ranged = FakeChain.get(HOST + "rest/v1/outfits").newBuilder()
+                .header("Range-Unit", "items")
+                .header("Range", "0-49")
+                .build();
+        assertEquals("no-store", intercept(ranged, 200, "ETag", "\"abc\"").header("Cache-Control"));
+        // A partial answer to an unranged request isn't a whole resource either
+        assertEquals("no-store", intercept(FakeChain.get(HOST + "rest/v1/outfits"), 206).header("Cache-Control"));
+    }
+
+    @Test
+    public void rangedReadBypass_forcesTheNetworkOnlyForRangedReads() throws IOException {
+        Request ranged = FakeChain.get(HOST + "rest/v1/clothing").newBuilder().header("Range", "0-49").build();
+        List<Request> sent = new ArrayList<>();
+        FakeChain.Server server = r -> {
+            sent.add(r);
+            return FakeChain.response(r, 200, "[]");
+        };
+
+        HttpCachePolicy.rangedReadBypass().intercept(new FakeChain(ranged, server));
+        HttpCachePolicy.rangedReadBypass().intercept(new FakeChain(FakeChain.get(HOST + "rest/v1/clothing"), server));
+
+        assertEquals(CacheControl.FORCE_NETWORK.toString(), sent.get(0).cacheControl().toString());
+        assertNull(sent.get(1).header("Cache-Control"));
+    }
+
+    @Test
+    public void failedReads_areLeftAlone() throws IOException {
+        Response response = intercept(FakeChain.get(HOST + "rest/v1/outfits"), 500, "Cache-Control", "no-store");
+        assertEquals("no-store", response.header("Cache-Control"));
+    }
+
+    @Test
+    public void successfulWrite_evictsEveryCachedReadOfThatTable() throws IOException {
+        cachedUrls.addAll(Arrays.asList(
+                HOST + "rest/v1/outfits?select=id",
+                HOST + "rest/v1/outfits?id=eq.7",
+                HOST + "rest/v1/clothing?user_id=eq.42",
+                HOST + "rest/v1/outfits_archive?select=id"));
+
+        intercept(write("PATCH", "rest/v1/outfits?id=eq.7"), 200);
+
+        assertEquals(Arrays.asList(
+                HOST + "rest/v1/clothing?user_id=eq.42",
+                HOST + "rest/v1/outfits_archive?select=id"), cachedUrls);
+    }
+
+    @Test
+    public void successfulUpload_evictsThePublicCopyOfThatObject() throws IOException {
+        cachedUrls.addAll(Arrays.asList(
+                HOST + "storage/v1/object/public/clothing/42/shirt.png",
+                HOST + "storage/v1/object/public/clothing/42/pants.png"));
+
+        intercept(write("PUT", "storage/v1/object/clothing/42/shirt.png"), 200);
+
+        assertEquals(Arrays.asList(HOST + "storage/v1/object/public/clothing/42/pants.png"), cachedUrls);
+    }
+
+    @Test
+    public void failedWritesAndCounts_evictNothing() throws IOException {
+        cachedUrls.add(HOST + "rest/v1/outfits?select=id");
+
+        intercept(write("DELETE", "rest/v1/outfits?id=eq.7"), 409);
+        intercept(new Request.Builder().url(HOST + "rest/v1/outfits?select=id").head().build(), 200);
+
+        assertEquals(1, cachedUrls.size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.outpick.database.supabase;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMean());
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 20; value++) {
+            histogram.record(value);
+        }
+        assertEquals(20, histogram.getCount());
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(19, histogram.getValueAtPercentile(95));
+        assertEquals(20, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void percentilesOfLargeValuesAreWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertWithin(50_000, histogram.getValueAtPercentile(50));
+        assertWithin(90_000, histogram.getValueAtPercentile(90));
+        assertWithin(99_000, histogram.getValueAtPercentile(99));
+        // Never above the largest value recorded
+        assertEquals(100_000, histogram.getValueAtPercentile(100));
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000, histogram.getMean());
+    }
+
+    @Test
+    public void percentileIsTheBucketsUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.record(1_000_000);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 1_000);
+        assertWithin(1_000, p50);
+    }
+
+    @Test
+    public void negativeValuesAreIgnoredAndHugeOnesClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getCount());
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1, histogram.getCount());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void resetForgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(123);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    // 16 sub-buckets per power of two: about 6% relative error
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected * 0.0625);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.outpick.database.supabase;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PostgrestQueryTest {
+
+    @Test
+    public void toUrl_compilesSelectFiltersOrderAndPaging() {
+        String url = PostgrestQuery.from("clothing")
+                .select("id", "name")
+                .eq("user_id", "42")
+                .order("created_at", false)
+                .limit(50)
+                .offset(100)
+                .toUrl();
+        assertEquals("clothing?select=id,name&user_id=eq.42&order=created_at.desc&limit=50&offset=100", url);
+    }
+
+    @Test
+    public void toUrl_withoutParametersIsJustTheTable() {
+        assertEquals("outfits", PostgrestQuery.from("outfits").toUrl());
+    }
+
+    @Test
+    public void toUrl_encodesValuesWithPercentTwentyForSpaces() {
+        assertEquals("clothing?closet_name=eq.My%20Closet",
+                PostgrestQuery.from("clothing").eq("closet_name", "My Closet").toUrl());
+    }
+
+    @Test
+    public void eqIfPresent_skipsBlankValues() {
+        assertEquals("clothing", PostgrestQuery.from("clothing")
+                .eqIfPresent("season", null)
+                .eqIfPresent("occasion", "  ")
+                .toUrl());
+    }
+
+    @Test
+    public void in_quotesAndEscapesValues() {
+        String url = PostgrestQuery.from("clothing")
+                .in("id", Arrays.asList("a,b", "say \"hi\"", "back\\slash"))
+                .toUrl();
+        // "a,b","say \"hi\"","back\\slash"
+        assertEquals("clothing?id=in.(%22a%2Cb%22,%22say%20%5C%22hi%5C%22%22,%22back%5C%5Cslash%22)", url);
+    }
+
+    @Test
+    public void overlaps_sendsQuotedArrayLiteral() {
+        assertEquals("outfits?event_tags=ov.%7B%22party%22%2C%22work%22%7D",
+                PostgrestQuery.from("outfits").overlaps("event_tags", Arrays.asList("party", "work")).toUrl());
+    }
+
+    @Test
+    public void alsoSelect_onlyExtendsExplicitProjections() {
+        assertEquals("clothing?select=id,updated_at",
+                PostgrestQuery.from("clothing").select("id").alsoSelect("updated_at").toUrl());
+        assertEquals("clothing", PostgrestQuery.from("clothing").alsoSelect("updated_at").toUrl());
+    }
+
+    @Test
+    public void range_goesInHeadersNotTheUrl() {
+        PostgrestQuery query = PostgrestQuery.from("clothing").range(0, 49);
+        assertEquals("clothing", query.toUrl());
+        assertEquals("0-49", query.headers().get("Range"));
+        assertEquals("items", query.headers().get("Range-Unit"));
+    }
+
+    @Test
+    public void totalOf_readsTheTotalFromContentRange() {
+        assertEquals(3573, PostgrestQuery.totalOf("0-24/3573"));
+        assertEquals(42, PostgrestQuery.totalOf("*/42"));
+        assertEquals(0, PostgrestQuery.totalOf("*/0"));
+    }
+
+    @Test
+    public void totalOf_isMinusOneWithoutACount() {
+        assertEquals(-1, PostgrestQuery.totalOf(null));
+        assertEquals(-1, PostgrestQuery.totalOf("0-24/*"));
+        assertEquals(-1, PostgrestQuery.totalOf("garbage"));
+    }
+
+    @Test
+    public void errorCodeOf_readsThePostgresCode() {
+        assertEquals("23505", PostgrestQuery.errorCodeOf(
+                "{\"code\":\"23505\",\"message\":\"duplicate key value violates unique constraint\"}"));
+        assertNull(PostgrestQuery.errorCodeOf("{\"message\":\"no code\"}"));
+        assertNull(PostgrestQuery.errorCodeOf("not json"));
+        assertNull(PostgrestQuery.errorCodeOf((String) null));
+    }
+
+    @Test
+    public void in_skipsNullValues() {
+        assertEquals("clothing?id=in.(%22a%22)",
+                PostgrestQuery.from("clothing").in("id", Arrays.asList(null, "a")).toUrl());
+        assertEquals("clothing?id=in.()",
+                PostgrestQuery.from("clothing").in("id", Collections.emptyList()).toUrl());
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.outpick.database.supabase;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescerTest {
+
+    private static final String URL = "https://example.supabase.co/rest/v1/clothing?select=id&user_id=eq.42";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final RequestCoalescer coalescer = new RequestCoalescer(now::get, (task, delayMs) -> {
+        scheduled.add(task);
+        delays.add(delayMs);
+    });
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final FakeChain.Server server = request -> {
+        int call = calls.incrementAndGet();
+        return FakeChain.response(request, 200, "[{\"call\":" + call + "}]");
+    };
+
+    private String get(Request request) throws IOException {
+        return coalescer.intercept(new FakeChain(request, server)).body().string();
+    }
+
+    private String get(String url) throws IOException {
+        return get(FakeChain.get(url));
+    }
+
+    private void write(String method) throws IOException {
+        Request request = new Request.Builder()
+                .url(URL)
+                .method(method, RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+        coalescer.intercept(new FakeChain(request, server));
+    }
+
+    @Test
+    public void overlappingGets_shareOneCall() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeChain.Server slowServer = request -> {
+            calls.incrementAndGet();
+            leaderStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return FakeChain.response(request, 200, "[{\"id\":1}]");
+        };
+        AtomicReference<String> leaderBody = new AtomicReference<>();
+        AtomicReference<String> followerBody = new AtomicReference<>();
+
+        Thread leader = new Thread(() -> leaderBody.set(bodyOf(slowServer)));
+        leader.start();
+        leaderStarted.await();
+        Thread follower = new Thread(() -> followerBody.set(bodyOf(slowServer)));
+        follower.start();
+        // The follower is parked on the leader's flight, not on its own request
+        while (follower.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        assertEquals(1, calls.get());
+        assertEquals("[{\"id\":1}]", leaderBody.get());
+        assertEquals("[{\"id\":1}]", followerBody.get());
+    }
+
+    private String bodyOf(FakeChain.Server server) {
+        try {
+            return coalescer.intercept(new FakeChain(FakeChain.get(URL), server)).body().string();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void completedGet_isReusedWithinTheWindow() throws IOException {
+        assertEquals("[{\"call\":1}]", get(URL));
+        now.addAndGet(RequestCoalescer.REUSE_WINDOW_MS);
+        assertEquals("[{\"call\":1}]", get(URL));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void completedGet_isNotReusedAfterTheWindow() throws IOException {
+        get(URL);
+        now.addAndGet(RequestCoalescer.REUSE_WINDOW_MS + 1);
+        // Even before the eviction has run
+        assertEquals("[{\"call\":2}]", get(URL));
+    }
+
+    @Test
+    public void completedGet_isEvictedWhenTheWindowEnds() throws IOException {
+        get(URL);
+        assertEquals(1, coalescer.size());
+        assertEquals(1, scheduled.size());
+        assertEquals(RequestCoalescer.REUSE_WINDOW_MS, (long) delays.get(0));
+
+        scheduled.get(0).run();
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    public void staleEviction_leavesANewerFlightAlone() throws IOException {
+        get(URL);
+        now.addAndGet(RequestCoalescer.REUSE_WINDOW_MS + 1);
+        get(URL);
+
+        scheduled.get(0).run();
+        assertEquals(1, coalescer.size());
+        assertEquals("[{\"call\":2}]", get(URL));
+    }
+
+    @Test
+    public void failedGet_isNotReused() throws IOException {
+        FakeChain.Server failing = request -> {
+            calls.incrementAndGet();
+            return FakeChain.response(request, 503, "{}");
+        };
+        coalescer.intercept(new FakeChain(FakeChain.get(URL), failing));
+        assertEquals(0, coalescer.size());
+
+        assertEquals("[{\"call\":2}]", get(URL));
+    }
+
+    @Test
+    public void write_endsReuseOfEarlierReads() throws IOException {
+        get(URL);
+        write("PATCH");
+        assertEquals("[{\"call\":3}]", get(URL));
+
+        write("DELETE");
+        write("POST");
+        assertEquals("[{\"call\":6}]", get(URL));
+    }
+
+    @Test
+    public void head_isNeverShared() throws IOException {
+        Request head = new Request.Builder().url(URL).head().build();
+        coalescer.intercept(new FakeChain(head, server));
+        coalescer.intercept(new FakeChain(head, server));
+        assertEquals(2, calls.get());
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    public void key_includesPagingPreferAndAcceptHeaders() throws IOException {
+        get(URL);
+        get(FakeChain.get(URL).newBuilder().header("Range-Unit", "items").header("Range", "0-49").build());
+        get(FakeChain.get(URL).newBuilder().header("Range-Unit", "items").header("Range", "50-99").build());
+        get(FakeChain.get(URL).newBuilder().header("Prefer", "count=exact").build());
+        get(FakeChain.get(URL).newBuilder().header("Accept", "application/vnd.pgrst.object+json").build());
+        assertEquals(5, calls.get());
+
+        get(FakeChain.get(URL).newBuilder().header("Prefer", "count=exact").build());
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    public void key_includesTheQueryString() throws IOException {
+        get(URL);
+        get(URL + "&category=eq.Top");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void sharedResponses_eachGetTheirOwnBody() throws IOException {
+        Response first = coalescer.intercept(new FakeChain(FakeChain.get(URL), server));
+        Response second = coalescer.intercept(new FakeChain(FakeChain.get(URL), server));
+
+        assertNotSame(first.body(), second.body());
+        // Reading one body leaves the other intact
+        assertEquals("[{\"call\":1}]", first.body().string());
+        assertEquals("[{\"call\":1}]", second.body().string());
+        assertEquals("application/json; charset=utf-8", String.valueOf(second.body().contentType()));
+    }
+
+    @Test
+    public void sharedResponse_carriesTheCallersRequest() throws IOException {
+        coalescer.intercept(new FakeChain(FakeChain.get(URL), server));
+        Request mine = FakeChain.get(URL).newBuilder().tag(String.class, "mine").build();
+        Response shared = coalescer.intercept(new FakeChain(mine, server));
+        assertSame(mine, shared.request());
+    }
+}
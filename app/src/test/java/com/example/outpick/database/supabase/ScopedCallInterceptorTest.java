@@ -0,0 +1,114 @@
+package com.example.outpick.database.supabase;
+
+import com.example.outpick.utils.TaskScope;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+
+import static org.junit.Assert.*;
+
+public class ScopedCallInterceptorTest {
+
+    private static final String URL = "https://example.supabase.co/rest/v1/clothing";
+
+    private final ScopedCallInterceptor interceptor = new ScopedCallInterceptor();
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue("timed out", latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancellingTheScope_cancelsTheCallInFlight() throws Exception {
+        TaskScope scope = TaskScope.APP.child();
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        FakeChain blocking = new FakeChain(FakeChain.get(URL), request -> {
+            inFlight.countDown();
+            try {
+                await(cancelled);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return FakeChain.response(request, 200, "[]");
+        });
+        CountDownLatch done = new CountDownLatch(1);
+
+        scope.launch(() -> {
+            try {
+                interceptor.intercept(blocking);
+            } catch (IOException ignored) {
+            }
+            done.countDown();
+        });
+        await(inFlight);
+        scope.cancel();
+        assertTrue(blocking.call().isCanceled());
+        cancelled.countDown();
+
+        await(done);
+        assertFalse(interrupted.get());
+    }
+
+    @Test
+    public void callStartedAfterCancel_isCancelledBeforeItGoesOut() throws Exception {
+        TaskScope scope = TaskScope.APP.child();
+        AtomicReference<Call> call = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        scope.launch(() -> {
+            started.countDown();
+            try {
+                await(cancelled);
+                FakeChain chain = new FakeChain(FakeChain.get(URL), request -> FakeChain.response(request, 200, "[]"));
+                call.set(chain.call());
+                interceptor.intercept(chain);
+            } catch (Exception ignored) {
+            }
+            done.countDown();
+        });
+        await(started);
+        scope.cancel();
+        cancelled.countDown();
+
+        await(done);
+        assertTrue(call.get().isCanceled());
+    }
+
+    @Test
+    public void finishedCall_isForgottenByTheScope() throws Exception {
+        TaskScope scope = TaskScope.APP.child();
+        AtomicReference<Call> call = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        scope.launch(() -> {
+            FakeChain chain = new FakeChain(FakeChain.get(URL), request -> FakeChain.response(request, 200, "[]"));
+            call.set(chain.call());
+            try {
+                interceptor.intercept(chain);
+            } catch (IOException ignored) {
+            }
+            done.countDown();
+        });
+        await(done);
+        scope.cancel();
+
+        assertFalse(call.get().isCanceled());
+    }
+
+    @Test
+    public void callsOutsideScopedWork_areLeftAlone() throws IOException {
+        FakeChain chain = new FakeChain(FakeChain.get(URL), request -> FakeChain.response(request, 200, "[]"));
+        assertEquals(200, interceptor.intercept(chain).code());
+        assertFalse(chain.call().isCanceled());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.outpick.database.supabase;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class TagFilterTest {
+
+    private static JsonObject row(String season, String occasion) {
+        JsonObject row = new JsonObject();
+        row.addProperty("season", season);
+        row.addProperty("occasion", occasion);
+        return row;
+    }
+
+    @Test
+    public void normalize_splitsTrimsLowerCasesAndDeduplicates() {
+        assertEquals(Arrays.asList("casual", "party", "work"),
+                TagFilter.normalize("Casual, Party/ casual ;WORK"));
+        assertEquals(Collections.emptyList(), TagFilter.normalize((String) null));
+        assertEquals(Collections.emptyList(), TagFilter.normalize("  "));
+        assertEquals(Collections.emptyList(), TagFilter.normalize(" , ;/"));
+    }
+
+    @Test
+    public void normalize_collectionSkipsNullsAndBlanks() {
+        assertEquals(Arrays.asList("summer", "spring"),
+                TagFilter.normalize(Arrays.asList(" Summer", null, "", "SPRING", "summer")));
+    }
+
+    @Test
+    public void emptyFilterMatchesEverything() {
+        TagFilter filter = new TagFilter().anyOf("season", "").anyOf("occasion", (String) null);
+        assertTrue(filter.isEmpty());
+        assertTrue(filter.matches(row(null, null)));
+        assertTrue(filter.matches(row("Winter", "Formal")));
+    }
+
+    @Test
+    public void anyOf_needsOneTagPerField() {
+        TagFilter filter = new TagFilter()
+                .anyOf("season", "Summer, Spring")
+                .anyOf("occasion", "party");
+
+        assertTrue(filter.matches(row("summer", "Casual, Party")));
+        assertTrue(filter.matches(row("Spring/Autumn", "PARTY")));
+        assertFalse(filter.matches(row("Winter", "Party")));
+        assertFalse(filter.matches(row("Summer", "Casual")));
+        assertFalse(filter.matches(row(null, "Party")));
+    }
+
+    @Test
+    public void allOf_needsEveryTag() {
+        TagFilter filter = new TagFilter().allOf("occasion", Arrays.asList("Casual", "Work"));
+        assertTrue(filter.matches(row("Summer", "work, casual, party")));
+        assertFalse(filter.matches(row("Summer", "Casual")));
+    }
+
+    @Test
+    public void matches_prefersTheTagArrayColumn() {
+        JsonObject row = row("Summer", "Casual");
+        JsonArray tags = new JsonArray();
+        tags.add("winter");
+        row.add("season" + TagFilter.COLUMN_SUFFIX, tags);
+
+        assertTrue(new TagFilter().anyOf("season", "Winter").matches(row));
+        assertFalse(new TagFilter().anyOf("season", "Summer").matches(row));
+    }
+
+    @Test
+    public void applyTo_filtersTheTagArrays() {
+        PostgrestQuery query = PostgrestQuery.from("outfits");
+        new TagFilter()
+                .anyOf("event", "Party")
+                .allOf("style", Arrays.asList("Street", "Casual"))
+                .applyTo(query, "outfits.");
+        assertEquals("outfits?outfits.event_tags=ov.%7B%22party%22%7D"
+                + "&outfits.style_tags=cs.%7B%22street%22%2C%22casual%22%7D", query.toUrl());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.outpick.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SortedViewTest {
+
+    @Test
+    public void addAll_sortsTheFirstBatch() {
+        SortedView<Integer> view = new SortedView<>(Comparator.naturalOrder());
+        view.addAll(Arrays.asList(5, 1, 4));
+        assertEquals(Arrays.asList(1, 4, 5), view.asList());
+    }
+
+    @Test
+    public void addAll_appendsABatchThatSortsAfterEverything() {
+        SortedView<Integer> view = new SortedView<>(Comparator.naturalOrder());
+        view.addAll(Arrays.asList(1, 2, 3));
+        view.addAll(Arrays.asList(6, 4, 5));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), view.asList());
+    }
+
+    @Test
+    public void addAll_mergesInterleavedBatches() {
+        SortedView<Integer> view = new SortedView<>(Comparator.naturalOrder());
+        view.addAll(Arrays.asList(1, 5, 9));
+        view.addAll(Arrays.asList(10, 0, 6, 2));
+        assertEquals(Arrays.asList(0, 1, 2, 5, 6, 9, 10), view.asList());
+    }
+
+    @Test
+    public void addAll_keepsExistingItemsAheadOfEqualNewOnes() {
+        // Compare on the first letter only, so "a1" and "a2" are equal
+        SortedView<String> view = new SortedView<>(Comparator.comparing((String s) -> s.charAt(0)));
+        view.addAll(Arrays.asList("a1", "c1"));
+        view.addAll(Arrays.asList("b2", "a2", "c2"));
+        assertEquals(Arrays.asList("a1", "a2", "b2", "c1", "c2"), view.asList());
+    }
+
+    @Test
+    public void addAll_matchesAFullSort() {
+        Random random = new Random(42);
+        SortedView<Integer> view = new SortedView<>(Comparator.naturalOrder());
+        List<Integer> everything = new ArrayList<>();
+        for (int batch = 0; batch < 20; batch++) {
+            List<Integer> page = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(30); i++) {
+                page.add(random.nextInt(500));
+            }
+            view.addAll(page);
+            everything.addAll(page);
+        }
+        Collections.sort(everything);
+        assertEquals(everything, view.asList());
+    }
+
+    @Test
+    public void add_insertsAfterEqualItems() {
+        SortedView<String> view = new SortedView<>(Comparator.comparing((String s) -> s.charAt(0)));
+        view.addAll(Arrays.asList("a1", "b1", "c1"));
+        assertEquals(2, view.add("b2"));
+        assertEquals(Arrays.asList("a1", "b1", "b2", "c1"), view.asList());
+    }
+
+    @Test
+    public void filter_returnsItemsInOrder() {
+        SortedView<Integer> view = new SortedView<>(Comparator.naturalOrder());
+        view.addAll(Arrays.asList(7, 2, 9, 4));
+        assertEquals(Arrays.asList(2, 4), view.filter(value -> value % 2 == 0));
+    }
+
+    @Test
+    public void setComparator_resortsOnlyForANewOrder() {
+        Comparator<Integer> ascending = Comparator.naturalOrder();
+        SortedView<Integer> view = new SortedView<>(ascending);
+        view.addAll(Arrays.asList(3, 1, 2));
+        view.setComparator(ascending);
+        assertEquals(Arrays.asList(1, 2, 3), view.asList());
+        view.setComparator(Comparator.reverseOrder());
+        assertEquals(Arrays.asList(3, 2, 1), view.asList());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.outpick.utils;
+
+import com.example.outpick.database.supabase.TagFilter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TagIndexTest {
+
+    /** {name, season, style} */
+    private static final List<String[]> OUTFITS = Arrays.asList(
+            new String[]{"a", "Summer, Spring", "Casual"},
+            new String[]{"b", "Winter", "Formal, Casual"},
+            new String[]{"c", "summer", "Street"},
+            new String[]{"d", null, "Formal"});
+
+    private TagIndex<String[]> index;
+
+    @Before
+    public void setUp() {
+        index = new TagIndex<String[]>()
+                .field("season", outfit -> outfit[1])
+                .field("style", outfit -> outfit[2]);
+        index.addAll(OUTFITS);
+    }
+
+    private static BitSet bits(int... positions) {
+        BitSet bits = new BitSet();
+        for (int position : positions) bits.set(position);
+        return bits;
+    }
+
+    @Test
+    public void emptyFilterMatchesEverything() {
+        assertEquals(bits(0, 1, 2, 3), index.matching(new TagFilter()));
+    }
+
+    @Test
+    public void anyOf_orsWithinAField() {
+        assertEquals(bits(0, 1, 2), index.matching(new TagFilter().anyOf("season", "Summer, winter")));
+    }
+
+    @Test
+    public void anyOf_andsAcrossFields() {
+        assertEquals(bits(0), index.matching(new TagFilter()
+                .anyOf("season", "Summer")
+                .anyOf("style", "Casual")));
+    }
+
+    @Test
+    public void allOf_needsEveryTag() {
+        assertEquals(bits(1), index.matching(new TagFilter().allOf("style", Arrays.asList("casual", "FORMAL"))));
+        assertEquals(bits(), index.matching(new TagFilter().allOf("style", Arrays.asList("casual", "unknown"))));
+    }
+
+    @Test
+    public void unknownTagsAndFieldsMatchNothing() {
+        assertEquals(bits(), index.matching(new TagFilter().anyOf("season", "Monsoon")));
+        assertEquals(bits(), index.matching(new TagFilter().anyOf("colour", "Red")));
+    }
+
+    @Test
+    public void select_returnsMatchingItemsInInsertionOrder() {
+        TagFilter filter = new TagFilter().anyOf("style", "Formal, Street");
+        List<String[]> selected = index.select(filter);
+        assertEquals(3, selected.size());
+        assertSame(OUTFITS.get(1), selected.get(0));
+        assertSame(OUTFITS.get(2), selected.get(1));
+        assertSame(OUTFITS.get(3), selected.get(2));
+    }
+
+    @Test
+    public void fieldsMustBeDeclaredFirst() {
+        try {
+            index.field("occasion", outfit -> null);
+            fail("Adding a field after items should throw");
+        } catch (IllegalStateException expected) {
+            // Fields can't be backfilled for items already indexed
+        }
+    }
+
+    @Test
+    public void facetCounts_leaveTheFieldsOwnSelectionOut() {
+        // Picking Summer must not zero out the other seasons - they would widen the result
+        TagFilter filter = new TagFilter().anyOf("season", "Summer");
+        Map<String, Integer> seasons = index.facetCounts(filter, "season");
+        assertEquals(Arrays.asList("summer", "spring", "winter"), new ArrayList<>(seasons.keySet()));
+        assertEquals(Integer.valueOf(2), seasons.get("summer"));
+        assertEquals(Integer.valueOf(1), seasons.get("spring"));
+        assertEquals(Integer.valueOf(1), seasons.get("winter"));
+    }
+
+    @Test
+    public void facetCounts_applyTheOtherFieldsSelections() {
+        TagFilter filter = new TagFilter().anyOf("season", "Summer");
+        Map<String, Integer> styles = index.facetCounts(filter, "style");
+        assertEquals(Integer.valueOf(1), styles.get("casual"));
+        assertEquals(Integer.valueOf(1), styles.get("street"));
+        assertEquals(Integer.valueOf(0), styles.get("formal"));
+    }
+
+    @Test
+    public void facetCounts_ofAnUnknownFieldAreEmpty() {
+        assertTrue(index.facetCounts(new TagFilter(), "colour").isEmpty());
+    }
+
+    @Test
+    public void withoutAnyOf_dropsOnlyThatField() {
+        TagFilter filter = new TagFilter()
+                .anyOf("season", "Summer")
+                .anyOf("style", "Casual")
+                .allOf("season", Collections.singletonList("Spring"));
+        TagFilter base = filter.withoutAnyOf("season");
+
+        assertFalse(base.getAnyOf().containsKey("season"));
+        assertEquals(Collections.singletonList("casual"), base.getAnyOf().get("style"));
+        assertEquals(Collections.singletonList("spring"), base.getAllOf().get("season"));
+        // The original is untouched
+        assertTrue(filter.getAnyOf().containsKey("season"));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.outpick.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TaskScopeTest {
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue("timed out", latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void cancel_runsTheHooksOnce() {
+        TaskScope scope = TaskScope.APP.child();
+        AtomicInteger runs = new AtomicInteger();
+        assertTrue(scope.onCancel(runs::incrementAndGet));
+
+        scope.cancel();
+        scope.cancel();
+
+        assertEquals(1, runs.get());
+        assertFalse(scope.isActive());
+    }
+
+    @Test
+    public void removedHook_doesNotRun() {
+        TaskScope scope = TaskScope.APP.child();
+        AtomicInteger runs = new AtomicInteger();
+        Runnable hook = runs::incrementAndGet;
+        scope.onCancel(hook);
+        scope.removeOnCancel(hook);
+
+        scope.cancel();
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void onCancel_isRefusedOnceCancelled() {
+        TaskScope parent = TaskScope.APP.child();
+        TaskScope child = parent.child();
+        parent.cancel();
+
+        assertFalse(parent.onCancel(() -> fail("kept by a cancelled scope")));
+        assertFalse(child.onCancel(() -> fail("kept by a cancelled child")));
+    }
+
+    @Test
+    public void cancellingTheParent_runsTheChildsHooks() {
+        TaskScope parent = TaskScope.APP.child();
+        TaskScope child = parent.child();
+        AtomicBoolean ran = new AtomicBoolean();
+        child.onCancel(() -> ran.set(true));
+
+        parent.cancel();
+
+        assertTrue(ran.get());
+        assertFalse(child.isActive());
+    }
+
+    @Test
+    public void current_isTheScopeOfTheRunningWork() {
+        TaskScope scope = TaskScope.APP.child();
+        AtomicReference<TaskScope> seen = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        scope.launch(() -> {
+            seen.set(TaskScope.current());
+            done.countDown();
+        });
+
+        await(done);
+        assertSame(scope, seen.get());
+        assertNull(TaskScope.current());
+    }
+
+    @Test
+    public void cancel_doesNotInterruptRunningWork() throws Exception {
+        TaskScope scope = TaskScope.APP.child();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch hookRan = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        scope.launch(() -> {
+            TaskScope.current().onCancel(hookRan::countDown);
+            started.countDown();
+            await(cancelled);
+            interrupted.set(Thread.currentThread().isInterrupted());
+            finished.countDown();
+        });
+        await(started);
+        scope.cancel();
+        cancelled.countDown();
+
+        await(hookRan);
+        await(finished);
+        assertFalse(interrupted.get());
+    }
+
+    @Test
+    public void cancellingASupplyFuture_cancelsItsCallsButNotTheScope() {
+        TaskScope scope = TaskScope.APP.child();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch hookRan = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> future = scope.supply(() -> {
+            TaskScope.current().onCancel(hookRan::countDown);
+            started.countDown();
+            await(release);
+            return "done";
+        });
+        await(started);
+        future.cancel(false);
+
+        await(hookRan);
+        release.countDown();
+        assertTrue(scope.isActive());
+        try {
+            future.join();
+            fail("cancelled future completed");
+        } catch (CancellationException expected) {
+        }
+    }
+
+    @Test
+    public void supply_completesWithTheResult() {
+        TaskScope scope = TaskScope.APP.child();
+        assertEquals("rows", scope.supply(() -> "rows").join());
+    }
+}